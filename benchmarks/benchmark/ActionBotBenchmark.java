@@ -0,0 +1,44 @@
+package benchmark;
+
+import navigation.Navigator;
+import navigation.bots.ActionBot;
+import org.openjdk.jmh.annotations.*;
+import stats.StatsTracker;
+import stats.StatsTrackerFactory;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark measuring the overhead of the ActionBot on top of the driver: logging, steps, element descriptions
+ * and stats tracking. The driver is stubbed, so the results only contain the cost of the framework.
+ *
+ * @author Thibault Helsmoortel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ActionBotBenchmark {
+
+    private ActionBot actionBot;
+    private StubElement element;
+
+    @Setup
+    public void setUp() {
+        if (StatsTracker.getPlugins().isEmpty()) StatsTrackerFactory.createDefault();
+        element = new StubElement("button", "Submit");
+        Navigator.getInstance().setDriver(new StubDriver("http://localhost/", new StubElement("body", "")
+                .withDefaultChildren(Collections.singletonList(element))));
+        actionBot = new ActionBot();
+    }
+
+    @Benchmark
+    public void click() {
+        actionBot.click(element);
+    }
+
+    @Benchmark
+    public void sendKeys() {
+        actionBot.sendKeys(element, "benchmark");
+    }
+}
@@ -0,0 +1,48 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Class responsible for running the benchmarks.
+ * <p>
+ * Accepts the regular JMH command line options. By default, allocation rates are measured (GC profiler)
+ * and the results are stored as JSON in {@code target/jmh}, one file per run, so runs can be compared.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the JMH command line options
+     * @throws RunnerException            thrown when a benchmark failed
+     * @throws CommandLineOptionException thrown when the command line options are invalid
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+
+        if (commandLineOptions.getProfilers().isEmpty()) options.addProfiler(GCProfiler.class);
+        if (!commandLineOptions.getResult().hasValue()) {
+            File directory = new File("target", "jmh");
+            if (!directory.exists() && !directory.mkdirs()) throw new IllegalStateException("Couldn't create " + directory);
+            String timeStamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            options.resultFormat(ResultFormatType.JSON)
+                    .result(new File(directory, "jmh-result-" + timeStamp + ".json").getPath());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
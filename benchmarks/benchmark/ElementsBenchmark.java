@@ -0,0 +1,61 @@
+package benchmark;
+
+import elements.Select;
+import elements.Table;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark measuring the element wrappers: selecting options (including quote escaping) and table access.
+ *
+ * @author Thibault Helsmoortel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ElementsBenchmark {
+
+    private Select select;
+    private Table table;
+
+    @Setup
+    public void setUp() {
+        StubElement option = new StubElement("option", "Foo");
+        select = new Select(new StubElement("select", "").withDefaultChildren(Collections.singletonList(option)));
+
+        List<WebElement> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            List<WebElement> cells = new ArrayList<>();
+            for (int j = 0; j < 5; j++) cells.add(new StubElement("td", i + "," + j));
+            rows.add(new StubElement("tr", "").withChildren(By.tagName("td"), cells));
+        }
+        table = new Table(new StubElement("table", "")
+                .withChildren(By.cssSelector("tbody tr"), rows));
+    }
+
+    @Benchmark
+    public void selectByValue() {
+        select.selectByValue("foo");
+    }
+
+    @Benchmark
+    public void selectByValueWithQuotes() {
+        select.selectByValue("foo'\"bar\"");
+    }
+
+    @Benchmark
+    public WebElement getCellAtIndex() {
+        return table.getCellAtIndex(10, 3);
+    }
+
+    @Benchmark
+    public int getRowCount() {
+        return table.getRowCount();
+    }
+}
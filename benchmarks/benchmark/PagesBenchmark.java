@@ -0,0 +1,55 @@
+package benchmark;
+
+import navigation.Navigator;
+import org.openjdk.jmh.annotations.*;
+import pages.Page;
+import pages.Pages;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark measuring page lookups among a realistic amount of registered pages and checking the current page.
+ *
+ * @author Thibault Helsmoortel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PagesBenchmark {
+
+    @Param({"10", "100"})
+    public int pageCount;
+
+    private Page lastPage;
+
+    @Setup
+    public void setUp() {
+        Pages.deregisterAll();
+        for (int i = 0; i < pageCount; i++) {
+            lastPage = new Page("/page" + i) {
+            };
+            Pages.registerPage(lastPage);
+        }
+        Navigator.getInstance().setDriver(new StubDriver("http://localhost/app/page" + (pageCount - 1), new StubElement("body", "")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Pages.deregisterAll();
+    }
+
+    @Benchmark
+    public Page getPageByUrl() {
+        return Pages.getPage(lastPage.getUrl());
+    }
+
+    @Benchmark
+    public Page getPage() {
+        return Pages.getPage(lastPage);
+    }
+
+    @Benchmark
+    public boolean isAt() {
+        return lastPage.isAt();
+    }
+}
@@ -0,0 +1,37 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import stats.StatsAction;
+import stats.StatsSummary;
+import stats.StatsTracker;
+import stats.StatsTrackerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark measuring the cost of tracking actions and summarizing the stats of the default plugins.
+ *
+ * @author Thibault Helsmoortel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatsBenchmark {
+
+    @Setup
+    public void setUp() {
+        if (StatsTracker.getPlugins().isEmpty()) StatsTrackerFactory.createDefault();
+        for (StatsAction action : StatsAction.values()) StatsTracker.getInstance().track(action);
+        StatsTracker.getInstance().trackCommand("click", 1000000);
+    }
+
+    @Benchmark
+    public void track() {
+        StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+    }
+
+    @Benchmark
+    public String summarize() {
+        return StatsSummary.summarize(StatsTracker.getPlugins());
+    }
+}
@@ -0,0 +1,173 @@
+package benchmark;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.interactions.HasInputDevices;
+import org.openqa.selenium.interactions.Keyboard;
+import org.openqa.selenium.interactions.Mouse;
+import org.openqa.selenium.interactions.internal.Coordinates;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-process WebDriver stub answering every command straight away, so benchmarks only measure the framework.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class StubDriver implements WebDriver, JavascriptExecutor, TakesScreenshot, HasInputDevices {
+
+    private final WebElement body;
+    private String currentUrl;
+
+    /**
+     * Class constructor specifying the current url and the element containing all other elements.
+     *
+     * @param currentUrl the url the driver is located at
+     * @param body       the element containing all other elements
+     */
+    public StubDriver(String currentUrl, WebElement body) {
+        this.currentUrl = currentUrl;
+        this.body = body;
+    }
+
+    @Override
+    public void get(String url) {
+        this.currentUrl = url;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Stub";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return body.findElements(by);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return body.findElement(by);
+    }
+
+    @Override
+    public String getPageSource() {
+        return "<html><body></body></html>";
+    }
+
+    @Override
+    public void close() {
+        //Nothing to close
+    }
+
+    @Override
+    public void quit() {
+        //Nothing to quit
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Collections.singleton(getWindowHandle());
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return "stub";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException("Switching isn't stubbed.");
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException("Navigation isn't stubbed.");
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException("Options aren't stubbed.");
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        return "complete";
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return null;
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return target.convertFromPngBytes(new byte[0]);
+    }
+
+    @Override
+    public Keyboard getKeyboard() {
+        return new Keyboard() {
+            @Override
+            public void sendKeys(CharSequence... keysToSend) {
+                //Keys are ignored
+            }
+
+            @Override
+            public void pressKey(CharSequence keyToPress) {
+                //Keys are ignored
+            }
+
+            @Override
+            public void releaseKey(CharSequence keyToRelease) {
+                //Keys are ignored
+            }
+        };
+    }
+
+    @Override
+    public Mouse getMouse() {
+        return new Mouse() {
+            @Override
+            public void click(Coordinates where) {
+                //Clicks are ignored
+            }
+
+            @Override
+            public void doubleClick(Coordinates where) {
+                //Clicks are ignored
+            }
+
+            @Override
+            public void mouseDown(Coordinates where) {
+                //Clicks are ignored
+            }
+
+            @Override
+            public void mouseUp(Coordinates where) {
+                //Clicks are ignored
+            }
+
+            @Override
+            public void mouseMove(Coordinates where) {
+                //Moves are ignored
+            }
+
+            @Override
+            public void mouseMove(Coordinates where, long xOffset, long yOffset) {
+                //Moves are ignored
+            }
+
+            @Override
+            public void contextClick(Coordinates where) {
+                //Clicks are ignored
+            }
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package benchmark;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.interactions.internal.Coordinates;
+import org.openqa.selenium.internal.Locatable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process WebElement stub, so benchmarks only measure the framework.
+ * Nested elements are returned per locator, elements found with any other locator are the default children.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class StubElement implements WebElement, Locatable {
+
+    private static final Point ORIGIN = new Point(0, 0);
+
+    private final String tagName;
+    private final String text;
+    private final Map<String, String> attributes;
+    private final Map<By, List<WebElement>> children;
+    private List<WebElement> defaultChildren;
+    private boolean selected;
+
+    /**
+     * Class constructor specifying the tag name and text.
+     *
+     * @param tagName the tag name of the element
+     * @param text    the text of the element
+     */
+    public StubElement(String tagName, String text) {
+        this.tagName = tagName;
+        this.text = text;
+        this.attributes = new HashMap<>();
+        this.children = new HashMap<>();
+        this.defaultChildren = Collections.emptyList();
+    }
+
+    /**
+     * Sets an attribute of the element.
+     *
+     * @param name  the name of the attribute
+     * @param value the value of the attribute
+     * @return this element
+     */
+    public StubElement withAttribute(String name, String value) {
+        attributes.put(name, value);
+        return this;
+    }
+
+    /**
+     * Sets the elements found with a given locator.
+     *
+     * @param by       the locator
+     * @param elements the elements found with the locator
+     * @return this element
+     */
+    public StubElement withChildren(By by, List<WebElement> elements) {
+        children.put(by, elements);
+        return this;
+    }
+
+    /**
+     * Sets the elements found with locators without specific children.
+     *
+     * @param elements the elements found
+     * @return this element
+     */
+    public StubElement withDefaultChildren(List<WebElement> elements) {
+        this.defaultChildren = elements;
+        return this;
+    }
+
+    @Override
+    public void click() {
+        selected = !selected;
+    }
+
+    @Override
+    public void submit() {
+        //Nothing to submit
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        //Keys are ignored
+    }
+
+    @Override
+    public void clear() {
+        //Nothing to clear
+    }
+
+    @Override
+    public String getTagName() {
+        return tagName;
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public boolean isSelected() {
+        return selected;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return children.getOrDefault(by, defaultChildren);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        List<WebElement> elements = findElements(by);
+        if (elements.isEmpty()) throw new NoSuchElementException("No element found with " + by);
+        return elements.get(0);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return true;
+    }
+
+    @Override
+    public Point getLocation() {
+        return ORIGIN;
+    }
+
+    @Override
+    public Dimension getSize() {
+        return new Dimension(100, 20);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return new Rectangle(ORIGIN, getSize());
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return target.convertFromPngBytes(new byte[0]);
+    }
+
+    @Override
+    public Coordinates getCoordinates() {
+        return new Coordinates() {
+            @Override
+            public Point onScreen() {
+                return ORIGIN;
+            }
+
+            @Override
+            public Point inViewPort() {
+                return ORIGIN;
+            }
+
+            @Override
+            public Point onPage() {
+                return ORIGIN;
+            }
+
+            @Override
+            public Object getAuxiliary() {
+                return StubElement.this;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "<" + tagName + ">";
+    }
+}
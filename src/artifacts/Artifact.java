@@ -0,0 +1,65 @@
+package artifacts;
+
+/**
+ * Class representing an artifact collected when a test fails, such as a screenshot or logs.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class Artifact {
+
+    private final String name;
+    private final String type;
+    private final String extension;
+    private final byte[] content;
+
+    /**
+     * Class constructor specifying name, mime type, file extension and content.
+     *
+     * @param name      the name of the artifact
+     * @param type      the mime type of the artifact
+     * @param extension the file extension of the artifact (without dot)
+     * @param content   the content of the artifact
+     */
+    public Artifact(String name, String type, String extension, byte[] content) {
+        this.name = name;
+        this.type = type;
+        this.extension = extension;
+        this.content = content;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * Returns true if the artifact benefits from compression, false if otherwise.
+     * Only textual artifacts are compressed, images are already compressed.
+     *
+     * @return true if the artifact benefits from compression, false if otherwise
+     */
+    public boolean isCompressible() {
+        return type.startsWith("text/") || type.endsWith("json") || type.endsWith("xml");
+    }
+
+    /**
+     * Returns a String representation of this artifact.
+     *
+     * @return a String representation of this artifact
+     */
+    @Override
+    public String toString() {
+        return name + "." + extension + " (" + content.length + " bytes)";
+    }
+}
@@ -0,0 +1,274 @@
+package artifacts;
+
+import org.apache.log4j.Logger;
+import reporting.AllureEvents;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Singleton class responsible for collecting the artifacts of failed tests.
+ * <p>
+ * Artifacts are contributed by the registered {@link ArtifactContributor}s. Contributors querying the browser
+ * are run in parallel when enabled through {@link #setParallelDriverAccess(boolean)} for drivers that allow it,
+ * the others run on the thread of the failed test.
+ * The collected artifacts are attached to the report straight away, writing them to the {@link ArtifactStore}
+ * is done on a bounded executor. When the executor is saturated, the failing thread writes its artifacts itself,
+ * so a burst of failures can never pile up unbounded amounts of artifacts in memory.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ArtifactCollector {
+    private static final ArtifactCollector artifactCollectorInstance = new ArtifactCollector();
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactCollector.class);
+
+    private static final int BROWSER_THREADS = 4;
+    private static final int WRITER_THREADS = 2;
+    private static final int WRITER_QUEUE_SIZE = 16;
+    private static final long DEFAULT_DRIVER_TIMEOUT = 10000;
+    private static final long SHUTDOWN_TIMEOUT = 30000;
+
+    private final List<ArtifactContributor> contributors;
+    private final ExecutorService browserExecutor;
+    private final ThreadPoolExecutor writerExecutor;
+    private final Queue<Future<?>> pendingWrites;
+
+    //Most drivers don't support concurrent commands on a single session
+    private volatile boolean parallelDriverAccess = false;
+    private volatile long driverTimeout = DEFAULT_DRIVER_TIMEOUT;
+
+    /**
+     * Class constructor. Publicly unavailable.
+     */
+    private ArtifactCollector() {
+        contributors = new CopyOnWriteArrayList<>();
+        browserExecutor = Executors.newFixedThreadPool(BROWSER_THREADS, daemonThreadFactory("artifact-browser"));
+        writerExecutor = new ThreadPoolExecutor(WRITER_THREADS, WRITER_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(WRITER_QUEUE_SIZE), daemonThreadFactory("artifact-writer"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pendingWrites = new ConcurrentLinkedQueue<>();
+
+        //Artifacts still being written when the JVM exits would otherwise be lost
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            writerExecutor.shutdown();
+            try {
+                writerExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "artifact-writer-shutdown"));
+    }
+
+    /**
+     * Returns a thread factory creating daemon threads with a given name prefix.
+     *
+     * @param prefix the prefix of the thread names
+     * @return the thread factory
+     */
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Registers a contributor.
+     *
+     * @param contributor the contributor to register
+     */
+    public void registerContributor(ArtifactContributor contributor) {
+        if (contributors.contains(contributor)) throw new IllegalArgumentException("Contributor was already added.");
+        else {
+            LOGGER.debug("Registering contributor: " + contributor.getClass().getSimpleName());
+            contributors.add(contributor);
+        }
+    }
+
+    /**
+     * Deregisters a contributor.
+     *
+     * @param contributor the contributor to deregister
+     */
+    public void deregisterContributor(ArtifactContributor contributor) {
+        if (!contributors.contains(contributor)) throw new IllegalArgumentException("Contributor wasn't previously registered.");
+        else {
+            LOGGER.debug("Deregistering contributor: " + contributor.getClass().getSimpleName());
+            contributors.remove(contributor);
+        }
+    }
+
+    /**
+     * Returns an immutable list of the currently registered contributors.
+     *
+     * @return a list of the currently registered contributors
+     */
+    public List<ArtifactContributor> getContributors() {
+        return new ArrayList<>(contributors);
+    }
+
+    /**
+     * Collects the artifacts of a failed test, attaches them to the report and writes them to the store
+     * located in a destination package.
+     * Must be called from the thread the test ran on.
+     *
+     * @param context     the context of the failed test
+     * @param packagePath the artifacts destination package path
+     * @return the collected artifacts
+     */
+    public List<Artifact> collect(FailureContext context, String packagePath) {
+        LOGGER.debug("Collecting artifacts for " + context.getTestName());
+        List<Artifact> artifacts = new ArrayList<>();
+        List<ArtifactContributor> driverContributors = new ArrayList<>();
+
+        for (ArtifactContributor contributor : contributors) {
+            if (contributor.requiresDriver()) {
+                if (context.getDriver() != null) driverContributors.add(contributor);
+            } else addArtifact(artifacts, runContributor(contributor, context));
+        }
+
+        if (parallelDriverAccess && driverContributors.size() > 1) {
+            collectInParallel(driverContributors, context, artifacts);
+        } else {
+            driverContributors.forEach(contributor -> addArtifact(artifacts, runContributor(contributor, context)));
+        }
+
+        ArtifactStore store = ArtifactStore.getInstance(Paths.get(packagePath));
+        for (Artifact artifact : artifacts) {
+            AllureEvents.attach(artifact.getContent(), context.getTestName() + "_" + artifact.getName() + "." + artifact.getExtension(), artifact.getType());
+            pendingWrites.add(writerExecutor.submit(() -> write(store, artifact, context)));
+        }
+        pendingWrites.removeIf(Future::isDone);
+
+        LOGGER.debug("Collected " + artifacts.size() + " artifacts for " + context.getTestName());
+        return artifacts;
+    }
+
+    /**
+     * Runs the driver contributors in parallel, waiting at most the driver timeout for all of them.
+     *
+     * @param driverContributors the contributors querying the browser
+     * @param context            the context of the failed test
+     * @param artifacts          the list to add the collected artifacts to
+     */
+    private void collectInParallel(List<ArtifactContributor> driverContributors, FailureContext context, List<Artifact> artifacts) {
+        List<Future<Artifact>> futures = new ArrayList<>();
+        driverContributors.forEach(contributor -> futures.add(browserExecutor.submit(() -> runContributor(contributor, context))));
+
+        long deadline = System.currentTimeMillis() + driverTimeout;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<Artifact> future = futures.get(i);
+            try {
+                addArtifact(artifacts, future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                LOGGER.error(driverContributors.get(i).getClass().getSimpleName() + " timed out collecting its artifact.");
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                LOGGER.error("Something went wrong collecting an artifact: " + e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs a contributor, logging and ignoring its failure: one broken contributor shouldn't cost the other artifacts.
+     *
+     * @param contributor the contributor to run
+     * @param context     the context of the failed test
+     * @return the contributed artifact, null if nothing was contributed
+     */
+    private Artifact runContributor(ArtifactContributor contributor, FailureContext context) {
+        try {
+            return contributor.collect(context);
+        } catch (Exception e) {
+            LOGGER.error(contributor.getClass().getSimpleName() + " couldn't collect its artifact: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void addArtifact(List<Artifact> artifacts, Artifact artifact) {
+        if (artifact != null) artifacts.add(artifact);
+    }
+
+    /**
+     * Writes an artifact to the store, logging and ignoring failures.
+     *
+     * @param store    the store to write to
+     * @param artifact the artifact to write
+     * @param context  the context of the failed test
+     */
+    private void write(ArtifactStore store, Artifact artifact, FailureContext context) {
+        try {
+            StoredArtifact stored = store.store(artifact, context.getTestCase());
+            LOGGER.debug("Artifact stored: " + stored.getPath());
+        } catch (IOException e) {
+            LOGGER.error("Something went wrong storing " + artifact + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for the artifacts collected so far to be written.
+     *
+     * @param timeout  the maximum time to wait
+     * @param timeUnit the unit of the timeout
+     * @return true if all artifacts were written, false if the timeout elapsed first
+     * @throws InterruptedException thrown when the waiting thread got interrupted
+     */
+    public boolean awaitWrites(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        Future<?> future;
+        while ((future = pendingWrites.peek()) != null) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                //Failures are logged by the write itself
+            } catch (TimeoutException e) {
+                return false;
+            }
+            pendingWrites.remove(future);
+        }
+        return true;
+    }
+
+    public boolean isParallelDriverAccess() {
+        return parallelDriverAccess;
+    }
+
+    /**
+     * Sets whether or not the browser may be queried by multiple contributors at once. Disabled by default,
+     * only enable for drivers that handle concurrent commands.
+     *
+     * @param parallelDriverAccess boolean value indicating whether or not to query the browser in parallel
+     */
+    public void setParallelDriverAccess(boolean parallelDriverAccess) {
+        this.parallelDriverAccess = parallelDriverAccess;
+    }
+
+    public long getDriverTimeout() {
+        return driverTimeout;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds to wait for the browser artifacts collected in parallel.
+     *
+     * @param driverTimeout the timeout in milliseconds
+     */
+    public void setDriverTimeout(long driverTimeout) {
+        if (driverTimeout <= 0) throw new IllegalArgumentException("Driver timeout should be positive.");
+        this.driverTimeout = driverTimeout;
+    }
+
+    public static ArtifactCollector getInstance() {
+        return artifactCollectorInstance;
+    }
+}
@@ -0,0 +1,35 @@
+package artifacts;
+
+import artifacts.defaultContributors.*;
+import org.apache.log4j.Logger;
+
+/**
+ * Factory responsible for creating the ArtifactCollector.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ArtifactCollectorFactory {
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactCollectorFactory.class);
+
+    /**
+     * Creates and returns a default ArtifactCollector
+     *
+     * @return the newly created default ArtifactCollector
+     */
+    public static ArtifactCollector createDefault() {
+        LOGGER.debug("Creating default ArtifactCollector");
+
+        ArtifactCollector artifactCollector = ArtifactCollector.getInstance();
+
+        LOGGER.debug("Registering default contributors");
+        //Register default contributors
+        artifactCollector.registerContributor(new ScreenshotContributor());
+        artifactCollector.registerContributor(new LogsContributor());
+        artifactCollector.registerContributor(new DomContributor());
+        artifactCollector.registerContributor(new ConsoleLogsContributor());
+        artifactCollector.registerContributor(new CookiesContributor());
+
+        return artifactCollector;
+    }
+}
@@ -0,0 +1,27 @@
+package artifacts;
+
+/**
+ * Interface defining means to contribute an artifact when a test fails.
+ *
+ * @author Thibault Helsmoortel
+ */
+public interface ArtifactContributor {
+
+    /**
+     * Returns true if the contributor queries the browser, false if otherwise.
+     * Contributors querying the browser may be run in parallel to each other,
+     * the others are run on the thread of the failed test.
+     *
+     * @return true if the contributor queries the browser, false if otherwise
+     */
+    boolean requiresDriver();
+
+    /**
+     * Collects the artifact for a failed test.
+     *
+     * @param context the context of the failed test
+     * @return the collected artifact, null if there is nothing to contribute
+     * @throws Exception when the artifact couldn't be collected
+     */
+    Artifact collect(FailureContext context) throws Exception;
+}
@@ -0,0 +1,248 @@
+package artifacts;
+
+import org.apache.log4j.Logger;
+import reporting.cases.Case;
+import util.HashUtil;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.*;
+
+/**
+ * Content-addressed store for test artifacts.
+ * <p>
+ * Artifacts are written under the SHA-256 hash of their content, so identical artifacts (e.g. the same
+ * screenshot of an error page for several failed tests) are only stored once. Textual artifacts are deflated,
+ * others (like images) are already compressed and stored as is. Every write goes to a temporary file first
+ * and gets atomically moved into place, parallel writes of the same content can never produce a corrupt file.
+ * <p>
+ * The store keeps an index mapping each {@link Case}, by its id, to its artifacts, persisted in an append-only
+ * index file, and can export all indexed artifacts as a zip file without loading them into memory. Cases get the
+ * stored files attached, deflated ones are only inflated when read (see {@link #openAttachment(File)}).
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ArtifactStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactStore.class);
+
+    private static final Map<Path, ArtifactStore> stores = new ConcurrentHashMap<>();
+
+    private static final String OBJECTS_DIRECTORY = "objects";
+    private static final String INDEX_FILE = "index.tsv";
+    private static final String COMPRESSED_SUFFIX = ".deflate";
+    private static final String UNASSIGNED = "unassigned";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path root;
+    private final Path objects;
+    //Artifacts and titles of the cases by case id
+    private final Map<String, List<StoredArtifact>> index;
+    private final Map<String, String> titles;
+
+    /**
+     * Class constructor specifying the root directory. Publicly unavailable, see {@link #getInstance(Path)}.
+     *
+     * @param root the root directory of the store
+     */
+    private ArtifactStore(Path root) {
+        this.root = root;
+        this.objects = root.resolve(OBJECTS_DIRECTORY);
+        this.index = new LinkedHashMap<>();
+        this.titles = new HashMap<>();
+    }
+
+    /**
+     * Returns the store located in a given root directory.
+     *
+     * @param root the root directory of the store
+     * @return the store located in the root directory
+     */
+    public static ArtifactStore getInstance(Path root) {
+        return stores.computeIfAbsent(root.toAbsolutePath().normalize(), ArtifactStore::new);
+    }
+
+    /**
+     * Stores an artifact that doesn't belong to a case.
+     *
+     * @param artifact the artifact to store
+     * @return the stored artifact
+     * @throws IOException thrown when the artifact couldn't be written
+     */
+    public StoredArtifact store(Artifact artifact) throws IOException {
+        return store(artifact, null);
+    }
+
+    /**
+     * Stores an artifact and indexes it for a case.
+     * The stored file is added to the attachments of the case, deflated or not.
+     *
+     * @param artifact the artifact to store
+     * @param c        the case the artifact belongs to, may be null
+     * @return the stored artifact
+     * @throws IOException thrown when the artifact couldn't be written
+     */
+    public StoredArtifact store(Artifact artifact, Case c) throws IOException {
+        String hash = HashUtil.sha256(artifact.getContent());
+        boolean compressed = artifact.isCompressible();
+        Path target = objects.resolve(hash.substring(0, 2))
+                .resolve(hash + "." + artifact.getExtension() + (compressed ? COMPRESSED_SUFFIX : ""));
+
+        if (Files.exists(target)) LOGGER.debug("Artifact " + artifact + " already stored, skipping write");
+        else write(artifact, target, compressed);
+
+        StoredArtifact stored = new StoredArtifact(artifact.getName(), artifact.getType(), artifact.getExtension(),
+                hash, target, compressed, artifact.getContent().length);
+        index(stored, c);
+        if (c != null) c.addAttachment(target.toFile());
+        return stored;
+    }
+
+    /**
+     * Writes the artifact content to a temporary file and moves it into place atomically.
+     *
+     * @param artifact   the artifact to write
+     * @param target     the location of the artifact in the store
+     * @param compressed boolean value indicating whether or not to deflate the content
+     * @throws IOException thrown when the artifact couldn't be written
+     */
+    private void write(Artifact artifact, Path target, boolean compressed) throws IOException {
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = compressed
+                    ? new DeflaterOutputStream(Files.newOutputStream(temp), new Deflater(Deflater.BEST_SPEED), BUFFER_SIZE)
+                    : Files.newOutputStream(temp)) {
+                out.write(artifact.getContent());
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                //Another thread stored the same content in the meantime
+                LOGGER.debug("Artifact " + artifact + " was stored concurrently");
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Adds a stored artifact to the index of a case, in memory and in the index file.
+     *
+     * @param stored the stored artifact
+     * @param c      the case the artifact belongs to, may be null
+     * @throws IOException thrown when the index file couldn't be written
+     */
+    private synchronized void index(StoredArtifact stored, Case c) throws IOException {
+        String id = c == null ? UNASSIGNED : c.getId();
+        String title = c == null ? UNASSIGNED : c.getTitle();
+        index.computeIfAbsent(id, key -> new ArrayList<>()).add(stored);
+        titles.put(id, title);
+
+        Files.createDirectories(root);
+        try (BufferedWriter writer = Files.newBufferedWriter(root.resolve(INDEX_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(id + "\t" + title.replace('\t', ' ') + "\t" + stored.getName() + "." + stored.getExtension() + "\t"
+                    + stored.getType() + "\t" + root.relativize(stored.getPath()).toString().replace('\\', '/'));
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Returns the artifacts stored for a case.
+     *
+     * @param c the case
+     * @return the artifacts stored for the case
+     */
+    public synchronized List<StoredArtifact> getArtifacts(Case c) {
+        List<StoredArtifact> artifacts = index.get(c.getId());
+        return artifacts == null ? new ArrayList<>() : new ArrayList<>(artifacts);
+    }
+
+    /**
+     * Opens a stream reading the (decompressed) content of a stored artifact.
+     *
+     * @param stored the stored artifact
+     * @return a stream reading the artifact content
+     * @throws IOException thrown when the artifact couldn't be opened
+     */
+    public InputStream open(StoredArtifact stored) throws IOException {
+        InputStream in = Files.newInputStream(stored.getPath());
+        return stored.isCompressed() ? new InflaterInputStream(in, new Inflater(), BUFFER_SIZE) : in;
+    }
+
+    /**
+     * Opens a stream reading the (decompressed) content of an attachment added to a case by a store.
+     *
+     * @param attachment the attachment
+     * @return a stream reading the attachment content
+     * @throws IOException thrown when the attachment couldn't be opened
+     */
+    public static InputStream openAttachment(File attachment) throws IOException {
+        InputStream in = Files.newInputStream(attachment.toPath());
+        return attachment.getName().endsWith(COMPRESSED_SUFFIX) ? new InflaterInputStream(in, new Inflater(), BUFFER_SIZE) : in;
+    }
+
+    /**
+     * Exports all indexed artifacts to a zip file, grouped per case.
+     * The artifacts are streamed into the zip file one by one.
+     *
+     * @param zipFile the zip file to export to
+     * @throws IOException thrown when the artifacts couldn't be exported
+     */
+    public void exportZip(Path zipFile) throws IOException {
+        Map<String, List<StoredArtifact>> snapshot = new LinkedHashMap<>();
+        synchronized (this) {
+            //Cases sharing a title get a directory each
+            Set<String> directories = new HashSet<>();
+            index.forEach((id, artifacts) -> {
+                String directory = toFileName(titles.get(id));
+                String unique = directory;
+                for (int i = 2; !directories.add(unique); i++) unique = directory + "_" + i;
+                snapshot.put(unique, new ArrayList<>(artifacts));
+            });
+        }
+
+        LOGGER.debug("Exporting artifacts to " + zipFile);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            for (Map.Entry<String, List<StoredArtifact>> entry : snapshot.entrySet()) {
+                Set<String> entryNames = new HashSet<>();
+                for (StoredArtifact stored : entry.getValue()) {
+                    String entryName = entry.getKey() + "/" + stored.getName();
+                    //Several artifacts of a case may share a name
+                    String uniqueName = entryName;
+                    for (int i = 1; !entryNames.add(uniqueName); i++) uniqueName = entryName + "_" + i;
+
+                    zip.putNextEntry(new ZipEntry(uniqueName + "." + stored.getExtension()));
+                    try (InputStream in = open(stored)) {
+                        int read;
+                        while ((read = in.read(buffer)) != -1) zip.write(buffer, 0, read);
+                    }
+                    zip.closeEntry();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the characters that aren't allowed in file names.
+     *
+     * @param name the name
+     * @return the name, usable as a file name
+     */
+    private static String toFileName(String name) {
+        return name.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+    public Path getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,68 @@
+package artifacts;
+
+import org.openqa.selenium.WebDriver;
+import reporting.cases.Case;
+
+/**
+ * Class holding the state of a failed test, captured on the thread the test ran on.
+ * Artifact contributors may run on other threads and should only rely on this context.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class FailureContext {
+
+    private final String testName;
+    private final Throwable failure;
+    private final WebDriver driver;
+    private final long logOffset;
+    private final Case testCase;
+
+    /**
+     * Class constructor specifying test name, failure, driver and log file offset.
+     *
+     * @param testName  the name of the failed test
+     * @param failure   the failure of the test
+     * @param driver    the driver the test used, if any
+     * @param logOffset the log file offset at which the test started
+     */
+    public FailureContext(String testName, Throwable failure, WebDriver driver, long logOffset) {
+        this(testName, failure, driver, logOffset, null);
+    }
+
+    /**
+     * Class constructor specifying test name, failure, driver, log file offset and the case the artifacts belong to.
+     *
+     * @param testName  the name of the failed test
+     * @param failure   the failure of the test
+     * @param driver    the driver the test used, if any
+     * @param logOffset the log file offset at which the test started
+     * @param testCase  the reporting case of the test, if any
+     */
+    public FailureContext(String testName, Throwable failure, WebDriver driver, long logOffset, Case testCase) {
+        this.testName = testName;
+        this.failure = failure;
+        this.driver = driver;
+        this.logOffset = logOffset;
+        this.testCase = testCase;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public long getLogOffset() {
+        return logOffset;
+    }
+
+    public Case getTestCase() {
+        return testCase;
+    }
+}
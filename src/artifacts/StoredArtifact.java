@@ -0,0 +1,78 @@
+package artifacts;
+
+import java.nio.file.Path;
+
+/**
+ * Class representing an artifact kept in the {@link ArtifactStore}.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class StoredArtifact {
+
+    private final String name;
+    private final String type;
+    private final String extension;
+    private final String hash;
+    private final Path path;
+    private final boolean compressed;
+    private final long size;
+
+    /**
+     * Class constructor specifying the artifact details and its location in the store.
+     *
+     * @param name       the name of the artifact
+     * @param type       the mime type of the artifact
+     * @param extension  the file extension of the artifact (without dot)
+     * @param hash       the SHA-256 hash of the artifact content
+     * @param path       the location of the artifact in the store
+     * @param compressed boolean value indicating whether or not the stored content is deflated
+     * @param size       the uncompressed size of the artifact
+     */
+    public StoredArtifact(String name, String type, String extension, String hash, Path path, boolean compressed, long size) {
+        this.name = name;
+        this.type = type;
+        this.extension = extension;
+        this.hash = hash;
+        this.path = path;
+        this.compressed = compressed;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns a String representation of this stored artifact.
+     *
+     * @return a String representation of this stored artifact
+     */
+    @Override
+    public String toString() {
+        return name + "." + extension + " (" + hash + ")";
+    }
+}
@@ -0,0 +1,33 @@
+package artifacts.defaultContributors;
+
+import artifacts.Artifact;
+import artifacts.ArtifactContributor;
+import artifacts.FailureContext;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ArtifactContributor capturing the browser console logs.
+ * Requires the driver to support the browser log type.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class ConsoleLogsContributor implements ArtifactContributor {
+
+    @Override
+    public boolean requiresDriver() {
+        return true;
+    }
+
+    @Override
+    public Artifact collect(FailureContext context) {
+        if (context.getDriver() == null) return null;
+        StringBuilder sb = new StringBuilder();
+        for (LogEntry entry : context.getDriver().manage().logs().get(LogType.BROWSER)) {
+            sb.append(entry.toString()).append("\n");
+        }
+        return new Artifact("console", "text/plain", "log", sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package artifacts.defaultContributors;
+
+import artifacts.Artifact;
+import artifacts.ArtifactContributor;
+import artifacts.FailureContext;
+import org.openqa.selenium.Cookie;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ArtifactContributor capturing the cookies of the current session.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class CookiesContributor implements ArtifactContributor {
+
+    @Override
+    public boolean requiresDriver() {
+        return true;
+    }
+
+    @Override
+    public Artifact collect(FailureContext context) {
+        if (context.getDriver() == null) return null;
+        StringBuilder sb = new StringBuilder();
+        for (Cookie cookie : context.getDriver().manage().getCookies()) {
+            sb.append(cookie.toString()).append("\n");
+        }
+        return new Artifact("cookies", "text/plain", "txt", sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
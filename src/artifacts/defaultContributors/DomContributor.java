@@ -0,0 +1,28 @@
+package artifacts.defaultContributors;
+
+import artifacts.Artifact;
+import artifacts.ArtifactContributor;
+import artifacts.FailureContext;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ArtifactContributor capturing the DOM of the current page.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class DomContributor implements ArtifactContributor {
+
+    @Override
+    public boolean requiresDriver() {
+        return true;
+    }
+
+    @Override
+    public Artifact collect(FailureContext context) {
+        if (context.getDriver() == null) return null;
+        String source = context.getDriver().getPageSource();
+        if (source == null) return null;
+        return new Artifact("dom", "text/html", "html", source.getBytes(StandardCharsets.UTF_8));
+    }
+}
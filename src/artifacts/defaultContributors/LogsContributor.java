@@ -0,0 +1,58 @@
+package artifacts.defaultContributors;
+
+import artifacts.Artifact;
+import artifacts.ArtifactContributor;
+import artifacts.FailureContext;
+import logging.TestLogBufferAppender;
+import util.LogUtil;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.File;
+
+/**
+ * ArtifactContributor capturing the log output of the failed test.
+ * Uses the logs buffered by the {@link TestLogBufferAppender} if any, the log file slice written
+ * since the test started if none.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class LogsContributor implements ArtifactContributor {
+
+    //Upper bound of the log file slice kept in memory
+    private static final int MAX_SLICE = 4 * 1024 * 1024;
+
+    @Override
+    public boolean requiresDriver() {
+        return false;
+    }
+
+    @Override
+    public Artifact collect(FailureContext context) throws IOException {
+        byte[] logs;
+        if (TestLogBufferAppender.isCapturing()) logs = TestLogBufferAppender.getCapturedLogs();
+        else logs = readSlice(context.getLogOffset());
+        return new Artifact("logs", "text/plain", "log", logs);
+    }
+
+    /**
+     * Reads the log file from the given offset, keeping at most the last part of it.
+     *
+     * @param offset the offset from which to read
+     * @return the log file contents from the given offset
+     * @throws IOException when the log file couldn't be read
+     */
+    private byte[] readSlice(long offset) throws IOException {
+        LogUtil.flushLogFile();
+        File logFile = LogUtil.getLogFile();
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "r")) {
+            long size = file.length();
+            long start = offset <= size ? offset : 0;
+            start = Math.max(start, size - MAX_SLICE);
+            byte[] slice = new byte[(int) (size - start)];
+            file.seek(start);
+            file.readFully(slice);
+            return slice;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package artifacts.defaultContributors;
+
+import artifacts.Artifact;
+import artifacts.ArtifactContributor;
+import artifacts.FailureContext;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+
+/**
+ * ArtifactContributor capturing a screenshot of the browser.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class ScreenshotContributor implements ArtifactContributor {
+
+    @Override
+    public boolean requiresDriver() {
+        return true;
+    }
+
+    @Override
+    public Artifact collect(FailureContext context) {
+        if (!(context.getDriver() instanceof TakesScreenshot)) return null;
+        byte[] screenshot = ((TakesScreenshot) context.getDriver()).getScreenshotAs(OutputType.BYTES);
+        return new Artifact("screenshot", "image/png", "png", screenshot);
+    }
+}
@@ -1,65 +1,118 @@
 package commands;
 
+import logging.TestLogBufferAppender;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
+import reporting.AllureEvents;
+import reporting.StreamedAttachmentEvent;
 import ru.yandex.qatools.allure.annotations.Attachment;
+import util.LogUtil;
 import util.TimeStampUtil;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
- * Command responsible for taking screenshots
+ * Command responsible for capturing logs.
+ * <p>
+ * When the log output of the current thread is being captured by the {@link TestLogBufferAppender},
+ * only those buffered log events are captured. Otherwise, the part of the log file written from a given
+ * offset onwards is captured, which allows capturing the logs of a single test (see {@link LogUtil#getLogFileOffset()}).
+ *
+ * @author Thibault Helsmoortel
  */
 public class CaptureLogsCommand implements Command {
 
     private static final Logger LOGGER = Logger.getLogger(CaptureLogsCommand.class);
 
+    private static final String LOG_TYPE = "text/plain";
+
     private String packageName;
     private String name;
+    private long fromOffset;
 
     /**
      * Class constructor specifying the name of the logs to capture.
+     * The complete log file will be captured.
      *
      * @param packageName the name of the destination package
      * @param name        the name of the logs to capture
      */
     public CaptureLogsCommand(String packageName, String name) {
+        this(packageName, name, 0);
+    }
+
+    /**
+     * Class constructor specifying the name of the logs to capture and the log file offset to capture from.
+     *
+     * @param packageName the name of the destination package
+     * @param name        the name of the logs to capture
+     * @param fromOffset  the log file offset from which to capture
+     */
+    public CaptureLogsCommand(String packageName, String name, long fromOffset) {
         this.packageName = packageName;
         this.name = name;
+        this.fromOffset = fromOffset;
     }
 
     @Override
     public Object execute() {
         LOGGER.debug("Initiating log capture...");
 
-        File scrFile = new File("all.log");
         String fileName;
         fileName = name + "_" + TimeStampUtil.getTimeStamp() + ".log";
         File targetFile = new File(packageName + fileName);
         boolean success = true;
+        boolean buffered = TestLogBufferAppender.isCapturing();
+        byte[] bufferedLogs = null;
         try {
-            LOGGER.debug("Copying log file to target destination...");
-            FileUtils.copyFile(scrFile, targetFile);
+            if (buffered) {
+                LOGGER.debug("Writing buffered logs to target destination...");
+                bufferedLogs = TestLogBufferAppender.getCapturedLogs();
+                FileUtils.writeByteArrayToFile(targetFile, bufferedLogs);
+            } else {
+                LOGGER.debug("Copying log slice to target destination...");
+                LogUtil.flushLogFile();
+                copySlice(LogUtil.getLogFile(), targetFile);
+            }
         } catch (IOException e) {
             e.printStackTrace();
             success = false;
         }
 
         if (success) {
-            //Take the byte logs for the attachment
-            try {
-                takeLogs(fileName, targetFile);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            //The buffered logs are bounded and already in memory, the log slice gets streamed into the attachment
+            if (buffered) AllureEvents.attach(bufferedLogs, fileName, LOG_TYPE);
+            else AllureEvents.fire(new StreamedAttachmentEvent(fileName, targetFile, LOG_TYPE));
             LOGGER.debug("Logs successfully captured.");
         } else LOGGER.error("Something went wrong capturing the logs.");
         return targetFile;
     }
 
+    /**
+     * Copies the log file from the offset onwards to a target file.
+     * When the log file is smaller than the offset (it was recreated), it is copied completely.
+     *
+     * @param logFile    the log file
+     * @param targetFile the file to copy to
+     * @throws IOException thrown when the file couldn't be copied
+     */
+    private void copySlice(File logFile, File targetFile) throws IOException {
+        File parent = targetFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) throw new IOException("Couldn't create " + parent);
+        try (FileChannel in = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(targetFile.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = fromOffset <= size ? fromOffset : 0;
+            while (position < size) position += in.transferTo(position, size - position, out);
+        }
+    }
+
     /**
      * Takes the logs and returns a byte array of it.
      * Gets attached to a test case in Allure
@@ -68,9 +121,13 @@ public class CaptureLogsCommand implements Command {
      * @param logFile the actual log file
      * @return the byte array of the log file
      * @throws IOException thrown when the file couldn't be read
+     * @deprecated buffers the complete file in memory, the logs are now streamed into the attachment
      */
+    @Deprecated
     @Attachment("{0}")
     public byte[] takeLogs(String name, File logFile) throws IOException {
-        return IOUtils.toByteArray(new FileInputStream(logFile));
+        try (FileInputStream in = new FileInputStream(logFile)) {
+            return IOUtils.toByteArray(in);
+        }
     }
 }
@@ -0,0 +1,79 @@
+package commands;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import reporting.flightrecorder.FlightRecord;
+import reporting.flightrecorder.FlightRecorder;
+import ru.yandex.qatools.allure.annotations.Attachment;
+import util.TimeStampUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command responsible for dumping the screenshots kept by the flight recorder.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class DumpFlightRecorderCommand implements Command {
+
+    private static final Logger LOGGER = Logger.getLogger(DumpFlightRecorderCommand.class);
+
+    //Maximum time to wait for a capture that is still in flight
+    private static final long CAPTURE_TIMEOUT = 2000;
+
+    private String packageName;
+    private String name;
+
+    /**
+     * Class constructor specifying the name of the dump.
+     *
+     * @param packagePath the name of the destination package
+     * @param name        the name of the dump
+     */
+    public DumpFlightRecorderCommand(String packagePath, String name) {
+        this.packageName = packagePath;
+        this.name = name;
+    }
+
+    @Override
+    public Object execute() {
+        LOGGER.debug("Dumping flight recorder...");
+
+        FlightRecorder.getInstance().awaitCapture(CAPTURE_TIMEOUT);
+        List<FlightRecord> records = FlightRecorder.getInstance().drain();
+        List<File> files = new ArrayList<>();
+        String timeStamp = TimeStampUtil.getTimeStamp();
+        for (int i = 0; i < records.size(); i++) {
+            FlightRecord record = records.get(i);
+            String fileName = name + "_" + timeStamp + "_" + (i + 1) + ".png";
+            //Take the byte screenshot for the attachment
+            attachRecord((i + 1) + ". " + record.toString(), record.getScreenshot());
+            File targetFile = new File(packageName + fileName);
+            try {
+                FileUtils.writeByteArrayToFile(targetFile, record.getScreenshot());
+                files.add(targetFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        LOGGER.debug("Flight recorder dumped " + files.size() + " of " + records.size() + " screenshots.");
+        return files;
+    }
+
+    /**
+     * Returns the byte array of a recorded screenshot.
+     * Gets attached to a test case in Allure.
+     *
+     * @param name       the name of the recorded screenshot
+     * @param screenshot the recorded screenshot
+     * @return the byte array of the recorded screenshot
+     */
+    @Attachment(value = "{0}", type = "image/png")
+    public byte[] attachRecord(String name, byte[] screenshot) {
+        return screenshot;
+    }
+}
@@ -1,16 +1,27 @@
 package commands;
 
+import artifacts.ArtifactCollectorFactory;
+import navigation.DriverBinaryManager;
 import navigation.Navigator;
 import navigation.bots.ActionBot;
 import navigation.bots.WaiterBot;
-import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
 import stats.StatsTrackerFactory;
 
-import java.net.URL;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class responsible for initialization of the framework.
+ * <p>
+ * The initialization consists of a few cheap phases (silencing noisy loggers, creating the default StatsTracker
+ * and ArtifactCollector and installing the default bots), run on the calling thread as the StatsTracker and the Navigator may be bound
+ * to it. Resolving the driver binaries is the expensive part, it is left to the {@link DriverBinaryManager} when
+ * a browser driver is created, so tests that never start a browser don't pay for it.
+ * Each phase is timed, the timings are logged and returned by {@link #execute()}.
+ * Initialization is thread safe and only happens once, concurrent callers wait for the first one to finish.
  *
  * @author Thibault Helsmoortel
  */
@@ -18,74 +29,125 @@ public class InitFrameworkCommand implements Command {
 
     private static final Logger LOGGER = Logger.getLogger(InitFrameworkCommand.class);
 
-    private static boolean isInitialised = false;
+    //Loggers producing noisy debug logs
+    private static final String[] NOISY_LOGGERS = {
+            "org.apache.http",
+            "org.apache.http.wire",
+            "org.apache.http.headers",
+            "org.apache.http.impl.conn.PoolingHttpClientConnectionManager",
+            "org.apache.http.impl.conn.DefaultHttpClientConnectionOperator",
+            "org.apache.http.impl.conn.DefaultManagedHttpClientConnection",
+            "org.apache.http.impl.execchain.MainClientExec",
+            "org.apache.http.client.protocol.RequestAddCookies",
+            "org.apache.http.client.protocol.RequestAuthCache",
+            "org.apache.commons.beanutils.converters.BooleanConverter",
+            "org.apache.commons.beanutils.converters.ByteConverter",
+            "org.apache.commons.beanutils.converters.CharacterConverter",
+            "org.apache.commons.beanutils.converters.DoubleConverter",
+            "org.apache.commons.beanutils.converters.FloatConverter",
+            "org.apache.commons.beanutils.converters.IntegerConverter",
+            "org.apache.commons.beanutils.converters.BigIntegerConverter",
+            "org.apache.commons.beanutils.converters.ShortConverter",
+            "org.apache.commons.beanutils.converters.BigDecimalConverter",
+            "org.apache.commons.beanutils.converters.LongConverter",
+            "org.apache.commons.beanutils.converters.StringConverter",
+            "org.apache.commons.beanutils.converters.ArrayConverter"
+    };
 
+    private static final Object lock = new Object();
+
+    private static volatile boolean isInitialised = false;
+
+    //Phase timings in milliseconds of the initialization, in order of definition
+    private static Map<String, Long> phaseTimings = Collections.emptyMap();
+
+    //Phases that completed, these aren't rerun when a previous initialization failed, guarded by the lock
+    private static final Set<String> completedPhases = new HashSet<>();
+
+    /**
+     * Initialises the framework if it wasn't initialised yet.
+     *
+     * @return an unmodifiable map of the phase names to the time in milliseconds they took
+     */
     @Override
     public Object execute() {
-        if (!isInitialised) {
+        if (isInitialised) {
+            LOGGER.debug("The framework was already initialised.");
+            return phaseTimings;
+        }
+        synchronized (lock) {
+            if (isInitialised) {
+                LOGGER.debug("The framework was already initialised.");
+                return phaseTimings;
+            }
+
             LOGGER.debug("Initialising the framework...");
+            long start = System.nanoTime();
 
-            URL chromeDriverURL;
-            URL geckoDriverURL;
-
-            LOGGER.debug("Initialising OS dependant files... [" + System.getProperty("os.name") + "]");
-            if (System.getProperty("os.name").toLowerCase().contains("windows")) {
-                chromeDriverURL = Thread.currentThread().getContextClassLoader().getResource("win/chromedriver.exe");
-                geckoDriverURL = Thread.currentThread().getContextClassLoader().getResource("win/geckodriver.exe");
-            } else if (System.getProperty("os.name").toLowerCase().contains("mac")) {
-                chromeDriverURL = Thread.currentThread().getContextClassLoader().getResource("mac/chromedriver");
-                geckoDriverURL = Thread.currentThread().getContextClassLoader().getResource("mac/geckodriver");
-            } else {
-                chromeDriverURL = Thread.currentThread().getContextClassLoader().getResource("linux/chromedriver");
-                geckoDriverURL = Thread.currentThread().getContextClassLoader().getResource("linux/geckodriver");
-            }
+            Map<String, Runnable> phases = new LinkedHashMap<>();
+            phases.put("Loggers", this::silenceNoise);
+            phases.put("StatsTracker", StatsTrackerFactory::createDefault);
+            phases.put("ArtifactCollector", ArtifactCollectorFactory::createDefault);
+            phases.put("Bots", this::installBots);
 
-            assert chromeDriverURL != null;
-            System.setProperty("webdriver.chrome.driver", chromeDriverURL.getPath());
-            assert geckoDriverURL != null;
-            System.setProperty("webdriver.gecko.driver", geckoDriverURL.getPath());
-
-            LOGGER.debug("Silencing noise...");
-            //Remove noisy debug logs
-            Logger.getLogger("org.apache.http").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.wire").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.headers").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.impl.conn.PoolingHttpClientConnectionManager").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.impl.conn.DefaultHttpClientConnectionOperator").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.impl.conn.DefaultManagedHttpClientConnection").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.impl.execchain.MainClientExec").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.client.protocol.RequestAddCookies").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.http.client.protocol.RequestAuthCache").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.BooleanConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.ByteConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.CharacterConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.DoubleConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.FloatConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.IntegerConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.BigIntegerConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.ShortConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.BigDecimalConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.LongConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.StringConverter").setLevel(Level.WARN);
-            Logger.getLogger("org.apache.commons.beanutils.converters.ArrayConverter").setLevel(Level.WARN);
-
-            //Create default StatsTracker
-            StatsTrackerFactory.createDefault();
-
-            //Already add the default bots to the Navigator
-            if (Navigator.getInstance().getWaiterBot() == null) {
-                LOGGER.debug("Setting default WaterBot");
-                Navigator.getInstance().setWaiterBot(new WaiterBot());
-            }
-            if (Navigator.getInstance().getActionBot() == null) {
-                LOGGER.debug("Setting default ActionBot");
-                Navigator.getInstance().setActionBot(new ActionBot());
+            phaseTimings = Collections.unmodifiableMap(runPhases(phases));
+            isInitialised = true;
+
+            LOGGER.debug("Framework initialised in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    + " ms " + phaseTimings);
+            return phaseTimings;
+        }
+    }
+
+    /**
+     * Runs the phases that didn't complete before, in order.
+     *
+     * @param phases the phases to run, by name
+     * @return the phase timings in milliseconds, by name
+     */
+    private Map<String, Long> runPhases(Map<String, Runnable> phases) {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        phases.forEach((name, phase) -> {
+            long phaseStart = System.nanoTime();
+            if (!completedPhases.contains(name)) {
+                phase.run();
+                completedPhases.add(name);
             }
+            timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStart));
+        });
+        return timings;
+    }
 
-            LOGGER.debug("Framework initialised");
-            isInitialised = true;
-        } else LOGGER.debug("The framework was already initialised.");
+    /**
+     * Removes noisy debug logs, updating all the loggers at once.
+     */
+    private void silenceNoise() {
+        LOGGER.debug("Silencing noise...");
+        Map<String, Level> levels = new HashMap<>();
+        for (String logger : NOISY_LOGGERS) levels.put(logger, Level.WARN);
+        Configurator.setLevel(levels);
+    }
+
+    /**
+     * Adds the default bots to the Navigator.
+     */
+    private void installBots() {
+        if (Navigator.getInstance().getWaiterBot() == null) {
+            LOGGER.debug("Setting default WaterBot");
+            Navigator.getInstance().setWaiterBot(new WaiterBot());
+        }
+        if (Navigator.getInstance().getActionBot() == null) {
+            LOGGER.debug("Setting default ActionBot");
+            Navigator.getInstance().setActionBot(new ActionBot());
+        }
+    }
 
-        return null;
+    /**
+     * Returns true if the framework was initialised, false if otherwise.
+     *
+     * @return true if the framework was initialised, false if otherwise
+     */
+    public static boolean isInitialised() {
+        return isInitialised;
     }
 }
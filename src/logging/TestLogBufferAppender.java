@@ -0,0 +1,159 @@
+package logging;
+
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import util.RingBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Log4j2 appender keeping the most recent log events of each running test in memory.
+ * <p>
+ * Every thread running a test gets its own bounded ring buffer, so the log output of tests running
+ * in parallel never gets mixed up. Events are only formatted when the buffer is actually dumped,
+ * keeping the overhead for passing tests minimal.
+ * <p>
+ * Configure it in log4j2.xml as follows:
+ * <pre>
+ * &lt;TestLogBuffer name="TestLogs" capacity="2000"&gt;
+ *     &lt;PatternLayout pattern="..."/&gt;
+ * &lt;/TestLogBuffer&gt;
+ * </pre>
+ *
+ * @author Thibault Helsmoortel
+ */
+@Plugin(name = "TestLogBuffer", category = "Core", elementType = "appender", printObject = true)
+public final class TestLogBufferAppender extends AbstractAppender {
+
+    private static final int DEFAULT_CAPACITY = 1000;
+
+    //Buffers of the threads currently capturing, keyed by thread id as names aren't unique and can change
+    private static final Map<Long, RingBuffer<LogEvent>> buffers = new ConcurrentHashMap<>();
+
+    private static volatile TestLogBufferAppender activeAppender;
+
+    private final int capacity;
+
+    /**
+     * Class constructor specifying name, filter, layout and capacity.
+     *
+     * @param name     the name of the appender
+     * @param filter   the filter of the appender, if any
+     * @param layout   the layout used when dumping events
+     * @param capacity the maximum amount of events kept per test
+     */
+    private TestLogBufferAppender(String name, Filter filter, Layout<? extends Serializable> layout, int capacity) {
+        super(name, filter, layout, true);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates the appender from its configuration.
+     *
+     * @param name     the name of the appender
+     * @param capacity the maximum amount of events kept per test
+     * @param layout   the layout used when dumping events
+     * @param filter   the filter of the appender, if any
+     * @return the created appender, null if no name was given
+     */
+    @PluginFactory
+    public static TestLogBufferAppender createAppender(@PluginAttribute("name") String name,
+                                                      @PluginAttribute(value = "capacity", defaultInt = DEFAULT_CAPACITY) int capacity,
+                                                      @PluginElement("Layout") Layout<? extends Serializable> layout,
+                                                      @PluginElement("Filter") Filter filter) {
+        if (name == null) {
+            LOGGER.error("No name provided for TestLogBufferAppender");
+            return null;
+        }
+        if (layout == null) layout = PatternLayout.createDefaultLayout();
+        return new TestLogBufferAppender(name, filter, layout, capacity > 0 ? capacity : DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        activeAppender = this;
+    }
+
+    @Override
+    public void stop() {
+        if (activeAppender == this) activeAppender = null;
+        super.stop();
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        RingBuffer<LogEvent> buffer = buffers.get(event.getThreadId());
+        if (buffer != null) buffer.add(Log4jLogEvent.createMemento(event, false));
+    }
+
+    /**
+     * Returns true if the appender is configured and running, false if otherwise.
+     *
+     * @return true if the appender is configured and running, false if otherwise
+     */
+    public static boolean isActive() {
+        return activeAppender != null;
+    }
+
+    /**
+     * Starts capturing the log events of the current thread, discarding previously captured events.
+     */
+    public static void startCapture() {
+        TestLogBufferAppender appender = activeAppender;
+        if (appender == null) return;
+        buffers.put(Thread.currentThread().getId(), new RingBuffer<>(appender.capacity));
+    }
+
+    /**
+     * Stops capturing the log events of the current thread, discarding the captured events.
+     * Should be called when the test ends, so the buffer doesn't outlive it.
+     */
+    public static void stopCapture() {
+        buffers.remove(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns true if the log events of the current thread are being captured, false if otherwise.
+     *
+     * @return true if the log events of the current thread are being captured, false if otherwise
+     */
+    public static boolean isCapturing() {
+        return activeAppender != null && buffers.containsKey(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns the formatted log events captured for the current thread, oldest first.
+     *
+     * @return the formatted log events captured for the current thread
+     */
+    public static byte[] getCapturedLogs() {
+        TestLogBufferAppender appender = activeAppender;
+        RingBuffer<LogEvent> buffer = buffers.get(Thread.currentThread().getId());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (appender == null || buffer == null) return out.toByteArray();
+
+        List<LogEvent> events = buffer.toList();
+        for (LogEvent event : events) {
+            try {
+                out.write(appender.getLayout().toByteArray(event));
+            } catch (IOException e) {
+                //Cannot occur when writing to a byte array
+            }
+        }
+        return out.toByteArray();
+    }
+}
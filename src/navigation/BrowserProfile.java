@@ -0,0 +1,392 @@
+package navigation;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxBinary;
+import org.openqa.selenium.firefox.FirefoxProfile;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Named set of browser settings used when creating a driver.
+ * <p>
+ * The default profile opens a maximized window on a second monitor. The headless profile runs the browser
+ * without a window at a fixed viewport, without images, web fonts, animations and extensions, with an eager
+ * page load strategy and a limited amount of renderer processes: it takes considerably less CPU and memory, so
+ * more sessions fit on a single machine. Profiles can be tuned further through their setters.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class BrowserProfile {
+
+    /**
+     * Enumeration of the page load strategies, determining when navigating returns.
+     */
+    public enum PageLoadStrategy {
+        /**
+         * Return when the page and all its resources are loaded.
+         */
+        NORMAL,
+        /**
+         * Return when the document is parsed, without waiting for images and style sheets.
+         */
+        EAGER,
+        /**
+         * Return as soon as the navigation is initiated.
+         */
+        NONE
+    }
+
+    private final String name;
+    private boolean headless;
+    private boolean incognito;
+    private Dimension windowSize;
+    private Point windowPosition;
+    private boolean imagesDisabled;
+    private boolean fontsDisabled;
+    private boolean animationsDisabled;
+    private boolean extensionsDisabled;
+    private boolean warmedTemplate;
+    private PageLoadStrategy pageLoadStrategy = PageLoadStrategy.NORMAL;
+    private int rendererProcessLimit;
+    private long pageLoadTimeout = 20;
+    private long waitTimeout = 30;
+    private final List<String> arguments = new ArrayList<>();
+
+    /**
+     * Class constructor specifying the name. The profile starts out as a headed, maximized browser.
+     *
+     * @param name the profile name
+     */
+    public BrowserProfile(String name) {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("Profile name should be specified.");
+        this.name = name;
+    }
+
+    /**
+     * Returns a new default profile: an incognito, maximized window on a second monitor.
+     *
+     * @return the default profile
+     */
+    public static BrowserProfile defaultProfile() {
+        return new BrowserProfile("default").setIncognito(true).setWindowPosition(new Point(2000, 1));
+    }
+
+    /**
+     * Returns a new headless profile with a fixed 1366x768 viewport, no images, web fonts, animations or extensions,
+     * an eager page load strategy and a single renderer process.
+     *
+     * @return the headless profile
+     */
+    public static BrowserProfile headless() {
+        return new BrowserProfile("headless").setHeadless(true).setIncognito(true)
+                .setWindowSize(new Dimension(1366, 768)).setImagesDisabled(true).setFontsDisabled(true)
+                .setAnimationsDisabled(true).setExtensionsDisabled(true).setPageLoadStrategy(PageLoadStrategy.EAGER)
+                .setRendererProcessLimit(1);
+    }
+
+    /**
+     * Returns a new profile by name.
+     *
+     * @param name the profile name, "default" or "headless"
+     * @return the profile with the given name
+     * @throws IllegalArgumentException thrown when there is no such profile
+     */
+    public static BrowserProfile forName(String name) {
+        switch (String.valueOf(name).toLowerCase(Locale.ROOT)) {
+            case "default":
+                return defaultProfile();
+            case "headless":
+                return headless();
+            default:
+                throw new IllegalArgumentException("Unknown browser profile: " + name);
+        }
+    }
+
+    /**
+     * Returns the Chrome capabilities corresponding to this profile.
+     *
+     * @return the Chrome capabilities
+     */
+    public DesiredCapabilities toChromeCapabilities() {
+        return toChromeCapabilities(null);
+    }
+
+    /**
+     * Returns the Chrome capabilities corresponding to this profile, using the given user data directory.
+     * Incognito sessions don't use the user data directory, so a session with one is never incognito.
+     *
+     * @param userDataDirectory the user data directory, null for a fresh temporary one
+     * @return the Chrome capabilities
+     */
+    public DesiredCapabilities toChromeCapabilities(Path userDataDirectory) {
+        ChromeOptions options = new ChromeOptions();
+        if (userDataDirectory != null) options.addArguments("--user-data-dir=" + userDataDirectory.toAbsolutePath());
+        if (headless) options.addArguments("--headless", "--disable-gpu");
+        if (windowSize != null) {
+            options.addArguments("--window-size=" + windowSize.getWidth() + "," + windowSize.getHeight());
+        } else if (!headless) {
+            options.addArguments("start-maximized");
+        }
+        if (incognito && userDataDirectory == null) options.addArguments("--incognito");
+        if (imagesDisabled) {
+            options.addArguments("--blink-settings=imagesEnabled=false");
+            options.setExperimentalOption("prefs", Collections.singletonMap("profile.managed_default_content_settings.images", 2));
+        }
+        if (fontsDisabled) options.addArguments("--disable-remote-fonts");
+        if (animationsDisabled) options.addArguments("--force-prefers-reduced-motion", "--disable-smooth-scrolling");
+        if (extensionsDisabled) options.addArguments("--disable-extensions");
+        if (rendererProcessLimit > 0) options.addArguments("--renderer-process-limit=" + rendererProcessLimit);
+        options.addArguments(arguments);
+
+        DesiredCapabilities capabilities = DesiredCapabilities.chrome();
+        capabilities.setCapability(ChromeOptions.CAPABILITY, options);
+        capabilities.setCapability(CapabilityType.PAGE_LOAD_STRATEGY, pageLoadStrategy.name().toLowerCase(Locale.ROOT));
+        return capabilities;
+    }
+
+    /**
+     * Returns the Firefox profile corresponding to this profile.
+     *
+     * @return the Firefox profile
+     */
+    public FirefoxProfile toFirefoxProfile() {
+        FirefoxProfile profile = new FirefoxProfile();
+        profile.setPreference("javascript.enabled", true);
+        if (incognito) profile.setPreference("browser.privatebrowsing.autostart", true);
+        if (imagesDisabled) profile.setPreference("permissions.default.image", 2);
+        if (fontsDisabled) profile.setPreference("gfx.downloadable_fonts.enabled", false);
+        if (animationsDisabled) {
+            profile.setPreference("ui.prefersReducedMotion", 1);
+            profile.setPreference("toolkit.cosmeticAnimations.enabled", false);
+            profile.setPreference("general.smoothScroll", false);
+        }
+        //Only the profile scope, holding the WebDriver extension, stays enabled
+        if (extensionsDisabled) profile.setPreference("extensions.enabledScopes", 1);
+        if (rendererProcessLimit > 0) profile.setPreference("dom.ipc.processCount", rendererProcessLimit);
+        return profile;
+    }
+
+    /**
+     * Returns the Firefox capabilities corresponding to this profile.
+     *
+     * @return the Firefox capabilities
+     */
+    public DesiredCapabilities toFirefoxCapabilities() {
+        DesiredCapabilities capabilities = DesiredCapabilities.firefox();
+        capabilities.setCapability(CapabilityType.PAGE_LOAD_STRATEGY, pageLoadStrategy.name().toLowerCase(Locale.ROOT));
+        return capabilities;
+    }
+
+    /**
+     * Returns the Firefox binary to use for this profile, started headless if needed.
+     *
+     * @return the Firefox binary
+     */
+    public FirefoxBinary toFirefoxBinary() {
+        FirefoxBinary binary = new FirefoxBinary();
+        if (headless) binary.addCommandLineOptions("-headless");
+        if (!arguments.isEmpty()) binary.addCommandLineOptions(arguments.toArray(new String[arguments.size()]));
+        return binary;
+    }
+
+    /**
+     * Sets up the window of a newly created driver: positions it and sizes it to the fixed viewport,
+     * or maximizes it when there is none.
+     *
+     * @param driver the driver to set up
+     */
+    public void setUpWindow(WebDriver driver) {
+        WebDriver.Window window = driver.manage().window();
+        if (windowPosition != null) window.setPosition(windowPosition);
+        if (windowSize != null) window.setSize(windowSize);
+        else if (!headless) window.maximize();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public BrowserProfile setHeadless(boolean headless) {
+        this.headless = headless;
+        return this;
+    }
+
+    public boolean isIncognito() {
+        return incognito;
+    }
+
+    public BrowserProfile setIncognito(boolean incognito) {
+        this.incognito = incognito;
+        return this;
+    }
+
+    public Dimension getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the fixed viewport size of the browser window.
+     *
+     * @param windowSize the window size, null to maximize the window
+     * @return this profile
+     */
+    public BrowserProfile setWindowSize(Dimension windowSize) {
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    public Point getWindowPosition() {
+        return windowPosition;
+    }
+
+    /**
+     * Sets the position of the browser window, e.g. on a second monitor.
+     *
+     * @param windowPosition the window position, null to leave it up to the browser
+     * @return this profile
+     */
+    public BrowserProfile setWindowPosition(Point windowPosition) {
+        this.windowPosition = windowPosition;
+        return this;
+    }
+
+    public boolean isWarmedTemplate() {
+        return warmedTemplate;
+    }
+
+    /**
+     * Sets whether sessions start from a clone of a user data directory warmed for their environment
+     * (see {@link ProfileTemplateManager}). Only supported by Chrome.
+     *
+     * @param warmedTemplate boolean value indicating whether or not to start from a warmed template
+     * @return this profile
+     */
+    public BrowserProfile setWarmedTemplate(boolean warmedTemplate) {
+        this.warmedTemplate = warmedTemplate;
+        return this;
+    }
+
+    public boolean isImagesDisabled() {
+        return imagesDisabled;
+    }
+
+    public BrowserProfile setImagesDisabled(boolean imagesDisabled) {
+        this.imagesDisabled = imagesDisabled;
+        return this;
+    }
+
+    public boolean isFontsDisabled() {
+        return fontsDisabled;
+    }
+
+    public BrowserProfile setFontsDisabled(boolean fontsDisabled) {
+        this.fontsDisabled = fontsDisabled;
+        return this;
+    }
+
+    public boolean isAnimationsDisabled() {
+        return animationsDisabled;
+    }
+
+    public BrowserProfile setAnimationsDisabled(boolean animationsDisabled) {
+        this.animationsDisabled = animationsDisabled;
+        return this;
+    }
+
+    public boolean isExtensionsDisabled() {
+        return extensionsDisabled;
+    }
+
+    public BrowserProfile setExtensionsDisabled(boolean extensionsDisabled) {
+        this.extensionsDisabled = extensionsDisabled;
+        return this;
+    }
+
+    public PageLoadStrategy getPageLoadStrategy() {
+        return pageLoadStrategy;
+    }
+
+    public BrowserProfile setPageLoadStrategy(PageLoadStrategy pageLoadStrategy) {
+        if (pageLoadStrategy == null) throw new IllegalArgumentException("Page load strategy should be specified.");
+        this.pageLoadStrategy = pageLoadStrategy;
+        return this;
+    }
+
+    public int getRendererProcessLimit() {
+        return rendererProcessLimit;
+    }
+
+    /**
+     * Sets the maximum amount of renderer (content) processes of the browser.
+     *
+     * @param rendererProcessLimit the maximum amount of renderer processes, 0 for the browser default
+     * @return this profile
+     */
+    public BrowserProfile setRendererProcessLimit(int rendererProcessLimit) {
+        if (rendererProcessLimit < 0) throw new IllegalArgumentException("Renderer process limit should not be negative.");
+        this.rendererProcessLimit = rendererProcessLimit;
+        return this;
+    }
+
+    public long getPageLoadTimeout() {
+        return pageLoadTimeout;
+    }
+
+    /**
+     * Sets the time a page gets to load.
+     *
+     * @param pageLoadTimeout the page load timeout in seconds
+     * @return this profile
+     */
+    public BrowserProfile setPageLoadTimeout(long pageLoadTimeout) {
+        if (pageLoadTimeout <= 0) throw new IllegalArgumentException("Page load timeout should be positive.");
+        this.pageLoadTimeout = pageLoadTimeout;
+        return this;
+    }
+
+    public long getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    /**
+     * Sets the timeout of the explicit waits of the Navigator.
+     *
+     * @param waitTimeout the wait timeout in seconds
+     * @return this profile
+     */
+    public BrowserProfile setWaitTimeout(long waitTimeout) {
+        if (waitTimeout <= 0) throw new IllegalArgumentException("Wait timeout should be positive.");
+        this.waitTimeout = waitTimeout;
+        return this;
+    }
+
+    public List<String> getArguments() {
+        return Collections.unmodifiableList(arguments);
+    }
+
+    /**
+     * Adds command line arguments passed to the browser as is.
+     *
+     * @param arguments the arguments to add
+     * @return this profile
+     */
+    public BrowserProfile addArguments(String... arguments) {
+        this.arguments.addAll(Arrays.asList(arguments));
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,313 @@
+package navigation;
+
+import org.apache.log4j.Logger;
+import util.HashUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton class responsible for providing executable driver binaries.
+ * <p>
+ * Driver binaries packaged as resources can't be executed straight from a jar. They are extracted once into a
+ * cache directory ({@code ~/.bromine/drivers} by default, configurable through the {@code bromine.driver.cache}
+ * system property), in a sub directory named after the SHA-256 checksum of the packaged binary: the packaged
+ * {@code .sha256} file next to the binary if available, the checksum of the resource itself if not. Extraction is
+ * guarded by a file lock, so parallel JVMs wait for each other instead of extracting the same binary concurrently.
+ * Extracted binaries are verified against the checksum, also when they are reused. Every use marks the version
+ * as used, versions of a binary that weren't used for {@code bromine.driver.cache.days} days (30 by default) are
+ * removed from the cache, unless another JVM holds their lock.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class DriverBinaryManager {
+    private static final DriverBinaryManager driverBinaryManagerInstance = new DriverBinaryManager();
+
+    private static final Logger LOGGER = Logger.getLogger(DriverBinaryManager.class);
+
+    private static final String CACHE_PROPERTY = "bromine.driver.cache";
+    private static final String DAYS_PROPERTY = "bromine.driver.cache.days";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+    private static final String LOCK_FILE = ".lock";
+
+    private volatile Path cacheDirectory;
+    private volatile boolean propertiesInitialised;
+    //Resolved binaries by resource path, a binary is only looked up once per JVM
+    private final Map<String, Path> resolved;
+    //Locks by resource path, only one thread of this JVM resolves a given binary
+    private final Map<String, Object> locks;
+
+    /**
+     * Class constructor. Publicly unavailable.
+     */
+    private DriverBinaryManager() {
+        String cache = System.getProperty(CACHE_PROPERTY);
+        cacheDirectory = cache != null ? Paths.get(cache) : Paths.get(System.getProperty("user.home"), ".bromine", "drivers");
+        resolved = new ConcurrentHashMap<>();
+        locks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Points the WebDriver system properties to the driver binaries of the current OS, unless done before.
+     * The binaries are extracted to the driver cache, so they can be executed when packaged in a jar.
+     * Properties that were set explicitly are left untouched. Called before a browser driver is created.
+     */
+    public void initDriverProperties() {
+        if (propertiesInitialised) return;
+        synchronized (this) {
+            if (propertiesInitialised) return;
+            long start = System.nanoTime();
+            String directory;
+            String extension = "";
+
+            LOGGER.debug("Initialising OS dependant files... [" + System.getProperty("os.name") + "]");
+            if (System.getProperty("os.name").toLowerCase().contains("windows")) {
+                directory = "win/";
+                extension = ".exe";
+            } else if (System.getProperty("os.name").toLowerCase().contains("mac")) {
+                directory = "mac/";
+            } else {
+                directory = "linux/";
+            }
+
+            initDriverProperty("webdriver.chrome.driver", directory + "chromedriver" + extension);
+            initDriverProperty("webdriver.gecko.driver", directory + "geckodriver" + extension);
+            propertiesInitialised = true;
+            LOGGER.debug("Driver binaries initialised in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+    }
+
+    /**
+     * Points a WebDriver system property to a driver binary, unless it was set already.
+     *
+     * @param property     the system property
+     * @param resourcePath the class path location of the driver binary
+     */
+    private void initDriverProperty(String property, String resourcePath) {
+        if (System.getProperty(property) != null) {
+            LOGGER.debug(property + " was set already: " + System.getProperty(property));
+            return;
+        }
+        try {
+            Path binary = getBinary(resourcePath);
+            if (binary != null) System.setProperty(property, binary.toString());
+        } catch (IOException e) {
+            LOGGER.error("Couldn't provide driver binary " + resourcePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the executable binary for a driver resource, extracting it to the cache if needed.
+     *
+     * @param resourcePath the class path location of the driver binary
+     * @return the executable binary, null if the resource doesn't exist
+     * @throws IOException thrown when the binary couldn't be extracted or verified
+     */
+    public Path getBinary(String resourcePath) throws IOException {
+        Path binary = resolved.get(resourcePath);
+        if (binary != null) return binary;
+
+        //The file lock guards against other JVMs
+        synchronized (locks.computeIfAbsent(resourcePath, key -> new Object())) {
+            binary = resolved.get(resourcePath);
+            if (binary != null) return binary;
+
+            URL resource = Thread.currentThread().getContextClassLoader().getResource(resourcePath);
+            if (resource == null) {
+                LOGGER.warn("Driver binary " + resourcePath + " not found");
+                return null;
+            }
+            binary = extract(resourcePath, resource);
+            resolved.put(resourcePath, binary);
+            return binary;
+        }
+    }
+
+    /**
+     * Resolves a driver resource to its versioned cache directory, extracting it unless a verified copy is present
+     * already, and marks the version as used.
+     *
+     * @param resourcePath the class path location of the driver binary
+     * @param resource     the URL of the driver binary
+     * @return the extracted binary
+     * @throws IOException thrown when the binary couldn't be extracted or verified
+     */
+    private Path extract(String resourcePath, URL resource) throws IOException {
+        String expected = getExpectedChecksum(resourcePath);
+        if (expected == null) {
+            try (InputStream in = resource.openStream()) {
+                expected = HashUtil.sha256(in);
+            }
+        }
+        expected = expected.toLowerCase(Locale.ROOT);
+        String fileName = Paths.get(resourcePath).getFileName().toString();
+
+        Path directory = cacheDirectory.resolve(expected.substring(0, 16));
+        Path binary = directory.resolve(fileName);
+        Path checksum = directory.resolve(fileName + CHECKSUM_SUFFIX);
+        if (!isExtracted(binary, checksum, expected)) extract(resourcePath, resource, expected, directory);
+        //The checksum file holds the last use of the version
+        Files.setLastModifiedTime(checksum, FileTime.fromMillis(System.currentTimeMillis()));
+        evictExpiredVersions(fileName, directory);
+        return binary;
+    }
+
+    /**
+     * Extracts a driver resource to a cache directory, holding the file lock of the directory.
+     *
+     * @param resourcePath the class path location of the driver binary
+     * @param resource     the URL of the driver binary
+     * @param expected     the checksum of the packaged binary
+     * @param directory    the cache directory of the binary
+     * @throws IOException thrown when the binary couldn't be extracted or verified
+     */
+    private void extract(String resourcePath, URL resource, String expected, Path directory) throws IOException {
+        String fileName = Paths.get(resourcePath).getFileName().toString();
+        Path binary = directory.resolve(fileName);
+        Path checksum = directory.resolve(fileName + CHECKSUM_SUFFIX);
+        Files.createDirectories(directory);
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            //Released when the channel is closed
+            lockChannel.lock();
+            //Another JVM may have extracted the binary while waiting for the lock
+            if (isExtracted(binary, checksum, expected)) return;
+
+            LOGGER.debug("Extracting driver binary " + resourcePath + " to " + directory);
+            Files.deleteIfExists(checksum);
+            Path temp = Files.createTempFile(directory, fileName, ".tmp");
+            try {
+                String actual;
+                try (DigestInputStream in = new DigestInputStream(resource.openStream(), HashUtil.newDigest());
+                     OutputStream out = Files.newOutputStream(temp)) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+                    actual = HashUtil.toHex(in.getMessageDigest().digest());
+                }
+                if (!expected.equals(actual)) {
+                    throw new IOException("Checksum mismatch for " + resourcePath + ": expected " + expected + " but was " + actual);
+                }
+                if (!temp.toFile().setExecutable(true)) LOGGER.warn("Couldn't make " + fileName + " executable");
+                Files.move(temp, binary, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                //The checksum file marks the extraction as complete, so it is written last
+                Files.write(checksum, actual.getBytes(StandardCharsets.UTF_8));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Returns true if a complete, executable copy of the binary matching the checksum was extracted before,
+     * false if otherwise.
+     *
+     * @param binary   the extracted binary
+     * @param checksum the checksum file of the extracted binary
+     * @param expected the checksum of the packaged binary
+     * @return true if the binary was extracted before, false if otherwise
+     * @throws IOException thrown when the extracted binary couldn't be inspected
+     */
+    private boolean isExtracted(Path binary, Path checksum, String expected) throws IOException {
+        if (!Files.exists(checksum) || !Files.exists(binary)) return false;
+        if (!expected.equals(new String(Files.readAllBytes(checksum), StandardCharsets.UTF_8).trim())) return false;
+        try (InputStream in = Files.newInputStream(binary)) {
+            if (!expected.equals(HashUtil.sha256(in))) {
+                LOGGER.warn("Extracted driver binary " + binary + " doesn't match its checksum, extracting it again");
+                return false;
+            }
+        }
+        return Files.isExecutable(binary) || binary.toFile().setExecutable(true);
+    }
+
+    /**
+     * Removes the versions of a binary that weren't used for {@code bromine.driver.cache.days} days from the cache.
+     * Versions of which another JVM holds the lock, or that can't be deleted (e.g. a running binary on Windows),
+     * are left in place.
+     *
+     * @param fileName the file name of the binary
+     * @param current  the directory of the version in use
+     */
+    private void evictExpiredVersions(String fileName, Path current) {
+        long expiry = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(Long.parseLong(System.getProperty(DAYS_PROPERTY, "30")));
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(cacheDirectory, Files::isDirectory)) {
+            for (Path directory : directories) {
+                Path binary = directory.resolve(fileName);
+                Path checksum = directory.resolve(fileName + CHECKSUM_SUFFIX);
+                if (directory.equals(current) || !Files.exists(binary)) continue;
+                try {
+                    Path used = Files.exists(checksum) ? checksum : binary;
+                    if (Files.getLastModifiedTime(used).toMillis() >= expiry) continue;
+                } catch (IOException e) {
+                    continue;
+                }
+                try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    if (lockChannel.tryLock() == null) continue;
+                    LOGGER.debug("Removing expired driver binary " + binary);
+                    Files.deleteIfExists(checksum);
+                    Files.delete(binary);
+                } catch (IOException e) {
+                    LOGGER.debug("Couldn't remove expired driver binary " + binary + ": " + e.getMessage());
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(directory.resolve(LOCK_FILE));
+                    Files.deleteIfExists(directory);
+                } catch (IOException e) {
+                    //Left to a later cleanup, e.g. when another file was added to the directory
+                    LOGGER.debug("Couldn't remove " + directory + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Couldn't look up expired driver binaries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the checksum packaged along with the driver binary.
+     *
+     * @param resourcePath the class path location of the driver binary
+     * @return the packaged checksum, null if none was packaged
+     * @throws IOException thrown when the checksum couldn't be read
+     */
+    private String getExpectedChecksum(String resourcePath) throws IOException {
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(resourcePath + CHECKSUM_SUFFIX)) {
+            if (in == null) return null;
+            byte[] content = new byte[128];
+            int length = 0;
+            int read;
+            while (length < content.length && (read = in.read(content, length, content.length - length)) != -1) length += read;
+            //Checksum files may contain the file name after the checksum
+            return new String(content, 0, length, StandardCharsets.UTF_8).trim().split("\\s+")[0];
+        }
+    }
+
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Sets the cache directory the binaries get extracted to.
+     * Binaries resolved before are looked up again.
+     *
+     * @param cacheDirectory the cache directory
+     */
+    public void setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        resolved.clear();
+    }
+
+    public static DriverBinaryManager getInstance() {
+        return driverBinaryManagerInstance;
+    }
+}
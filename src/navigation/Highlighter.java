@@ -21,10 +21,9 @@ public final class Highlighter {
 
     private static final String encoding = "UTF-8";
 
-    //Assuming JS is enabled
-    private static JavascriptExecutor js = (JavascriptExecutor) Navigator.getInstance().getDriver();
-    private static WebElement lastElem = null;
-    private static String lastBorder = null;
+    //Kept per thread, as every thread may drive a session of its own
+    private static final ThreadLocal<WebElement> lastElem = new ThreadLocal<>();
+    private static final ThreadLocal<String> lastBorder = new ThreadLocal<>();
 
     //Load scripts
     private static String SCRIPT_GET_ELEMENT_BORDER = null;
@@ -57,14 +56,13 @@ public final class Highlighter {
 
         LOGGER.debug("Highlighting element: " + elem.toString());
         // remember the new element
-        lastElem = elem;
+        lastElem.set(elem);
         try {
-            lastBorder = (String) (js.executeScript(SCRIPT_GET_ELEMENT_BORDER, elem));
+            lastBorder.set((String) (getExecutor().executeScript(SCRIPT_GET_ELEMENT_BORDER, elem)));
         } catch (NoSuchSessionException e) {
-            //Should for some reason be handled. The exception was raised
-            // in the shouldReset test in the StatsTrackerTests class
+            //The session died, the highlighted command itself reports it (see SessionHealth)
             LOGGER.debug("Session wasn't found, couldn't get the last border.");
-            lastBorder = null;
+            lastBorder.remove();
         }
     }
 
@@ -72,21 +70,30 @@ public final class Highlighter {
      * Removes the highlight on the last element.
      */
     private static void unhighlightLast() {
-        if (lastElem != null && lastBorder != null) {
+        if (lastElem.get() != null && lastBorder.get() != null) {
             try {
-                LOGGER.debug("Unhighlighting element: " + lastElem.toString());
+                LOGGER.debug("Unhighlighting element: " + lastElem.get().toString());
                 //If there already is a highlighted element, unhighlight it
-                js.executeScript(SCRIPT_UNHIGHLIGHT_ELEMENT, lastElem, lastBorder);
+                getExecutor().executeScript(SCRIPT_UNHIGHLIGHT_ELEMENT, lastElem.get(), lastBorder.get());
             } catch (StaleElementReferenceException ignored) {
                 //The page got reloaded, the element isn't there
             } catch (NoSuchSessionException e) {
-                //Should for some reason be handled. The exception was raised
-                // in the shouldReset test in the StatsTrackerTests class
+                //The session died, the highlighted command itself reports it (see SessionHealth)
                 LOGGER.debug("Session wasn't found, couldn't unhighlight previous element.");
             } finally {
                 //Element either restored or wasn't valid, nullify in both cases
-                lastElem = null;
+                lastElem.remove();
             }
         }
     }
+
+    /**
+     * Returns the script executor of the current driver, which changes whenever the Navigator is recreated.
+     *
+     * @return the script executor of the current driver
+     */
+    private static JavascriptExecutor getExecutor() {
+        //Assuming JS is enabled
+        return (JavascriptExecutor) Navigator.getInstance().getDriver();
+    }
 }
@@ -0,0 +1,172 @@
+package navigation;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.openqa.selenium.*;
+import org.openqa.selenium.interactions.Keyboard;
+import org.openqa.selenium.interactions.Mouse;
+import org.openqa.selenium.interactions.internal.Coordinates;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.openqa.selenium.internal.WrapsElement;
+import org.openqa.selenium.logging.Logs;
+import reporting.trace.TraceRecorder;
+import stats.StatsTracker;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Class responsible for instrumenting a WebDriver.
+ * <p>
+ * The instrumented driver is a decorator counting and timing every command that results in a round trip to
+ * the browser, such as finding elements, executing scripts, clicking, getting texts and taking screenshots.
+ * Elements found through the instrumented driver are instrumented as well. Every command is tracked by the
+ * {@link StatsTracker}, which attributes it to the running steps and the current thread, and traced by the
+ * {@link TraceRecorder}.
+ * <p>
+ * The decorator implements all interfaces of the decorated driver (or element), so casts like
+ * {@code (JavascriptExecutor) driver} keep working. The decorated objects can be retrieved through
+ * {@link WrapsDriver} and {@link WrapsElement}.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class InstrumentedDriver {
+
+    //Types of the objects that are only views on the driver (or element), getting them doesn't involve the browser
+    private static final Set<Class<?>> VIEW_TYPES = new HashSet<>(Arrays.asList(
+            WebDriver.Navigation.class, WebDriver.Options.class, WebDriver.TargetLocator.class,
+            WebDriver.Timeouts.class, WebDriver.Window.class, WebDriver.ImeHandler.class,
+            Logs.class, Keyboard.class, Mouse.class, Coordinates.class));
+
+    /**
+     * Wraps a driver in an instrumenting decorator.
+     *
+     * @param driver the driver to instrument
+     * @return the instrumented driver
+     */
+    public static WebDriver wrap(WebDriver driver) {
+        if (isInstrumented(driver)) return driver;
+        return (WebDriver) instrument(driver, WrapsDriver.class);
+    }
+
+    /**
+     * Returns true if the given object is instrumented, false if otherwise.
+     *
+     * @param object the object to check
+     * @return true if the object is instrumented, false if otherwise
+     */
+    public static boolean isInstrumented(Object object) {
+        return object != null && Proxy.isProxyClass(object.getClass())
+                && Proxy.getInvocationHandler(object) instanceof InstrumentingHandler;
+    }
+
+    /**
+     * Creates an instrumenting proxy implementing all interfaces of the target and a wrapping interface.
+     *
+     * @param target            the object to instrument
+     * @param wrappingInterface the interface exposing the target
+     * @return the instrumenting proxy
+     */
+    private static Object instrument(Object target, Class<?> wrappingInterface) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>(ClassUtils.getAllInterfaces(target.getClass()));
+        //Non public interfaces can't be implemented by a proxy of another package
+        interfaces.removeIf(type -> !Modifier.isPublic(type.getModifiers()));
+        if (wrappingInterface != null) interfaces.add(wrappingInterface);
+        return Proxy.newProxyInstance(InstrumentedDriver.class.getClassLoader(),
+                interfaces.toArray(new Class<?>[interfaces.size()]), new InstrumentingHandler(target, wrappingInterface));
+    }
+
+    /**
+     * Returns the decorated object of an instrumented object, the object itself if it isn't instrumented.
+     *
+     * @param object the object to unwrap
+     * @return the decorated object
+     */
+    private static Object unwrap(Object object) {
+        if (!isInstrumented(object)) return object;
+        return ((InstrumentingHandler) Proxy.getInvocationHandler(object)).target;
+    }
+
+    /**
+     * Unwraps the instrumented objects among command arguments, including those passed to scripts.
+     *
+     * @param args the arguments
+     * @return the unwrapped arguments
+     */
+    private static Object[] unwrapArguments(Object[] args) {
+        if (args == null) return null;
+        //Keep the type of varargs arrays, e.g. CharSequence[]
+        Object[] unwrapped = (Object[]) Array.newInstance(args.getClass().getComponentType(), args.length);
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Object[]) unwrapped[i] = unwrapArguments((Object[]) args[i]);
+            else unwrapped[i] = unwrap(args[i]);
+        }
+        return unwrapped;
+    }
+
+    /**
+     * Invocation handler timing the invocations on its target.
+     */
+    private static final class InstrumentingHandler implements InvocationHandler {
+
+        private final Object target;
+        private final Class<?> wrappingInterface;
+
+        private InstrumentingHandler(Object target, Class<?> wrappingInterface) {
+            this.target = target;
+            this.wrappingInterface = wrappingInterface;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (method.getDeclaringClass() == wrappingInterface) return target;
+            if (method.getDeclaringClass() == Object.class) return invokeTarget(method, args);
+
+            //Views on the driver don't involve the browser, but the commands issued through them do
+            if (VIEW_TYPES.contains(method.getReturnType())) return instrumentResult(invokeTarget(method, args));
+
+            long start = System.nanoTime();
+            try {
+                return instrumentResult(invokeTarget(method, args));
+            } finally {
+                long end = System.nanoTime();
+                StatsTracker.getInstance().trackCommand(name, end - start);
+                TraceRecorder.getInstance().complete(name, "driver", start, end);
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, unwrapArguments(args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Instruments the elements and driver views returned by a command.
+         *
+         * @param result the result of the command
+         * @return the instrumented result
+         */
+        private Object instrumentResult(Object result) {
+            if (result instanceof WebElement) return instrument(result, WrapsElement.class);
+            if (result instanceof List) {
+                List<?> list = (List<?>) result;
+                if (list.isEmpty() || !(list.get(0) instanceof WebElement)) return result;
+                List<Object> instrumented = new ArrayList<>(list.size());
+                list.forEach(element -> instrumented.add(element instanceof WebElement ? instrument(element, WrapsElement.class) : element));
+                return instrumented;
+            }
+            if (result != null && VIEW_TYPES.stream().anyMatch(type -> type.isInstance(result))) {
+                return instrument(result, null);
+            }
+            return result;
+        }
+    }
+}
@@ -11,19 +11,25 @@ import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.Wait;
 import pages.Page;
 import reporting.StepPerformer;
+import session.CheckpointRegistry;
 import sut.Environment;
 
 import java.net.URL;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Representation of a Navigator. This (Singleton) class is responsible for
  * properly using the WebDriver and some additional functionality.
+ * <p>
+ * When tests run in parallel, every thread can be bound to a Navigator of its own (see {@link #bindToThread()}),
+ * which is then returned by {@link #getInstance()} on that thread, so each thread drives its own browser session.
  *
  * @author Thibault Helsmoortel
  */
 public final class Navigator {
     private static Navigator navigatorInstance = new Navigator();
+    private static final ThreadLocal<Navigator> boundInstance = new ThreadLocal<>();
 
     private static final Logger LOGGER = Logger.getLogger(Navigator.class);
 
@@ -34,6 +40,12 @@ public final class Navigator {
     private WaiterBot waiterBot;
     private boolean highlightingEnabled = false;
 
+    //The session of the driver and how to start it again, managed by the NavigatorFactory
+    private PreparedSession session;
+    private Supplier<PreparedSession> preparation;
+    private String browserName;
+    private final SessionRecycler sessionRecycler = new SessionRecycler(this);
+
     /**
      * Class constructor. Publicly unavailable.
      */
@@ -63,8 +75,7 @@ public final class Navigator {
      */
     public void navigateTo(URL url) {
         LOGGER.debug("Navigating to " + url.toString());
-        StepPerformer.perform("Navigate to", url.toString());
-        driver.navigate().to(url);
+        StepPerformer.run(StepPerformer.start("Navigate to", url.toString()), () -> driver.navigate().to(url));
     }
 
     /**
@@ -74,8 +85,7 @@ public final class Navigator {
      */
     public void navigateTo(String url) {
         LOGGER.debug("Navigating to " + url);
-        StepPerformer.perform("Navigate to", url);
-        driver.navigate().to(url);
+        StepPerformer.run(StepPerformer.start("Navigate to", url), () -> driver.navigate().to(url));
     }
 
     /**
@@ -85,8 +95,7 @@ public final class Navigator {
      */
     public void navigateTo(Page page) {
         LOGGER.debug("Navigating to " + page.toString());
-        StepPerformer.perform("Navigate to", page.getUrl());
-        driver.navigate().to(page.getCompleteURL());
+        StepPerformer.run(StepPerformer.start("Navigate to", page.getUrl()), () -> driver.navigate().to(page.getCompleteURL()));
     }
 
     /**
@@ -94,8 +103,7 @@ public final class Navigator {
      */
     public void navigateBack() {
         LOGGER.debug("Navigating back");
-        StepPerformer.perform("Navigate back");
-        driver.navigate().back();
+        StepPerformer.run(StepPerformer.start("Navigate back"), () -> driver.navigate().back());
     }
 
     /**
@@ -103,8 +111,7 @@ public final class Navigator {
      */
     public void navigateForward() {
         LOGGER.debug("Navigating forward");
-        StepPerformer.perform("Navigate forward");
-        driver.navigate().forward();
+        StepPerformer.run(StepPerformer.start("Navigate forward"), () -> driver.navigate().forward());
     }
 
     /**
@@ -112,8 +119,56 @@ public final class Navigator {
      */
     public void navigateRefresh() {
         LOGGER.debug("Performing refresh");
-        StepPerformer.perform("Perform refresh");
-        driver.navigate().refresh();
+        StepPerformer.run(StepPerformer.start("Perform refresh"), () -> driver.navigate().refresh());
+    }
+
+    /**
+     * Restores the named checkpoint if there is one, performs the setup leading up to it and captures the
+     * checkpoint if otherwise. The setup is timed, so the time saved by the checkpoint can be reported.
+     *
+     * @param name  the checkpoint name
+     * @param setup the setup leading up to the checkpoint
+     * @return true if the checkpoint was restored, false if the setup was performed
+     */
+    public boolean checkpoint(String name, Runnable setup) {
+        if (restoreCheckpoint(name)) return true;
+        long start = System.nanoTime();
+        setup.run();
+        long setupNanos = System.nanoTime() - start;
+        StepPerformer.run(StepPerformer.start("Capture checkpoint", name),
+                () -> CheckpointRegistry.getInstance().capture(name, driver, setupNanos));
+        return false;
+    }
+
+    /**
+     * Captures the current url, cookies, web storage and scroll position as a named checkpoint.
+     *
+     * @param name the checkpoint name
+     */
+    public void saveCheckpoint(String name) {
+        StepPerformer.run(StepPerformer.start("Capture checkpoint", name),
+                () -> CheckpointRegistry.getInstance().capture(name, driver, 0));
+    }
+
+    /**
+     * Restores a named checkpoint into the current session.
+     *
+     * @param name the checkpoint name
+     * @return true if the checkpoint was restored, false if there is no such checkpoint
+     */
+    public boolean restoreCheckpoint(String name) {
+        if (CheckpointRegistry.getInstance().get(name) == null) return false;
+        return StepPerformer.call(StepPerformer.start("Restore checkpoint", name),
+                () -> CheckpointRegistry.getInstance().restore(name, driver));
+    }
+
+    /**
+     * Invalidates a named checkpoint, so its setup is performed again next time.
+     *
+     * @param name the checkpoint name
+     */
+    public void invalidateCheckpoint(String name) {
+        CheckpointRegistry.getInstance().invalidate(name);
     }
 
     /**
@@ -277,6 +332,15 @@ public final class Navigator {
         return ((JavascriptExecutor) driver).executeScript("return document.readyState").equals("complete");
     }
 
+    /**
+     * Returns true if the driver session still responds, false if it died (see {@link SessionHealth}).
+     *
+     * @return true if the driver session still responds, false if otherwise
+     */
+    public boolean isSessionAlive() {
+        return SessionHealth.isAlive(driver);
+    }
+
     /**
      * Performs an implicit wait until a given expected condition is met.
      *
@@ -447,8 +511,68 @@ public final class Navigator {
         this.environment = environment;
     }
 
-    public static synchronized Navigator getInstance() {
-        return navigatorInstance;
+    PreparedSession getSession() {
+        return session;
+    }
+
+    void setSession(PreparedSession session) {
+        this.session = session;
+    }
+
+    Supplier<PreparedSession> getPreparation() {
+        return preparation;
+    }
+
+    void setPreparation(Supplier<PreparedSession> preparation) {
+        this.preparation = preparation;
+    }
+
+    String getBrowserName() {
+        return browserName;
+    }
+
+    void setBrowserName(String browserName) {
+        this.browserName = browserName;
+    }
+
+    SessionRecycler getSessionRecycler() {
+        return sessionRecycler;
+    }
+
+    /**
+     * Returns the Navigator bound to the current thread, the shared Navigator if none is bound.
+     *
+     * @return the Navigator of the current thread
+     */
+    public static Navigator getInstance() {
+        Navigator bound = boundInstance.get();
+        return bound != null ? bound : navigatorInstance;
+    }
+
+    /**
+     * Binds a new Navigator to the current thread, e.g. a worker thread running tests in parallel.
+     * The Navigator shares the bots of the shared Navigator, but still has to be created through the
+     * {@link NavigatorFactory}.
+     *
+     * @return the Navigator bound to the current thread
+     * @throws IllegalStateException thrown when a Navigator is bound to the current thread already
+     */
+    public static Navigator bindToThread() {
+        if (boundInstance.get() != null) throw new IllegalStateException("A Navigator is bound to this thread already.");
+        Navigator navigator = new Navigator();
+        //Bots don't hold any state
+        navigator.actionBot = navigatorInstance.actionBot;
+        navigator.waiterBot = navigatorInstance.waiterBot;
+        boundInstance.set(navigator);
+        return navigator;
+    }
+
+    /**
+     * Unbinds the Navigator of the current thread, after which the thread uses the shared Navigator again.
+     * The Navigator should be destroyed first.
+     */
+    public static void unbindFromThread() {
+        boundInstance.remove();
     }
 
     @Override
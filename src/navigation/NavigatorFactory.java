@@ -3,17 +3,27 @@ package navigation;
 import commands.InitFrameworkCommand;
 import navigation.bots.ActionBot;
 import navigation.bots.WaiterBot;
+import navigation.replay.CommandRecorder;
+import navigation.replay.CommandReplayer;
 import org.apache.log4j.Logger;
-import org.openqa.selenium.Point;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxProfile;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import reporting.trace.TraceRecorder;
 import sut.Environment;
+import util.ProcessUtil;
 
-import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Responsible class for creating and destroying the Navigator.
@@ -24,6 +34,32 @@ public final class NavigatorFactory {
 
     private static final Logger LOGGER = Logger.getLogger(NavigatorFactory.class);
 
+    private static final String RECORD_PROPERTY = "bromine.record";
+    private static final String PROFILE_PROPERTY = "bromine.profile";
+
+    private static final Map<Browser, BrowserProfile> profiles = new EnumMap<>(Browser.class);
+    private static volatile SessionStartup lastStartup;
+    private static final long PID = ProcessUtil.getPid();
+    //Sessions start one at a time, so the processes started by concurrent sessions aren't attributed to each other
+    private static final Object startLock = new Object();
+
+    private static volatile boolean instrumentationEnabled = false;
+    private static volatile File recordingFile = System.getProperty(RECORD_PROPERTY) != null
+            ? new File(System.getProperty(RECORD_PROPERTY)) : null;
+
+    static {
+        String profile = System.getProperty(PROFILE_PROPERTY);
+        for (Browser browser : Browser.values()) {
+            profiles.put(browser, getDefaultProfile(browser));
+            if (profile == null) continue;
+            try {
+                profiles.put(browser, BrowserProfile.forName(profile));
+            } catch (IllegalArgumentException e) {
+                LOGGER.error(e.getMessage() + ", using the default profile");
+            }
+        }
+    }
+
     /**
      * (Re)creates and returns the default Navigator based on the given Environment.
      *
@@ -35,31 +71,222 @@ public final class NavigatorFactory {
     }
 
     /**
-     * (Re)creates and returns the Navigator based on the given Environment and desired Browser.
+     * (Re)creates and returns the Navigator based on the given Environment and desired Browser,
+     * using the profile set for that browser (see {@link #setProfile(Browser, BrowserProfile)}).
      *
      * @param environment the environment for the Navigator to operate on
      * @param browser     the browser to use
      * @return the (re)created Navigator instance
      */
     public static Navigator createNavigator(Environment environment, Browser browser) {
-        Navigator navigator;
+        return createNavigator(environment, browser, getProfile(browser));
+    }
+
+    /**
+     * (Re)creates and returns the Navigator based on the given Environment, desired Browser and profile.
+     *
+     * @param environment the environment for the Navigator to operate on
+     * @param browser     the browser to use
+     * @param profile     the browser profile to use
+     * @return the (re)created Navigator instance
+     */
+    public static Navigator createNavigator(Environment environment, Browser browser, BrowserProfile profile) {
+        LOGGER.debug("Creating a " + browser + " Navigator with profile " + profile + " for environment: " + environment.getName());
+        //Destroy previous navigator
+        destroyNavigator();
+
+        new InitFrameworkCommand().execute();
+        Navigator navigator = Navigator.getInstance();
+        navigator.setPreparation(() -> prepare(environment, browser, profile));
+        navigator.setBrowserName(browser.toString());
+        install(navigator, prepare(environment, browser, profile), true);
+        return Navigator.getInstance();
+    }
+
+    /**
+     * Starts a driver session for the desired Browser, without installing it into the Navigator.
+     *
+     * @param environment the environment for the session to operate on
+     * @param browser     the browser to use
+     * @param profile     the browser profile to use
+     * @return the started session
+     */
+    private static PreparedSession prepare(Environment environment, Browser browser, BrowserProfile profile) {
+        long start = System.nanoTime();
+        Path userDataDirectory = null;
+        if (profile.isWarmedTemplate() && browser == Browser.CHROME) {
+            try {
+                userDataDirectory = ProfileTemplateManager.getInstance().createClone(environment, profile);
+            } catch (IOException e) {
+                LOGGER.error("Couldn't use a warmed profile template, starting from a fresh profile: " + e.getMessage());
+            }
+        } else if (profile.isWarmedTemplate()) {
+            LOGGER.warn("Warmed profile templates are only supported by Chrome");
+        }
+        WebDriver driver;
+        Set<Long> processes;
+        synchronized (startLock) {
+            Set<Long> children = ProcessUtil.getChildren(PID);
+            try {
+                driver = createDriver(browser, profile, userDataDirectory);
+            } catch (RuntimeException e) {
+                ProfileTemplateManager.getInstance().deleteClone(userDataDirectory);
+                throw e;
+            }
+            processes = getStartedProcesses(children);
+        }
+        long end = System.nanoTime();
+        TraceRecorder.getInstance().complete("Start driver", "session", start, end);
+        return new PreparedSession(environment, driver, profile, profile.getName(), userDataDirectory,
+                processes, end - start);
+    }
+
+    /**
+     * Starts a driver session using the given supplier, without installing it into the Navigator.
+     *
+     * @param environment    the environment for the session to operate on
+     * @param driverSupplier the supplier creating the driver
+     * @return the started session
+     */
+    private static PreparedSession prepare(Environment environment, Supplier<WebDriver> driverSupplier) {
+        long start = System.nanoTime();
+        WebDriver driver;
+        Set<Long> processes;
+        synchronized (startLock) {
+            Set<Long> children = ProcessUtil.getChildren(PID);
+            driver = driverSupplier.get();
+            processes = getStartedProcesses(children);
+        }
+        long end = System.nanoTime();
+        TraceRecorder.getInstance().complete("Start driver", "session", start, end);
+        return new PreparedSession(environment, driver, BrowserProfile.defaultProfile(), null, null,
+                processes, end - start);
+    }
+
+    /**
+     * Returns the processes started since the given children of this process were listed, being the driver
+     * (and through it, the browser) processes of a new session. Should be called while holding the start lock.
+     *
+     * @param children the children of this process before the session started
+     * @return the processes started by the session
+     */
+    private static Set<Long> getStartedProcesses(Set<Long> children) {
+        Set<Long> started = ProcessUtil.getChildren(PID);
+        started.removeAll(children);
+        return started;
+    }
+
+    /**
+     * Creates a driver for the desired Browser, set up according to the given profile.
+     *
+     * @param browser the browser to create a driver for
+     * @param profile the browser profile to use
+     * @return the created driver
+     */
+    public static WebDriver createDriver(Browser browser, BrowserProfile profile) {
+        return createDriver(browser, profile, null);
+    }
+
+    private static WebDriver createDriver(Browser browser, BrowserProfile profile, Path userDataDirectory) {
+        DriverBinaryManager.getInstance().initDriverProperties();
+        WebDriver driver;
         switch (browser) {
-            case CHROME:
-                navigator = createChromeNavigator(environment, true);
-                break;
             case FIREFOX:
-                navigator = createFirefoxNavigator(environment);
+                driver = new FirefoxDriver(profile.toFirefoxBinary(), profile.toFirefoxProfile(), profile.toFirefoxCapabilities());
                 break;
+            case CHROME:
             default:
-                navigator = createChromeNavigator(environment, true);
+                driver = new ChromeDriver(profile.toChromeCapabilities(userDataDirectory));
         }
+        profile.setUpWindow(driver);
+        return driver;
+    }
 
-        //Set default action bot
-        navigator.setActionBot(new ActionBot());
-        //Set default waiter bot
-        navigator.setWaiterBot(new WaiterBot());
+    /**
+     * (Re)creates and returns the Navigator based on the given Environment, operating the given driver.
+     * Allows using other drivers than the supported browsers, such as a remote or an in-process fake driver.
+     *
+     * @param environment the environment for the Navigator to operate on
+     * @param driver      the driver to operate
+     * @return the (re)created Navigator instance
+     */
+    public static Navigator createNavigator(Environment environment, WebDriver driver) {
+        LOGGER.debug("Creating a Navigator using " + driver.getClass().getSimpleName() + " for environment: " + environment.getName());
+        //Destroy previous navigator
+        destroyNavigator();
 
-        return navigator;
+        new InitFrameworkCommand().execute();
+        //The driver was created elsewhere, so it can't be recreated
+        Navigator navigator = Navigator.getInstance();
+        navigator.setPreparation(null);
+        navigator.setBrowserName(driver.getClass().getSimpleName());
+        install(navigator, new PreparedSession(environment, driver, BrowserProfile.defaultProfile(), null, null, Collections.emptySet(), 0), true);
+        return Navigator.getInstance();
+    }
+
+    /**
+     * (Re)creates and returns the Navigator based on the given Environment, operating a driver created by the
+     * given supplier. Unlike a driver passed directly, the supplier allows recreating the Navigator when its
+     * session dies (see {@link #recreateNavigator()}) or gets recycled (see {@link SessionRecycler}).
+     *
+     * @param environment    the environment for the Navigator to operate on
+     * @param driverSupplier the supplier creating the driver to operate
+     * @return the (re)created Navigator instance
+     */
+    public static Navigator createNavigator(Environment environment, Supplier<WebDriver> driverSupplier) {
+        LOGGER.debug("Creating a Navigator using a driver supplier for environment: " + environment.getName());
+        //Destroy previous navigator
+        destroyNavigator();
+
+        new InitFrameworkCommand().execute();
+        Navigator navigator = Navigator.getInstance();
+        navigator.setPreparation(() -> prepare(environment, driverSupplier));
+        PreparedSession session = prepare(environment, driverSupplier);
+        navigator.setBrowserName(session.getDriver().getClass().getSimpleName());
+        install(navigator, session, true);
+        return Navigator.getInstance();
+    }
+
+    /**
+     * Installs a session into a Navigator and navigates to the environment, unless the session did so already.
+     *
+     * @param navigator the Navigator to install the session into
+     * @param session   the session to install
+     * @param resetBots boolean value indicating whether or not to set the default action and waiter bots
+     */
+    private static void install(Navigator navigator, PreparedSession session, boolean resetBots) {
+        session.setDriver(decorate(session.getDriver()));
+        navigator.setEnvironment(session.getEnvironment());
+        navigator.setDriver(session.getDriver());
+        navigator.setWait(new WebDriverWait(navigator.getDriver(), session.getProfile().getWaitTimeout()));
+        navigator.setSession(session);
+
+        //Navigate to the given environment
+        session.load();
+
+        if (resetBots) {
+            //Set default action bot
+            navigator.setActionBot(new ActionBot());
+            //Set default waiter bot
+            navigator.setWaiterBot(new WaiterBot());
+        }
+
+        report(session.getStartup());
+        navigator.getSessionRecycler().sessionStarted();
+    }
+
+    private static void report(SessionStartup startup) {
+        lastStartup = startup;
+        LOGGER.info(startup);
+    }
+
+    /**
+     * Returns the startup timings of the last created Navigator.
+     *
+     * @return the startup timings of the last created Navigator, null if none was created yet
+     */
+    public static SessionStartup getLastStartup() {
+        return lastStartup;
     }
 
     /**
@@ -103,22 +330,13 @@ public final class NavigatorFactory {
      */
     public static Navigator createChromeNavigator(Environment environment, ChromeOptions chromeOptions) {
         LOGGER.debug("Creating a Chrome Navigator for environment: " + environment.getName());
-        //Destroy previous navigator
-        destroyNavigator();
-
-        new InitFrameworkCommand().execute();
-        Navigator navigator = Navigator.getInstance();
-        navigator.setDriver(new ChromeDriver(chromeOptions));
-        navigator.setWait(new WebDriverWait(navigator.getDriver(), 30));
-        WebDriver driver = navigator.getDriver();
-        driver.manage().timeouts().pageLoadTimeout(20, TimeUnit.SECONDS);
-        //Open the window maximized on a second monitor
-        driver.manage().window().setPosition(new Point(2000, 1));
-        driver.manage().window().maximize();
-
-        //Navigate to the given environment
-        driver.get(environment.getUrl().toString());
-        return navigator;
+        return createNavigator(environment, () -> {
+            DriverBinaryManager.getInstance().initDriverProperties();
+            WebDriver driver = new ChromeDriver(chromeOptions);
+            //Open the window maximized on a second monitor
+            BrowserProfile.defaultProfile().setUpWindow(driver);
+            return driver;
+        });
     }
 
     /**
@@ -128,26 +346,160 @@ public final class NavigatorFactory {
      * @return the (re)created Navigator instance
      */
     public static Navigator createFirefoxNavigator(Environment environment) {
-        LOGGER.debug("Creating a Firefox Navigator for environment: " + environment.getName());
-        //Destroy previous navigator
+        return createNavigator(environment, Browser.FIREFOX, getProfile(Browser.FIREFOX));
+    }
+
+    private static BrowserProfile getDefaultProfile(Browser browser) {
+        //Only Chrome used to run incognito by default
+        return browser == Browser.CHROME ? BrowserProfile.defaultProfile() : BrowserProfile.defaultProfile().setIncognito(false);
+    }
+
+    /**
+     * Sets the profile of the drivers created from now on for the given browser.
+     * The profile of every browser can be selected with the {@code bromine.profile} system property
+     * (e.g. {@code -Dbromine.profile=headless}).
+     *
+     * @param browser the browser
+     * @param profile the profile to use for the browser, null to restore its default profile
+     */
+    public static synchronized void setProfile(Browser browser, BrowserProfile profile) {
+        profiles.put(browser, profile != null ? profile : getDefaultProfile(browser));
+    }
+
+    public static synchronized BrowserProfile getProfile(Browser browser) {
+        return profiles.get(browser);
+    }
+
+    /**
+     * Enables or disables the instrumentation of the drivers created from now on.
+     * Instrumented drivers count and time every WebDriver command (see {@link InstrumentedDriver}).
+     *
+     * @param instrumentationEnabled boolean value indicating whether or not to instrument the drivers
+     */
+    public static void setInstrumentationEnabled(boolean instrumentationEnabled) {
+        NavigatorFactory.instrumentationEnabled = instrumentationEnabled;
+    }
+
+    public static boolean isInstrumentationEnabled() {
+        return instrumentationEnabled;
+    }
+
+    /**
+     * Sets the file the commands of the drivers created from now on are recorded to, so their sessions can be
+     * replayed (see {@link CommandReplayer}). Sessions are appended to the file.
+     * Recording starts automatically when the {@code bromine.record} system property points to a file.
+     *
+     * @param recordingFile the file to record to, null to stop recording
+     */
+    public static void setRecordingFile(File recordingFile) {
+        NavigatorFactory.recordingFile = recordingFile;
+    }
+
+    public static File getRecordingFile() {
+        return recordingFile;
+    }
+
+    /**
+     * Decorates a newly created driver. The driver gets recorded when a recording file is set, and instrumented
+     * when instrumentation is enabled or a trace is being recorded.
+     *
+     * @param driver the driver to decorate
+     * @return the decorated driver
+     */
+    private static WebDriver decorate(WebDriver driver) {
+        File file = recordingFile;
+        if (file != null) {
+            try {
+                driver = CommandRecorder.wrap(driver, file);
+            } catch (IOException e) {
+                LOGGER.error("Couldn't record the driver commands to " + file + ": " + e.getMessage());
+            }
+        }
+        if (!instrumentationEnabled && !TraceRecorder.getInstance().isRecording()) return driver;
+        return InstrumentedDriver.wrap(driver);
+    }
+
+    /**
+     * Recreates the Navigator the way it was last created, with the same browser, profile and environment.
+     * Used to continue after the session died, e.g. because the browser crashed.
+     *
+     * @return the recreated Navigator instance
+     * @throws IllegalStateException thrown when the Navigator was created from a driver instance or wasn't created yet
+     */
+    public static Navigator recreateNavigator() {
+        Navigator navigator = Navigator.getInstance();
+        Supplier<PreparedSession> current = navigator.getPreparation();
+        if (current == null) throw new IllegalStateException("The Navigator can't be recreated, create it from a browser or a driver supplier.");
+        LOGGER.warn("Recreating the " + navigator.getBrowserName() + " Navigator");
+        long start = System.nanoTime();
         destroyNavigator();
+        install(navigator, current.get(), true);
+        TraceRecorder.getInstance().complete("Recreate session", "session", start, System.nanoTime());
+        return Navigator.getInstance();
+    }
 
-        new InitFrameworkCommand().execute();
+    /**
+     * Checks whether the session of the Navigator is still alive, recreating the Navigator if it died.
+     * Does nothing when there is no Navigator or when it can't be recreated.
+     *
+     * @return true if the Navigator was recreated, false if otherwise
+     */
+    public static boolean ensureAlive() {
         Navigator navigator = Navigator.getInstance();
-        FirefoxProfile profile = new FirefoxProfile();
-        profile.setPreference("javascript.enabled", true);
-        WebDriver d = new FirefoxDriver(profile);
-        navigator.setDriver(d);
-        navigator.setWait(new WebDriverWait(navigator.getDriver(), 30));
-        WebDriver driver = navigator.getDriver();
-        driver.manage().timeouts().pageLoadTimeout(20, TimeUnit.SECONDS);
-        //Open the window maximized on a second monitor
-        driver.manage().window().setPosition(new Point(2000, 1));
-        driver.manage().window().maximize();
+        if (navigator.getDriver() == null || navigator.getPreparation() == null || SessionHealth.isAlive(navigator.getDriver())) return false;
+        recreateNavigator();
+        return true;
+    }
 
-        //Navigate to the given environment
-        driver.get(environment.getUrl().toString());
-        return navigator;
+    /**
+     * Starts a session replacing the current one of a Navigator, the way the current one was created, and
+     * navigates it to the environment. Doesn't touch the Navigator, so it can be done in the background.
+     *
+     * @param navigator the Navigator to prepare a replacement session for
+     * @return the replacement session, null if the current session can't be recreated
+     */
+    static PreparedSession prepareReplacement(Navigator navigator) {
+        Supplier<PreparedSession> current = navigator.getPreparation();
+        if (current == null) return null;
+        PreparedSession session = current.get();
+        try {
+            session.load();
+        } catch (RuntimeException e) {
+            session.discard();
+            throw e;
+        }
+        return session;
+    }
+
+    /**
+     * Installs a replacement session into a Navigator, keeping its bots and settings.
+     *
+     * @param navigator   the Navigator to install the session into
+     * @param replacement the replacement session
+     * @return the replaced session, still to be discarded, null if there was none
+     */
+    static PreparedSession swap(Navigator navigator, PreparedSession replacement) {
+        PreparedSession previous = navigator.getSession();
+        install(navigator, replacement, false);
+        return previous;
+    }
+
+    /**
+     * Returns true if the current Navigator can be recreated (see {@link #recreateNavigator()}), false if otherwise.
+     *
+     * @return true if the current Navigator can be recreated, false if otherwise
+     */
+    public static boolean isRecreatable() {
+        return Navigator.getInstance().getPreparation() != null;
+    }
+
+    /**
+     * Returns the name of the browser of the current Navigator.
+     *
+     * @return the name of the browser of the current Navigator, null if none was created yet
+     */
+    public static String getBrowserName() {
+        return Navigator.getInstance().getBrowserName();
     }
 
     /**
@@ -156,10 +508,23 @@ public final class NavigatorFactory {
      */
     public static void destroyNavigator() {
         LOGGER.debug("Destroying the Navigator to a useless state");
-        if (Navigator.getInstance().getDriver() != null) Navigator.getInstance().getDriver().quit();
-        Navigator.getInstance().setDriver(null);
-        Navigator.getInstance().setWait(null);
-        Navigator.getInstance().setEnvironment(null);
-        Navigator.getInstance().setHighlightingEnabled(false);
+        //A replacement prepared for the current session is of no use anymore
+        Navigator navigator = Navigator.getInstance();
+        navigator.getSessionRecycler().reset();
+        PreparedSession session = navigator.getSession();
+        navigator.setSession(null);
+        if (navigator.getDriver() != null) {
+            try {
+                navigator.getDriver().quit();
+            } catch (WebDriverException e) {
+                //The session may already be dead, there is nothing left to quit
+                LOGGER.debug("Couldn't quit the driver: " + e.getMessage());
+            }
+        }
+        if (session != null) ProfileTemplateManager.getInstance().deleteClone(session.getUserDataClone());
+        navigator.setDriver(null);
+        navigator.setWait(null);
+        navigator.setEnvironment(null);
+        navigator.setHighlightingEnabled(false);
     }
 }
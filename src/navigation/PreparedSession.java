@@ -0,0 +1,121 @@
+package navigation;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import reporting.trace.TraceRecorder;
+import sut.Environment;
+import util.ProcessUtil;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A started driver session which isn't installed into the Navigator yet. Sessions are prepared by the
+ * {@link NavigatorFactory}, possibly in the background, and installed once they are needed.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class PreparedSession {
+
+    private static final Logger LOGGER = Logger.getLogger(PreparedSession.class);
+
+    private final Environment environment;
+    private WebDriver driver;
+    private final BrowserProfile profile;
+    private final String profileName;
+    private final Path userDataClone;
+    private final Set<Long> processes;
+    private final long startupNanos;
+    private boolean loaded;
+    private long firstLoadNanos;
+
+    /**
+     * Class constructor specifying the started driver and how it was started.
+     *
+     * @param environment   the environment the session operates on
+     * @param driver        the started driver
+     * @param profile       the browser profile providing the timeouts
+     * @param profileName   the name of the browser profile, null if the driver was created elsewhere
+     * @param userDataClone the cloned user data directory of the driver, null if it didn't start from a template
+     * @param processes     the ids of the processes the driver started
+     * @param startupNanos  the time it took to start the driver in nanoseconds
+     */
+    PreparedSession(Environment environment, WebDriver driver, BrowserProfile profile, String profileName,
+                    Path userDataClone, Set<Long> processes, long startupNanos) {
+        this.environment = environment;
+        this.driver = driver;
+        this.profile = profile;
+        this.profileName = profileName;
+        this.userDataClone = userDataClone;
+        this.processes = processes;
+        this.startupNanos = startupNanos;
+    }
+
+    /**
+     * Navigates the driver to the environment, unless it did so already.
+     * Allows loading the first page in the background, before the session is installed.
+     */
+    void load() {
+        if (loaded) return;
+        driver.manage().timeouts().pageLoadTimeout(profile.getPageLoadTimeout(), TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        driver.get(environment.getUrl().toString());
+        long end = System.nanoTime();
+        TraceRecorder.getInstance().complete("First page load", "session", start, end);
+        firstLoadNanos = end - start;
+        loaded = true;
+    }
+
+    /**
+     * Quits the driver and deletes its user data directory.
+     */
+    void discard() {
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            //The session may already be dead, there is nothing left to quit
+            LOGGER.debug("Couldn't quit the driver: " + e.getMessage());
+        }
+        ProfileTemplateManager.getInstance().deleteClone(userDataClone);
+    }
+
+    /**
+     * Returns the resident memory of the driver and browser processes of this session.
+     *
+     * @return the resident memory in bytes, 0 if the processes are unknown
+     */
+    long getRss() {
+        return ProcessUtil.getTreeRss(processes);
+    }
+
+    SessionStartup getStartup() {
+        return new SessionStartup(profileName, userDataClone != null, startupNanos, firstLoadNanos);
+    }
+
+    Environment getEnvironment() {
+        return environment;
+    }
+
+    WebDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Replaces the driver by its decoration, once the session gets installed.
+     *
+     * @param driver the decorated driver
+     */
+    void setDriver(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    BrowserProfile getProfile() {
+        return profile;
+    }
+
+    Path getUserDataClone() {
+        return userDataClone;
+    }
+}
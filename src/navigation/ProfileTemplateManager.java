@@ -0,0 +1,382 @@
+package navigation;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import sut.Environment;
+import util.HashUtil;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton class responsible for warmed Chrome user data directory templates.
+ * <p>
+ * A fresh user data directory costs the browser its first-run work and starts with a cold HTTP cache. A template
+ * is warmed once per environment and profile by visiting the environment, after which every session gets its own
+ * clone of it. Templates are kept in a cache directory ({@code ~/.bromine/profiles} by default, configurable
+ * through the {@code bromine.profile.cache} system property) and are warmed again once they are older than the
+ * maximum age. Warming is guarded by a file lock, so parallel JVMs share a template instead of all warming one.
+ * <p>
+ * Clones are made copy-on-write where the file system supports it ({@code cp --reflink=auto}), by a regular copy
+ * if not. Clones are deleted when their session ends, the remaining ones when the JVM exits.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ProfileTemplateManager {
+    private static final ProfileTemplateManager profileTemplateManagerInstance = new ProfileTemplateManager();
+
+    private static final Logger LOGGER = Logger.getLogger(ProfileTemplateManager.class);
+
+    private static final String CACHE_PROPERTY = "bromine.profile.cache";
+    private static final String WARMED_MARKER = ".warmed";
+    private static final String LOCK_FILE = ".lock";
+    private static final String CLONE_PREFIX = "bromine-profile-";
+
+    private volatile Path cacheDirectory;
+    private volatile long maxAge = TimeUnit.HOURS.toMillis(24);
+    private volatile ProfileWarmer warmer = ProfileTemplateManager::warmWithChrome;
+    private final Set<Path> clones = ConcurrentHashMap.newKeySet();
+    //Locks by template directory, guarding the file locks of this JVM on the template
+    private final Map<Path, TemplateLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Class constructor. Publicly unavailable.
+     */
+    private ProfileTemplateManager() {
+        String cache = System.getProperty(CACHE_PROPERTY);
+        cacheDirectory = cache != null ? Paths.get(cache) : Paths.get(System.getProperty("user.home"), ".bromine", "profiles");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> clones.forEach(this::deleteClone), "profile-clone-cleanup"));
+    }
+
+    /**
+     * Returns a fresh clone of the warmed template for the environment and profile, warming the template first
+     * if it is missing or too old.
+     *
+     * @param environment the environment the session will operate on
+     * @param profile     the browser profile of the session
+     * @return the user data directory of the session
+     * @throws IOException thrown when the template couldn't be warmed or cloned
+     */
+    public Path createClone(Environment environment, BrowserProfile profile) throws IOException {
+        Path template = getTemplate(environment, profile);
+        Path directory = template.getParent();
+        TemplateLock lock = locks.computeIfAbsent(directory, key -> new TemplateLock());
+        //Another JVM may have warmed the template again, or failed to, before the shared lock was taken
+        if (!startCopy(directory, lock, true)) {
+            getTemplate(environment, profile);
+            //Just warmed or found fresh, so a complete template is copied even if the maximum age passed since
+            if (!startCopy(directory, lock, false)) throw new IOException("Profile template " + template + " was removed while cloning it");
+        }
+        Path clone;
+        long start = System.nanoTime();
+        try {
+            clone = Files.createTempDirectory(CLONE_PREFIX);
+            clones.add(clone);
+            try {
+                copy(template, clone);
+            } catch (IOException e) {
+                deleteClone(clone);
+                throw e;
+            }
+        } finally {
+            endCopy(lock);
+        }
+        LOGGER.debug("Cloned profile template " + template + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return clone;
+    }
+
+    /**
+     * Returns the warmed template for the environment and profile, warming it if it is missing or too old.
+     *
+     * @param environment the environment to warm the template for
+     * @param profile     the browser profile to warm the template with
+     * @return the template directory
+     * @throws IOException thrown when the template couldn't be warmed
+     */
+    public Path getTemplate(Environment environment, BrowserProfile profile) throws IOException {
+        Path directory = cacheDirectory.resolve(HashUtil.sha256(environment.getUrl() + "|" + profile.getName()).substring(0, 16));
+        Path template = directory.resolve("template");
+        if (isFresh(directory)) return template;
+
+        Files.createDirectories(directory);
+        TemplateLock lock = locks.computeIfAbsent(directory, key -> new TemplateLock());
+        //Only one thread of this JVM warms a given template, the file lock guards against other JVMs
+        synchronized (lock) {
+            //A JVM can't hold overlapping file locks, so the clones being copied by this JVM are awaited
+            while (lock.copies > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the clones of " + template, e);
+                }
+            }
+            try (FileChannel lockChannel = openLock(directory)) {
+                //Released when the channel is closed
+                lockChannel.lock();
+                //Another thread or JVM may have warmed the template while waiting for the lock
+                if (isFresh(directory)) return template;
+                warm(directory, template, environment, profile);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Warms a template from scratch. The caller should hold the lock of the template directory.
+     *
+     * @param directory   the template directory
+     * @param template    the user data directory of the template
+     * @param environment the environment to warm the template for
+     * @param profile     the browser profile to warm the template with
+     * @throws IOException thrown when the template couldn't be warmed
+     */
+    private void warm(Path directory, Path template, Environment environment, BrowserProfile profile) throws IOException {
+        LOGGER.debug("Warming profile template for " + environment.getName() + " in " + template);
+        Files.deleteIfExists(directory.resolve(WARMED_MARKER));
+        delete(template);
+        Files.createDirectories(template);
+        try {
+            warmer.warm(template, environment, profile);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Couldn't warm the profile template for " + environment.getName(), e);
+        }
+        removeLocks(template);
+        //The marker completes the template, so it is written last
+        Files.write(directory.resolve(WARMED_MARKER), String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Starts copying a template, taking the shared file lock that keeps other JVMs from warming the template
+     * again while it is being copied. The clones of this JVM share a single file lock, released by the last of
+     * them (see {@link #endCopy(TemplateLock)}). Only the freshness check is done while holding the monitor of
+     * the lock, so clones are copied in parallel.
+     *
+     * @param directory the template directory
+     * @param lock      the lock of the template directory
+     * @param fresh     true if the template should be fresh, false if it should only be complete
+     * @return true if the template can be copied, false if the copy wasn't started
+     * @throws IOException thrown when the lock couldn't be taken
+     */
+    private boolean startCopy(Path directory, TemplateLock lock, boolean fresh) throws IOException {
+        synchronized (lock) {
+            if (lock.copies == 0) {
+                FileChannel lockChannel = openLock(directory);
+                try {
+                    //Released when the channel is closed
+                    lockChannel.lock(0, Long.MAX_VALUE, true);
+                } catch (IOException | RuntimeException e) {
+                    lockChannel.close();
+                    throw e;
+                }
+                lock.sharedChannel = lockChannel;
+            }
+            lock.copies++;
+            boolean copyable = false;
+            try {
+                copyable = fresh ? isFresh(directory) : Files.exists(directory.resolve(WARMED_MARKER));
+            } finally {
+                if (!copyable) endCopy(lock);
+            }
+            return copyable;
+        }
+    }
+
+    /**
+     * Ends copying a template, releasing the shared file lock once no other clone of this JVM is being copied.
+     *
+     * @param lock the lock of the template directory
+     */
+    private static void endCopy(TemplateLock lock) {
+        synchronized (lock) {
+            if (--lock.copies > 0) return;
+            try {
+                lock.sharedChannel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't release the profile template lock: " + e.getMessage());
+            }
+            lock.sharedChannel = null;
+            lock.notifyAll();
+        }
+    }
+
+    private static FileChannel openLock(Path directory) throws IOException {
+        return FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Deletes a clone, once its session has ended.
+     *
+     * @param clone the clone to delete
+     */
+    public void deleteClone(Path clone) {
+        if (clone == null) return;
+        try {
+            delete(clone);
+            clones.remove(clone);
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't delete profile clone " + clone + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the clones of sessions that haven't been deleted yet.
+     *
+     * @return the clones that haven't been deleted yet
+     */
+    public Set<Path> getClones() {
+        return new HashSet<>(clones);
+    }
+
+    private boolean isFresh(Path directory) throws IOException {
+        Path marker = directory.resolve(WARMED_MARKER);
+        if (!Files.exists(marker)) return false;
+        try {
+            long warmedAt = Long.parseLong(new String(Files.readAllBytes(marker), StandardCharsets.UTF_8).trim());
+            return System.currentTimeMillis() - warmedAt < maxAge;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Copies a template, copy-on-write if the file system supports it.
+     *
+     * @param template the template to copy
+     * @param clone    the (empty) directory to copy to
+     * @throws IOException thrown when the template couldn't be copied
+     */
+    private static void copy(Path template, Path clone) throws IOException {
+        if (!System.getProperty("os.name").toLowerCase().contains("win")) {
+            try {
+                Process process = new ProcessBuilder("cp", "-R", "--reflink=auto", template + "/.", clone.toString())
+                        .redirectErrorStream(true).start();
+                String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+                if (process.waitFor() == 0) return;
+                LOGGER.debug("Couldn't clone with cp, copying instead: " + output.trim());
+            } catch (IOException e) {
+                LOGGER.debug("Couldn't clone with cp, copying instead: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while cloning " + template, e);
+            }
+        }
+        Files.walkFileTree(template, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(clone.resolve(template.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, clone.resolve(template.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Removes the lock files Chrome leaves behind, which would prevent another browser from using the directory.
+     *
+     * @param userDataDirectory the user data directory
+     * @throws IOException thrown when the lock files couldn't be removed
+     */
+    private static void removeLocks(Path userDataDirectory) throws IOException {
+        for (String lock : new String[]{"SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile"}) {
+            Files.deleteIfExists(userDataDirectory.resolve(lock));
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) return;
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Warms a user data directory by visiting the environment with Chrome.
+     *
+     * @param userDataDirectory the user data directory to warm up
+     * @param environment       the environment to visit
+     * @param profile           the browser profile to use
+     */
+    private static void warmWithChrome(Path userDataDirectory, Environment environment, BrowserProfile profile) {
+        DriverBinaryManager.getInstance().initDriverProperties();
+        WebDriver driver = new ChromeDriver(profile.toChromeCapabilities(userDataDirectory));
+        try {
+            driver.get(environment.getUrl().toString());
+        } finally {
+            driver.quit();
+        }
+    }
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Sets the age after which templates are warmed again.
+     *
+     * @param maxAge the maximum age
+     * @param unit   the unit of the maximum age
+     */
+    public void setMaxAge(long maxAge, TimeUnit unit) {
+        if (maxAge < 0) throw new IllegalArgumentException("Maximum age should not be negative.");
+        this.maxAge = unit.toMillis(maxAge);
+    }
+
+    /**
+     * Sets the warmer priming new templates, by default a Chrome session visiting the environment.
+     *
+     * @param warmer the warmer to use, null to restore the default
+     */
+    public void setWarmer(ProfileWarmer warmer) {
+        this.warmer = warmer != null ? warmer : ProfileTemplateManager::warmWithChrome;
+    }
+
+    public static ProfileTemplateManager getInstance() {
+        return profileTemplateManagerInstance;
+    }
+
+    /**
+     * Lock of a template directory within this JVM, guarded by its monitor.
+     */
+    private static final class TemplateLock {
+
+        //Clones of this JVM being copied, sharing the shared file lock
+        private int copies;
+        private FileChannel sharedChannel;
+    }
+}
@@ -0,0 +1,25 @@
+package navigation;
+
+import sut.Environment;
+
+import java.nio.file.Path;
+
+/**
+ * Interface representing the warm up of a browser user data directory, priming it for an environment.
+ *
+ * @author Thibault Helsmoortel
+ */
+@FunctionalInterface
+public interface ProfileWarmer {
+
+    /**
+     * Warms up a user data directory, e.g. by starting a browser on it and visiting the environment,
+     * so the first-run work is done and the HTTP cache holds the static assets of the environment.
+     *
+     * @param userDataDirectory the user data directory to warm up
+     * @param environment       the environment to prime the directory for
+     * @param profile           the browser profile the directory will be used with
+     * @throws Exception thrown when the warm up failed
+     */
+    void warm(Path userDataDirectory, Environment environment, BrowserProfile profile) throws Exception;
+}
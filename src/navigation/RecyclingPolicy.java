@@ -0,0 +1,121 @@
+package navigation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy deciding when a browser session is replaced by a fresh one (see {@link SessionRecycler}).
+ * <p>
+ * Long-lived browsers leak memory and single page applications get slower over hundreds of tests in the same
+ * session. A session is recycled after a number of tests, after a maximum age, or when the resident memory of
+ * its driver and browser processes passes a threshold, whichever comes first. Limits of 0 are disabled.
+ * The limits can be set with the {@code bromine.recycle.tests}, {@code bromine.recycle.minutes} and
+ * {@code bromine.recycle.rss} (in MB) system properties.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class RecyclingPolicy {
+
+    private volatile int maxTests;
+    private volatile long maxAge;
+    private volatile long maxRss;
+
+    /**
+     * Returns a policy configured through the system properties, disabled if none are set.
+     *
+     * @return the configured policy
+     * @throws IllegalArgumentException thrown when a system property isn't a valid limit
+     */
+    public static RecyclingPolicy fromSystemProperties() {
+        return new RecyclingPolicy()
+                .setMaxTests(Integer.parseInt(System.getProperty("bromine.recycle.tests", "0")))
+                .setMaxAge(Long.parseLong(System.getProperty("bromine.recycle.minutes", "0")), TimeUnit.MINUTES)
+                .setMaxRss(Long.parseLong(System.getProperty("bromine.recycle.rss", "0")) * 1024 * 1024);
+    }
+
+    /**
+     * Returns the reason to recycle a session, if any.
+     *
+     * @param tests the number of tests the session ran
+     * @param age   the age of the session in milliseconds
+     * @param rss   the resident memory of the session processes in bytes
+     * @return the reason to recycle the session, null if it shouldn't be recycled
+     */
+    public String check(int tests, long age, long rss) {
+        if (maxTests > 0 && tests >= maxTests) return "ran " + tests + " tests";
+        if (maxAge > 0 && age >= maxAge) return "ran for " + TimeUnit.MILLISECONDS.toMinutes(age) + " minutes";
+        if (maxRss > 0 && rss >= maxRss) return "uses " + rss / (1024 * 1024) + " MB";
+        return null;
+    }
+
+    /**
+     * Returns true if the policy limits the size of the sessions, false if otherwise.
+     * Reading the memory of the session processes is skipped if it doesn't.
+     *
+     * @return true if the policy limits the size of the sessions, false if otherwise
+     */
+    public boolean isRssLimited() {
+        return maxRss > 0;
+    }
+
+    /**
+     * Returns true if any of the limits is set, false if otherwise.
+     *
+     * @return true if any of the limits is set, false if otherwise
+     */
+    public boolean isEnabled() {
+        return maxTests > 0 || maxAge > 0 || maxRss > 0;
+    }
+
+    public int getMaxTests() {
+        return maxTests;
+    }
+
+    public RecyclingPolicy setMaxTests(int maxTests) {
+        if (maxTests < 0) throw new IllegalArgumentException("Maximum amount of tests should not be negative.");
+        this.maxTests = maxTests;
+        return this;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Sets the age after which sessions are recycled.
+     *
+     * @param maxAge the maximum age, 0 to disable
+     * @param unit   the unit of the maximum age
+     * @return this policy
+     */
+    public RecyclingPolicy setMaxAge(long maxAge, TimeUnit unit) {
+        if (maxAge < 0) throw new IllegalArgumentException("Maximum age should not be negative.");
+        this.maxAge = unit.toMillis(maxAge);
+        return this;
+    }
+
+    public long getMaxRss() {
+        return maxRss;
+    }
+
+    /**
+     * Sets the resident memory of the driver and browser processes after which sessions are recycled.
+     *
+     * @param maxRss the maximum resident memory in bytes, 0 to disable
+     * @return this policy
+     */
+    public RecyclingPolicy setMaxRss(long maxRss) {
+        if (maxRss < 0) throw new IllegalArgumentException("Maximum resident memory should not be negative.");
+        this.maxRss = maxRss;
+        return this;
+    }
+
+    /**
+     * Returns a String representation of this policy.
+     *
+     * @return a String representation of this policy
+     */
+    @Override
+    public String toString() {
+        return "RecyclingPolicy{maxTests=" + maxTests + ", maxAge=" + maxAge + " ms, maxRss=" + maxRss + " bytes}";
+    }
+}
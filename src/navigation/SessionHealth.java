@@ -0,0 +1,83 @@
+package navigation;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+/**
+ * Utility class telling whether a driver session is still usable.
+ * <p>
+ * Once chromedriver or the browser crashes, every later command fails with the same error. Such fatal errors are
+ * told apart from regular test failures, so the session can be recreated instead of failing every test after it.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class SessionHealth {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionHealth.class);
+
+    //Messages of the errors drivers report once the browser is gone
+    private static final String[] FATAL_MESSAGES = {
+            "chrome not reachable",
+            "disconnected: not connected to devtools",
+            "session deleted because of page crash",
+            "tab crashed",
+            "no such session",
+            "invalid session id",
+            "session id is null",
+            "cannot be used after quit() was called",
+            "browser has closed the connection",
+            "failed to decode response from marionette",
+            "tried to run command without establishing a connection"
+    };
+
+    /**
+     * Returns true if the driver session still responds, false if it died. The check costs a single
+     * round trip and doesn't touch the page.
+     *
+     * @param driver the driver to check
+     * @return true if the driver session still responds, false if otherwise
+     */
+    public static boolean isAlive(WebDriver driver) {
+        if (driver == null) return false;
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            if (isFatal(e)) {
+                LOGGER.warn("The driver session died: " + firstLine(e));
+                return false;
+            }
+            //E.g. the window was closed, the session itself is fine
+            LOGGER.debug("The driver session responded with an error: " + firstLine(e));
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if the error (or one of its causes) means the driver session died, false if otherwise.
+     *
+     * @param throwable the error to inspect
+     * @return true if the error means the driver session died, false if otherwise
+     */
+    public static boolean isFatal(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof NoSuchSessionException || t instanceof UnreachableBrowserException) return true;
+            if (t instanceof WebDriverException && t.getMessage() != null) {
+                String message = t.getMessage().toLowerCase();
+                for (String fatal : FATAL_MESSAGES) {
+                    if (message.contains(fatal)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String firstLine(Throwable throwable) {
+        String message = String.valueOf(throwable.getMessage());
+        int newLine = message.indexOf('\n');
+        return newLine < 0 ? message : message.substring(0, newLine);
+    }
+}
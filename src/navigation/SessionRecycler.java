@@ -0,0 +1,172 @@
+package navigation;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class responsible for recycling the browser session according to a {@link RecyclingPolicy}.
+ * <p>
+ * After every test the policy is checked in the background. When the session should be recycled, a replacement
+ * is started and navigated to the environment in the background as well, the way the current session was
+ * created. The replacement is swapped in before the next test once it is ready, after which the old session is
+ * quit in the background, so no test waits on recycling. Only Navigators created from a browser or a driver
+ * supplier can be recycled. Every Navigator has a recycler of its own, sharing the policy.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class SessionRecycler {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionRecycler.class);
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "session-recycler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static volatile RecyclingPolicy policy = RecyclingPolicy.fromSystemProperties();
+
+    private final Navigator navigator;
+    private final AtomicInteger tests = new AtomicInteger();
+    private volatile long startedAt = System.currentTimeMillis();
+    private final AtomicBoolean preparing = new AtomicBoolean();
+    //Incremented whenever the session is replaced by other means, outdating replacements still being prepared
+    private int generation;
+    private PreparedSession replacement;
+    private final AtomicInteger recycled = new AtomicInteger();
+
+    /**
+     * Class constructor specifying the Navigator whose session is recycled. Publicly unavailable.
+     *
+     * @param navigator the Navigator whose session is recycled
+     */
+    SessionRecycler(Navigator navigator) {
+        this.navigator = navigator;
+    }
+
+    /**
+     * Swaps in the replacement session if one is ready. Should be called between tests, before a test starts.
+     * Never waits for a replacement that is still being prepared.
+     *
+     * @return true if the session was recycled, false if otherwise
+     */
+    public boolean beforeTest() {
+        PreparedSession ready;
+        synchronized (this) {
+            ready = replacement;
+            replacement = null;
+        }
+        if (ready == null) return false;
+        PreparedSession previous = NavigatorFactory.swap(navigator, ready);
+        recycled.incrementAndGet();
+        LOGGER.info("Recycled the " + navigator.getBrowserName() + " session");
+        if (previous != null) executor.execute(previous::discard);
+        return true;
+    }
+
+    /**
+     * Counts a finished test and checks the policy in the background, preparing a replacement session
+     * if the current one should be recycled.
+     */
+    public void afterTest() {
+        int count = tests.incrementAndGet();
+        RecyclingPolicy current = policy;
+        PreparedSession session = navigator.getSession();
+        if (!current.isEnabled() || session == null || navigator.getPreparation() == null) return;
+        long age = System.currentTimeMillis() - startedAt;
+        int expected;
+        synchronized (this) {
+            if (replacement != null) return;
+            expected = generation;
+        }
+        executor.execute(() -> {
+            String reason = current.check(count, age, current.isRssLimited() ? session.getRss() : 0);
+            //Only one replacement is prepared at a time
+            if (reason == null || !preparing.compareAndSet(false, true)) return;
+            try {
+                LOGGER.info("Preparing a replacement for the " + navigator.getBrowserName() + " session, it " + reason);
+                PreparedSession prepared = NavigatorFactory.prepareReplacement(navigator);
+                synchronized (this) {
+                    if (prepared != null && expected == generation) {
+                        replacement = prepared;
+                        prepared = null;
+                    }
+                }
+                //The session got replaced in the meantime
+                if (prepared != null) prepared.discard();
+            } catch (RuntimeException e) {
+                LOGGER.error("Couldn't prepare a replacement session: " + e.getMessage());
+            } finally {
+                preparing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Resets the counters once a new session got installed.
+     */
+    void sessionStarted() {
+        tests.set(0);
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Discards the replacement session, once the session it should replace is destroyed.
+     */
+    void reset() {
+        PreparedSession outdated;
+        synchronized (this) {
+            generation++;
+            outdated = replacement;
+            replacement = null;
+        }
+        if (outdated != null) executor.execute(outdated::discard);
+    }
+
+    /**
+     * Returns true if a replacement session is ready to be swapped in, false if otherwise.
+     *
+     * @return true if a replacement session is ready, false if otherwise
+     */
+    public synchronized boolean isReplacementReady() {
+        return replacement != null;
+    }
+
+    /**
+     * Returns the amount of times a session was recycled.
+     *
+     * @return the amount of times a session was recycled
+     */
+    public int getRecycledCount() {
+        return recycled.get();
+    }
+
+    public int getTestCount() {
+        return tests.get();
+    }
+
+    public static RecyclingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sets the recycling policy of all sessions.
+     *
+     * @param policy the policy to use, null to restore the policy of the system properties
+     */
+    public static void setPolicy(RecyclingPolicy policy) {
+        SessionRecycler.policy = policy != null ? policy : RecyclingPolicy.fromSystemProperties();
+    }
+
+    /**
+     * Returns the recycler of the Navigator of the current thread.
+     *
+     * @return the recycler of the Navigator of the current thread
+     */
+    public static SessionRecycler getInstance() {
+        return Navigator.getInstance().getSessionRecycler();
+    }
+}
@@ -0,0 +1,59 @@
+package navigation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of the start of a browser session, to verify the effect of startup optimizations such as warmed
+ * profile templates (see {@link ProfileTemplateManager}).
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class SessionStartup {
+
+    private final String profile;
+    private final boolean warmed;
+    private final long startupNanos;
+    private final long firstLoadNanos;
+
+    /**
+     * Class constructor specifying the timings.
+     *
+     * @param profile        the name of the browser profile, null if the driver was created elsewhere
+     * @param warmed         true if the session started from a warmed profile template, false if otherwise
+     * @param startupNanos   the time it took to start the driver in nanoseconds
+     * @param firstLoadNanos the time it took to load the first page in nanoseconds
+     */
+    public SessionStartup(String profile, boolean warmed, long startupNanos, long firstLoadNanos) {
+        this.profile = profile;
+        this.warmed = warmed;
+        this.startupNanos = startupNanos;
+        this.firstLoadNanos = firstLoadNanos;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    public long getStartupNanos() {
+        return startupNanos;
+    }
+
+    public long getFirstLoadNanos() {
+        return firstLoadNanos;
+    }
+
+    /**
+     * Returns a String representation of the startup timings.
+     *
+     * @return a String representation of the startup timings
+     */
+    @Override
+    public String toString() {
+        return "Session started in " + TimeUnit.NANOSECONDS.toMillis(startupNanos) + " ms, first page loaded in "
+                + TimeUnit.NANOSECONDS.toMillis(firstLoadNanos) + " ms (profile " + profile + (warmed ? ", warmed" : "") + ")";
+    }
+}
@@ -25,10 +25,21 @@ public class ActionBot {
      * @param element the element to click on
      */
     public void click(WebElement element) {
+        click(element, WebElementUtil.getTextOrTagOrToString(element));
+    }
+
+    /**
+     * Clicks on a specified element, described by a given title.
+     *
+     * @param element the element to click on
+     * @param title   the text, tag or string representation of the element
+     */
+    private void click(WebElement element, String title) {
         LOGGER.debug("Performing click on " + element.toString());
-        StepPerformer.perform("Click", WebElementUtil.getTextOrTagOrToString(element));
-        element.click();
-        StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+        StepPerformer.run(StepPerformer.startAction("Click", title), () -> {
+            element.click();
+            StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+        });
     }
 
     /**
@@ -37,8 +48,12 @@ public class ActionBot {
      * @param element the element to click on
      */
     public void clickAndWait(WebElement element) {
-        click(element);
-        Navigator.getInstance().explicitlyWaitForPageLoaded();
+        //Getting the title takes round trips to the browser, so it is only done once
+        String title = WebElementUtil.getTextOrTagOrToString(element);
+        StepPerformer.run(StepPerformer.startAction("Click and wait", title), () -> {
+            click(element, title);
+            Navigator.getInstance().explicitlyWaitForPageLoaded();
+        });
     }
 
 
@@ -50,18 +65,28 @@ public class ActionBot {
      * @param element the element to click on
      */
     public void NGClick(WebElement element) {
-        LOGGER.debug("Performing ng-click on " + element.toString());
-        StepPerformer.perform("Click", WebElementUtil.getTextOrTagOrToString(element));
+        NGClick(element, WebElementUtil.getTextOrTagOrToString(element));
+    }
 
-        Actions actions = new Actions(Navigator.getInstance().getDriver());
-        actions.moveToElement(element).perform();
+    /**
+     * Clicks on a specified element using ng-click (Angular), described by a given title.
+     *
+     * @param element the element to click on
+     * @param title   the text, tag or string representation of the element
+     */
+    private void NGClick(WebElement element, String title) {
+        LOGGER.debug("Performing ng-click on " + element.toString());
+        StepPerformer.run(StepPerformer.startAction("Click", title), () -> {
+            Actions actions = new Actions(Navigator.getInstance().getDriver());
+            actions.moveToElement(element).perform();
 
-        //Implicit wait is needed because Selenium doesn't know how angular loads and works
-        Navigator.getInstance().implicitlyWait(1);
+            //Implicit wait is needed because Selenium doesn't know how angular loads and works
+            Navigator.getInstance().implicitlyWait(1);
 
-        Navigator.getInstance().explicitlyWaitForElementClickable(element);
-        actions.moveToElement(element).click().perform();
-        StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+            Navigator.getInstance().explicitlyWaitForElementClickable(element);
+            actions.moveToElement(element).click().perform();
+            StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+        });
     }
 
     /**
@@ -74,8 +99,11 @@ public class ActionBot {
      * @param element the element to click on
      */
     public void NGClickAndWait(WebElement element) {
-        NGClick(element);
-        Navigator.getInstance().explicitlyWaitForPageLoaded();
+        String title = WebElementUtil.getTextOrTagOrToString(element);
+        StepPerformer.run(StepPerformer.startAction("Click and wait", title), () -> {
+            NGClick(element, title);
+            Navigator.getInstance().explicitlyWaitForPageLoaded();
+        });
     }
 
     /**
@@ -85,11 +113,11 @@ public class ActionBot {
      */
     public void doubleClick(WebElement element) {
         LOGGER.debug("Performing double click on " + element.toString());
-        StepPerformer.perform("Double click", WebElementUtil.getTextOrTagOrToString(element));
-
-        Actions actions = new Actions(Navigator.getInstance().getDriver());
-        actions.doubleClick(element).perform();
-        StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_DOUBLE_CLICK);
+        StepPerformer.run(StepPerformer.startAction("Double click", WebElementUtil.getTextOrTagOrToString(element)), () -> {
+            Actions actions = new Actions(Navigator.getInstance().getDriver());
+            actions.doubleClick(element).perform();
+            StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_DOUBLE_CLICK);
+        });
     }
 
     /**
@@ -100,11 +128,11 @@ public class ActionBot {
      */
     public void sendKeys(WebElement element, String charSequence) {
         LOGGER.debug("Sending keys [" + charSequence + "] to " + element.toString());
-        StepPerformer.perform("Send keys", "'" + charSequence + "' to " + WebElementUtil.getTextOrTagOrToString(element));
-
-        Actions actions = new Actions(Navigator.getInstance().getDriver());
-        actions.sendKeys(element, charSequence).perform();
-        StatsTracker.getInstance().track(StatsAction.KEYBOARD_TYPE);
+        StepPerformer.run(StepPerformer.startAction("Send keys", "'" + charSequence + "' to " + WebElementUtil.getTextOrTagOrToString(element)), () -> {
+            Actions actions = new Actions(Navigator.getInstance().getDriver());
+            actions.sendKeys(element, charSequence).perform();
+            StatsTracker.getInstance().track(StatsAction.KEYBOARD_TYPE);
+        });
     }
 
     /**
@@ -114,10 +142,11 @@ public class ActionBot {
      */
     public void sendKeys(String charSequence) {
         LOGGER.debug("Sending keys [" + charSequence + "]");
-        StepPerformer.perform("Send keys", "'" + charSequence + "'");
-        Actions actions = new Actions(Navigator.getInstance().getDriver());
-        actions.sendKeys(charSequence).perform();
-        StatsTracker.getInstance().track(StatsAction.KEYBOARD_TYPE);
+        StepPerformer.run(StepPerformer.startAction("Send keys", "'" + charSequence + "'"), () -> {
+            Actions actions = new Actions(Navigator.getInstance().getDriver());
+            actions.sendKeys(charSequence).perform();
+            StatsTracker.getInstance().track(StatsAction.KEYBOARD_TYPE);
+        });
     }
 
     /**
@@ -128,8 +157,9 @@ public class ActionBot {
      */
     public void uploadFile(WebElement element, String filePath) {
         LOGGER.debug("Uploading file: " + filePath);
-        StepPerformer.perform("Upload file", filePath + " via element: " + WebElementUtil.getTextOrTagOrToString(element));
-        element.sendKeys(filePath);
+        StepPerformer.run(StepPerformer.startAction("Upload file", filePath + " via element: " + WebElementUtil.getTextOrTagOrToString(element)), () -> {
+            element.sendKeys(filePath);
+        });
     }
 
     /**
@@ -139,9 +169,9 @@ public class ActionBot {
      */
     public void scrollElementIntoView(WebElement element) {
         LOGGER.debug("Scrolling element " + element.toString() + " into view");
-        StepPerformer.perform("Scroll element into view", WebElementUtil.getTextOrTagOrToString(element));
-
-        ((JavascriptExecutor) Navigator.getInstance().getDriver()).executeScript("arguments[0].scrollIntoView(true);", element);
+        StepPerformer.run(StepPerformer.startAction("Scroll element into view", WebElementUtil.getTextOrTagOrToString(element)), () -> {
+            ((JavascriptExecutor) Navigator.getInstance().getDriver()).executeScript("arguments[0].scrollIntoView(true);", element);
+        });
     }
 
     /**
@@ -151,10 +181,10 @@ public class ActionBot {
      */
     public void moveToElement(WebElement element) {
         LOGGER.debug("Moving to element: " + element.toString());
-        StepPerformer.perform("Move to element", WebElementUtil.getTextOrTagOrToString(element));
-
-        Actions actions = new Actions(Navigator.getInstance().getDriver());
-        actions.moveToElement(element).build().perform();
+        StepPerformer.run(StepPerformer.startAction("Move to element", WebElementUtil.getTextOrTagOrToString(element)), () -> {
+            Actions actions = new Actions(Navigator.getInstance().getDriver());
+            actions.moveToElement(element).build().perform();
+        });
     }
 
     /**
@@ -166,14 +196,14 @@ public class ActionBot {
      */
     public void dragElement(WebElement element, int xOffset, int yOffset) {
         LOGGER.debug("Dragging element: " + element.toString());
-        StepPerformer.perform("Drag element", WebElementUtil.getTextOrTagOrToString(element) + " with offsets " + xOffset + "," + yOffset);
-
-        Actions action = new Actions(Navigator.getInstance().getDriver());
-        action.moveToElement(element);
-        action.clickAndHold();
-        action.moveByOffset(xOffset, yOffset);
-        action.release();
-        action.build().perform();
+        StepPerformer.run(StepPerformer.startAction("Drag element", WebElementUtil.getTextOrTagOrToString(element) + " with offsets " + xOffset + "," + yOffset), () -> {
+            Actions action = new Actions(Navigator.getInstance().getDriver());
+            action.moveToElement(element);
+            action.clickAndHold();
+            action.moveByOffset(xOffset, yOffset);
+            action.release();
+            action.build().perform();
+        });
     }
 
     /**
@@ -184,10 +214,10 @@ public class ActionBot {
      */
     public void dragAndDropElement(WebElement source, WebElement target) {
         LOGGER.debug("Dragging element: " + source.toString() + " and dropping on: " + target.toString());
-        StepPerformer.perform("Drag element", WebElementUtil.getTextOrTagOrToString(source) + " to " + WebElementUtil.getTextOrTagOrToString(target));
-
-        Actions actions = new Actions(Navigator.getInstance().getDriver());
-        actions.dragAndDrop(source, target);
+        StepPerformer.run(StepPerformer.startAction("Drag element", WebElementUtil.getTextOrTagOrToString(source) + " to " + WebElementUtil.getTextOrTagOrToString(target)), () -> {
+            Actions actions = new Actions(Navigator.getInstance().getDriver());
+            actions.dragAndDrop(source, target);
+        });
     }
 
     /**
@@ -197,7 +227,8 @@ public class ActionBot {
      */
     public void focusElement(WebElement element) {
         LOGGER.debug("Focusing element: " + element.toString());
-        StepPerformer.perform("Focus element", WebElementUtil.getTextOrTagOrToString(element));
-        ((JavascriptExecutor) Navigator.getInstance().getDriver()).executeScript("arguments[0].focus();", element);
+        StepPerformer.run(StepPerformer.startAction("Focus element", WebElementUtil.getTextOrTagOrToString(element)), () -> {
+            ((JavascriptExecutor) Navigator.getInstance().getDriver()).executeScript("arguments[0].focus();", element);
+        });
     }
 }
@@ -4,6 +4,7 @@ import navigation.Navigator;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.*;
+import reporting.StepPerformer;
 import stats.StatsAction;
 import stats.StatsTracker;
 
@@ -25,8 +26,10 @@ public class WaiterBot {
      */
     public void implicitlyWait(ExpectedCondition expectedCondition) {
         LOGGER.warn("Implicitly waiting until a condition is met.");
-        Navigator.getInstance().getWait().until(expectedCondition);
-        StatsTracker.getInstance().track(StatsAction.WAIT_IMPLICIT);
+        StepPerformer.run(StepPerformer.startWait("Implicit wait", "until a condition is met"), () -> {
+            Navigator.getInstance().getWait().until(expectedCondition);
+            StatsTracker.getInstance().track(StatsAction.WAIT_IMPLICIT);
+        });
     }
 
     /**
@@ -46,8 +49,10 @@ public class WaiterBot {
      */
     public void implicitlyWait(long value, TimeUnit timeUnit) {
         LOGGER.warn("Implicitly wait for " + value + " " + timeUnit.toString().toLowerCase());
-        Navigator.getInstance().getDriver().manage().timeouts().implicitlyWait(value, timeUnit);
-        StatsTracker.getInstance().track(StatsAction.WAIT_IMPLICIT);
+        StepPerformer.run(StepPerformer.startWait("Implicit wait", value + " " + timeUnit.toString().toLowerCase()), () -> {
+            Navigator.getInstance().getDriver().manage().timeouts().implicitlyWait(value, timeUnit);
+            StatsTracker.getInstance().track(StatsAction.WAIT_IMPLICIT);
+        });
     }
 
     /**
@@ -65,8 +70,10 @@ public class WaiterBot {
      */
     public void explicitlyWaitForElementPresent(By locator) {
         LOGGER.debug("Explicitly waiting for an element to be present");
-        Navigator.getInstance().getWait().until(ExpectedConditions.presenceOfElementLocated(locator));
-        StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        StepPerformer.run(StepPerformer.startWait("Wait for element present", locator.toString()), () -> {
+            Navigator.getInstance().getWait().until(ExpectedConditions.presenceOfElementLocated(locator));
+            StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        });
     }
 
     /**
@@ -76,8 +83,10 @@ public class WaiterBot {
      */
     public void explicitlyWaitForElementVisible(By locator) {
         LOGGER.debug("Explicitly waiting for an element to be visible");
-        Navigator.getInstance().getWait().until(ExpectedConditions.visibilityOfElementLocated(locator));
-        StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        StepPerformer.run(StepPerformer.startWait("Wait for element visible", locator.toString()), () -> {
+            Navigator.getInstance().getWait().until(ExpectedConditions.visibilityOfElementLocated(locator));
+            StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        });
     }
 
     /**
@@ -87,8 +96,10 @@ public class WaiterBot {
      */
     public void explicitlyWaitForElementInvisible(By locator) {
         LOGGER.debug("Explicitly waiting for an element to be invisible");
-        Navigator.getInstance().getWait().until(ExpectedConditions.invisibilityOfElementLocated(locator));
-        StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        StepPerformer.run(StepPerformer.startWait("Wait for element invisible", locator.toString()), () -> {
+            Navigator.getInstance().getWait().until(ExpectedConditions.invisibilityOfElementLocated(locator));
+            StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        });
     }
 
     /**
@@ -98,8 +109,10 @@ public class WaiterBot {
      */
     public void explicitlyWaitForElementClickable(By locator) {
         LOGGER.debug("Explicitly waiting for an element to be clickable");
-        Navigator.getInstance().getWait().until(ExpectedConditions.elementToBeClickable(locator));
-        StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        StepPerformer.run(StepPerformer.startWait("Wait for element clickable", locator.toString()), () -> {
+            Navigator.getInstance().getWait().until(ExpectedConditions.elementToBeClickable(locator));
+            StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        });
     }
 
     /**
@@ -109,8 +122,10 @@ public class WaiterBot {
      */
     public void explicitlyWaitForElementClickable(WebElement element) {
         LOGGER.debug("Explicitly waiting for element " + element.toString() + " to be clickable");
-        Navigator.getInstance().getWait().until(ExpectedConditions.elementToBeClickable(element));
-        StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        StepPerformer.run(StepPerformer.startWait("Wait for element clickable", element.toString()), () -> {
+            Navigator.getInstance().getWait().until(ExpectedConditions.elementToBeClickable(element));
+            StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
+        });
     }
 
     /**
@@ -118,16 +133,18 @@ public class WaiterBot {
      */
     public void explicitlyWaitForPageLoaded() {
         LOGGER.debug("Explicitly waiting for the page to be loaded.");
-        Wait<WebDriver> wait = new WebDriverWait(Navigator.getInstance().getDriver(), 30);
-        wait.until(d -> {
-            assert d != null;
-            LOGGER.debug("Current Window State: "
-                    + String.valueOf(((JavascriptExecutor) d).executeScript("return document.readyState")));
-            return String
-                    .valueOf(((JavascriptExecutor) d).executeScript("return document.readyState"))
-                    .equals("complete");
+        StepPerformer.run(StepPerformer.startWait("Wait for page loaded"), () -> {
+            Wait<WebDriver> wait = new WebDriverWait(Navigator.getInstance().getDriver(), 30);
+            wait.until(d -> {
+                assert d != null;
+                LOGGER.debug("Current Window State: "
+                        + String.valueOf(((JavascriptExecutor) d).executeScript("return document.readyState")));
+                return String
+                        .valueOf(((JavascriptExecutor) d).executeScript("return document.readyState"))
+                        .equals("complete");
+            });
+            StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
         });
-        StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
     }
 
     /**
@@ -166,14 +183,15 @@ public class WaiterBot {
      */
     public WebElement fluentWait(By locator, int timeout, int pollEvery, TimeUnit timeUnit) {
         LOGGER.debug("Fluently waiting until an element is found with locator: " + locator);
+        return StepPerformer.call(StepPerformer.startWait("Fluent wait", locator.toString()), () -> {
+            Wait<WebDriver> wait = new FluentWait<>(Navigator.getInstance().getDriver())
+                    .withTimeout(timeout, timeUnit)
+                    .pollingEvery(pollEvery, timeUnit)
+                    .ignoring(NoSuchElementException.class);
 
-        Wait<WebDriver> wait = new FluentWait<>(Navigator.getInstance().getDriver())
-                .withTimeout(timeout, timeUnit)
-                .pollingEvery(pollEvery, timeUnit)
-                .ignoring(NoSuchElementException.class);
+            StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
 
-        StatsTracker.getInstance().track(StatsAction.WAIT_EXPLICIT);
-
-        return wait.until(driver1 -> driver1.findElement(locator));
+            return wait.until(driver1 -> driver1.findElement(locator));
+        });
     }
 }
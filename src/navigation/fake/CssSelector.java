@@ -0,0 +1,271 @@
+package navigation.fake;
+
+import org.openqa.selenium.InvalidSelectorException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class responsible for evaluating CSS selectors on the lightweight DOM of the {@link FakeWebDriver}.
+ * <p>
+ * Supported are type, universal, id, class and attribute selectors ({@code =, ~=, ^=, $=, *=}), the descendant,
+ * child, adjacent and general sibling combinators, selector lists and the {@code :first-child},
+ * {@code :last-child} and {@code :nth-child(n)} pseudo classes.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class CssSelector {
+
+    private final String selector;
+    private int position;
+
+    private CssSelector(String selector) {
+        this.selector = selector;
+    }
+
+    /**
+     * Returns the descendants of a context node matching a selector, in document order.
+     *
+     * @param context  the context node
+     * @param selector the CSS selector
+     * @return the matching elements
+     */
+    static List<DomNode> select(DomNode context, String selector) {
+        List<List<Compound>> groups = new CssSelector(selector.trim()).parseGroups();
+        List<DomNode> matches = new ArrayList<>();
+        for (DomNode element : context.getDescendantElements()) {
+            for (List<Compound> group : groups) {
+                if (matches(element, group, group.size() - 1)) {
+                    matches.add(element);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns true if an element matches the compound selector at a given index and the compound selectors
+     * before it, following the combinators.
+     */
+    private static boolean matches(DomNode element, List<Compound> compounds, int index) {
+        Compound compound = compounds.get(index);
+        if (!compound.matches(element)) return false;
+        if (index == 0) return true;
+
+        switch (compound.combinator) {
+            case '>':
+                DomNode parent = element.getParentElement();
+                return parent != null && matches(parent, compounds, index - 1);
+            case '+':
+                DomNode previous = previousSibling(element);
+                return previous != null && matches(previous, compounds, index - 1);
+            case '~':
+                for (DomNode sibling = previousSibling(element); sibling != null; sibling = previousSibling(sibling)) {
+                    if (matches(sibling, compounds, index - 1)) return true;
+                }
+                return false;
+            default:
+                for (DomNode ancestor = element.getParentElement(); ancestor != null; ancestor = ancestor.getParentElement()) {
+                    if (matches(ancestor, compounds, index - 1)) return true;
+                }
+                return false;
+        }
+    }
+
+    private static DomNode previousSibling(DomNode element) {
+        List<DomNode> siblings = element.getParent().getChildElements();
+        int index = siblings.indexOf(element);
+        return index > 0 ? siblings.get(index - 1) : null;
+    }
+
+    private List<List<Compound>> parseGroups() {
+        List<List<Compound>> groups = new ArrayList<>();
+        List<Compound> compounds = new ArrayList<>();
+        char combinator = ' ';
+        while (true) {
+            skipWhitespace();
+            if (position >= selector.length() || selector.charAt(position) == ',') {
+                if (compounds.isEmpty()) throw invalid();
+                groups.add(compounds);
+                if (position >= selector.length()) return groups;
+                position++;
+                compounds = new ArrayList<>();
+                combinator = ' ';
+                continue;
+            }
+            char c = selector.charAt(position);
+            if (c == '>' || c == '+' || c == '~') {
+                if (compounds.isEmpty()) throw invalid();
+                combinator = c;
+                position++;
+                continue;
+            }
+            Compound compound = parseCompound();
+            compound.combinator = combinator;
+            compounds.add(compound);
+            combinator = ' ';
+        }
+    }
+
+    private Compound parseCompound() {
+        Compound compound = new Compound();
+        int start = position;
+        while (position < selector.length()) {
+            char c = selector.charAt(position);
+            if (c == '*') {
+                position++;
+            } else if (c == '#') {
+                position++;
+                compound.id = parseIdentifier();
+            } else if (c == '.') {
+                position++;
+                compound.classNames.add(parseIdentifier());
+            } else if (c == '[') {
+                position++;
+                compound.attributes.add(parseAttribute());
+            } else if (c == ':') {
+                position++;
+                parsePseudoClass(compound);
+            } else if (isIdentifierChar(c)) {
+                compound.tagName = parseIdentifier().toLowerCase();
+            } else {
+                break;
+            }
+        }
+        if (position == start) throw invalid();
+        return compound;
+    }
+
+    private String[] parseAttribute() {
+        skipWhitespace();
+        String name = parseIdentifier();
+        skipWhitespace();
+        String operator = null;
+        String value = null;
+        if (selector.charAt(position) != ']') {
+            int operatorStart = position;
+            while (position < selector.length() && "~^$*|=".indexOf(selector.charAt(position)) >= 0) position++;
+            operator = selector.substring(operatorStart, position);
+            skipWhitespace();
+            value = parseValue();
+            skipWhitespace();
+        }
+        expect(']');
+        return new String[]{name, operator, value};
+    }
+
+    private void parsePseudoClass(Compound compound) {
+        String name = parseIdentifier();
+        switch (name) {
+            case "first-child":
+                compound.nthChild = 1;
+                break;
+            case "last-child":
+                compound.lastChild = true;
+                break;
+            case "nth-child":
+                expect('(');
+                int end = selector.indexOf(')', position);
+                if (end < 0) throw invalid();
+                try {
+                    compound.nthChild = Integer.parseInt(selector.substring(position, end).trim());
+                } catch (NumberFormatException e) {
+                    throw invalid();
+                }
+                position = end + 1;
+                break;
+            default:
+                throw new InvalidSelectorException("Pseudo class :" + name + " isn't supported by the fake driver.");
+        }
+    }
+
+    private String parseValue() {
+        char quote = selector.charAt(position);
+        if (quote == '"' || quote == '\'') {
+            int end = selector.indexOf(quote, position + 1);
+            if (end < 0) throw invalid();
+            String value = selector.substring(position + 1, end);
+            position = end + 1;
+            return value;
+        }
+        return parseIdentifier();
+    }
+
+    private String parseIdentifier() {
+        int start = position;
+        while (position < selector.length() && isIdentifierChar(selector.charAt(position))) position++;
+        if (position == start) throw invalid();
+        return selector.substring(start, position);
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+    }
+
+    private void skipWhitespace() {
+        while (position < selector.length() && Character.isWhitespace(selector.charAt(position))) position++;
+    }
+
+    private void expect(char c) {
+        if (position >= selector.length() || selector.charAt(position) != c) throw invalid();
+        position++;
+    }
+
+    private InvalidSelectorException invalid() {
+        return new InvalidSelectorException("Invalid or unsupported CSS selector: " + selector);
+    }
+
+    /**
+     * Class representing a compound selector, e.g. {@code div.navbar-header[role]}.
+     */
+    private static final class Compound {
+        private char combinator = ' ';
+        private String tagName;
+        private String id;
+        private final Set<String> classNames = new LinkedHashSet<>();
+        private final List<String[]> attributes = new ArrayList<>();
+        private int nthChild;
+        private boolean lastChild;
+
+        private boolean matches(DomNode element) {
+            if (tagName != null && !tagName.equals(element.getTagName())) return false;
+            if (id != null && !id.equals(element.getAttribute("id"))) return false;
+            if (!element.getClassNames().containsAll(classNames)) return false;
+            for (String[] attribute : attributes) {
+                if (!matchesAttribute(element.getAttribute(attribute[0]), attribute[1], attribute[2])) return false;
+            }
+            if (nthChild > 0 || lastChild) {
+                List<DomNode> siblings = element.getParent().getChildElements();
+                int index = siblings.indexOf(element);
+                if (nthChild > 0 && index != nthChild - 1) return false;
+                if (lastChild && index != siblings.size() - 1) return false;
+            }
+            return true;
+        }
+
+        private static boolean matchesAttribute(String actual, String operator, String expected) {
+            if (actual == null) return false;
+            if (operator == null) return true;
+            switch (operator) {
+                case "=":
+                    return actual.equals(expected);
+                case "~=":
+                    for (String word : actual.trim().split("\\s+")) if (word.equals(expected)) return true;
+                    return false;
+                case "^=":
+                    return !expected.isEmpty() && actual.startsWith(expected);
+                case "$=":
+                    return !expected.isEmpty() && actual.endsWith(expected);
+                case "*=":
+                    return !expected.isEmpty() && actual.contains(expected);
+                case "|=":
+                    return actual.equals(expected) || actual.startsWith(expected + "-");
+                default:
+                    throw new InvalidSelectorException("Attribute operator " + operator + " isn't supported by the fake driver.");
+            }
+        }
+    }
+}
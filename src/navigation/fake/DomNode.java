@@ -0,0 +1,344 @@
+package navigation.fake;
+
+import java.util.*;
+
+/**
+ * Class representing a node of the lightweight DOM of the {@link FakeWebDriver}: the document, an element or text.
+ * Besides its attributes, an element keeps the state a browser would keep in its properties
+ * (value, checked, selected and inline style), so forms can be filled in.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class DomNode {
+
+    enum Type {
+        DOCUMENT, ELEMENT, TEXT
+    }
+
+    //Elements of which the content is never rendered
+    private static final Set<String> UNRENDERED = new HashSet<>(Arrays.asList(
+            "head", "script", "style", "title", "meta", "link", "template", "noscript"));
+
+    private final Type type;
+    private final String tagName;
+    private final DomNode document;
+    private final Map<String, String> attributes;
+    private final List<DomNode> children;
+    private DomNode parent;
+    private String text;
+    private String value;
+    private Boolean checked;
+    private final Map<String, String> style;
+
+    /**
+     * Class constructor specifying the type, tag name (null unless an element) and owner document (null for a document).
+     *
+     * @param type     the node type
+     * @param tagName  the lower case tag name of an element
+     * @param document the document the node belongs to
+     */
+    private DomNode(Type type, String tagName, DomNode document) {
+        this.type = type;
+        this.tagName = tagName;
+        this.document = document == null ? this : document;
+        this.attributes = new LinkedHashMap<>();
+        this.children = new ArrayList<>();
+        this.style = new LinkedHashMap<>();
+    }
+
+    static DomNode document() {
+        return new DomNode(Type.DOCUMENT, null, null);
+    }
+
+    DomNode createElement(String tagName) {
+        return new DomNode(Type.ELEMENT, tagName.toLowerCase(Locale.ROOT), document);
+    }
+
+    DomNode createText(String text) {
+        DomNode node = new DomNode(Type.TEXT, null, document);
+        node.text = text;
+        return node;
+    }
+
+    void appendChild(DomNode child) {
+        child.parent = this;
+        children.add(child);
+    }
+
+    void setAttribute(String name, String value) {
+        name = name.toLowerCase(Locale.ROOT);
+        attributes.put(name, value);
+        if (name.equals("style")) parseStyle(value);
+    }
+
+    private void parseStyle(String declarations) {
+        style.clear();
+        for (String declaration : declarations.split(";")) {
+            int colon = declaration.indexOf(':');
+            if (colon > 0) {
+                style.put(declaration.substring(0, colon).trim().toLowerCase(Locale.ROOT), declaration.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    boolean isElement() {
+        return type == Type.ELEMENT;
+    }
+
+    String getTagName() {
+        return tagName;
+    }
+
+    DomNode getDocument() {
+        return document;
+    }
+
+    DomNode getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the parent if it is an element, null if otherwise.
+     *
+     * @return the parent element
+     */
+    DomNode getParentElement() {
+        return parent != null && parent.isElement() ? parent : null;
+    }
+
+    List<DomNode> getChildren() {
+        return children;
+    }
+
+    List<DomNode> getChildElements() {
+        List<DomNode> elements = new ArrayList<>();
+        for (DomNode child : children) if (child.isElement()) elements.add(child);
+        return elements;
+    }
+
+    /**
+     * Returns all descendant elements in document order.
+     *
+     * @return the descendant elements
+     */
+    List<DomNode> getDescendantElements() {
+        List<DomNode> descendants = new ArrayList<>();
+        collectDescendants(this, descendants);
+        return descendants;
+    }
+
+    private static void collectDescendants(DomNode node, List<DomNode> descendants) {
+        for (DomNode child : node.children) {
+            if (!child.isElement()) continue;
+            descendants.add(child);
+            collectDescendants(child, descendants);
+        }
+    }
+
+    /**
+     * Returns the root element (html) of the document, null if the document is empty.
+     *
+     * @return the root element
+     */
+    DomNode getDocumentElement() {
+        for (DomNode child : document.children) if (child.isElement()) return child;
+        return null;
+    }
+
+    /**
+     * Returns the first descendant element with a given tag name.
+     *
+     * @param name the tag name
+     * @return the first element with the tag name, null if none
+     */
+    DomNode getFirstElementByTagName(String name) {
+        for (DomNode element : getDescendantElements()) if (element.tagName.equals(name)) return element;
+        return null;
+    }
+
+    String getAttribute(String name) {
+        return attributes.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    boolean hasAttribute(String name) {
+        return attributes.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns the class names of the element.
+     *
+     * @return the class names
+     */
+    Set<String> getClassNames() {
+        String classes = getAttribute("class");
+        if (classes == null || classes.trim().isEmpty()) return Collections.emptySet();
+        return new HashSet<>(Arrays.asList(classes.trim().split("\\s+")));
+    }
+
+    /**
+     * Returns the raw text of a text node, or the concatenated text of all descendant text nodes.
+     *
+     * @return the text content
+     */
+    String getTextContent() {
+        if (type == Type.TEXT) return text;
+        StringBuilder sb = new StringBuilder();
+        for (DomNode child : children) sb.append(child.getTextContent());
+        return sb.toString();
+    }
+
+    /**
+     * Returns the rendered text of the element: whitespace is collapsed, hidden content is left out
+     * and block elements are put on separate lines.
+     *
+     * @return the rendered text
+     */
+    String getRenderedText() {
+        if (!isDisplayed()) return "";
+        StringBuilder sb = new StringBuilder();
+        appendRenderedText(this, sb);
+        StringBuilder lines = new StringBuilder();
+        for (String line : sb.toString().split("\n")) {
+            String collapsed = line.replaceAll("[ \\t\\r\\f\\u00a0]+", " ").trim();
+            if (collapsed.isEmpty()) continue;
+            if (lines.length() > 0) lines.append("\n");
+            lines.append(collapsed);
+        }
+        return lines.toString();
+    }
+
+    private static void appendRenderedText(DomNode node, StringBuilder sb) {
+        for (DomNode child : node.children) {
+            if (child.type == Type.TEXT) sb.append(child.text.replace('\n', ' '));
+            else if (child.isElement() && !child.isHiddenItself()) {
+                boolean block = child.isBlock();
+                if (block || child.tagName.equals("br")) sb.append("\n");
+                appendRenderedText(child, sb);
+                if (block) sb.append("\n");
+            }
+        }
+    }
+
+    private boolean isBlock() {
+        switch (tagName) {
+            case "div": case "p": case "section": case "nav": case "header": case "footer": case "article":
+            case "ul": case "ol": case "li": case "table": case "tr": case "form": case "h1": case "h2":
+            case "h3": case "h4": case "h5": case "h6": case "body": case "html": case "aside": case "main":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns true if the element would be rendered, false if it or one of its ancestors is hidden.
+     *
+     * @return true if the element is displayed, false if otherwise
+     */
+    boolean isDisplayed() {
+        for (DomNode node = this; node != null && node.isElement(); node = node.parent) {
+            if (node.isHiddenItself()) return false;
+        }
+        return true;
+    }
+
+    private boolean isHiddenItself() {
+        if (UNRENDERED.contains(tagName) || hasAttribute("hidden")) return true;
+        if (tagName.equals("input") && "hidden".equalsIgnoreCase(getAttribute("type"))) return true;
+        return "none".equalsIgnoreCase(style.get("display")) || "hidden".equalsIgnoreCase(style.get("visibility"));
+    }
+
+    /**
+     * Returns the current value of a form control: the typed value if any, the value attribute if not.
+     *
+     * @return the current value
+     */
+    String getValue() {
+        if (value != null) return value;
+        if (tagName.equals("textarea")) return getTextContent();
+        if (tagName.equals("option") && !hasAttribute("value")) return getRenderedText();
+        return getAttribute("value");
+    }
+
+    void setValue(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns true if the checkbox, radio button or option is checked (selected), false if otherwise.
+     *
+     * @return true if checked, false if otherwise
+     */
+    boolean isChecked() {
+        if (checked != null) return checked;
+        return hasAttribute(tagName.equals("option") ? "selected" : "checked");
+    }
+
+    void setChecked(boolean checked) {
+        this.checked = checked;
+    }
+
+    Map<String, String> getStyle() {
+        return style;
+    }
+
+    /**
+     * Returns the position of the element among all elements of the document.
+     *
+     * @return the document order index, -1 if the node isn't in the document
+     */
+    int getDocumentIndex() {
+        return document.getDescendantElements().indexOf(this);
+    }
+
+    /**
+     * Serializes the node and its descendants as HTML, including the current form state.
+     *
+     * @return the HTML of the node
+     */
+    String toHtml() {
+        StringBuilder sb = new StringBuilder();
+        appendHtml(sb);
+        return sb.toString();
+    }
+
+    private void appendHtml(StringBuilder sb) {
+        if (type == Type.TEXT) {
+            boolean raw = parent != null && parent.isElement() && HtmlParser.isRawText(parent.tagName);
+            sb.append(raw ? text : HtmlParser.escape(text));
+            return;
+        }
+        if (type == Type.ELEMENT) {
+            sb.append('<').append(tagName);
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                if (attribute.getKey().equals("style")) continue;
+                sb.append(' ').append(attribute.getKey()).append("=\"").append(HtmlParser.escape(attribute.getValue())).append('"');
+            }
+            if (!style.isEmpty()) {
+                StringBuilder declarations = new StringBuilder();
+                style.forEach((property, propertyValue) -> declarations.append(property).append(": ").append(propertyValue).append("; "));
+                sb.append(" style=\"").append(HtmlParser.escape(declarations.toString().trim())).append('"');
+            }
+            sb.append('>');
+            if (HtmlParser.isVoid(tagName)) return;
+        }
+        for (DomNode child : children) child.appendHtml(sb);
+        if (type == Type.ELEMENT) sb.append("</").append(tagName).append('>');
+    }
+
+    @Override
+    public String toString() {
+        if (type == Type.TEXT) return "#text";
+        if (type == Type.DOCUMENT) return "#document";
+        String id = getAttribute("id");
+        return "<" + tagName + (id != null ? " id=\"" + id + "\"" : "") + ">";
+    }
+}
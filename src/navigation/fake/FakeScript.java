@@ -0,0 +1,19 @@
+package navigation.fake;
+
+/**
+ * Interface representing a script the {@link FakeWebDriver} can execute, emulating its effect on the page.
+ *
+ * @author Thibault Helsmoortel
+ */
+@FunctionalInterface
+public interface FakeScript {
+
+    /**
+     * Executes the script.
+     *
+     * @param driver    the driver executing the script
+     * @param arguments the script arguments, elements are passed as {@link FakeWebElement}
+     * @return the script result: null, a String, Boolean, Long, Double, WebElement or a List of those
+     */
+    Object execute(FakeWebDriver driver, Object[] arguments);
+}
@@ -0,0 +1,162 @@
+package navigation.fake;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search context of the {@link FakeWebDriver} and its elements.
+ * Locators find elements through the {@code FindsBy...} interfaces, so every standard locator type is supported
+ * (id, name, class name, tag name, link text, partial link text, CSS selector and XPath).
+ *
+ * @author Thibault Helsmoortel
+ */
+abstract class FakeSearchContext implements SearchContext, FindsById, FindsByName, FindsByClassName, FindsByTagName,
+        FindsByLinkText, FindsByCssSelector, FindsByXPath {
+
+    /**
+     * Returns the node searches start from, verifying it can still be searched.
+     *
+     * @return the node searches start from
+     */
+    abstract DomNode getSearchRoot();
+
+    /**
+     * Returns the driver owning the searched document.
+     *
+     * @return the owning driver
+     */
+    abstract FakeWebDriver getOwner();
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return by.findElements(this);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return by.findElement(this);
+    }
+
+    @Override
+    public WebElement findElementById(String using) {
+        return first(findElementsById(using), "id", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsById(String using) {
+        return findByAttribute("id", using);
+    }
+
+    @Override
+    public WebElement findElementByName(String using) {
+        return first(findElementsByName(using), "name", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByName(String using) {
+        return findByAttribute("name", using);
+    }
+
+    @Override
+    public WebElement findElementByClassName(String using) {
+        return first(findElementsByClassName(using), "class name", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByClassName(String using) {
+        List<DomNode> matches = new ArrayList<>();
+        for (DomNode element : getSearchRoot().getDescendantElements()) {
+            if (element.getClassNames().contains(using)) matches.add(element);
+        }
+        return wrap(matches);
+    }
+
+    @Override
+    public WebElement findElementByTagName(String using) {
+        return first(findElementsByTagName(using), "tag name", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByTagName(String using) {
+        List<DomNode> matches = new ArrayList<>();
+        for (DomNode element : getSearchRoot().getDescendantElements()) {
+            if (element.getTagName().equalsIgnoreCase(using)) matches.add(element);
+        }
+        return wrap(matches);
+    }
+
+    @Override
+    public WebElement findElementByLinkText(String using) {
+        return first(findElementsByLinkText(using), "link text", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByLinkText(String using) {
+        return findLinks(using, false);
+    }
+
+    @Override
+    public WebElement findElementByPartialLinkText(String using) {
+        return first(findElementsByPartialLinkText(using), "partial link text", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByPartialLinkText(String using) {
+        return findLinks(using, true);
+    }
+
+    @Override
+    public WebElement findElementByCssSelector(String using) {
+        return first(findElementsByCssSelector(using), "css selector", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByCssSelector(String using) {
+        return wrap(CssSelector.select(getSearchRoot(), using));
+    }
+
+    @Override
+    public WebElement findElementByXPath(String using) {
+        return first(findElementsByXPath(using), "xpath", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByXPath(String using) {
+        return wrap(XPathEvaluator.select(getSearchRoot(), using));
+    }
+
+    private List<WebElement> findByAttribute(String attribute, String value) {
+        List<DomNode> matches = new ArrayList<>();
+        for (DomNode element : getSearchRoot().getDescendantElements()) {
+            if (value.equals(element.getAttribute(attribute))) matches.add(element);
+        }
+        return wrap(matches);
+    }
+
+    private List<WebElement> findLinks(String text, boolean partial) {
+        List<DomNode> matches = new ArrayList<>();
+        for (DomNode element : getSearchRoot().getDescendantElements()) {
+            if (!element.getTagName().equals("a")) continue;
+            String linkText = element.getRenderedText().trim();
+            if (partial ? linkText.contains(text) : linkText.equals(text)) matches.add(element);
+        }
+        return wrap(matches);
+    }
+
+    private List<WebElement> wrap(List<DomNode> nodes) {
+        List<WebElement> elements = new ArrayList<>(nodes.size());
+        for (DomNode node : nodes) elements.add(new FakeWebElement(getOwner(), node));
+        return elements;
+    }
+
+    private static WebElement first(List<WebElement> elements, String locatorType, String using) {
+        if (elements.isEmpty()) throw new NoSuchElementException("Unable to locate element with " + locatorType + ": " + using);
+        return elements.get(0);
+    }
+}
@@ -0,0 +1,912 @@
+package navigation.fake;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.*;
+import org.openqa.selenium.interactions.HasInputDevices;
+import org.openqa.selenium.interactions.Keyboard;
+import org.openqa.selenium.interactions.Mouse;
+import org.openqa.selenium.interactions.internal.Coordinates;
+import org.openqa.selenium.logging.LogEntries;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.Logs;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process WebDriver backed by a lightweight DOM parsed from local HTML, for hermetic and fast tests.
+ * <p>
+ * Pages are served from a site directory (the path of any url is resolved against it, whatever the host)
+ * or registered inline with {@link #servePage(String, String)}; {@code file:} urls are read directly.
+ * The driver supports all standard locators, clicking (following links, submitting forms, toggling checkboxes,
+ * radio buttons and options), typing into the focused element, cookies (including cookies set by
+ * {@code <meta http-equiv="set-cookie">}), history, fake screenshots and the scripts used by the framework
+ * (ready state, parent node, scrolling, focusing, scroll position, history length, highlighting and web storage).
+ * Other scripts can be emulated by registering a {@link FakeScript}.
+ * <p>
+ * There is no JavaScript engine, CSS engine or layout: only inline styles and the {@code hidden} attribute
+ * affect visibility.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class FakeWebDriver extends FakeSearchContext implements WebDriver, JavascriptExecutor, TakesScreenshot, HasInputDevices {
+
+    private static final Logger LOGGER = Logger.getLogger(FakeWebDriver.class);
+
+    private static final String BLANK = "about:blank";
+    private static final String BLANK_PAGE = "<html><head></head><body></body></html>";
+    private static final String NOT_FOUND_PAGE = "<html><head><title>404 Not Found</title></head><body><h1>Not Found</h1></body></html>";
+    private static final String WINDOW_HANDLE = "fake-window";
+
+    private final Path siteRoot;
+    private final Map<String, String> inlinePages;
+    private final Map<String, FakeScript> scripts;
+    private final Map<String, Cookie> cookies;
+    private final Map<String, Map<String, Map<String, String>>> storages;
+    private final List<String> history;
+    private int historyIndex;
+    private DomNode document;
+    private String currentUrl;
+    private DomNode focused;
+    private Coordinates mousePosition;
+    private long scrollX;
+    private long scrollY;
+    private Dimension windowSize;
+    private Point windowPosition;
+    private boolean quit;
+
+    /**
+     * Class constructor. Only inline pages are served.
+     */
+    public FakeWebDriver() {
+        this(null);
+    }
+
+    /**
+     * Class constructor specifying the directory to serve pages from.
+     *
+     * @param siteRoot the directory to serve pages from, null to only serve inline pages
+     */
+    public FakeWebDriver(Path siteRoot) {
+        this.siteRoot = siteRoot == null ? null : siteRoot.toAbsolutePath().normalize();
+        this.inlinePages = new HashMap<>();
+        this.scripts = new LinkedHashMap<>();
+        this.cookies = new LinkedHashMap<>();
+        this.storages = new HashMap<>();
+        this.history = new ArrayList<>();
+        this.windowSize = new Dimension(1024, 768);
+        this.windowPosition = new Point(0, 0);
+        registerDefaultScripts();
+        this.currentUrl = BLANK;
+        this.document = HtmlParser.parse(BLANK_PAGE);
+    }
+
+    /**
+     * Serves a page from memory, taking precedence over the site directory.
+     *
+     * @param path the path of the page, e.g. "/index.html"
+     * @param html the HTML of the page
+     * @return this driver
+     */
+    public FakeWebDriver servePage(String path, String html) {
+        inlinePages.put(path, html);
+        return this;
+    }
+
+    /**
+     * Registers a script emulation. Executed scripts containing the given fragment are emulated by it,
+     * later registrations take precedence.
+     *
+     * @param fragment a fragment identifying the script
+     * @param script   the script emulation
+     * @return this driver
+     */
+    public FakeWebDriver registerScript(String fragment, FakeScript script) {
+        if (fragment == null || fragment.isEmpty()) throw new IllegalArgumentException("Script fragment should be specified.");
+        scripts.remove(fragment);
+        scripts.put(fragment, script);
+        return this;
+    }
+
+    private void registerDefaultScripts() {
+        registerScript("document.readyState", (driver, args) -> "complete");
+        registerScript("window.history.length", (driver, args) -> (long) Math.max(history.size(), 1));
+        registerScript("document.title", (driver, args) -> getTitle());
+        registerScript(".parentNode", (driver, args) -> {
+            DomNode parent = element(args, 0).getParentElement();
+            return parent == null ? null : new FakeWebElement(this, parent);
+        });
+        registerScript(".scrollIntoView(", (driver, args) -> {
+            element(args, 0);
+            return null;
+        });
+        registerScript(".focus()", (driver, args) -> {
+            focus(element(args, 0));
+            return null;
+        });
+        registerScript(".blur()", (driver, args) -> {
+            if (focused == element(args, 0)) focused = null;
+            return null;
+        });
+        registerScript(".click()", (driver, args) -> {
+            click(element(args, 0));
+            return null;
+        });
+        //Highlighting: remember the borders and draw a red one
+        registerScript("elem.style.border = '3px solid red'", (driver, args) -> {
+            Map<String, String> style = element(args, 0).getStyle();
+            String border = String.join(";", border(style, "top"), border(style, "right"), border(style, "bottom"), border(style, "left"));
+            style.keySet().removeIf(property -> property.startsWith("border"));
+            style.put("border", "3px solid red");
+            return border;
+        });
+        //Unhighlighting: restore the remembered borders
+        registerScript("elem.style.borderTop = borders[0]", (driver, args) -> {
+            Map<String, String> style = element(args, 0).getStyle();
+            String[] borders = String.valueOf(args[1]).split(";", -1);
+            style.remove("border");
+            String[] sides = {"top", "right", "bottom", "left"};
+            for (int i = 0; i < sides.length && i < borders.length; i++) style.put("border-" + sides[i], borders[i]);
+            return null;
+        });
+        registerScript("window.pageXOffset", (driver, args) -> Arrays.asList(scrollX, scrollY));
+        registerScript("window.scrollTo(", (driver, args) -> {
+            scrollX = Math.max(0, ((Number) args[0]).longValue());
+            scrollY = Math.max(0, ((Number) args[1]).longValue());
+            return null;
+        });
+        //Web storage: read all items of the named storage of the current origin
+        registerScript("items[key] = storage.getItem(key)", (driver, args) -> new LinkedHashMap<>(getStorage(args)));
+        //Web storage: replace all items of the named storage of the current origin
+        registerScript("storage.setItem(key, items[key])", (driver, args) -> {
+            Map<String, String> storage = getStorage(args);
+            storage.clear();
+            if (args.length > 1 && args[1] instanceof Map) {
+                ((Map<?, ?>) args[1]).forEach((key, value) -> storage.put(String.valueOf(key), String.valueOf(value)));
+            }
+            return null;
+        });
+        //Web storage: only set or remove the items that differ, for each given storage
+        registerScript("storage.removeItem(key); changed++", (driver, args) -> {
+            long changed = 0;
+            if (args.length == 0 || !(args[0] instanceof Map)) return changed;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) args[0]).entrySet()) {
+                Map<String, String> storage = getStorage(new Object[]{entry.getKey()});
+                Map<String, String> items = new LinkedHashMap<>();
+                ((Map<?, ?>) entry.getValue()).forEach((key, value) -> items.put(String.valueOf(key), String.valueOf(value)));
+                for (Iterator<String> keys = storage.keySet().iterator(); keys.hasNext(); ) {
+                    if (!items.containsKey(keys.next())) {
+                        keys.remove();
+                        changed++;
+                    }
+                }
+                for (Map.Entry<String, String> item : items.entrySet()) {
+                    if (!item.getValue().equals(storage.put(item.getKey(), item.getValue()))) changed++;
+                }
+            }
+            return changed;
+        });
+        //Page state: history length, scroll position and both storages at once
+        registerScript("state[name] = items", (driver, args) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("historyLength", (long) Math.max(history.size(), 1));
+            state.put("scroll", Arrays.asList(scrollX, scrollY));
+            state.put("localStorage", new LinkedHashMap<>(getStorage(new Object[]{"localStorage"})));
+            state.put("sessionStorage", new LinkedHashMap<>(getStorage(new Object[]{"sessionStorage"})));
+            return state;
+        });
+    }
+
+    /**
+     * Returns the local or session storage of the current origin named by the first script argument.
+     *
+     * @param args the script arguments
+     * @return the items of the storage
+     */
+    private Map<String, String> getStorage(Object[] args) {
+        String name = args.length > 0 ? String.valueOf(args[0]) : "";
+        if (!name.equals("localStorage") && !name.equals("sessionStorage")) {
+            throw new WebDriverException("Unknown storage: " + name);
+        }
+        return storages.computeIfAbsent(name, n -> new HashMap<>()).computeIfAbsent(getOrigin(), o -> new LinkedHashMap<>());
+    }
+
+    private String getOrigin() {
+        try {
+            URL url = new URL(currentUrl);
+            return url.getProtocol() + "://" + url.getHost() + (url.getPort() == -1 ? "" : ":" + url.getPort());
+        } catch (MalformedURLException e) {
+            return "null";
+        }
+    }
+
+    private static String border(Map<String, String> style, String side) {
+        String border = style.get("border-" + side);
+        if (border == null) border = style.get("border");
+        return border != null ? border : "0px none rgb(0, 0, 0)";
+    }
+
+    private DomNode element(Object[] args, int index) {
+        if (args.length <= index || !(args[index] instanceof FakeWebElement)) {
+            throw new WebDriverException("Argument " + index + " should be an element of the fake driver.");
+        }
+        return ((FakeWebElement) args[index]).getNode();
+    }
+
+    @Override
+    DomNode getSearchRoot() {
+        verifySession();
+        return document;
+    }
+
+    @Override
+    FakeWebDriver getOwner() {
+        return this;
+    }
+
+    /**
+     * Verifies that a node belongs to the current document.
+     *
+     * @param node the node to verify
+     * @throws StaleElementReferenceException thrown when the node belongs to a previous document
+     */
+    void verifyCurrent(DomNode node) {
+        verifySession();
+        if (node.getDocument() != document) throw new StaleElementReferenceException("Element is no longer attached to the DOM: " + node);
+    }
+
+    private void verifySession() {
+        if (quit) throw new NoSuchSessionException("The fake driver was quit.");
+    }
+
+    @Override
+    public void get(String url) {
+        verifySession();
+        String normalized = normalize(url);
+        //Loading a new page discards the forward history
+        while (history.size() > historyIndex + 1) history.remove(history.size() - 1);
+        history.add(normalized);
+        historyIndex = history.size() - 1;
+        load(normalized);
+    }
+
+    private String normalize(String url) {
+        if (url.equals(BLANK)) return url;
+        try {
+            URL parsed = new URL(currentUrl.equals(BLANK) ? null : new URL(currentUrl), url);
+            if (parsed.getPath().isEmpty() && !parsed.getProtocol().equals("file")) parsed = new URL(parsed, "/");
+            return parsed.toString();
+        } catch (MalformedURLException e) {
+            throw new WebDriverException("Invalid url: " + url, e);
+        }
+    }
+
+    /**
+     * Loads a page into a new document, making all elements of the previous document stale.
+     *
+     * @param url the url of the page
+     */
+    private void load(String url) {
+        LOGGER.debug("Loading " + url);
+        currentUrl = url;
+        document = HtmlParser.parse(read(url));
+        focused = null;
+        mousePosition = null;
+        scrollX = 0;
+        scrollY = 0;
+        for (DomNode meta : document.getDescendantElements()) {
+            if (meta.getTagName().equals("meta") && "set-cookie".equalsIgnoreCase(meta.getAttribute("http-equiv"))) {
+                setCookie(meta.getAttribute("content"));
+            }
+        }
+    }
+
+    private String read(String url) {
+        if (url.equals(BLANK)) return BLANK_PAGE;
+        try {
+            URL parsed = new URL(url);
+            String path = parsed.getPath();
+            if (inlinePages.containsKey(path)) return inlinePages.get(path);
+
+            Path file;
+            if (parsed.getProtocol().equals("file")) {
+                file = Paths.get(parsed.toURI());
+            } else {
+                if (siteRoot == null) return NOT_FOUND_PAGE;
+                file = siteRoot.resolve((path.endsWith("/") ? path + "index.html" : path).substring(1)).normalize();
+                //Don't serve anything outside of the site directory
+                if (!file.startsWith(siteRoot)) return NOT_FOUND_PAGE;
+            }
+            if (!Files.isRegularFile(file)) return NOT_FOUND_PAGE;
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException | java.net.URISyntaxException e) {
+            throw new WebDriverException("Couldn't load " + url, e);
+        }
+    }
+
+    /**
+     * Sets a cookie from a Set-Cookie header value, only its name and value are taken into account.
+     *
+     * @param header the Set-Cookie value
+     */
+    private void setCookie(String header) {
+        if (header == null) return;
+        String pair = header.split(";")[0];
+        int equals = pair.indexOf('=');
+        if (equals <= 0) return;
+        addCookie(new Cookie(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim(), "/"));
+    }
+
+    private void addCookie(Cookie cookie) {
+        String domain = cookie.getDomain();
+        if (domain == null) domain = getHost();
+        cookies.put(cookie.getName(), new Cookie(cookie.getName(), cookie.getValue(), domain, cookie.getPath(),
+                cookie.getExpiry(), cookie.isSecure(), cookie.isHttpOnly()));
+    }
+
+    private String getHost() {
+        try {
+            return new URL(currentUrl).getHost();
+        } catch (MalformedURLException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Returns the cookies visible to the current page, dropping the expired ones.
+     *
+     * @return the visible cookies
+     */
+    private Set<Cookie> getVisibleCookies() {
+        Date now = new Date();
+        cookies.values().removeIf(cookie -> cookie.getExpiry() != null && cookie.getExpiry().before(now));
+        String host = getHost();
+        Set<Cookie> visible = new LinkedHashSet<>();
+        for (Cookie cookie : cookies.values()) {
+            String domain = cookie.getDomain() == null ? "" : cookie.getDomain().replaceFirst("^\\.", "");
+            if (host.equals(domain) || host.endsWith("." + domain) || domain.isEmpty()) visible.add(cookie);
+        }
+        return visible;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        verifySession();
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        DomNode title = getSearchRoot().getFirstElementByTagName("title");
+        return title == null ? "" : title.getTextContent().trim();
+    }
+
+    @Override
+    public String getPageSource() {
+        return getSearchRoot().toHtml();
+    }
+
+    @Override
+    public void close() {
+        quit();
+    }
+
+    @Override
+    public void quit() {
+        quit = true;
+        document = null;
+        focused = null;
+    }
+
+    /**
+     * Returns true if the driver was quit, false if otherwise.
+     *
+     * @return true if the driver was quit, false if otherwise
+     */
+    public boolean isQuit() {
+        return quit;
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Collections.singleton(getWindowHandle());
+    }
+
+    @Override
+    public String getWindowHandle() {
+        verifySession();
+        return WINDOW_HANDLE;
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        verifySession();
+        return new FakeTargetLocator();
+    }
+
+    @Override
+    public Navigation navigate() {
+        verifySession();
+        return new FakeNavigation();
+    }
+
+    @Override
+    public Options manage() {
+        verifySession();
+        return new FakeOptions();
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        verifySession();
+        Object[] arguments = args == null ? new Object[0] : args;
+        FakeScript emulation = null;
+        for (Map.Entry<String, FakeScript> entry : scripts.entrySet()) {
+            if (script.contains(entry.getKey())) emulation = entry.getValue();
+        }
+        if (emulation == null) throw new WebDriverException("Script isn't supported by the fake driver: " + script);
+        return normalizeResult(emulation.execute(this, arguments));
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return executeScript(script, args);
+    }
+
+    /**
+     * Converts a script result to the types a real driver returns.
+     *
+     * @param result the script result
+     * @return the converted result
+     */
+    private static Object normalizeResult(Object result) {
+        if (result instanceof Integer || result instanceof Short || result instanceof Byte) return ((Number) result).longValue();
+        if (result instanceof Float) return ((Float) result).doubleValue();
+        if (result instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List<?>) result) list.add(normalizeResult(item));
+            return list;
+        }
+        return result;
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        verifySession();
+        return target.convertFromPngBytes(renderScreenshot(windowSize.getWidth(), windowSize.getHeight()));
+    }
+
+    /**
+     * Renders a fake screenshot: a blank page with a box for every displayed element in view.
+     *
+     * @param width  the width of the screenshot
+     * @param height the height of the screenshot
+     * @return the PNG encoded screenshot
+     */
+    byte[] renderScreenshot(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setColor(Color.LIGHT_GRAY);
+            int y = 0;
+            for (DomNode element : getSearchRoot().getDescendantElements()) {
+                if (y >= height) break;
+                if (!element.isDisplayed()) continue;
+                int depth = 0;
+                for (DomNode node = element.getParentElement(); node != null; node = node.getParentElement()) depth++;
+                graphics.drawRect(depth * 4, y, Math.max(width - depth * 8 - 1, 1), 18);
+                y += 20;
+            }
+        } finally {
+            graphics.dispose();
+        }
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new WebDriverException("Couldn't render the screenshot.", e);
+        }
+    }
+
+    /**
+     * Clicks an element: it gets focused, links are followed, submit buttons submit their form,
+     * checkboxes are toggled and radio buttons and options get selected.
+     *
+     * @param element the element to click
+     */
+    void click(DomNode element) {
+        verifyCurrent(element);
+        if (element.hasAttribute("disabled")) return;
+        focus(element);
+
+        String tagName = element.getTagName();
+        String type = element.getAttribute("type") == null ? "" : element.getAttribute("type").toLowerCase(Locale.ROOT);
+        if (tagName.equals("input") && type.equals("checkbox")) {
+            element.setChecked(!element.isChecked());
+        } else if (tagName.equals("input") && type.equals("radio")) {
+            selectExclusively(element, "input", "name");
+        } else if (tagName.equals("option")) {
+            DomNode select = element.getParentElement();
+            while (select != null && !select.getTagName().equals("select")) select = select.getParentElement();
+            if (select != null && select.hasAttribute("multiple")) element.setChecked(!element.isChecked());
+            else selectExclusively(element, "option", null);
+        } else if ((tagName.equals("input") && (type.equals("submit") || type.equals("image")))
+                || (tagName.equals("button") && (type.isEmpty() || type.equals("submit")))) {
+            submit(element);
+        } else {
+            //Clicking anything within a link follows the link
+            for (DomNode node = element; node != null; node = node.getParentElement()) {
+                if (node.getTagName().equals("a") && node.getAttribute("href") != null) {
+                    follow(node.getAttribute("href"));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects an element, deselecting the elements of its group: options of the same select,
+     * radio buttons with the same name.
+     */
+    private void selectExclusively(DomNode element, String tagName, String groupAttribute) {
+        DomNode group = element.getParentElement();
+        if (tagName.equals("option")) {
+            while (group != null && !group.getTagName().equals("select")) group = group.getParentElement();
+        } else {
+            group = element.getDocument();
+        }
+        if (group != null) {
+            for (DomNode other : group.getDescendantElements()) {
+                if (!other.getTagName().equals(tagName)) continue;
+                if (groupAttribute != null && !Objects.equals(other.getAttribute(groupAttribute), element.getAttribute(groupAttribute))) continue;
+                other.setChecked(false);
+            }
+        }
+        element.setChecked(true);
+    }
+
+    private void follow(String href) {
+        if (href.startsWith("javascript:")) return;
+        get(href);
+    }
+
+    /**
+     * Submits the form of an element (or the element itself if it is a form), navigating to its action.
+     * Forms without action reload the current page.
+     *
+     * @param element the form or an element within it
+     */
+    void submit(DomNode element) {
+        verifyCurrent(element);
+        DomNode form = element;
+        while (form != null && !form.getTagName().equals("form")) form = form.getParentElement();
+        if (form == null) throw new org.openqa.selenium.NoSuchElementException("Element isn't part of a form: " + element);
+        String action = form.getAttribute("action");
+        get(action == null || action.isEmpty() ? currentUrl : action);
+    }
+
+    /**
+     * Focuses an element, so it receives the typed keys.
+     *
+     * @param element the element to focus
+     */
+    void focus(DomNode element) {
+        verifyCurrent(element);
+        focused = element;
+    }
+
+    /**
+     * Types keys into the focused element. Backspace removes the last character, enter submits the form
+     * of a text field and other special keys are ignored.
+     *
+     * @param keysToSend the keys to type
+     */
+    void type(CharSequence... keysToSend) {
+        verifySession();
+        if (focused == null) return;
+        String tagName = focused.getTagName();
+        boolean editable = (tagName.equals("input") || tagName.equals("textarea")) && !focused.hasAttribute("readonly");
+
+        StringBuilder value = new StringBuilder(editable && focused.getValue() != null ? focused.getValue() : "");
+        for (CharSequence keys : keysToSend) {
+            for (char c : keys.toString().toCharArray()) {
+                if (c == Keys.BACK_SPACE.charAt(0)) {
+                    if (value.length() > 0) value.setLength(value.length() - 1);
+                } else if (c == Keys.ENTER.charAt(0) || c == Keys.RETURN.charAt(0)) {
+                    if (tagName.equals("textarea")) value.append('\n');
+                    else if (tagName.equals("input")) {
+                        focused.setValue(value.toString());
+                        submit(focused);
+                        return;
+                    }
+                } else if (c < Keys.NULL.charAt(0) || c > '\uf8ff') {
+                    value.append(c);
+                }
+            }
+        }
+        if (editable) focused.setValue(value.toString());
+    }
+
+    @Override
+    public Keyboard getKeyboard() {
+        return new Keyboard() {
+            @Override
+            public void sendKeys(CharSequence... keysToSend) {
+                type(keysToSend);
+            }
+
+            @Override
+            public void pressKey(CharSequence keyToPress) {
+                //Modifier keys aren't emulated
+            }
+
+            @Override
+            public void releaseKey(CharSequence keyToRelease) {
+                //Modifier keys aren't emulated
+            }
+        };
+    }
+
+    @Override
+    public Mouse getMouse() {
+        return new Mouse() {
+            @Override
+            public void click(Coordinates where) {
+                FakeWebElement element = target(where);
+                if (element != null) element.click();
+            }
+
+            @Override
+            public void doubleClick(Coordinates where) {
+                click(where);
+                click(where);
+            }
+
+            @Override
+            public void mouseDown(Coordinates where) {
+                target(where);
+            }
+
+            @Override
+            public void mouseUp(Coordinates where) {
+                target(where);
+            }
+
+            @Override
+            public void mouseMove(Coordinates where) {
+                target(where);
+            }
+
+            @Override
+            public void mouseMove(Coordinates where, long xOffset, long yOffset) {
+                target(where);
+            }
+
+            @Override
+            public void contextClick(Coordinates where) {
+                target(where);
+            }
+
+            /**
+             * Moves the mouse to the given coordinates, if any, and returns the element under the mouse.
+             */
+            private FakeWebElement target(Coordinates where) {
+                verifySession();
+                if (where != null) mousePosition = where;
+                return mousePosition != null && mousePosition.getAuxiliary() instanceof FakeWebElement
+                        ? (FakeWebElement) mousePosition.getAuxiliary() : null;
+            }
+        };
+    }
+
+    /**
+     * Navigation through the history of the fake driver.
+     */
+    private class FakeNavigation implements Navigation {
+
+        @Override
+        public void back() {
+            if (historyIndex > 0) load(history.get(--historyIndex));
+        }
+
+        @Override
+        public void forward() {
+            if (historyIndex < history.size() - 1) load(history.get(++historyIndex));
+        }
+
+        @Override
+        public void to(String url) {
+            get(url);
+        }
+
+        @Override
+        public void to(URL url) {
+            get(url.toString());
+        }
+
+        @Override
+        public void refresh() {
+            load(currentUrl);
+        }
+    }
+
+    /**
+     * Target locator of the fake driver, which has a single window without frames or alerts.
+     */
+    private class FakeTargetLocator implements TargetLocator {
+
+        @Override
+        public WebDriver frame(int index) {
+            throw new NoSuchFrameException("The fake driver doesn't support frames.");
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            throw new NoSuchFrameException("The fake driver doesn't support frames.");
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            throw new NoSuchFrameException("The fake driver doesn't support frames.");
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            if (!WINDOW_HANDLE.equals(nameOrHandle)) throw new NoSuchWindowException("No window: " + nameOrHandle);
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebElement activeElement() {
+            DomNode active = focused != null ? focused : getSearchRoot().getFirstElementByTagName("body");
+            return active == null ? null : new FakeWebElement(FakeWebDriver.this, active);
+        }
+
+        @Override
+        public Alert alert() {
+            throw new NoAlertPresentException("The fake driver doesn't support alerts.");
+        }
+    }
+
+    /**
+     * Options of the fake driver: cookies, window and (ignored) timeouts.
+     */
+    private class FakeOptions implements Options {
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            FakeWebDriver.this.addCookie(cookie);
+        }
+
+        @Override
+        public void deleteCookieNamed(String name) {
+            cookies.remove(name);
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie) {
+            cookies.remove(cookie.getName());
+        }
+
+        @Override
+        public void deleteAllCookies() {
+            cookies.values().removeAll(getVisibleCookies());
+        }
+
+        @Override
+        public Set<Cookie> getCookies() {
+            return getVisibleCookies();
+        }
+
+        @Override
+        public Cookie getCookieNamed(String name) {
+            for (Cookie cookie : getVisibleCookies()) if (cookie.getName().equals(name)) return cookie;
+            return null;
+        }
+
+        @Override
+        public Timeouts timeouts() {
+            return new Timeouts() {
+                @Override
+                public Timeouts implicitlyWait(long time, TimeUnit unit) {
+                    return this;
+                }
+
+                @Override
+                public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+                    return this;
+                }
+
+                @Override
+                public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+                    return this;
+                }
+            };
+        }
+
+        @Override
+        public ImeHandler ime() {
+            throw new UnsupportedCommandException("The fake driver doesn't support input methods.");
+        }
+
+        @Override
+        public Window window() {
+            return new Window() {
+                @Override
+                public void setSize(Dimension targetSize) {
+                    windowSize = targetSize;
+                }
+
+                @Override
+                public void setPosition(Point targetPosition) {
+                    windowPosition = targetPosition;
+                }
+
+                @Override
+                public Dimension getSize() {
+                    return windowSize;
+                }
+
+                @Override
+                public Point getPosition() {
+                    return windowPosition;
+                }
+
+                @Override
+                public void maximize() {
+                    windowPosition = new Point(0, 0);
+                }
+
+                @Override
+                public void fullscreen() {
+                    maximize();
+                }
+            };
+        }
+
+        @Override
+        public Logs logs() {
+            return new Logs() {
+                @Override
+                public LogEntries get(String logType) {
+                    return new LogEntries(Collections.emptyList());
+                }
+
+                @Override
+                public Set<String> getAvailableLogTypes() {
+                    return Collections.singleton(LogType.BROWSER);
+                }
+            };
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FakeWebDriver: " + (quit ? "quit" : currentUrl);
+    }
+}
@@ -0,0 +1,235 @@
+package navigation.fake;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.interactions.internal.Coordinates;
+import org.openqa.selenium.internal.Locatable;
+import org.openqa.selenium.internal.WrapsDriver;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * WebElement of the {@link FakeWebDriver}, backed by an element of its lightweight DOM.
+ * An element goes stale when the driver loads another document, just like in a browser.
+ * <p>
+ * There is no real layout: displayed elements are laid out as a single column of 20 pixel high boxes
+ * in document order, which keeps locations unique and stable.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class FakeWebElement extends FakeSearchContext implements WebElement, Locatable, WrapsDriver {
+
+    private static final int BOX_WIDTH = 200;
+    private static final int BOX_HEIGHT = 20;
+
+    private final FakeWebDriver driver;
+    private final DomNode node;
+
+    /**
+     * Class constructor specifying the driver and DOM element.
+     *
+     * @param driver the driver owning the element
+     * @param node   the DOM element
+     */
+    FakeWebElement(FakeWebDriver driver, DomNode node) {
+        this.driver = driver;
+        this.node = node;
+    }
+
+    /**
+     * Returns the DOM element, verifying the element isn't stale.
+     *
+     * @return the DOM element
+     */
+    DomNode getNode() {
+        driver.verifyCurrent(node);
+        return node;
+    }
+
+    @Override
+    DomNode getSearchRoot() {
+        return getNode();
+    }
+
+    @Override
+    FakeWebDriver getOwner() {
+        return driver;
+    }
+
+    @Override
+    public void click() {
+        verifyInteractable();
+        driver.click(node);
+    }
+
+    @Override
+    public void submit() {
+        driver.submit(getNode());
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        verifyInteractable();
+        if (!isEnabled()) throw new InvalidElementStateException("Element is disabled: " + node);
+        driver.focus(node);
+        driver.type(keysToSend);
+    }
+
+    @Override
+    public void clear() {
+        verifyInteractable();
+        getNode().setValue("");
+    }
+
+    @Override
+    public String getTagName() {
+        return getNode().getTagName();
+    }
+
+    /**
+     * Returns the current value of a property with the given name, the value of the attribute with the given name
+     * if there is no such property. Boolean attributes return "true" or null, links and sources return
+     * absolute urls.
+     *
+     * @param name the name of the attribute
+     * @return the value of the attribute, null if not set
+     */
+    @Override
+    public String getAttribute(String name) {
+        DomNode element = getNode();
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "value":
+                return element.getValue();
+            case "checked":
+            case "selected":
+                return element.isChecked() ? "true" : null;
+            case "disabled":
+            case "readonly":
+            case "multiple":
+            case "hidden":
+            case "required":
+                return element.hasAttribute(name) ? "true" : null;
+            case "href":
+            case "src":
+                String url = element.getAttribute(name);
+                if (url == null) return null;
+                try {
+                    return new URL(new URL(driver.getCurrentUrl()), url).toString();
+                } catch (MalformedURLException e) {
+                    return url;
+                }
+            case "style":
+                StringBuilder sb = new StringBuilder();
+                element.getStyle().forEach((property, value) -> sb.append(property).append(": ").append(value).append("; "));
+                return sb.toString().trim();
+            default:
+                return element.getAttribute(name);
+        }
+    }
+
+    @Override
+    public boolean isSelected() {
+        DomNode element = getNode();
+        return (element.getTagName().equals("option") || element.getTagName().equals("input")) && element.isChecked();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !getNode().hasAttribute("disabled");
+    }
+
+    @Override
+    public String getText() {
+        return getNode().getRenderedText();
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return getNode().isDisplayed();
+    }
+
+    @Override
+    public Point getLocation() {
+        return new Point(0, getNode().getDocumentIndex() * BOX_HEIGHT);
+    }
+
+    @Override
+    public Dimension getSize() {
+        return isDisplayed() ? new Dimension(BOX_WIDTH, BOX_HEIGHT) : new Dimension(0, 0);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return new Rectangle(getLocation(), getSize());
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        DomNode element = getNode();
+        String value = element.getStyle().get(propertyName.toLowerCase(Locale.ROOT));
+        if (value != null) return value;
+        if (propertyName.equalsIgnoreCase("display")) return element.isDisplayed() ? "block" : "none";
+        if (propertyName.equalsIgnoreCase("visibility")) return element.isDisplayed() ? "visible" : "hidden";
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        Dimension size = getSize();
+        return target.convertFromPngBytes(driver.renderScreenshot(Math.max(size.getWidth(), 1), Math.max(size.getHeight(), 1)));
+    }
+
+    @Override
+    public Coordinates getCoordinates() {
+        return new Coordinates() {
+            @Override
+            public Point onScreen() {
+                return getLocation();
+            }
+
+            @Override
+            public Point inViewPort() {
+                return getLocation();
+            }
+
+            @Override
+            public Point onPage() {
+                return getLocation();
+            }
+
+            @Override
+            public Object getAuxiliary() {
+                return FakeWebElement.this;
+            }
+        };
+    }
+
+    @Override
+    public WebDriver getWrappedDriver() {
+        return driver;
+    }
+
+    private void verifyInteractable() {
+        if (!getNode().isDisplayed()) throw new ElementNotVisibleException("Element is not displayed: " + node);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FakeWebElement)) return false;
+        FakeWebElement that = (FakeWebElement) o;
+        return driver == that.driver && node == that.node;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(driver), System.identityHashCode(node));
+    }
+
+    @Override
+    public String toString() {
+        return "[FakeWebElement " + node + "]";
+    }
+}
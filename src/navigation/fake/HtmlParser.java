@@ -0,0 +1,272 @@
+package navigation.fake;
+
+import java.util.*;
+
+/**
+ * Class responsible for parsing HTML into the lightweight DOM of the {@link FakeWebDriver}.
+ * <p>
+ * The parser is lenient rather than complete: it handles void elements, raw text elements (scripts, styles,
+ * titles and text areas), comments, doctypes, quoted and unquoted attributes, common entities, elements
+ * closed implicitly by a sibling (list items, options, table rows and cells, paragraphs) and stray end tags.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class HtmlParser {
+
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(Arrays.asList(
+            "script", "style", "title", "textarea"));
+    private static final Map<String, String> ENTITIES = new HashMap<>();
+
+    static {
+        ENTITIES.put("amp", "&");
+        ENTITIES.put("lt", "<");
+        ENTITIES.put("gt", ">");
+        ENTITIES.put("quot", "\"");
+        ENTITIES.put("apos", "'");
+        ENTITIES.put("nbsp", "\u00a0");
+        ENTITIES.put("copy", "\u00a9");
+    }
+
+    private final String html;
+    private int position;
+
+    private HtmlParser(String html) {
+        this.html = html;
+    }
+
+    /**
+     * Parses an HTML document.
+     *
+     * @param html the HTML to parse
+     * @return the document node
+     */
+    static DomNode parse(String html) {
+        return new HtmlParser(html).parseDocument();
+    }
+
+    static boolean isVoid(String tagName) {
+        return VOID_ELEMENTS.contains(tagName);
+    }
+
+    static boolean isRawText(String tagName) {
+        return RAW_TEXT_ELEMENTS.contains(tagName);
+    }
+
+    /**
+     * Escapes text for use in HTML content or attribute values.
+     *
+     * @param text the text to escape
+     * @return the escaped text
+     */
+    static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private DomNode parseDocument() {
+        DomNode document = DomNode.document();
+        Deque<DomNode> open = new ArrayDeque<>();
+        open.push(document);
+
+        while (position < html.length()) {
+            if (html.startsWith("<!--", position)) {
+                int end = html.indexOf("-->", position + 4);
+                position = end < 0 ? html.length() : end + 3;
+            } else if (html.startsWith("<!", position) || html.startsWith("<?", position)) {
+                int end = html.indexOf('>', position);
+                position = end < 0 ? html.length() : end + 1;
+            } else if (html.startsWith("</", position)) {
+                int end = html.indexOf('>', position);
+                String name = html.substring(position + 2, end < 0 ? html.length() : end).trim().toLowerCase(Locale.ROOT);
+                position = end < 0 ? html.length() : end + 1;
+                closeElement(open, name);
+            } else if (html.charAt(position) == '<' && position + 1 < html.length() && Character.isLetter(html.charAt(position + 1))) {
+                parseStartTag(open);
+            } else {
+                int end = html.indexOf('<', position + 1);
+                if (end < 0) end = html.length();
+                open.peek().appendChild(document.createText(decode(html.substring(position, end))));
+                position = end;
+            }
+        }
+        return document;
+    }
+
+    private void parseStartTag(Deque<DomNode> open) {
+        position++;
+        int nameStart = position;
+        while (position < html.length() && !Character.isWhitespace(html.charAt(position))
+                && html.charAt(position) != '>' && html.charAt(position) != '/') position++;
+        String name = html.substring(nameStart, position).toLowerCase(Locale.ROOT);
+
+        closeImplicitly(open, name);
+        DomNode element = open.peek().getDocument().createElement(name);
+        boolean selfClosing = parseAttributes(element);
+        open.peek().appendChild(element);
+
+        if (isRawText(name)) {
+            String endTag = "</" + name;
+            int end = html.toLowerCase(Locale.ROOT).indexOf(endTag, position);
+            if (end < 0) end = html.length();
+            String content = html.substring(position, end);
+            if (!content.isEmpty()) element.appendChild(element.createText(name.equals("title") || name.equals("textarea") ? decode(content) : content));
+            int close = html.indexOf('>', end);
+            position = close < 0 ? html.length() : close + 1;
+        } else if (!selfClosing && !isVoid(name)) {
+            open.push(element);
+        }
+    }
+
+    /**
+     * Parses the attributes of a start tag into the element.
+     *
+     * @param element the element
+     * @return true if the tag was self closing, false if otherwise
+     */
+    private boolean parseAttributes(DomNode element) {
+        boolean selfClosing = false;
+        while (position < html.length()) {
+            char c = html.charAt(position);
+            if (c == '>') {
+                position++;
+                break;
+            }
+            if (c == '/' || Character.isWhitespace(c)) {
+                selfClosing = c == '/';
+                position++;
+                continue;
+            }
+            int nameStart = position;
+            while (position < html.length() && !Character.isWhitespace(html.charAt(position))
+                    && "=>/".indexOf(html.charAt(position)) < 0) position++;
+            String name = html.substring(nameStart, position);
+            while (position < html.length() && Character.isWhitespace(html.charAt(position))) position++;
+
+            String value = "";
+            if (position < html.length() && html.charAt(position) == '=') {
+                position++;
+                while (position < html.length() && Character.isWhitespace(html.charAt(position))) position++;
+                value = parseAttributeValue();
+            }
+            if (!element.hasAttribute(name)) element.setAttribute(name, decode(value));
+            selfClosing = false;
+        }
+        return selfClosing;
+    }
+
+    private String parseAttributeValue() {
+        if (position >= html.length()) return "";
+        char quote = html.charAt(position);
+        if (quote == '"' || quote == '\'') {
+            int end = html.indexOf(quote, position + 1);
+            if (end < 0) end = html.length();
+            String value = html.substring(position + 1, end);
+            position = Math.min(end + 1, html.length());
+            return value;
+        }
+        int start = position;
+        while (position < html.length() && !Character.isWhitespace(html.charAt(position)) && html.charAt(position) != '>') position++;
+        return html.substring(start, position);
+    }
+
+    /**
+     * Closes the open elements a new element implicitly closes, e.g. a list item closes the previous list item.
+     *
+     * @param open the open elements
+     * @param name the tag name of the new element
+     */
+    private static void closeImplicitly(Deque<DomNode> open, String name) {
+        String current = open.peek().getTagName();
+        if (current == null) return;
+        boolean closes;
+        switch (name) {
+            case "li":
+            case "option":
+            case "p":
+                closes = current.equals(name);
+                break;
+            case "tr":
+                closes = current.equals("tr") || current.equals("td") || current.equals("th");
+                if (closes && !current.equals("tr")) open.pop();
+                break;
+            case "td":
+            case "th":
+                closes = current.equals("td") || current.equals("th");
+                break;
+            default:
+                closes = current.equals("p") && isBlockStart(name);
+        }
+        if (closes && open.size() > 1) open.pop();
+    }
+
+    private static boolean isBlockStart(String name) {
+        switch (name) {
+            case "div": case "ul": case "ol": case "table": case "form": case "section": case "nav":
+            case "h1": case "h2": case "h3": case "h4": case "h5": case "h6": case "header": case "footer":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Closes the innermost open element with a given name and all elements opened within it.
+     * End tags without matching open element are ignored.
+     *
+     * @param open the open elements
+     * @param name the tag name of the end tag
+     */
+    private static void closeElement(Deque<DomNode> open, String name) {
+        boolean isOpen = false;
+        for (DomNode node : open) {
+            if (name.equals(node.getTagName())) {
+                isOpen = true;
+                break;
+            }
+        }
+        if (!isOpen) return;
+        while (open.size() > 1) {
+            if (name.equals(open.pop().getTagName())) return;
+        }
+    }
+
+    /**
+     * Decodes the named and numeric character references in text.
+     *
+     * @param text the text to decode
+     * @return the decoded text
+     */
+    private static String decode(String text) {
+        if (text.indexOf('&') < 0) return text;
+        StringBuilder sb = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '&' ? text.indexOf(';', i) : -1;
+            if (end > i + 1 && end - i <= 10) {
+                String reference = text.substring(i + 1, end);
+                String decoded = null;
+                if (reference.startsWith("#x") || reference.startsWith("#X")) decoded = fromCodePoint(reference.substring(2), 16);
+                else if (reference.startsWith("#")) decoded = fromCodePoint(reference.substring(1), 10);
+                else decoded = ENTITIES.get(reference);
+                if (decoded != null) {
+                    sb.append(decoded);
+                    i = end + 1;
+                    continue;
+                }
+            }
+            sb.append(c);
+            i++;
+        }
+        return sb.toString();
+    }
+
+    private static String fromCodePoint(String digits, int radix) {
+        try {
+            return new String(Character.toChars(Integer.parseInt(digits, radix)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package navigation.fake;
+
+import org.openqa.selenium.InvalidSelectorException;
+
+import java.util.*;
+
+/**
+ * Class responsible for evaluating XPath expressions on the lightweight DOM of the {@link FakeWebDriver}.
+ * <p>
+ * Supported are absolute and relative location paths with the abbreviated syntax ({@code /}, {@code //},
+ * {@code .}, {@code ..}, {@code @}), the child, descendant(-or-self), self, parent, ancestor and sibling axes,
+ * name, {@code *}, {@code text()} and {@code node()} tests and predicates with positions, comparisons,
+ * {@code and}, {@code or} and the functions {@code text, normalize-space, contains, starts-with, string,
+ * concat, not, position, last} and {@code count}. That covers the expressions Selenium and the framework
+ * generate, not XPath as a whole.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class XPathEvaluator {
+
+    private final String expression;
+    private final Map<DomNode, Integer> documentOrder;
+    private int position;
+
+    private XPathEvaluator(String expression, DomNode document) {
+        this.expression = expression;
+        this.documentOrder = new IdentityHashMap<>();
+        index(document);
+    }
+
+    private void index(DomNode node) {
+        documentOrder.put(node, documentOrder.size());
+        for (DomNode child : node.getChildren()) index(child);
+    }
+
+    /**
+     * Returns the elements an expression selects from a context node, in document order.
+     *
+     * @param context    the context node
+     * @param expression the XPath expression
+     * @return the selected elements
+     */
+    static List<DomNode> select(DomNode context, String expression) {
+        XPathEvaluator evaluator = new XPathEvaluator(expression.trim(), context.getDocument());
+        List<DomNode> selected = evaluator.parsePath(Collections.singletonList(context));
+        evaluator.skipWhitespace();
+        if (evaluator.position < evaluator.expression.length()) throw evaluator.invalid();
+
+        List<DomNode> elements = new ArrayList<>();
+        for (DomNode node : selected) if (node.isElement()) elements.add(node);
+        return elements;
+    }
+
+    /**
+     * Parses and evaluates a location path from the given context nodes.
+     */
+    private List<DomNode> parsePath(List<DomNode> contexts) {
+        skipWhitespace();
+        List<DomNode> nodes = contexts;
+        if (peek("//")) {
+            position += 2;
+            nodes = descendantsOrSelf(Collections.singletonList(contexts.get(0).getDocument()));
+        } else if (peek("/")) {
+            position++;
+            nodes = Collections.singletonList(contexts.get(0).getDocument());
+            skipWhitespace();
+            if (position >= expression.length() || !startsStep()) return nodes;
+        }
+        nodes = parseStep(nodes);
+        while (true) {
+            skipWhitespace();
+            if (peek("//")) {
+                position += 2;
+                nodes = parseStep(descendantsOrSelf(nodes));
+            } else if (peek("/")) {
+                position++;
+                nodes = parseStep(nodes);
+            } else {
+                return nodes;
+            }
+        }
+    }
+
+    private boolean startsStep() {
+        char c = expression.charAt(position);
+        return Character.isLetter(c) || c == '*' || c == '.' || c == '@' || c == '_';
+    }
+
+    /**
+     * Parses a step and evaluates it for every context node, applying the predicates per context node.
+     */
+    private List<DomNode> parseStep(List<DomNode> contexts) {
+        skipWhitespace();
+        if (peek("..")) {
+            position += 2;
+            Set<DomNode> parents = new LinkedHashSet<>();
+            for (DomNode node : contexts) if (node.getParent() != null) parents.add(node.getParent());
+            return sort(parents);
+        }
+        if (peek(".")) {
+            position++;
+            return contexts;
+        }
+
+        String axis = "child";
+        int axisEnd = expression.indexOf("::", position);
+        if (axisEnd > 0 && expression.substring(position, axisEnd).matches("[a-z-]+")) {
+            axis = expression.substring(position, axisEnd);
+            position = axisEnd + 2;
+        }
+        String test = parseNodeTest();
+
+        int predicatesStart = position;
+        Set<DomNode> result = new LinkedHashSet<>();
+        for (DomNode context : contexts) {
+            List<DomNode> candidates = new ArrayList<>();
+            for (DomNode node : axis(context, axis)) if (matchesTest(node, test)) candidates.add(node);
+            position = predicatesStart;
+            skipWhitespace();
+            while (peek("[")) {
+                position++;
+                int expressionStart = position;
+                List<DomNode> filtered = new ArrayList<>();
+                for (int i = 0; i < candidates.size(); i++) {
+                    position = expressionStart;
+                    Object value = parseOr(candidates.get(i), i + 1, candidates.size());
+                    boolean keep = value instanceof Double ? ((Double) value).intValue() == i + 1 : toBoolean(value);
+                    if (keep) filtered.add(candidates.get(i));
+                }
+                if (candidates.isEmpty()) skipExpression();
+                skipWhitespace();
+                expect(']');
+                candidates = filtered;
+                skipWhitespace();
+            }
+            result.addAll(candidates);
+        }
+        if (contexts.isEmpty()) {
+            skipWhitespace();
+            while (peek("[")) {
+                position++;
+                skipExpression();
+                expect(']');
+                skipWhitespace();
+            }
+        }
+        return sort(result);
+    }
+
+    private String parseNodeTest() {
+        skipWhitespace();
+        if (peek("*")) {
+            position++;
+            return "*";
+        }
+        String name = parseName();
+        if (peek("()")) {
+            position += 2;
+            return name + "()";
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean matchesTest(DomNode node, String test) {
+        switch (test) {
+            case "node()":
+                return true;
+            case "text()":
+                return node.getType() == DomNode.Type.TEXT;
+            case "*":
+                return node.isElement();
+            default:
+                return node.isElement() && test.equals(node.getTagName());
+        }
+    }
+
+    private List<DomNode> axis(DomNode context, String axis) {
+        List<DomNode> nodes = new ArrayList<>();
+        switch (axis) {
+            case "child":
+                return context.getChildren();
+            case "descendant":
+                collectDescendants(context, nodes);
+                return nodes;
+            case "descendant-or-self":
+                nodes.add(context);
+                collectDescendants(context, nodes);
+                return nodes;
+            case "self":
+                return Collections.singletonList(context);
+            case "parent":
+                return context.getParent() == null ? nodes : Collections.singletonList(context.getParent());
+            case "ancestor":
+                for (DomNode node = context.getParent(); node != null; node = node.getParent()) nodes.add(node);
+                return nodes;
+            case "following-sibling":
+            case "preceding-sibling":
+                if (context.getParent() == null) return nodes;
+                List<DomNode> siblings = context.getParent().getChildren();
+                int index = siblings.indexOf(context);
+                if (axis.startsWith("following")) return siblings.subList(index + 1, siblings.size());
+                nodes.addAll(siblings.subList(0, index));
+                Collections.reverse(nodes);
+                return nodes;
+            default:
+                throw new InvalidSelectorException("Axis " + axis + " isn't supported by the fake driver.");
+        }
+    }
+
+    private static void collectDescendants(DomNode node, List<DomNode> descendants) {
+        for (DomNode child : node.getChildren()) {
+            descendants.add(child);
+            collectDescendants(child, descendants);
+        }
+    }
+
+    private List<DomNode> descendantsOrSelf(List<DomNode> contexts) {
+        Set<DomNode> nodes = new LinkedHashSet<>();
+        for (DomNode context : contexts) {
+            nodes.add(context);
+            List<DomNode> descendants = new ArrayList<>();
+            collectDescendants(context, descendants);
+            nodes.addAll(descendants);
+        }
+        return sort(nodes);
+    }
+
+    private List<DomNode> sort(Collection<DomNode> nodes) {
+        List<DomNode> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparing(node -> documentOrder.getOrDefault(node, Integer.MAX_VALUE)));
+        return sorted;
+    }
+
+    private Object parseOr(DomNode context, int contextPosition, int contextSize) {
+        Object value = parseAnd(context, contextPosition, contextSize);
+        while (peekKeyword("or")) {
+            position += 2;
+            Object right = parseAnd(context, contextPosition, contextSize);
+            value = toBoolean(value) || toBoolean(right);
+        }
+        return value;
+    }
+
+    private Object parseAnd(DomNode context, int contextPosition, int contextSize) {
+        Object value = parseComparison(context, contextPosition, contextSize);
+        while (peekKeyword("and")) {
+            position += 3;
+            Object right = parseComparison(context, contextPosition, contextSize);
+            value = toBoolean(value) && toBoolean(right);
+        }
+        return value;
+    }
+
+    private Object parseComparison(DomNode context, int contextPosition, int contextSize) {
+        Object left = parseValue(context, contextPosition, contextSize);
+        skipWhitespace();
+        boolean negated = peek("!=");
+        if (negated || peek("=")) {
+            position += negated ? 2 : 1;
+            Object right = parseValue(context, contextPosition, contextSize);
+            return compare(left, right) != negated;
+        }
+        return left;
+    }
+
+    private Object parseValue(DomNode context, int contextPosition, int contextSize) {
+        skipWhitespace();
+        if (position >= expression.length()) throw invalid();
+        char c = expression.charAt(position);
+        if (c == '"' || c == '\'') return parseLiteral();
+        if (Character.isDigit(c)) {
+            int start = position;
+            while (position < expression.length() && (Character.isDigit(expression.charAt(position)) || expression.charAt(position) == '.')) position++;
+            return Double.parseDouble(expression.substring(start, position));
+        }
+        if (c == '(') {
+            position++;
+            Object value = parseOr(context, contextPosition, contextSize);
+            skipWhitespace();
+            expect(')');
+            return value;
+        }
+        if (c == '@') {
+            position++;
+            String name = parseName();
+            String attribute = context.isElement() ? context.getAttribute(name) : null;
+            return attribute == null ? Collections.emptyList() : Collections.singletonList(attribute);
+        }
+
+        int nameStart = position;
+        if (Character.isLetter(c)) {
+            String name = parseName();
+            skipWhitespace();
+            if (peek("(") && !name.equals("text") && !name.equals("node")) {
+                position++;
+                return parseFunction(name, context, contextPosition, contextSize);
+            }
+            position = nameStart;
+        }
+        return new ArrayList<Object>(parsePath(Collections.singletonList(context)));
+    }
+
+    private Object parseFunction(String name, DomNode context, int contextPosition, int contextSize) {
+        List<Object> arguments = new ArrayList<>();
+        skipWhitespace();
+        while (!peek(")")) {
+            arguments.add(parseOr(context, contextPosition, contextSize));
+            skipWhitespace();
+            if (peek(",")) position++;
+            else if (!peek(")")) throw invalid();
+            skipWhitespace();
+        }
+        position++;
+
+        switch (name) {
+            case "normalize-space":
+                String text = arguments.isEmpty() ? stringValue(context) : toText(arguments.get(0));
+                return text.replaceAll("\\s+", " ").trim();
+            case "string":
+                return arguments.isEmpty() ? stringValue(context) : toText(arguments.get(0));
+            case "contains":
+                return toText(arguments.get(0)).contains(toText(arguments.get(1)));
+            case "starts-with":
+                return toText(arguments.get(0)).startsWith(toText(arguments.get(1)));
+            case "concat":
+                StringBuilder sb = new StringBuilder();
+                for (Object argument : arguments) sb.append(toText(argument));
+                return sb.toString();
+            case "not":
+                return !toBoolean(arguments.get(0));
+            case "position":
+                return (double) contextPosition;
+            case "last":
+                return (double) contextSize;
+            case "count":
+                return (double) ((List<?>) arguments.get(0)).size();
+            default:
+                throw new InvalidSelectorException("Function " + name + "() isn't supported by the fake driver.");
+        }
+    }
+
+    private String parseLiteral() {
+        char quote = expression.charAt(position);
+        int end = expression.indexOf(quote, position + 1);
+        if (end < 0) throw invalid();
+        String literal = expression.substring(position + 1, end);
+        position = end + 1;
+        return literal;
+    }
+
+    private String parseName() {
+        int start = position;
+        while (position < expression.length()) {
+            char c = expression.charAt(position);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_' && c != ':') break;
+            //An axis separator isn't part of a name
+            if (c == ':' && peek("::")) break;
+            position++;
+        }
+        if (position == start) throw invalid();
+        return expression.substring(start, position);
+    }
+
+    /**
+     * Skips a predicate expression without evaluating it, when there are no nodes to evaluate it for.
+     */
+    private void skipExpression() {
+        int depth = 0;
+        while (position < expression.length()) {
+            char c = expression.charAt(position);
+            if (c == '"' || c == '\'') {
+                parseLiteral();
+                continue;
+            }
+            if (c == '[' || c == '(') depth++;
+            if (c == ']' || c == ')') {
+                if (depth == 0) return;
+                depth--;
+            }
+            position++;
+        }
+    }
+
+    private static boolean compare(Object left, Object right) {
+        if (left instanceof List && right instanceof List) {
+            for (Object l : (List<?>) left) for (Object r : (List<?>) right) if (itemText(l).equals(itemText(r))) return true;
+            return false;
+        }
+        if (right instanceof List) return compare(right, left);
+        if (left instanceof List) {
+            for (Object item : (List<?>) left) if (compare(itemText(item), right)) return true;
+            return false;
+        }
+        if (left instanceof Boolean || right instanceof Boolean) return toBoolean(left) == toBoolean(right);
+        if (left instanceof Double || right instanceof Double) return toNumber(left) == toNumber(right);
+        return left.equals(right);
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) return (Boolean) value;
+        if (value instanceof Double) return (Double) value != 0;
+        if (value instanceof List) return !((List<?>) value).isEmpty();
+        return !value.toString().isEmpty();
+    }
+
+    private static double toNumber(Object value) {
+        if (value instanceof Double) return (Double) value;
+        try {
+            return Double.parseDouble(toText(value).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof List) {
+            List<?> items = (List<?>) value;
+            return items.isEmpty() ? "" : itemText(items.get(0));
+        }
+        if (value instanceof Double) {
+            double number = (Double) value;
+            return number == Math.rint(number) ? String.valueOf((long) number) : String.valueOf(number);
+        }
+        return String.valueOf(value);
+    }
+
+    private static String itemText(Object item) {
+        return item instanceof DomNode ? stringValue((DomNode) item) : String.valueOf(item);
+    }
+
+    private static String stringValue(DomNode node) {
+        return node.getTextContent();
+    }
+
+    private boolean peek(String token) {
+        return expression.startsWith(token, position);
+    }
+
+    private boolean peekKeyword(String keyword) {
+        skipWhitespace();
+        int end = position + keyword.length();
+        return peek(keyword) && end < expression.length() && !Character.isLetterOrDigit(expression.charAt(end))
+                && expression.charAt(end) != '-';
+    }
+
+    private void skipWhitespace() {
+        while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) position++;
+    }
+
+    private void expect(char c) {
+        if (position >= expression.length() || expression.charAt(position) != c) throw invalid();
+        position++;
+    }
+
+    private InvalidSelectorException invalid() {
+        return new InvalidSelectorException("Invalid or unsupported XPath expression: " + expression);
+    }
+}
@@ -0,0 +1,298 @@
+package navigation.replay;
+
+import com.google.gson.*;
+import org.openqa.selenium.*;
+import org.openqa.selenium.logging.LogEntries;
+import org.openqa.selenium.logging.LogEntry;
+
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Class responsible for encoding WebDriver command arguments and results as JSON, and decoding them again.
+ * <p>
+ * Strings, booleans and numbers are encoded as is, lists as arrays. Other values are encoded as an object
+ * with a single key naming their type, e.g. {@code {"point":[0,20]}}. Objects issuing commands themselves,
+ * such as elements and driver views, are encoded as references to their id: {@code {"ref":"e1"}}.
+ * Long strings (typically scripts) are interned: they are defined once and referred to by their index.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class CommandCodec {
+
+    //Strings at least this long are interned
+    private static final int INTERN_LENGTH = 64;
+
+    private final Function<Object, String> references;
+    private final Map<String, Integer> interned;
+    private final List<JsonObject> definitions;
+    private final boolean interning;
+
+    /**
+     * Class constructor.
+     *
+     * @param references resolves the id of objects that are encoded as references, null for other objects
+     * @param interning  boolean value indicating whether or not to intern long strings
+     */
+    CommandCodec(Function<Object, String> references, boolean interning) {
+        this.references = references;
+        this.interning = interning;
+        this.interned = new HashMap<>();
+        this.definitions = new ArrayList<>();
+    }
+
+    /**
+     * Encodes the arguments of a command, flattening varargs.
+     *
+     * @param args the arguments, may be null
+     * @return the encoded arguments
+     */
+    JsonArray encodeArguments(Object[] args) {
+        JsonArray array = new JsonArray();
+        if (args == null) return array;
+        for (Object arg : args) {
+            if (arg instanceof Object[]) {
+                JsonArray varargs = new JsonArray();
+                for (Object vararg : (Object[]) arg) varargs.add(encode(vararg));
+                array.add(varargs);
+            } else {
+                array.add(encode(arg));
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Encodes a value.
+     *
+     * @param value the value to encode
+     * @return the encoded value
+     */
+    JsonElement encode(Object value) {
+        if (value == null) return JsonNull.INSTANCE;
+        String reference = references.apply(value);
+        if (reference != null) return tagged("ref", new JsonPrimitive(reference));
+
+        if (value instanceof String || value instanceof Keys) return encodeString(value.toString());
+        if (value instanceof CharSequence) return encodeString(value.toString());
+        if (value instanceof Boolean) return new JsonPrimitive((Boolean) value);
+        if (value instanceof Double || value instanceof Float) return new JsonPrimitive(((Number) value).doubleValue());
+        if (value instanceof Number) return new JsonPrimitive(((Number) value).longValue());
+        if (value instanceof Enum) return new JsonPrimitive(((Enum<?>) value).name());
+        if (value instanceof By || value instanceof URL || value instanceof OutputType) return new JsonPrimitive(value.toString());
+        if (value instanceof List) {
+            JsonArray array = new JsonArray();
+            for (Object item : (List<?>) value) array.add(encode(item));
+            return array;
+        }
+        if (value instanceof Set) {
+            JsonArray array = new JsonArray();
+            for (Object item : (Set<?>) value) array.add(encode(item));
+            return tagged("set", array);
+        }
+        if (value instanceof Map) {
+            JsonObject object = new JsonObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) object.add(String.valueOf(entry.getKey()), encode(entry.getValue()));
+            return tagged("map", object);
+        }
+        if (value instanceof Point) return tagged("point", numbers(((Point) value).getX(), ((Point) value).getY()));
+        if (value instanceof Dimension) return tagged("dimension", numbers(((Dimension) value).getWidth(), ((Dimension) value).getHeight()));
+        if (value instanceof Rectangle) {
+            Rectangle rectangle = (Rectangle) value;
+            return tagged("rect", numbers(rectangle.getX(), rectangle.getY(), rectangle.getHeight(), rectangle.getWidth()));
+        }
+        if (value instanceof Cookie) return tagged("cookie", encodeCookie((Cookie) value));
+        if (value instanceof LogEntries) {
+            JsonArray array = new JsonArray();
+            for (LogEntry entry : (LogEntries) value) {
+                JsonArray item = new JsonArray();
+                item.add(new JsonPrimitive(entry.getLevel().getName()));
+                item.add(new JsonPrimitive(entry.getTimestamp()));
+                item.add(encodeString(entry.getMessage()));
+                array.add(item);
+            }
+            return tagged("logs", array);
+        }
+        //Anything else can't be replayed, only its type is kept
+        return tagged("unsupported", new JsonPrimitive(value.getClass().getName()));
+    }
+
+    private JsonElement encodeString(String value) {
+        if (!interning || value.length() < INTERN_LENGTH) return new JsonPrimitive(value);
+        Integer index = interned.get(value);
+        if (index == null) {
+            index = interned.size();
+            interned.put(value, index);
+            JsonObject definition = new JsonObject();
+            definition.addProperty("def", index);
+            definition.addProperty("text", value);
+            definitions.add(definition);
+        }
+        return tagged("str", new JsonPrimitive(index));
+    }
+
+    private static JsonObject encodeCookie(Cookie cookie) {
+        JsonObject object = new JsonObject();
+        object.addProperty("name", cookie.getName());
+        object.addProperty("value", cookie.getValue());
+        if (cookie.getDomain() != null) object.addProperty("domain", cookie.getDomain());
+        if (cookie.getPath() != null) object.addProperty("path", cookie.getPath());
+        if (cookie.getExpiry() != null) object.addProperty("expiry", cookie.getExpiry().getTime());
+        object.addProperty("secure", cookie.isSecure());
+        object.addProperty("httpOnly", cookie.isHttpOnly());
+        return object;
+    }
+
+    /**
+     * Returns the string definitions created since the last call, to be written before the command using them.
+     *
+     * @return the new string definitions
+     */
+    List<JsonObject> drainDefinitions() {
+        List<JsonObject> drained = new ArrayList<>(definitions);
+        definitions.clear();
+        return drained;
+    }
+
+    /**
+     * Encodes an exception thrown by a command.
+     *
+     * @param throwable the exception
+     * @return the encoded exception
+     */
+    static JsonObject encodeError(Throwable throwable) {
+        JsonObject error = new JsonObject();
+        error.addProperty("type", throwable.getClass().getName());
+        //Selenium appends build and driver info to its messages, only the first line is relevant
+        String message = throwable.getMessage();
+        if (message != null) error.addProperty("message", message.split("\n", 2)[0]);
+        return error;
+    }
+
+    /**
+     * Decodes an exception, falling back to a WebDriverException when it can't be recreated.
+     *
+     * @param error the encoded exception
+     * @return the decoded exception
+     */
+    static RuntimeException decodeError(JsonObject error) {
+        String type = error.get("type").getAsString();
+        String message = error.has("message") ? error.get("message").getAsString() : null;
+        try {
+            Class<?> errorClass = Class.forName(type);
+            if (RuntimeException.class.isAssignableFrom(errorClass)) {
+                Constructor<?> constructor = errorClass.getConstructor(String.class);
+                return (RuntimeException) constructor.newInstance(message);
+            }
+        } catch (ReflectiveOperationException ignored) {
+            //Fall back to a generic exception
+        }
+        return new WebDriverException(type + ": " + message);
+    }
+
+    /**
+     * Decodes a value.
+     *
+     * @param json       the encoded value
+     * @param type       the type the value should have, e.g. the return type of the command
+     * @param references resolves references, given their id and the types of the referred object if recorded
+     * @return the decoded value
+     */
+    static Object decode(JsonElement json, Class<?> type, BiFunction<String, JsonArray, Object> references) {
+        if (json == null || json.isJsonNull()) return null;
+        if (json.isJsonPrimitive()) return coerce(decodePrimitive(json.getAsJsonPrimitive()), type);
+        if (json.isJsonArray()) {
+            List<Object> list = new ArrayList<>();
+            for (JsonElement item : json.getAsJsonArray()) list.add(decode(item, Object.class, references));
+            return list;
+        }
+
+        JsonObject object = json.getAsJsonObject();
+        if (object.has("ref")) {
+            JsonArray types = object.has("types") ? object.getAsJsonArray("types") : null;
+            return references.apply(object.get("ref").getAsString(), types);
+        }
+        Map.Entry<String, JsonElement> tagged = object.entrySet().iterator().next();
+        JsonElement value = tagged.getValue();
+        switch (tagged.getKey()) {
+            case "set":
+                Set<Object> set = new LinkedHashSet<>();
+                for (JsonElement item : value.getAsJsonArray()) set.add(decode(item, Object.class, references));
+                return set;
+            case "map":
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (Map.Entry<String, JsonElement> entry : value.getAsJsonObject().entrySet()) {
+                    map.put(entry.getKey(), decode(entry.getValue(), Object.class, references));
+                }
+                return map;
+            case "point":
+                return new Point(integer(value, 0), integer(value, 1));
+            case "dimension":
+                return new Dimension(integer(value, 0), integer(value, 1));
+            case "rect":
+                return new Rectangle(integer(value, 0), integer(value, 1), integer(value, 2), integer(value, 3));
+            case "cookie":
+                return decodeCookie(value.getAsJsonObject());
+            case "logs":
+                List<LogEntry> entries = new ArrayList<>();
+                for (JsonElement item : value.getAsJsonArray()) {
+                    JsonArray entry = item.getAsJsonArray();
+                    entries.add(new LogEntry(Level.parse(entry.get(0).getAsString()), entry.get(1).getAsLong(), entry.get(2).getAsString()));
+                }
+                return new LogEntries(entries);
+            case "unsupported":
+                throw new WebDriverException("A result of type " + value.getAsString() + " can't be replayed.");
+            default:
+                throw new WebDriverException("Unknown recorded value: " + json);
+        }
+    }
+
+    private static Object decodePrimitive(JsonPrimitive primitive) {
+        if (primitive.isBoolean()) return primitive.getAsBoolean();
+        if (primitive.isString()) return primitive.getAsString();
+        String number = primitive.getAsString();
+        if (number.contains(".") || number.contains("e") || number.contains("E")) return primitive.getAsDouble();
+        return primitive.getAsLong();
+    }
+
+    /**
+     * Converts a decoded primitive to the type it should have.
+     */
+    private static Object coerce(Object value, Class<?> type) {
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == int.class || type == Integer.class) return number.intValue();
+            if (type == long.class || type == Long.class) return number.longValue();
+            if (type == double.class || type == Double.class) return number.doubleValue();
+        }
+        return value;
+    }
+
+    private static int integer(JsonElement array, int index) {
+        return array.getAsJsonArray().get(index).getAsInt();
+    }
+
+    private static Cookie decodeCookie(JsonObject object) {
+        return new Cookie(object.get("name").getAsString(), object.get("value").getAsString(),
+                object.has("domain") ? object.get("domain").getAsString() : null,
+                object.has("path") ? object.get("path").getAsString() : null,
+                object.has("expiry") ? new Date(object.get("expiry").getAsLong()) : null,
+                object.get("secure").getAsBoolean(), object.get("httpOnly").getAsBoolean());
+    }
+
+    private static JsonObject tagged(String tag, JsonElement value) {
+        JsonObject object = new JsonObject();
+        object.add(tag, value);
+        return object;
+    }
+
+    private static JsonArray numbers(int... values) {
+        JsonArray array = new JsonArray();
+        for (int value : values) array.add(new JsonPrimitive(value));
+        return array;
+    }
+}
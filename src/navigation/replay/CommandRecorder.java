@@ -0,0 +1,400 @@
+package navigation.replay;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.*;
+import org.openqa.selenium.interactions.Keyboard;
+import org.openqa.selenium.interactions.Mouse;
+import org.openqa.selenium.interactions.internal.Coordinates;
+import org.openqa.selenium.logging.Logs;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Class responsible for recording the commands issued on a WebDriver.
+ * <p>
+ * The recording driver is a decorator appending every command and its response to a trace file, so the session
+ * can be replayed without a browser by {@link CommandReplayer}. Elements and driver views (navigation, options,
+ * windows, keyboard, mouse...) obtained through the recording driver are recorded as well.
+ * <p>
+ * The trace file holds one JSON object per line: a header per session ({@code session}, {@code types}),
+ * definitions of interned strings ({@code def}, {@code text}) and commands: the id of the target ({@code t},
+ * "d" being the driver), the name ({@code m}), the arguments ({@code a}) and either the result ({@code r}) or
+ * the thrown exception ({@code x}). Every line holds the random id of its session ({@code s}), as sessions
+ * recorded in parallel share the file and their lines interleave. The sessions of a JVM share a single stream per
+ * file, and the lines of a command are written in a single append, so lines of different sessions never mix.
+ * Lines are flushed as they are written, so the trace of a crashed run is usable.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class CommandRecorder {
+
+    private static final Logger LOGGER = Logger.getLogger(CommandRecorder.class);
+
+    static final String DRIVER_ID = "d";
+
+    //Open trace files by their absolute path, shared by the sessions recording to them
+    private static final Map<File, TraceFile> traceFiles = new HashMap<>();
+
+    //Types of the objects obtained from the driver that issue commands themselves, besides elements
+    static final List<Class<?>> VIEW_TYPES = Collections.unmodifiableList(Arrays.asList(
+            WebDriver.Navigation.class, WebDriver.Options.class, WebDriver.TargetLocator.class,
+            WebDriver.Timeouts.class, WebDriver.Window.class, WebDriver.ImeHandler.class,
+            Logs.class, Keyboard.class, Mouse.class, Coordinates.class));
+
+    /**
+     * Wraps a driver in a decorator recording its commands, appending the session to the given trace file.
+     *
+     * @param driver the driver to record
+     * @param file   the trace file
+     * @return the recording driver
+     * @throws IOException thrown when the trace file couldn't be opened
+     */
+    public static WebDriver wrap(WebDriver driver, File file) throws IOException {
+        if (isRecording(driver)) return driver;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) throw new IOException("Couldn't create " + parent);
+
+        LOGGER.debug("Recording driver commands to " + file);
+        TraceFile traceFile = TraceFile.open(file);
+        try {
+            return (WebDriver) new Session(traceFile).start(driver);
+        } catch (IOException e) {
+            traceFile.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns true if the given object is a recording decorator, false if otherwise.
+     *
+     * @param object the object to check
+     * @return true if the object is recording, false if otherwise
+     */
+    public static boolean isRecording(Object object) {
+        return object != null && Proxy.isProxyClass(object.getClass())
+                && Proxy.getInvocationHandler(object) instanceof RecordingHandler;
+    }
+
+    /**
+     * Returns the public interfaces implemented by an object.
+     *
+     * @param object the object
+     * @return the public interfaces of the object
+     */
+    static List<Class<?>> getPublicInterfaces(Object object) {
+        List<Class<?>> interfaces = new ArrayList<>(ClassUtils.getAllInterfaces(object.getClass()));
+        interfaces.removeIf(type -> !Modifier.isPublic(type.getModifiers()));
+        return interfaces;
+    }
+
+    /**
+     * A recorded session, keeping track of the recorded objects and writing the trace.
+     */
+    private static final class Session {
+
+        private final TraceFile traceFile;
+        private final String id;
+        private final CommandCodec codec;
+        //Proxies by the object they record and recorded objects by id, elements are forgotten on navigation
+        private final Map<Object, Object> proxies = new IdentityHashMap<>();
+        private final Map<String, Object> targetsById = new HashMap<>();
+        private final Set<String> announced = new HashSet<>();
+        private int elementCount;
+        private boolean closed;
+
+        private Session(TraceFile traceFile) {
+            this.traceFile = traceFile;
+            this.id = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+            this.codec = new CommandCodec(this::reference, true);
+        }
+
+        /**
+         * Starts the session, writing its header.
+         *
+         * @param driver the recorded driver
+         * @return the recording driver
+         */
+        private synchronized Object start(WebDriver driver) throws IOException {
+            JsonObject header = new JsonObject();
+            header.addProperty("s", id);
+            header.addProperty("session", Instant.now().toString());
+            header.add("types", types(driver));
+            announced.add(DRIVER_ID);
+            traceFile.write(header + "\n");
+            return proxy(driver, DRIVER_ID);
+        }
+
+        private JsonArray types(Object target) {
+            JsonArray types = new JsonArray();
+            for (Class<?> type : getPublicInterfaces(target)) types.add(new JsonPrimitive(type.getName()));
+            return types;
+        }
+
+        private Object proxy(Object target, String id) {
+            Object proxy = proxies.get(target);
+            if (proxy != null) return proxy;
+            List<Class<?>> interfaces = getPublicInterfaces(target);
+            proxy = Proxy.newProxyInstance(CommandRecorder.class.getClassLoader(),
+                    interfaces.toArray(new Class<?>[interfaces.size()]), new RecordingHandler(this, target, id));
+            proxies.put(target, proxy);
+            targetsById.putIfAbsent(id, target);
+            return proxy;
+        }
+
+        /**
+         * Returns the handler of a recording proxy of this session, null if the object isn't one.
+         */
+        private RecordingHandler handler(Object object) {
+            if (object == null || !Proxy.isProxyClass(object.getClass())) return null;
+            InvocationHandler handler = Proxy.getInvocationHandler(object);
+            return handler instanceof RecordingHandler && ((RecordingHandler) handler).session == this
+                    ? (RecordingHandler) handler : null;
+        }
+
+        /**
+         * Returns the id of a recording proxy, null if the object isn't one.
+         */
+        private String reference(Object object) {
+            RecordingHandler handler = handler(object);
+            return handler != null ? handler.id : null;
+        }
+
+        /**
+         * Forgets the elements found so far, and the views obtained from them, after a navigation made them stale.
+         * Their proxies keep working, they are only no longer reused, so the session doesn't grow with every page.
+         */
+        private synchronized void forgetElements() {
+            proxies.values().removeIf(proxy -> !isDriverScoped(reference(proxy)));
+            targetsById.keySet().removeIf(id -> !isDriverScoped(id));
+            announced.removeIf(id -> !isDriverScoped(id));
+        }
+
+        private static boolean isDriverScoped(String id) {
+            return id.equals(DRIVER_ID) || id.startsWith(DRIVER_ID + ".");
+        }
+
+        /**
+         * Encodes a result, adding the types of newly recorded objects so they can be recreated on replay.
+         */
+        private JsonElement encodeResult(Object result) {
+            JsonElement json = codec.encode(result);
+            announce(json);
+            return json;
+        }
+
+        private void announce(JsonElement json) {
+            if (json.isJsonArray()) {
+                for (JsonElement item : json.getAsJsonArray()) announce(item);
+            } else if (json.isJsonObject() && json.getAsJsonObject().has("ref")) {
+                JsonObject reference = json.getAsJsonObject();
+                String id = reference.get("ref").getAsString();
+                if (announced.add(id)) reference.add("types", types(targetsById.get(id)));
+            }
+        }
+
+        /**
+         * Replaces recording proxies among arguments by the objects they record.
+         */
+        private Object[] unwrap(Object[] args) {
+            if (args == null) return null;
+            //Keep the type of varargs arrays, e.g. CharSequence[]
+            Object[] unwrapped = (Object[]) Array.newInstance(args.getClass().getComponentType(), args.length);
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof Object[]) {
+                    unwrapped[i] = unwrap((Object[]) args[i]);
+                } else {
+                    RecordingHandler handler = handler(args[i]);
+                    unwrapped[i] = handler != null ? handler.target : args[i];
+                }
+            }
+            return unwrapped;
+        }
+
+        /**
+         * Wraps the elements and views returned by a command in recording proxies.
+         *
+         * @param result   the result of the command
+         * @param targetId the id of the object the command was issued on
+         * @param method   the command
+         * @return the wrapped result
+         */
+        private synchronized Object wrap(Object result, String targetId, Method method) {
+            if (result == null) return null;
+            if (proxies.containsKey(result)) return proxies.get(result);
+            if (result instanceof WebElement) return proxy(result, "e" + (++elementCount));
+            for (Class<?> viewType : VIEW_TYPES) {
+                if (viewType.isInstance(result)) return proxy(result, targetId + "." + method.getName());
+            }
+            if (result instanceof List) {
+                List<Object> wrapped = new ArrayList<>();
+                for (Object item : (List<?>) result) wrapped.add(wrap(item, targetId, method));
+                return wrapped;
+            }
+            return result;
+        }
+
+        /**
+         * Appends a command to the trace.
+         */
+        private synchronized void record(Object proxy, Method method, Object[] args, Object result, Throwable error) {
+            if (closed) return;
+            JsonObject command = new JsonObject();
+            command.addProperty("s", id);
+            command.addProperty("t", reference(proxy));
+            command.addProperty("m", method.getName());
+            command.add("a", codec.encodeArguments(args));
+            if (error != null) command.add("x", CommandCodec.encodeError(error));
+            else if (method.getReturnType() != void.class) command.add("r", encodeResult(result));
+            StringBuilder lines = new StringBuilder();
+            for (JsonObject definition : codec.drainDefinitions()) {
+                JsonObject line = new JsonObject();
+                line.addProperty("s", id);
+                definition.entrySet().forEach(entry -> line.add(entry.getKey(), entry.getValue()));
+                lines.append(line).append('\n');
+            }
+            lines.append(command).append('\n');
+            try {
+                traceFile.write(lines.toString());
+            } catch (IOException e) {
+                LOGGER.error("Couldn't record " + method.getName() + ", recording stopped: " + e.getMessage());
+                close();
+            }
+        }
+
+        private synchronized void close() {
+            if (closed) return;
+            closed = true;
+            traceFile.release();
+        }
+    }
+
+    /**
+     * A trace file opened for appending, shared by the sessions of this JVM recording to it.
+     */
+    private static final class TraceFile {
+
+        private final File file;
+        private final OutputStream out;
+        //The sessions recording to the file, guarded by the lock of the trace files
+        private int sessions;
+
+        private TraceFile(File file) throws IOException {
+            this.file = file;
+            this.out = new FileOutputStream(file, true);
+        }
+
+        /**
+         * Opens a trace file for a session, reusing the stream of other sessions recording to it.
+         *
+         * @param file the trace file
+         * @return the opened trace file
+         * @throws IOException thrown when the trace file couldn't be opened
+         */
+        private static TraceFile open(File file) throws IOException {
+            synchronized (traceFiles) {
+                File key = file.getAbsoluteFile();
+                TraceFile traceFile = traceFiles.get(key);
+                if (traceFile == null) {
+                    traceFile = new TraceFile(key);
+                    traceFiles.put(key, traceFile);
+                }
+                traceFile.sessions++;
+                return traceFile;
+            }
+        }
+
+        /**
+         * Appends complete lines in a single write, so they can't be split by the lines of other sessions.
+         *
+         * @param lines the lines to append, each ending with a line break
+         * @throws IOException thrown when the lines couldn't be written
+         */
+        private synchronized void write(String lines) throws IOException {
+            out.write(lines.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        /**
+         * Releases the trace file for a session, closing it once no session records to it anymore.
+         */
+        private void release() {
+            synchronized (traceFiles) {
+                if (--sessions > 0) return;
+                traceFiles.remove(file);
+                try {
+                    synchronized (this) {
+                        out.close();
+                    }
+                } catch (IOException e) {
+                    LOGGER.debug("Couldn't close the trace: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Invocation handler recording the invocations on its target.
+     */
+    private static final class RecordingHandler implements InvocationHandler {
+
+        private final Session session;
+        private final Object target;
+        private final String id;
+
+        private RecordingHandler(Session session, Object target, String id) {
+            this.session = session;
+            this.target = target;
+            this.id = id;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                if (method.getName().equals("equals")) return args[0] == proxy || target.equals(session.unwrap(args)[0]);
+                return method.invoke(target, args);
+            }
+
+            //Screenshots are recorded as base64, which any requested output type can be converted from
+            if (method.getName().equals("getScreenshotAs") && target instanceof TakesScreenshot) {
+                String base64;
+                try {
+                    base64 = ((TakesScreenshot) target).getScreenshotAs(OutputType.BASE64);
+                } catch (RuntimeException e) {
+                    session.record(proxy, method, args, null, e);
+                    throw e;
+                }
+                session.record(proxy, method, args, base64, null);
+                return ((OutputType<?>) args[0]).convertFromBase64Png(base64);
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, session.unwrap(args));
+            } catch (InvocationTargetException e) {
+                session.record(proxy, method, args, null, e.getCause());
+                throw e.getCause();
+            }
+            Object wrapped = session.wrap(result, id, method);
+            session.record(proxy, method, args, wrapped, null);
+            if (target instanceof WebDriver && method.getName().equals("quit")) session.close();
+            if ((target instanceof WebDriver && method.getName().equals("get")) || target instanceof WebDriver.Navigation) {
+                session.forgetElements();
+            }
+            return wrapped;
+        }
+    }
+}
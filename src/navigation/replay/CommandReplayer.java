@@ -0,0 +1,241 @@
+package navigation.replay;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Class responsible for replaying recorded driver sessions (see {@link CommandRecorder}).
+ * <p>
+ * The replayed driver answers every command with the recorded response, without a browser: results are
+ * returned and exceptions are thrown as they were recorded. This allows re-executing a failed case in
+ * milliseconds to debug framework logic, and deterministic tests of page objects.
+ * <p>
+ * The {@link ReplayStrictness} determines which recorded command answers a command. When no recorded command
+ * matches, a {@link ReplayMismatchException} is thrown. Quitting is the exception: it always succeeds, so a replay
+ * that deviated can still be cleaned up.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class CommandReplayer {
+
+    private static final Logger LOGGER = Logger.getLogger(CommandReplayer.class);
+
+    /**
+     * Replays the last session recorded in a trace file.
+     *
+     * @param file       the trace file
+     * @param strictness the handling of commands that don't match the recording
+     * @return the replayed driver
+     * @throws IOException thrown when the trace file couldn't be read
+     */
+    public static WebDriver replay(File file, ReplayStrictness strictness) throws IOException {
+        return replay(CommandTrace.readLast(file), strictness);
+    }
+
+    /**
+     * Replays a recorded session.
+     *
+     * @param trace      the recorded session
+     * @param strictness the handling of commands that don't match the recording
+     * @return the replayed driver
+     */
+    public static WebDriver replay(CommandTrace trace, ReplayStrictness strictness) {
+        if (strictness == null) throw new IllegalArgumentException("Strictness should be specified.");
+        LOGGER.debug("Replaying " + trace + " " + strictness.name().toLowerCase(Locale.ROOT));
+        Session session = new Session(trace, strictness);
+        List<String> types = trace.getDriverTypes();
+        return (WebDriver) session.proxy(CommandRecorder.DRIVER_ID, types);
+    }
+
+    /**
+     * Returns true if the given object was created by a replayed session, false if otherwise.
+     *
+     * @param object the object to check
+     * @return true if the object is replayed, false if otherwise
+     */
+    public static boolean isReplayed(Object object) {
+        return object != null && Proxy.isProxyClass(object.getClass())
+                && Proxy.getInvocationHandler(object) instanceof ReplayingHandler;
+    }
+
+    /**
+     * A replayed session, keeping track of the used recorded commands and the replayed objects.
+     */
+    private static final class Session {
+
+        private final List<RecordedCommand> commands;
+        private final boolean[] used;
+        private final ReplayStrictness strictness;
+        private final Map<String, Object> proxies = new HashMap<>();
+        private final Map<String, List<String>> types = new HashMap<>();
+        private final CommandCodec codec;
+        private int cursor;
+
+        private Session(CommandTrace trace, ReplayStrictness strictness) {
+            this.commands = trace.getCommands();
+            this.used = new boolean[commands.size()];
+            this.strictness = strictness;
+            this.codec = new CommandCodec(this::reference, false);
+        }
+
+        private String reference(Object object) {
+            if (!isReplayed(object)) return null;
+            return ((ReplayingHandler) Proxy.getInvocationHandler(object)).id;
+        }
+
+        /**
+         * Returns the replayed object with the given id, creating it if needed.
+         *
+         * @param id             the id of the object
+         * @param announcedTypes the names of the interfaces of the object, null if they were recorded before
+         * @return the replayed object
+         */
+        private synchronized Object proxy(String id, List<String> announcedTypes) {
+            Object proxy = proxies.get(id);
+            if (proxy != null) return proxy;
+
+            List<String> typeNames = announcedTypes != null ? announcedTypes : types.get(id);
+            if (typeNames == null) throw new ReplayMismatchException("The recording holds no types for " + id);
+            types.put(id, typeNames);
+            Set<Class<?>> interfaces = new LinkedHashSet<>();
+            for (String typeName : typeNames) {
+                try {
+                    Class<?> type = Class.forName(typeName);
+                    if (type.isInterface() && Modifier.isPublic(type.getModifiers())) interfaces.add(type);
+                } catch (ClassNotFoundException e) {
+                    LOGGER.debug("Recorded type isn't available, ignoring it: " + typeName);
+                }
+            }
+            proxy = Proxy.newProxyInstance(CommandReplayer.class.getClassLoader(),
+                    interfaces.toArray(new Class<?>[interfaces.size()]), new ReplayingHandler(this, id));
+            proxies.put(id, proxy);
+            return proxy;
+        }
+
+        private Object resolve(String id, JsonArray announcedTypes) {
+            List<String> typeNames = null;
+            if (announcedTypes != null) {
+                typeNames = new ArrayList<>();
+                for (JsonElement type : announcedTypes) typeNames.add(type.getAsString());
+            }
+            return proxy(id, typeNames);
+        }
+
+        /**
+         * Finds the recorded command answering a command.
+         *
+         * @param target    the id of the target
+         * @param name      the name of the command
+         * @param arguments the encoded arguments
+         * @return the answering recorded command
+         * @throws ReplayMismatchException thrown when no recorded command matches
+         */
+        private synchronized RecordedCommand answer(String target, String name, JsonArray arguments) {
+            int index = -1;
+            if (strictness == ReplayStrictness.STRICT) {
+                if (cursor < commands.size() && commands.get(cursor).matches(target, name, arguments)) index = cursor;
+            } else {
+                index = find(target, name, arguments);
+                if (index < 0 && strictness == ReplayStrictness.LOOSE) {
+                    index = find(target, name, null);
+                    if (index >= 0) LOGGER.warn("Replaying " + commands.get(index) + " for "
+                            + RecordedCommand.describe(target, name, arguments) + ", the arguments differ");
+                }
+            }
+
+            if (index < 0) {
+                String expected = cursor < commands.size() ? commands.get(cursor).toString() : "the end of the recording";
+                throw new ReplayMismatchException("Command " + RecordedCommand.describe(target, name, arguments)
+                        + " doesn't match the recording, expected " + expected + " (command " + (cursor + 1) + " of " + commands.size() + ")");
+            }
+            if (index > cursor) LOGGER.debug("Skipping " + (index - cursor) + " recorded commands to replay " + commands.get(index));
+            used[index] = true;
+            cursor = Math.max(cursor, index + 1);
+            return commands.get(index);
+        }
+
+        /**
+         * Returns true if a recorded command answers a command, false if otherwise.
+         *
+         * @param target    the id of the target
+         * @param name      the name of the command
+         * @param arguments the encoded arguments
+         * @return true if a recorded command answers the command, false if otherwise
+         */
+        private synchronized boolean hasAnswer(String target, String name, JsonArray arguments) {
+            if (strictness == ReplayStrictness.STRICT) return cursor < commands.size() && commands.get(cursor).matches(target, name, arguments);
+            return find(target, name, strictness == ReplayStrictness.LOOSE ? null : arguments) >= 0;
+        }
+
+        /**
+         * Finds the first unused matching recorded command from the cursor on, and before the cursor if none.
+         *
+         * @param arguments the encoded arguments, null to ignore the arguments
+         * @return the index of the matching command, -1 if none
+         */
+        private int find(String target, String name, JsonArray arguments) {
+            for (int pass = 0; pass < 2; pass++) {
+                int from = pass == 0 ? cursor : 0;
+                int to = pass == 0 ? commands.size() : cursor;
+                for (int i = from; i < to; i++) {
+                    if (used[i]) continue;
+                    RecordedCommand command = commands.get(i);
+                    if (arguments == null ? command.matches(target, name) : command.matches(target, name, arguments)) return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Invocation handler answering invocations with the recorded responses.
+     */
+    private static final class ReplayingHandler implements InvocationHandler {
+
+        private final Session session;
+        private final String id;
+
+        private ReplayingHandler(Session session, String id) {
+            this.session = session;
+            this.id = id;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return id.hashCode();
+                    default:
+                        return "Replayed " + id;
+                }
+            }
+
+            JsonArray arguments = session.codec.encodeArguments(args);
+            //Quitting always succeeds, also when the replay deviated before
+            if (method.getName().equals("quit") && !session.hasAnswer(id, method.getName(), arguments)) return null;
+            RecordedCommand command = session.answer(id, method.getName(), arguments);
+            if (command.getError() != null) throw CommandCodec.decodeError(command.getError());
+            if (method.getName().equals("getScreenshotAs")) {
+                return ((OutputType<?>) args[0]).convertFromBase64Png(command.getResult().getAsString());
+            }
+            Object result = CommandCodec.decode(command.getResult(), method.getReturnType(), session::resolve);
+            if (result instanceof Set && List.class.isAssignableFrom(method.getReturnType())) return new ArrayList<>((Set<?>) result);
+            if (result instanceof List && Set.class.isAssignableFrom(method.getReturnType())) return new LinkedHashSet<>((List<?>) result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package navigation.replay;
+
+import com.google.gson.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Class representing a recorded driver session: the commands issued on the driver and their responses.
+ * <p>
+ * Trace files are append-only: every recorded session is added to the end of the file. A session starts with
+ * a header line, followed by a line per command (see {@link CommandRecorder}). Sessions recorded in parallel
+ * interleave, their lines are told apart by the id of their session. Lines without one, written by older
+ * versions, belong to the session of the last header.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class CommandTrace {
+
+    private final String started;
+    private final List<String> driverTypes;
+    private final List<RecordedCommand> commands;
+
+    private CommandTrace(String started, List<String> driverTypes) {
+        this.started = started;
+        this.driverTypes = driverTypes;
+        this.commands = new ArrayList<>();
+    }
+
+    /**
+     * Reads all sessions recorded in a trace file.
+     *
+     * @param file the trace file
+     * @return the recorded sessions, in order of recording
+     * @throws IOException thrown when the file couldn't be read
+     */
+    public static List<CommandTrace> read(File file) throws IOException {
+        List<CommandTrace> traces = new ArrayList<>();
+        JsonParser parser = new JsonParser();
+        //Sessions and their interned strings by session id
+        Map<String, CommandTrace> sessions = new HashMap<>();
+        Map<String, Map<Integer, String>> sessionStrings = new HashMap<>();
+        String lastSession = null;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                JsonObject object;
+                try {
+                    object = parser.parse(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    //The last line may be incomplete when the recording process died
+                    throw new IOException("Invalid trace line " + lineNumber + " in " + file + ": " + e.getMessage(), e);
+                }
+
+                if (object.has("session")) {
+                    List<String> types = new ArrayList<>();
+                    for (JsonElement type : object.getAsJsonArray("types")) types.add(type.getAsString());
+                    CommandTrace trace = new CommandTrace(object.get("session").getAsString(), types);
+                    traces.add(trace);
+                    lastSession = object.has("s") ? object.get("s").getAsString() : "#" + lineNumber;
+                    sessions.put(lastSession, trace);
+                    sessionStrings.put(lastSession, new HashMap<>());
+                    continue;
+                }
+                String session = object.has("s") ? object.get("s").getAsString() : lastSession;
+                CommandTrace trace = session != null ? sessions.get(session) : null;
+                if (trace == null) {
+                    throw new IOException("Trace line " + lineNumber + " in " + file + " doesn't belong to a session.");
+                }
+                Map<Integer, String> strings = sessionStrings.get(session);
+                if (object.has("def")) {
+                    strings.put(object.get("def").getAsInt(), object.get("text").getAsString());
+                } else {
+                    trace.commands.add(new RecordedCommand(object.get("t").getAsString(), object.get("m").getAsString(),
+                            resolve(object.getAsJsonArray("a"), strings).getAsJsonArray(),
+                            object.has("r") ? resolve(object.get("r"), strings) : null,
+                            object.has("x") ? object.getAsJsonObject("x") : null));
+                }
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * Reads the last session recorded in a trace file.
+     *
+     * @param file the trace file
+     * @return the last recorded session
+     * @throws IOException thrown when the file couldn't be read or holds no sessions
+     */
+    public static CommandTrace readLast(File file) throws IOException {
+        List<CommandTrace> traces = read(file);
+        if (traces.isEmpty()) throw new IOException("No sessions were recorded in " + file);
+        return traces.get(traces.size() - 1);
+    }
+
+    /**
+     * Replaces the references to interned strings by the strings themselves.
+     *
+     * @param json    the encoded value
+     * @param strings the interned strings
+     * @return the resolved value
+     */
+    private static JsonElement resolve(JsonElement json, Map<Integer, String> strings) {
+        if (json.isJsonArray()) {
+            JsonArray resolved = new JsonArray();
+            for (JsonElement item : json.getAsJsonArray()) resolved.add(resolve(item, strings));
+            return resolved;
+        }
+        if (json.isJsonObject()) {
+            JsonObject object = json.getAsJsonObject();
+            if (object.has("str")) return new JsonPrimitive(strings.get(object.get("str").getAsInt()));
+            JsonObject resolved = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) resolved.add(entry.getKey(), resolve(entry.getValue(), strings));
+            return resolved;
+        }
+        return json;
+    }
+
+    /**
+     * Returns the time at which the session was recorded.
+     *
+     * @return the start time of the session, as an ISO-8601 String
+     */
+    public String getStarted() {
+        return started;
+    }
+
+    /**
+     * Returns the names of the interfaces implemented by the recorded driver.
+     *
+     * @return the interfaces of the recorded driver
+     */
+    public List<String> getDriverTypes() {
+        return Collections.unmodifiableList(driverTypes);
+    }
+
+    /**
+     * Returns the amount of recorded commands.
+     *
+     * @return the amount of recorded commands
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    List<RecordedCommand> getCommands() {
+        return commands;
+    }
+
+    /**
+     * Returns a String representation of this trace.
+     *
+     * @return a String representation of this trace
+     */
+    @Override
+    public String toString() {
+        return "CommandTrace: " + started + " (" + commands.size() + " commands)";
+    }
+}
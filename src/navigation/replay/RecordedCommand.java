@@ -0,0 +1,104 @@
+package navigation.replay;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Class representing a recorded WebDriver command and its response.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class RecordedCommand {
+
+    private final String target;
+    private final String name;
+    private final JsonArray arguments;
+    private final JsonElement result;
+    private final JsonObject error;
+
+    /**
+     * Class constructor.
+     *
+     * @param target    the id of the object the command was issued on
+     * @param name      the name of the command (the invoked method)
+     * @param arguments the encoded arguments
+     * @param result    the encoded result, null if the command failed
+     * @param error     the encoded exception, null if the command succeeded
+     */
+    RecordedCommand(String target, String name, JsonArray arguments, JsonElement result, JsonObject error) {
+        this.target = target;
+        this.name = name;
+        this.arguments = arguments;
+        this.result = result;
+        this.error = error;
+    }
+
+    String getTarget() {
+        return target;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    JsonArray getArguments() {
+        return arguments;
+    }
+
+    JsonElement getResult() {
+        return result;
+    }
+
+    JsonObject getError() {
+        return error;
+    }
+
+    /**
+     * Returns true if this command was issued on the given target with the given name, false if otherwise.
+     *
+     * @param target the id of the target
+     * @param name   the name of the command
+     * @return true if the target and name match, false if otherwise
+     */
+    boolean matches(String target, String name) {
+        return this.target.equals(target) && this.name.equals(name);
+    }
+
+    /**
+     * Returns true if this command was issued on the given target with the given name and arguments,
+     * false if otherwise.
+     *
+     * @param target    the id of the target
+     * @param name      the name of the command
+     * @param arguments the encoded arguments
+     * @return true if the command matches, false if otherwise
+     */
+    boolean matches(String target, String name, JsonArray arguments) {
+        return matches(target, name) && this.arguments.equals(arguments);
+    }
+
+    /**
+     * Returns a String representation of this command.
+     *
+     * @return a String representation of this command
+     */
+    @Override
+    public String toString() {
+        return describe(target, name, arguments);
+    }
+
+    /**
+     * Describes a command, abbreviating long arguments such as scripts.
+     *
+     * @param target    the id of the target
+     * @param name      the name of the command
+     * @param arguments the encoded arguments
+     * @return the description of the command
+     */
+    static String describe(String target, String name, JsonArray arguments) {
+        String args = arguments.toString();
+        if (args.length() > 120) args = args.substring(0, 117) + "...";
+        return target + "." + name + args;
+    }
+}
@@ -0,0 +1,22 @@
+package navigation.replay;
+
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Exception thrown when a replayed driver receives a command that has no matching recorded command.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class ReplayMismatchException extends WebDriverException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Class constructor specifying the message.
+     *
+     * @param message the detail message
+     */
+    public ReplayMismatchException(String message) {
+        super(message);
+    }
+}
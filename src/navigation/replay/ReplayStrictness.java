@@ -0,0 +1,23 @@
+package navigation.replay;
+
+/**
+ * Enum listing how a replayed driver handles commands that don't match the recording.
+ *
+ * @author Thibault Helsmoortel
+ */
+public enum ReplayStrictness {
+    /**
+     * Every command should match the next recorded command, target, name and arguments alike.
+     */
+    STRICT,
+    /**
+     * Every command should match an unused recorded command, target, name and arguments alike.
+     * The first one after the last replayed command is preferred, the recorded commands in between are skipped.
+     */
+    LENIENT,
+    /**
+     * Like {@link #LENIENT}, but falls back to any unused recorded command with the same target and name
+     * when no recorded command has the same arguments.
+     */
+    LOOSE
+}
@@ -0,0 +1,54 @@
+package parallel;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listener recording the duration and outcome of every finished test in a {@link TestHistory}.
+ * Tests whose assumptions failed aren't recorded.
+ *
+ * @author Thibault Helsmoortel
+ */
+@RunListener.ThreadSafe
+final class HistoryRecorder extends RunListener {
+
+    private final TestHistory history;
+    private final Map<Description, Long> started = new ConcurrentHashMap<>();
+    private final Set<Description> failed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Class constructor specifying the history.
+     *
+     * @param history the history to record the tests in
+     */
+    HistoryRecorder(TestHistory history) {
+        this.history = history;
+    }
+
+    @Override
+    public void testStarted(Description description) {
+        started.put(description, System.nanoTime());
+    }
+
+    @Override
+    public void testFailure(Failure failure) {
+        failed.add(failure.getDescription());
+    }
+
+    @Override
+    public void testAssumptionFailure(Failure failure) {
+        started.remove(failure.getDescription());
+    }
+
+    @Override
+    public void testFinished(Description description) {
+        Long start = started.remove(description);
+        if (start == null) return;
+        history.record(description, (System.nanoTime() - start) / 1000000, failed.remove(description));
+    }
+}
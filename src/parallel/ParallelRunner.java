@@ -0,0 +1,54 @@
+package parallel;
+
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.InitializationError;
+
+/**
+ * JUnit runner running the test methods of a class in parallel, across the sessions of a {@link SessionPool}.
+ * Use it through {@code @RunWith(ParallelRunner.class)}.
+ * <p>
+ * Every test runs on a worker thread driving its own Navigator, so tests create and destroy their Navigator as
+ * usual, e.g. through the {@code DestroyNavigator}, {@code ScreenShotOnFailure}, {@code LogsOnFailure} and
+ * {@code SummarizeAllStats} rules, which act on the session of the test. {@code @BeforeClass} and
+ * {@code @AfterClass} methods run on the calling thread, so they shouldn't create a Navigator for the tests.
+ * <p>
+ * The tests are scheduled in the order of the {@link TestHistory}: recently failed tests first, then the longest
+ * ones first. Their durations and outcomes are recorded in the history for the next run.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class ParallelRunner extends BlockJUnit4ClassRunner {
+
+    /**
+     * Class constructor specifying the test class.
+     *
+     * @param testClass the test class
+     * @throws InitializationError thrown when the test class is malformed
+     */
+    public ParallelRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        //Run by a SessionComputer, the tests share its pool and got ordered along with the other classes
+        SessionPool current = SessionPool.getCurrent();
+        if (current != null) {
+            setScheduler(new SessionScheduler(current));
+            super.run(notifier);
+            return;
+        }
+        TestHistory history = TestHistory.getInstance();
+        new Sorter(history.getComparator()).apply(this);
+        HistoryRecorder recorder = new HistoryRecorder(history);
+        notifier.addListener(recorder);
+        try (SessionPool pool = new SessionPool()) {
+            setScheduler(new SessionScheduler(pool));
+            super.run(notifier);
+        } finally {
+            notifier.removeListener(recorder);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package parallel;
+
+import org.junit.runner.Computer;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * Computer running test classes and their test methods in parallel, across the sessions of a {@link SessionPool},
+ * e.g. {@code JUnitCore.runClasses(new SessionComputer(), classes)}. Like the {@link ParallelRunner}, but across
+ * several test classes: a session that is done with the tests of one class steals tests of the others.
+ * The classes and their tests are scheduled in the order of the {@link TestHistory}.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class SessionComputer extends Computer {
+
+    private final int sessions;
+    private volatile SessionPool pool;
+
+    /**
+     * Class constructor using the default amount of sessions (see {@link SessionPool#defaultSize()}).
+     */
+    public SessionComputer() {
+        this(SessionPool.defaultSize());
+    }
+
+    /**
+     * Class constructor specifying the amount of sessions.
+     *
+     * @param sessions the amount of sessions
+     */
+    public SessionComputer(int sessions) {
+        if (sessions < 1) throw new IllegalArgumentException("At least one session should be used.");
+        this.sessions = sessions;
+    }
+
+    @Override
+    public Runner getSuite(RunnerBuilder builder, Class<?>[] classes) throws InitializationError {
+        Runner suite = super.getSuite(builder, classes);
+        return new Runner() {
+            @Override
+            public Description getDescription() {
+                return suite.getDescription();
+            }
+
+            @Override
+            public void run(RunNotifier notifier) {
+                TestHistory history = TestHistory.getInstance();
+                new Sorter(history.getComparator()).apply(suite);
+                HistoryRecorder recorder = new HistoryRecorder(history);
+                notifier.addListener(recorder);
+                try (SessionPool sessionPool = new SessionPool(sessions)) {
+                    pool = sessionPool;
+                    if (suite instanceof ParentRunner) ((ParentRunner<?>) suite).setScheduler(new SessionScheduler(sessionPool));
+                    suite.run(notifier);
+                } finally {
+                    pool = null;
+                    notifier.removeListener(recorder);
+                }
+            }
+        };
+    }
+
+    @Override
+    protected Runner getRunner(RunnerBuilder builder, Class<?> testClass) throws Throwable {
+        Runner runner = super.getRunner(builder, testClass);
+        if (runner instanceof ParentRunner) {
+            //The pool only exists while the suite runs, so it is looked up when the children get scheduled
+            ((ParentRunner<?>) runner).setScheduler(new DeferredScheduler());
+        }
+        return runner;
+    }
+
+    /**
+     * Scheduler handing the children of a test class to the pool of the running suite.
+     */
+    private final class DeferredScheduler implements RunnerScheduler {
+        private SessionScheduler scheduler;
+
+        @Override
+        public void schedule(Runnable childStatement) {
+            if (scheduler == null) scheduler = new SessionScheduler(pool);
+            scheduler.schedule(childStatement);
+        }
+
+        @Override
+        public void finished() {
+            if (scheduler != null) scheduler.finished();
+            scheduler = null;
+        }
+    }
+}
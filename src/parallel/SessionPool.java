@@ -0,0 +1,191 @@
+package parallel;
+
+import org.apache.log4j.Logger;
+import reporting.cases.Defects;
+import stats.StatsSummary;
+import util.ProcessUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of worker threads, each driving a browser session of its own (see {@link SessionWorkerThread}).
+ * <p>
+ * Tests are scheduled with a work-stealing scheduler: idle workers steal queued tests from busy ones, and workers
+ * waiting for scheduled tests run queued tests in the meantime, so the sessions stay busy until all tests ran, no
+ * matter how unevenly long the tests take. The amount of sessions never exceeds the size of the pool.
+ * The size can be set with the {@code bromine.parallel.sessions} system property, and defaults to the amount of
+ * cores, limited by the memory available for browser sessions ({@code bromine.parallel.sessionMemory} MB per
+ * session, 512 by default). Closing the pool ends its sessions, after which the merged statistics and the
+ * defects are reported.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class SessionPool implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionPool.class);
+
+    private static final AtomicInteger poolCount = new AtomicInteger();
+
+    private final List<SessionWorkerThread> workers = new ArrayList<>();
+    private final BlockingDeque<SessionTask> submissions = new LinkedBlockingDeque<>();
+    private final Object work = new Object();
+    private volatile boolean shutdown;
+
+    /**
+     * Class constructor using the default amount of sessions (see {@link #defaultSize()}).
+     */
+    public SessionPool() {
+        this(defaultSize());
+    }
+
+    /**
+     * Class constructor specifying the amount of sessions.
+     *
+     * @param size the amount of sessions
+     */
+    public SessionPool(int size) {
+        if (size < 1) throw new IllegalArgumentException("A pool should have at least one session.");
+        int poolId = poolCount.incrementAndGet();
+        for (int i = 1; i <= size; i++) workers.add(new SessionWorkerThread(this, "session-" + poolId + "-" + i));
+        workers.forEach(Thread::start);
+        LOGGER.debug("Created a pool of " + size + " sessions");
+    }
+
+    /**
+     * Returns the default amount of sessions: the {@code bromine.parallel.sessions} system property if set,
+     * the amount of cores limited by the available memory if otherwise.
+     *
+     * @return the default amount of sessions
+     */
+    public static int defaultSize() {
+        String sessions = System.getProperty("bromine.parallel.sessions");
+        if (sessions != null) return Integer.parseInt(sessions);
+        int size = Runtime.getRuntime().availableProcessors();
+        long available = ProcessUtil.getAvailableMemory();
+        if (available > 0) {
+            long sessionMemory = Long.parseLong(System.getProperty("bromine.parallel.sessionMemory", "512")) * 1024 * 1024;
+            size = (int) Math.min(size, available / sessionMemory);
+        }
+        return Math.max(1, size);
+    }
+
+    /**
+     * Schedules a test. Scheduled from a worker of this pool, the test is queued with that worker, where idle
+     * workers can steal it from.
+     *
+     * @param test the test to run
+     * @return the scheduled test
+     */
+    SessionTask schedule(Runnable test) {
+        if (shutdown) throw new IllegalStateException("The pool is closed.");
+        SessionTask task = new SessionTask(test);
+        SessionWorkerThread worker = getCurrentWorker();
+        if (worker != null) worker.getTasks().offerLast(task);
+        else submissions.offerLast(task);
+        synchronized (work) {
+            work.notifyAll();
+        }
+        return task;
+    }
+
+    /**
+     * Waits for a scheduled test. A worker of this pool runs queued tests while waiting, rather than blocking
+     * its session.
+     *
+     * @param task the scheduled test
+     * @throws InterruptedException thrown when interrupted while waiting
+     */
+    void await(SessionTask task) throws InterruptedException {
+        SessionWorkerThread worker = getCurrentWorker();
+        while (!task.isDone()) {
+            SessionTask other = worker != null ? next(worker) : null;
+            if (other != null) other.run();
+            else task.await(worker != null ? 10 : 1000, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the next test for a worker: the first one it queued itself, the first one submitted from outside
+     * the pool, or the first one queued by another worker, in that order. Tests are taken in the order they were
+     * scheduled in, which puts the longest tests first (see {@link TestHistory}).
+     *
+     * @param worker the worker looking for a test
+     * @return the next test, null if there is none
+     */
+    SessionTask next(SessionWorkerThread worker) {
+        SessionTask task = worker.getTasks().pollFirst();
+        if (task == null) task = submissions.pollFirst();
+        for (int i = 0; task == null && i < workers.size(); i++) {
+            SessionWorkerThread victim = workers.get(i);
+            if (victim != worker) task = victim.getTasks().pollFirst();
+        }
+        return task;
+    }
+
+    /**
+     * Waits until tests are scheduled or the pool is closed.
+     *
+     * @throws InterruptedException thrown when interrupted while waiting
+     */
+    void awaitWork() throws InterruptedException {
+        synchronized (work) {
+            //Also wakes up regularly, as tests queued by workers don't go through the lock
+            work.wait(100);
+        }
+    }
+
+    boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Returns the pool the current thread works for.
+     *
+     * @return the pool the current thread works for, null if it isn't a worker
+     */
+    static SessionPool getCurrent() {
+        Thread current = Thread.currentThread();
+        return current instanceof SessionWorkerThread ? ((SessionWorkerThread) current).getPool() : null;
+    }
+
+    private SessionWorkerThread getCurrentWorker() {
+        Thread current = Thread.currentThread();
+        return current instanceof SessionWorkerThread && ((SessionWorkerThread) current).getPool() == this
+                ? (SessionWorkerThread) current : null;
+    }
+
+    /**
+     * Returns the amount of sessions.
+     *
+     * @return the amount of sessions
+     */
+    public int getSize() {
+        return workers.size();
+    }
+
+    /**
+     * Runs the remaining tests, ends the sessions and reports the merged statistics and defects.
+     */
+    @Override
+    public void close() {
+        shutdown = true;
+        synchronized (work) {
+            work.notifyAll();
+        }
+        try {
+            //Workers destroy their session and merge their statistics before they end
+            for (SessionWorkerThread worker : workers) worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for the sessions to end");
+        }
+        LOGGER.info("All sessions ended: " + Defects.getFailedDefects().size() + " failed and "
+                + Defects.getBrokenDefects().size() + " broken cases");
+        LOGGER.debug(StatsSummary.summarizeAll());
+    }
+}
@@ -0,0 +1,50 @@
+package parallel;
+
+import org.apache.log4j.Logger;
+import org.junit.runners.model.RunnerScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scheduler running the children of a JUnit runner (test methods or test classes) on a {@link SessionPool}.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class SessionScheduler implements RunnerScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionScheduler.class);
+
+    private final SessionPool pool;
+    private final List<SessionTask> tasks = new ArrayList<>();
+
+    /**
+     * Class constructor specifying the pool.
+     *
+     * @param pool the pool to run the children on
+     */
+    SessionScheduler(SessionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+        tasks.add(pool.schedule(childStatement));
+    }
+
+    @Override
+    public void finished() {
+        try {
+            for (SessionTask task : tasks) {
+                pool.await(task);
+                //JUnit reports test failures itself, this is a failure of the runner
+                if (task.getFailure() != null) LOGGER.error("Couldn't run a scheduled test", task.getFailure());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for the scheduled tests");
+        } finally {
+            tasks.clear();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package parallel;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A test scheduled on a {@link SessionPool}.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class SessionTask implements Runnable {
+
+    private final Runnable test;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Throwable failure;
+
+    /**
+     * Class constructor specifying the test.
+     *
+     * @param test the test to run
+     */
+    SessionTask(Runnable test) {
+        this.test = test;
+    }
+
+    @Override
+    public void run() {
+        try {
+            test.run();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        } finally {
+            done.countDown();
+        }
+    }
+
+    boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Waits for the test to finish.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if the test finished, false if otherwise
+     * @throws InterruptedException thrown when interrupted while waiting
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * Returns the error escaping the test, which JUnit normally reports itself.
+     *
+     * @return the error escaping the test, null if none did
+     */
+    Throwable getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,90 @@
+package parallel;
+
+import commands.InitFrameworkCommand;
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import org.apache.log4j.Logger;
+import reporting.actionlog.ActionLog;
+import reporting.trace.TraceRecorder;
+import stats.StatsTracker;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Worker thread of a {@link SessionPool}, driving a browser session of its own.
+ * <p>
+ * The thread is bound to its own Navigator and StatsTracker, and records its trace events and actions under its
+ * session name. Tests it schedules itself are queued at the back of its own deque and taken from the front in the
+ * order they were scheduled, both by the thread itself and by idle workers stealing them. When the thread ends,
+ * its session is destroyed and its statistics are merged into the shared StatsTracker.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class SessionWorkerThread extends Thread {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionWorkerThread.class);
+
+    private final SessionPool pool;
+    private final BlockingDeque<SessionTask> tasks = new LinkedBlockingDeque<>();
+
+    /**
+     * Class constructor specifying the pool and the session name.
+     *
+     * @param pool        the pool the thread works for
+     * @param sessionName the name of the session driven by the thread
+     */
+    SessionWorkerThread(SessionPool pool, String sessionName) {
+        super(sessionName);
+        this.pool = pool;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        LOGGER.debug("Starting " + getName());
+        //The default plugins have to be registered before the StatsTracker of this thread copies them
+        new InitFrameworkCommand().execute();
+        Navigator.bindToThread();
+        StatsTracker.bindToThread();
+        TraceRecorder.getInstance().setTrack(getName());
+        ActionLog.getInstance().setSession(getName());
+        try {
+            while (true) {
+                SessionTask task = pool.next(this);
+                if (task != null) task.run();
+                else if (pool.isShutdown()) break;
+                else pool.awaitWork();
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn(getName() + " got interrupted");
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Destroys the session of this thread and merges its statistics.
+     */
+    private void end() {
+        LOGGER.debug("Stopping " + getName());
+        try {
+            if (Navigator.getInstance().getDriver() != null) NavigatorFactory.destroyNavigator();
+        } catch (RuntimeException e) {
+            LOGGER.error("Couldn't destroy the Navigator of " + getName() + ": " + e.getMessage());
+        } finally {
+            Navigator.unbindFromThread();
+            StatsTracker.unbindFromThread();
+            TraceRecorder.getInstance().setTrack(null);
+            ActionLog.getInstance().setSession(null);
+        }
+    }
+
+    SessionPool getPool() {
+        return pool;
+    }
+
+    BlockingDeque<SessionTask> getTasks() {
+        return tasks;
+    }
+}
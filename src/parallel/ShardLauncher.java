@@ -0,0 +1,504 @@
+package parallel;
+
+import commands.InitFrameworkCommand;
+import org.apache.log4j.Logger;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import stats.StatsPlugin;
+import stats.StatsTracker;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Launcher running test classes across several worker JVMs (see {@link ShardWorker}), for suites outgrowing a
+ * single JVM.
+ * <p>
+ * The classes are partitioned over the workers by their duration in the {@link TestHistory}, longest first, each
+ * class going to the worker with the least work so far. Every worker talks to the launcher over a local socket,
+ * receiving its classes one at a time and streaming back the cases of its tests, the defects they reported and
+ * their statistics, which are merged into a single {@link ShardReport}, the {@code Defects} and the
+ * {@code StatsTracker} of the launcher. The durations of the tests are recorded in the history by the launcher.
+ * <p>
+ * When a worker crashes, the test it was running is reported as broken, and the tests it didn't run yet are
+ * re-queued: a replacement worker is started, up to {@code bromine.shard.restarts} times (2 by default), and idle
+ * workers take re-queued tests as well. The amount of workers can be set with {@code bromine.shards} (2 by
+ * default). Workers get the {@code bromine.*} system properties and Java agents of the launcher, extra JVM
+ * arguments can be passed with {@code bromine.shard.jvmArgs} (e.g. {@code -Xmx2g}). Their output is written to
+ * {@code shard-<number>.log} files in {@code bromine.shard.logs}, the temporary directory by default.
+ * <p>
+ * Every worker JVM gets a random token, which it has to send first when it connects, so no other local process
+ * can take its place. A worker that stays silent for {@code bromine.shard.timeout} seconds (600 by default, 0 to
+ * wait forever), e.g. because it hangs, is considered crashed.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ShardLauncher {
+
+    private static final Logger LOGGER = Logger.getLogger(ShardLauncher.class);
+
+    private static final String SHARDS_PROPERTY = "bromine.shards";
+    private static final String RESTARTS_PROPERTY = "bromine.shard.restarts";
+    private static final String JVM_ARGS_PROPERTY = "bromine.shard.jvmArgs";
+    private static final String LOGS_PROPERTY = "bromine.shard.logs";
+    private static final String TIMEOUT_PROPERTY = "bromine.shard.timeout";
+    private static final long STARTUP_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    private final int shards;
+    private int restarts;
+
+    private final Object lock = new Object();
+    //Tests of crashed workers, taken by any worker
+    private final Deque<ShardWork> requeued = new ArrayDeque<>();
+    //The amount of workers running a test class
+    private int active;
+    private AtomicInteger restartsLeft;
+    private ShardReport report;
+    private TestHistory history;
+
+    /**
+     * Class constructor using the amount of workers of the {@code bromine.shards} system property, 2 if it isn't set.
+     */
+    public ShardLauncher() {
+        this(Integer.parseInt(System.getProperty(SHARDS_PROPERTY, "2")));
+    }
+
+    /**
+     * Class constructor specifying the amount of workers.
+     *
+     * @param shards the amount of worker JVMs
+     */
+    public ShardLauncher(int shards) {
+        if (shards < 1) throw new IllegalArgumentException("At least one worker should be used.");
+        this.shards = shards;
+        this.restarts = Integer.parseInt(System.getProperty(RESTARTS_PROPERTY, "2"));
+    }
+
+    /**
+     * Runs test classes across the worker JVMs.
+     *
+     * @param classes the test classes to run
+     * @return the merged results of the workers
+     */
+    public synchronized ShardReport run(Class<?>... classes) {
+        new InitFrameworkCommand().execute();
+        history = TestHistory.getInstance();
+        report = new ShardReport();
+        restartsLeft = new AtomicInteger(restarts);
+        requeued.clear();
+        active = 0;
+
+        List<Description> descriptions = new ArrayList<>();
+        for (Class<?> testClass : classes) descriptions.add(Request.aClass(testClass).getRunner().getDescription());
+        List<List<Description>> partitions = partition(descriptions, shards, history);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            Deque<ShardWork> queue = new ArrayDeque<>();
+            partitions.get(i).forEach(description -> queue.add(new ShardWork(description, null)));
+            int shard = i + 1;
+            Thread thread = new Thread(() -> drive(shard, queue), "shard-" + shard);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for the workers");
+        }
+
+        //Tests left when no worker could be restarted anymore
+        for (ShardWork work : requeued) {
+            for (Description test : work.getTests()) reportBroken(test, "No worker was left to run the test");
+        }
+        requeued.clear();
+        LOGGER.info("Ran " + report);
+        return report;
+    }
+
+    /**
+     * Partitions test classes over workers: longest first (after recently failed ones), each class going to the
+     * worker with the least estimated work so far. Classes that never ran are estimated at a millisecond per test
+     * at least, so they get spread evenly by their amount of tests.
+     *
+     * @param classes the descriptions of the test classes
+     * @param shards  the amount of workers
+     * @param history the history holding the durations of the tests
+     * @return the classes of every worker
+     */
+    public static List<List<Description>> partition(List<Description> classes, int shards, TestHistory history) {
+        if (shards < 1) throw new IllegalArgumentException("At least one worker should be used.");
+        List<List<Description>> partitions = new ArrayList<>();
+        for (int i = 0; i < shards; i++) partitions.add(new ArrayList<>());
+        long[] loads = new long[shards];
+
+        List<Description> ordered = new ArrayList<>(classes);
+        ordered.sort(history.getComparator());
+        for (Description description : ordered) {
+            int lightest = 0;
+            for (int i = 1; i < shards; i++) if (loads[i] < loads[lightest]) lightest = i;
+            partitions.get(lightest).add(description);
+            loads[lightest] += Math.max(history.estimate(description), description.testCount());
+        }
+        LOGGER.debug("Partitioned " + classes.size() + " classes, estimated loads: " + Arrays.toString(loads));
+        return partitions;
+    }
+
+    /**
+     * Drives a worker: starts its JVM and feeds it its classes and re-queued tests, restarting it when it crashes.
+     *
+     * @param shard the number of the worker
+     * @param queue the classes of the worker
+     */
+    private void drive(int shard, Deque<ShardWork> queue) {
+        try {
+            ShardWork work = take(queue);
+            while (work != null) {
+                Process process = null;
+                String token = UUID.randomUUID().toString();
+                try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                    process = start(shard, server.getLocalPort(), token);
+                    try (Socket socket = accept(server, process, token)) {
+                        socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(Long.parseLong(System.getProperty(TIMEOUT_PROPERTY, "600"))));
+                        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                        out.flush();
+                        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+                        while (work != null) {
+                            run(work, out, in);
+                            finish();
+                            work = take(queue);
+                        }
+                        send(out, ShardMessage.stop());
+                    }
+                    process.waitFor(30, TimeUnit.SECONDS);
+                } catch (IOException | ClassNotFoundException e) {
+                    LOGGER.warn("Worker " + shard + " crashed: " + e);
+                    report.addCrash();
+                    //Crashed while stopping, all of its tests ran
+                    if (work == null) return;
+                    boolean restart = restartsLeft.getAndDecrement() > 0;
+                    synchronized (lock) {
+                        for (Description test : work.getRunning()) reportBroken(test, "The worker JVM crashed: " + e);
+                        ShardWork remaining = work.getRemaining();
+                        if (remaining != null) requeued.addFirst(remaining);
+                        //Without a replacement, the other workers take over
+                        if (!restart) {
+                            requeued.addAll(queue);
+                            queue.clear();
+                        }
+                        active--;
+                        lock.notifyAll();
+                    }
+                    if (!restart) return;
+                    work = take(queue);
+                } finally {
+                    if (process != null) process.destroyForcibly();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Worker " + shard + " got interrupted");
+        }
+    }
+
+    /**
+     * Returns the next class or re-queued tests for a worker, waiting while other workers may still re-queue tests.
+     *
+     * @param queue the classes of the worker
+     * @return the next work, null if all tests ran
+     * @throws InterruptedException thrown when interrupted while waiting
+     */
+    private ShardWork take(Deque<ShardWork> queue) throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                ShardWork work = queue.pollFirst();
+                if (work == null) work = requeued.pollFirst();
+                if (work != null) {
+                    active++;
+                    return work;
+                }
+                if (active == 0) return null;
+                lock.wait();
+            }
+        }
+    }
+
+    private void finish() {
+        synchronized (lock) {
+            active--;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Runs a class on a worker, merging the results it streams back.
+     *
+     * @param work the class to run
+     * @param out  the stream to the worker
+     * @param in   the stream from the worker
+     * @throws IOException            thrown when the worker crashed
+     * @throws ClassNotFoundException thrown when a message of the worker couldn't be read
+     */
+    private void run(ShardWork work, ObjectOutputStream out, ObjectInputStream in) throws IOException, ClassNotFoundException {
+        send(out, ShardMessage.run(work.getClassName(), work.getMethods()));
+        while (true) {
+            ShardMessage message;
+            try {
+                message = (ShardMessage) in.readObject();
+            } catch (SocketTimeoutException e) {
+                throw new IOException("The worker didn't respond in time", e);
+            }
+            switch (message.getType()) {
+                case STARTED:
+                    work.started(message.getMethod());
+                    break;
+                case FINISHED:
+                    Case result = message.getResult();
+                    work.finished(message.getMethod());
+                    report.addCase(message.getFeature(), result);
+                    if (result.getStatus() != CaseStatus.CANCELED) {
+                        history.record(message.getFeature(), message.getTestId(), result.getDuration(),
+                                result.getStatus() != CaseStatus.PASSED);
+                    }
+                    break;
+                case DEFECT:
+                    ShardReport.addDefect(message.getResult());
+                    break;
+                case STATS:
+                    merge(message.getPlugins());
+                    break;
+                case DONE:
+                    return;
+                default:
+                    throw new IOException("Unexpected message " + message.getType());
+            }
+        }
+    }
+
+    /**
+     * Merges the statistics of a worker into the plugins of the same class of the launcher.
+     *
+     * @param plugins the plugins of the worker
+     */
+    private void merge(List<StatsPlugin> plugins) {
+        for (StatsPlugin plugin : plugins) {
+            for (StatsPlugin target : StatsTracker.getPlugins()) {
+                if (target.getClass() != plugin.getClass()) continue;
+                synchronized (target) {
+                    if (!target.merge(plugin)) LOGGER.warn("Couldn't merge the statistics of " + plugin.getClass().getSimpleName());
+                }
+                break;
+            }
+        }
+    }
+
+    private void reportBroken(Description test, String reason) {
+        Case broken = new Case(TestHistory.getTestId(test), null, test.getDisplayName());
+        broken.setErrorTrace(reason);
+        broken.setStatus(CaseStatus.BROKEN);
+        report.addCase(TestHistory.getFeature(test), broken);
+    }
+
+    private static void send(ObjectOutputStream out, ShardMessage message) throws IOException {
+        out.writeObject(message);
+        out.reset();
+        out.flush();
+    }
+
+    /**
+     * Starts a worker JVM with the class path, Java agents and {@code bromine.*} system properties of this JVM.
+     *
+     * @param shard the number of the worker
+     * @param port  the port the worker should connect to
+     * @param token the token the worker should identify itself with
+     * @return the worker process
+     * @throws IOException thrown when the worker couldn't be started
+     */
+    private Process start(int shard, int port, String token) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            //E.g. the weaver of the Allure steps
+            if (argument.startsWith("-javaagent:")) command.add(argument.replace("\"", ""));
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("bromine.")) command.add("-D" + name + "=" + System.getProperty(name));
+        }
+        //The launcher records the history of the tests
+        command.add("-Dbromine.history.readOnly=true");
+        String jvmArgs = System.getProperty(JVM_ARGS_PROPERTY);
+        if (jvmArgs != null && !jvmArgs.trim().isEmpty()) command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardWorker.class.getName());
+        command.add(String.valueOf(port));
+        command.add(String.valueOf(shard));
+
+        Path logs = Paths.get(System.getProperty(LOGS_PROPERTY, System.getProperty("java.io.tmpdir")));
+        Files.createDirectories(logs);
+        File log = logs.resolve("shard-" + shard + ".log").toFile();
+        LOGGER.debug("Starting worker " + shard + ", logging to " + log);
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+        //Passed through the environment, unlike the arguments it isn't visible to other users
+        builder.environment().put(ShardWorker.TOKEN_VARIABLE, token);
+        return builder.start();
+    }
+
+    /**
+     * Waits for a worker to connect, rejecting connections that don't start with the token of the worker.
+     *
+     * @param server  the socket the worker connects to
+     * @param process the worker process
+     * @param token   the token of the worker
+     * @return the connection with the worker
+     * @throws IOException thrown when the worker exited or didn't connect in time
+     */
+    private static Socket accept(ServerSocket server, Process process, String token) throws IOException {
+        server.setSoTimeout(1000);
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT;
+        byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+        while (true) {
+            try {
+                Socket socket = server.accept();
+                try {
+                    socket.setSoTimeout(1000);
+                    //Read before any object, so nothing of an unknown process gets deserialized
+                    byte[] received = new DataInputStream(socket.getInputStream()).readUTF().getBytes(StandardCharsets.UTF_8);
+                    if (MessageDigest.isEqual(expected, received)) return socket;
+                    LOGGER.warn("Rejected a connection with an invalid token from " + socket.getRemoteSocketAddress());
+                } catch (IOException e) {
+                    LOGGER.warn("Rejected a connection without a token from " + socket.getRemoteSocketAddress() + ": " + e);
+                }
+                socket.close();
+            } catch (SocketTimeoutException e) {
+                if (!process.isAlive()) throw new IOException("The worker exited with " + process.exitValue() + " before connecting");
+                if (System.currentTimeMillis() > deadline) throw new IOException("The worker didn't connect in time");
+            }
+        }
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Sets the amount of times crashed workers are replaced during a run.
+     *
+     * @param restarts the amount of restarts
+     */
+    public void setRestarts(int restarts) {
+        if (restarts < 0) throw new IllegalArgumentException("The amount of restarts cannot be negative.");
+        this.restarts = restarts;
+    }
+
+    /**
+     * Runs the given test classes across worker JVMs, exiting with 1 if a test failed.
+     *
+     * @param args the names of the test classes
+     * @throws ClassNotFoundException thrown when a test class doesn't exist
+     */
+    public static void main(String[] args) throws ClassNotFoundException {
+        Class<?>[] classes = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) classes[i] = Class.forName(args[i]);
+        ShardReport report = new ShardLauncher().run(classes);
+        System.exit(report.wasSuccessful() ? 0 : 1);
+    }
+
+    /**
+     * A test class to run on a worker, or the tests of it that are left.
+     */
+    private static final class ShardWork {
+        private final Description description;
+        private final Set<String> methods;
+        //Tests the worker started or finished, only touched by the thread driving the worker
+        private final Set<String> running = new HashSet<>();
+        private final Set<String> finished = new HashSet<>();
+
+        private ShardWork(Description description, Set<String> methods) {
+            this.description = description;
+            this.methods = methods;
+        }
+
+        private String getClassName() {
+            return description.getClassName();
+        }
+
+        private List<String> getMethods() {
+            return methods != null ? new ArrayList<>(methods) : null;
+        }
+
+        private void started(String method) {
+            running.add(method);
+        }
+
+        private void finished(String method) {
+            running.remove(method);
+            finished.add(method);
+        }
+
+        /**
+         * Returns the tests of this work.
+         *
+         * @return the tests of this work
+         */
+        private List<Description> getTests() {
+            List<Description> tests = new ArrayList<>();
+            Deque<Description> pending = new ArrayDeque<>(Collections.singleton(description));
+            while (!pending.isEmpty()) {
+                Description current = pending.pop();
+                if (current.isTest()) {
+                    if (methods == null || methods.contains(current.getMethodName())) tests.add(current);
+                } else {
+                    pending.addAll(current.getChildren());
+                }
+            }
+            return tests;
+        }
+
+        /**
+         * Returns the tests that were running when the worker crashed.
+         *
+         * @return the tests that were running
+         */
+        private List<Description> getRunning() {
+            List<Description> tests = new ArrayList<>();
+            for (Description test : getTests()) if (running.contains(test.getMethodName())) tests.add(test);
+            return tests;
+        }
+
+        /**
+         * Returns the tests the worker didn't start yet.
+         *
+         * @return the tests that are left, null if there are none
+         */
+        private ShardWork getRemaining() {
+            Set<String> remaining = new LinkedHashSet<>();
+            for (Description test : getTests()) {
+                if (!running.contains(test.getMethodName()) && !finished.contains(test.getMethodName())) {
+                    remaining.add(test.getMethodName());
+                }
+            }
+            return remaining.isEmpty() ? null : new ShardWork(description, remaining);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package parallel;
+
+import reporting.cases.Case;
+import stats.StatsPlugin;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message exchanged between the {@link ShardLauncher} and a {@link ShardWorker} over their socket.
+ * <p>
+ * The launcher sends {@link Type#RUN} messages, one test class at a time, and {@link Type#STOP} once the worker
+ * has nothing left to run. The worker answers every test class with {@link Type#STARTED} and
+ * {@link Type#FINISHED} messages for each test, {@link Type#DEFECT} messages for other cases reported by the
+ * tests, a {@link Type#STATS} snapshot and finally {@link Type#DONE}.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class ShardMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The types of messages.
+     */
+    enum Type {
+        RUN, STOP, STARTED, FINISHED, DEFECT, STATS, DONE
+    }
+
+    private final Type type;
+    private String className;
+    private ArrayList<String> methods;
+    private String method;
+    private String feature;
+    private String testId;
+    private Case result;
+    private ArrayList<StatsPlugin> plugins;
+
+    private ShardMessage(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates a message running the tests of a class.
+     *
+     * @param className the name of the test class
+     * @param methods   the names of the test methods to run, null to run all of them
+     * @return the message
+     */
+    static ShardMessage run(String className, List<String> methods) {
+        ShardMessage message = new ShardMessage(Type.RUN);
+        message.className = className;
+        message.methods = methods != null ? new ArrayList<>(methods) : null;
+        return message;
+    }
+
+    static ShardMessage stop() {
+        return new ShardMessage(Type.STOP);
+    }
+
+    static ShardMessage started(String method, String testId) {
+        ShardMessage message = new ShardMessage(Type.STARTED);
+        message.method = method;
+        message.testId = testId;
+        return message;
+    }
+
+    /**
+     * Creates a message reporting a finished test.
+     *
+     * @param method  the name of the test method
+     * @param feature the feature of the test
+     * @param result  the case holding the outcome of the test
+     * @return the message
+     */
+    static ShardMessage finished(String method, String feature, Case result) {
+        ShardMessage message = new ShardMessage(Type.FINISHED);
+        message.method = method;
+        message.feature = feature;
+        message.testId = result.getTitle();
+        message.result = result;
+        return message;
+    }
+
+    static ShardMessage defect(Case defect) {
+        ShardMessage message = new ShardMessage(Type.DEFECT);
+        message.result = defect;
+        return message;
+    }
+
+    static ShardMessage stats(List<StatsPlugin> plugins) {
+        ShardMessage message = new ShardMessage(Type.STATS);
+        message.plugins = new ArrayList<>(plugins);
+        return message;
+    }
+
+    static ShardMessage done() {
+        return new ShardMessage(Type.DONE);
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    List<String> getMethods() {
+        return methods;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getFeature() {
+        return feature;
+    }
+
+    String getTestId() {
+        return testId;
+    }
+
+    Case getResult() {
+        return result;
+    }
+
+    List<StatsPlugin> getPlugins() {
+        return plugins;
+    }
+}
@@ -0,0 +1,128 @@
+package parallel;
+
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import reporting.cases.Defects;
+import reporting.features.Feature;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The merged results of the worker JVMs of a {@link ShardLauncher}: a {@link Case} for every test, grouped by
+ * their {@link Feature}. Failed and broken cases are added to the {@code Defects} of the launcher as well.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ShardReport {
+
+    //Feature of tests without a Features annotation
+    private static final String DEFAULT_FEATURE = "Other";
+
+    private final Map<String, Feature> features = new LinkedHashMap<>();
+    private final List<Case> cases = new ArrayList<>();
+    private int crashes;
+
+    /**
+     * Adds the case of a test, registering it as a defect if it failed or broke.
+     *
+     * @param feature the feature of the test
+     * @param result  the case of the test
+     */
+    synchronized void addCase(String feature, Case result) {
+        features.computeIfAbsent(feature.isEmpty() ? DEFAULT_FEATURE : feature, Feature::new).addCase(result);
+        cases.add(result);
+        addDefect(result);
+    }
+
+    /**
+     * Registers a failed or broken case with the {@code Defects} of this JVM, unless it is registered already.
+     * Cases deserialized from a worker aren't known as defects yet.
+     *
+     * @param result the case to register
+     */
+    static void addDefect(Case result) {
+        if (result.getStatus() == CaseStatus.FAILED) {
+            if (!Defects.getFailedDefects().contains(result)) Defects.addFailed(result);
+        } else if (result.getStatus() == CaseStatus.BROKEN) {
+            if (!Defects.getBrokenDefects().contains(result)) Defects.addBroken(result);
+        }
+    }
+
+    synchronized void addCrash() {
+        crashes++;
+    }
+
+    /**
+     * Returns the features of the tests, holding their cases.
+     *
+     * @return the features of the tests
+     */
+    public synchronized List<Feature> getFeatures() {
+        return new ArrayList<>(features.values());
+    }
+
+    /**
+     * Returns the cases of all tests.
+     *
+     * @return the cases of all tests
+     */
+    public synchronized List<Case> getCases() {
+        return new ArrayList<>(cases);
+    }
+
+    /**
+     * Returns the case of a test.
+     *
+     * @param testId the id of the test, its class and method name separated by a {@code #}
+     * @return the case of the test, null if it wasn't reported
+     */
+    public synchronized Case getCase(String testId) {
+        return cases.stream().filter(c -> c.getTitle().equals(testId)).findFirst().orElse(null);
+    }
+
+    /**
+     * Returns the amount of tests that ran, excluding canceled ones.
+     *
+     * @return the amount of tests that ran
+     */
+    public synchronized int getRunCount() {
+        return (int) cases.stream().filter(c -> c.getStatus() != CaseStatus.CANCELED).count();
+    }
+
+    /**
+     * Returns the amount of failed and broken tests.
+     *
+     * @return the amount of failed and broken tests
+     */
+    public synchronized int getFailureCount() {
+        return (int) cases.stream()
+                .filter(c -> c.getStatus() == CaseStatus.FAILED || c.getStatus() == CaseStatus.BROKEN).count();
+    }
+
+    /**
+     * Returns the amount of times a worker JVM crashed.
+     *
+     * @return the amount of crashes
+     */
+    public synchronized int getCrashCount() {
+        return crashes;
+    }
+
+    /**
+     * Returns true if no test failed or broke, false if otherwise.
+     *
+     * @return true if no test failed or broke, false if otherwise
+     */
+    public boolean wasSuccessful() {
+        return getFailureCount() == 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return cases.size() + " tests in " + features.size() + " features: " + getFailureCount() + " failed or broken, "
+                + crashes + " crashes";
+    }
+}
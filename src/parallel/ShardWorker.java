@@ -0,0 +1,240 @@
+package parallel;
+
+import commands.InitFrameworkCommand;
+import org.apache.log4j.Logger;
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import reporting.StepPerformer;
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import reporting.cases.Defects;
+import stats.StatsPlugin;
+import stats.StatsTracker;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entry point of a worker JVM started by the {@link ShardLauncher}.
+ * <p>
+ * The worker connects to the launcher over a local socket, identifying itself with the token in the
+ * {@code BROMINE_SHARD_TOKEN} environment variable, and runs the test classes it receives, one at a time.
+ * Every test is reported back as a {@link Case}: passed, failed (on an AssertionError), broken (on any other
+ * exception) or canceled (when ignored or an assumption failed). The case is the current case of the
+ * {@code StepPerformer} while the test runs, so it holds the steps of the test. Cases the tests report themselves,
+ * like those of the {@code RecoverDeadSession} rule, are sent along, as is a snapshot of the serializable statistics
+ * after every class. The statistics are reset once sent. Attachments of the cases are files on the local disk, so
+ * they stay reachable by the launcher.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ShardWorker {
+
+    private static final Logger LOGGER = Logger.getLogger(ShardWorker.class);
+
+    /**
+     * The system property holding the number of the worker, set in worker JVMs only.
+     */
+    public static final String WORKER_PROPERTY = "bromine.shard.worker";
+    //The environment variable holding the token the launcher expects
+    static final String TOKEN_VARIABLE = "BROMINE_SHARD_TOKEN";
+
+    private final ObjectOutputStream out;
+    //Defects that were sent or are cases of the tests themselves, tests may run in parallel
+    private final Set<Case> reported = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /**
+     * Class constructor specifying the stream to the launcher. Publicly unavailable.
+     *
+     * @param out the stream to the launcher
+     */
+    private ShardWorker(ObjectOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Runs a worker.
+     *
+     * @param args the port of the launcher and the number of the worker
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) throw new IllegalArgumentException("Usage: ShardWorker <port> <worker>");
+        int port = Integer.parseInt(args[0]);
+        String token = System.getenv(TOKEN_VARIABLE);
+        if (token == null) throw new IllegalStateException("The " + TOKEN_VARIABLE + " environment variable isn't set");
+        System.setProperty(WORKER_PROPERTY, args[1]);
+        new InitFrameworkCommand().execute();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream handshake = new DataOutputStream(socket.getOutputStream());
+            handshake.writeUTF(token);
+            handshake.flush();
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+            ShardWorker worker = new ShardWorker(out);
+            while (true) {
+                ShardMessage message = (ShardMessage) in.readObject();
+                if (message.getType() == ShardMessage.Type.STOP) break;
+                worker.run(message.getClassName(), message.getMethods());
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            LOGGER.error("Worker " + args[1] + " lost the launcher", e);
+            System.exit(1);
+        }
+        //Threads of the tests, e.g. session recyclers, shouldn't keep the worker alive
+        System.exit(0);
+    }
+
+    /**
+     * Runs the tests of a class, reporting them to the launcher.
+     *
+     * @param className the name of the test class
+     * @param methods   the names of the test methods to run, null to run all of them
+     * @throws IOException thrown when the launcher couldn't be reached
+     */
+    private void run(String className, List<String> methods) throws IOException {
+        reported.addAll(Defects.getFailedDefects());
+        reported.addAll(Defects.getBrokenDefects());
+        try {
+            Request request = Request.aClass(Class.forName(className));
+            if (methods != null) request = request.filterWith(new MethodFilter(new HashSet<>(methods)));
+            JUnitCore core = new JUnitCore();
+            core.addListener(new Reporter());
+            core.run(request);
+        } catch (ClassNotFoundException e) {
+            Case broken = new Case(className, null, "The test class couldn't be loaded");
+            broken.setErrorTrace(e.toString());
+            broken.setStatus(CaseStatus.BROKEN);
+            send(ShardMessage.defect(broken));
+        }
+        sendDefects();
+
+        List<StatsPlugin> plugins = new ArrayList<>();
+        for (StatsPlugin plugin : StatsTracker.getPlugins()) {
+            if (plugin instanceof Serializable) plugins.add(plugin);
+        }
+        send(ShardMessage.stats(plugins));
+        plugins.forEach(StatsPlugin::reset);
+        send(ShardMessage.done());
+    }
+
+    /**
+     * Sends the defects that weren't sent yet.
+     *
+     * @throws IOException thrown when the launcher couldn't be reached
+     */
+    private void sendDefects() throws IOException {
+        List<Case> defects = new ArrayList<>(Defects.getFailedDefects());
+        defects.addAll(Defects.getBrokenDefects());
+        for (Case defect : defects) {
+            if (reported.add(defect)) send(ShardMessage.defect(defect));
+        }
+    }
+
+    private synchronized void send(ShardMessage message) throws IOException {
+        out.writeObject(message);
+        //Objects are written anew every time, e.g. the statistics after every class
+        out.reset();
+        out.flush();
+    }
+
+    /**
+     * Filter running the given test methods only.
+     */
+    private static final class MethodFilter extends Filter {
+        private final Set<String> methods;
+
+        private MethodFilter(Set<String> methods) {
+            this.methods = methods;
+        }
+
+        @Override
+        public boolean shouldRun(Description description) {
+            if (description.isTest()) return methods.contains(description.getMethodName());
+            return description.getChildren().stream().anyMatch(this::shouldRun);
+        }
+
+        @Override
+        public String describe() {
+            return "methods " + methods;
+        }
+    }
+
+    /**
+     * Listener reporting the tests to the launcher.
+     */
+    @RunListener.ThreadSafe
+    private final class Reporter extends RunListener {
+        private final Map<Description, Long> started = new ConcurrentHashMap<>();
+        private final Map<Description, Case> cases = new ConcurrentHashMap<>();
+        private final Map<Description, Failure> failures = new ConcurrentHashMap<>();
+
+        @Override
+        public void testStarted(Description description) throws IOException {
+            started.put(description, System.nanoTime());
+            //The steps of the test are added to its case, the listener is notified on the thread running the test
+            Case result = createCase(description);
+            cases.put(description, result);
+            StepPerformer.setCurrentCase(result);
+            send(ShardMessage.started(description.getMethodName(), TestHistory.getTestId(description)));
+        }
+
+        @Override
+        public void testFailure(Failure failure) {
+            failures.put(failure.getDescription(), failure);
+        }
+
+        @Override
+        public void testAssumptionFailure(Failure failure) {
+            failures.put(failure.getDescription(), failure);
+        }
+
+        @Override
+        public void testIgnored(Description description) throws IOException {
+            report(createCase(description), description, CaseStatus.CANCELED, 0, null);
+        }
+
+        @Override
+        public void testFinished(Description description) throws IOException {
+            Long start = started.remove(description);
+            long duration = start != null ? (System.nanoTime() - start) / 1000000 : 0;
+            Failure failure = failures.remove(description);
+            CaseStatus status = CaseStatus.PASSED;
+            if (failure != null && failure.getException() instanceof AssumptionViolatedException) {
+                status = CaseStatus.CANCELED;
+            } else if (failure != null) {
+                status = failure.getException() instanceof AssertionError ? CaseStatus.FAILED : CaseStatus.BROKEN;
+            }
+            Case result = cases.remove(description);
+            if (result == null) result = createCase(description);
+            //Rules may have marked the case broken already, e.g. RecoverDeadSession
+            if (failure != null && result.getStatus() == CaseStatus.BROKEN) status = CaseStatus.BROKEN;
+            if (StepPerformer.getCurrentCase() == result) StepPerformer.setCurrentCase(null);
+            sendDefects();
+            report(result, description, status, duration, failure != null ? failure.getTrace() : null);
+        }
+
+        private Case createCase(Description description) {
+            Case result = new Case(TestHistory.getTestId(description), null, description.getDisplayName());
+            //Not a defect of its own, it is reported with its status
+            reported.add(result);
+            return result;
+        }
+
+        private void report(Case result, Description description, CaseStatus status, long duration, String trace) throws IOException {
+            result.setDuration(duration);
+            result.setErrorTrace(trace);
+            result.setStatus(status);
+            send(ShardMessage.finished(description.getMethodName(), TestHistory.getFeature(description), result));
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package parallel;
+
+import org.apache.log4j.Logger;
+import org.junit.runner.Description;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local store of the durations and outcomes of tests, keyed by their feature and test id.
+ * <p>
+ * Every finished test appends a line to the history file, so recording is cheap and never rewrites the file.
+ * Lines of the same test are folded into a single {@link TestRecord} when the history is loaded. Once the file
+ * holds twice as many lines as there are tests, it is compacted into a single line per test, dropping tests that
+ * didn't run for {@code bromine.history.days} days (90 by default), so the file stays small over thousands of runs.
+ * The file is located at {@code bromine.history}, in the {@code .bromine} directory of the user home by default.
+ * With {@code bromine.history.readOnly} set, runs are only recorded in memory, e.g. by the worker JVMs of the
+ * {@link ShardLauncher}, which records their tests itself.
+ * <p>
+ * The history orders tests for the {@link SessionPool}: tests that recently failed first for fast feedback,
+ * followed by the longest tests first, so no session is left running a long test when the others are done.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class TestHistory {
+
+    private static final Logger LOGGER = Logger.getLogger(TestHistory.class);
+
+    private static final Map<Path, TestHistory> histories = new ConcurrentHashMap<>();
+
+    private static final String HISTORY_PROPERTY = "bromine.history";
+    private static final String DAYS_PROPERTY = "bromine.history.days";
+    private static final String READ_ONLY_PROPERTY = "bromine.history.readOnly";
+    //Lines the file may hold on top of twice the amount of tests, so small histories aren't compacted over and over
+    private static final int COMPACTION_SLACK = 100;
+
+    private final Path file;
+    private final Map<String, TestRecord> records;
+    private boolean loaded;
+    private int lines;
+
+    /**
+     * Class constructor specifying the history file. Publicly unavailable, see {@link #getInstance(Path)}.
+     *
+     * @param file the history file
+     */
+    private TestHistory(Path file) {
+        this.file = file;
+        this.records = new LinkedHashMap<>();
+    }
+
+    /**
+     * Returns the history stored in the file of the {@code bromine.history} system property, or in the
+     * {@code .bromine} directory of the user home if it isn't set.
+     *
+     * @return the default history
+     */
+    public static TestHistory getInstance() {
+        String history = System.getProperty(HISTORY_PROPERTY);
+        return getInstance(history != null ? Paths.get(history) : Paths.get(System.getProperty("user.home"), ".bromine", "history.tsv"));
+    }
+
+    /**
+     * Returns the history stored in a given file.
+     *
+     * @param file the history file
+     * @return the history stored in the file
+     */
+    public static TestHistory getInstance(Path file) {
+        return histories.computeIfAbsent(file.toAbsolutePath().normalize(), TestHistory::new);
+    }
+
+    /**
+     * Records a finished test, in memory and in the history file.
+     *
+     * @param description the description of the test
+     * @param duration    the duration of the test in milliseconds
+     * @param failed      boolean value indicating whether or not the test failed
+     */
+    public void record(Description description, long duration, boolean failed) {
+        record(getFeature(description), getTestId(description), duration, failed);
+    }
+
+    /**
+     * Records a finished test by its feature and id, e.g. a test that ran in another JVM.
+     *
+     * @param feature  the feature of the test
+     * @param testId   the id of the test
+     * @param duration the duration of the test in milliseconds
+     * @param failed   boolean value indicating whether or not the test failed
+     */
+    public synchronized void record(String feature, String testId, long duration, boolean failed) {
+        load();
+        TestRecord run = new TestRecord(feature, testId, duration, 1, System.currentTimeMillis(), failed ? 0 : -1);
+        TestRecord record = records.get(getKey(run));
+        if (record == null) records.put(getKey(run), run);
+        else record.fold(run);
+        if (Boolean.getBoolean(READ_ONLY_PROPERTY)) return;
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                write(writer, run);
+            }
+            lines++;
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't record " + run + " in " + file + ": " + e.getMessage());
+        }
+        if (lines > 2 * records.size() + COMPACTION_SLACK) compact();
+    }
+
+    /**
+     * Returns the record of a test.
+     *
+     * @param description the description of the test
+     * @return the record of the test, null if it never ran
+     */
+    public synchronized TestRecord getRecord(Description description) {
+        load();
+        return records.get(getFeature(description) + "\t" + getTestId(description));
+    }
+
+    /**
+     * Returns the amount of recorded tests.
+     *
+     * @return the amount of recorded tests
+     */
+    public synchronized int size() {
+        load();
+        return records.size();
+    }
+
+    /**
+     * Returns the estimated duration of a test, or of a class or suite of tests.
+     * Tests that never ran are estimated to take the average duration of the recorded tests.
+     *
+     * @param description the description of the test, class or suite
+     * @return the estimated duration in milliseconds
+     */
+    public synchronized long estimate(Description description) {
+        load();
+        return estimate(description, records, getAverage(records), new HashMap<>());
+    }
+
+    /**
+     * Returns a comparator ordering tests, and classes or suites of tests, the way they should be scheduled:
+     * tests that recently failed first, then the longest ones first. Tests that never ran are estimated to take
+     * the average duration of the recorded tests.
+     *
+     * @return a comparator ordering tests the way they should be scheduled
+     */
+    public Comparator<Description> getComparator() {
+        Map<String, TestRecord> snapshot;
+        synchronized (this) {
+            load();
+            snapshot = new HashMap<>(records);
+        }
+        long average = getAverage(snapshot);
+        Map<Description, Long> estimates = new HashMap<>();
+        Map<Description, Boolean> failures = new HashMap<>();
+        return new Comparator<Description>() {
+            @Override
+            public int compare(Description first, Description second) {
+                int failed = Boolean.compare(isRecentlyFailed(second), isRecentlyFailed(first));
+                return failed != 0 ? failed : Long.compare(estimate(second, snapshot, average, estimates),
+                        estimate(first, snapshot, average, estimates));
+            }
+
+            private boolean isRecentlyFailed(Description description) {
+                Boolean failed = failures.get(description);
+                if (failed == null) {
+                    if (description.isTest()) {
+                        TestRecord record = snapshot.get(getFeature(description) + "\t" + getTestId(description));
+                        failed = record != null && record.isRecentlyFailed();
+                    } else {
+                        failed = description.getChildren().stream().anyMatch(this::isRecentlyFailed);
+                    }
+                    failures.put(description, failed);
+                }
+                return failed;
+            }
+        };
+    }
+
+    /**
+     * Estimates the duration of a test, or the total duration of a class or suite of tests.
+     *
+     * @param description the description of the test, class or suite
+     * @param records     the records of the tests by key
+     * @param average     the estimate of tests that never ran
+     * @param estimates   the estimates made so far
+     * @return the estimated duration in milliseconds
+     */
+    private static long estimate(Description description, Map<String, TestRecord> records, long average,
+                                 Map<Description, Long> estimates) {
+        Long estimate = estimates.get(description);
+        if (estimate == null) {
+            if (description.isTest()) {
+                TestRecord record = records.get(getFeature(description) + "\t" + getTestId(description));
+                estimate = record != null ? record.getDuration() : average;
+            } else {
+                estimate = description.getChildren().stream()
+                        .mapToLong(child -> estimate(child, records, average, estimates)).sum();
+            }
+            estimates.put(description, estimate);
+        }
+        return estimate;
+    }
+
+    private static long getAverage(Map<String, TestRecord> records) {
+        return Math.round(records.values().stream().mapToLong(TestRecord::getDuration).average().orElse(0));
+    }
+
+    /**
+     * Rewrites the history file with a single line per test, dropping tests that didn't run for
+     * {@code bromine.history.days} days. The file is replaced atomically. Skipped when the history is read-only.
+     */
+    public synchronized void compact() {
+        load();
+        if (Boolean.getBoolean(READ_ONLY_PROPERTY)) return;
+        long expiry = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(Long.parseLong(System.getProperty(DAYS_PROPERTY, "90")));
+        records.values().removeIf(record -> record.getLastRun() < expiry);
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    for (TestRecord record : records.values()) write(writer, record);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            LOGGER.debug("Compacted " + lines + " lines of " + file + " into " + records.size());
+            lines = records.size();
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't compact " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the history file, unless it was loaded before, folding the lines of every test into a single record.
+     */
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        if (!Files.exists(file)) return;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                lines++;
+                //E.g. "Navigation\tNavigatorTestCase#shouldNavigate\t1250\t1\t1500000000000\t-1"
+                String[] fields = line.split("\t");
+                if (fields.length != 6) continue;
+                try {
+                    TestRecord run = new TestRecord(fields[0], fields[1], Long.parseLong(fields[2]),
+                            Integer.parseInt(fields[3]), Long.parseLong(fields[4]), Integer.parseInt(fields[5]));
+                    TestRecord record = records.get(getKey(run));
+                    if (record == null) records.put(getKey(run), run);
+                    else record.fold(run);
+                } catch (NumberFormatException e) {
+                    LOGGER.debug("Skipping malformed history line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't load " + file + ": " + e.getMessage());
+        }
+        LOGGER.debug("Loaded " + records.size() + " tests from " + file);
+        if (lines > 2 * records.size() + COMPACTION_SLACK) compact();
+    }
+
+    private static void write(BufferedWriter writer, TestRecord record) throws IOException {
+        writer.write(record.getFeature() + "\t" + record.getTestId() + "\t" + record.getDuration() + "\t"
+                + record.getRuns() + "\t" + record.getLastRun() + "\t" + record.getRunsSinceFailure());
+        writer.newLine();
+    }
+
+    private static String getKey(TestRecord record) {
+        return record.getFeature() + "\t" + record.getTestId();
+    }
+
+    /**
+     * Returns the feature of a test: the features of its {@link Features} annotation, or those of its class.
+     *
+     * @param description the description of the test
+     * @return the feature of the test, an empty String if it has none
+     */
+    static String getFeature(Description description) {
+        Features features = description.getAnnotation(Features.class);
+        if (features == null && description.getTestClass() != null) {
+            features = description.getTestClass().getAnnotation(Features.class);
+        }
+        return features == null ? "" : clean(String.join(",", features.value()));
+    }
+
+    /**
+     * Returns the id of a test: its class and method name.
+     *
+     * @param description the description of the test
+     * @return the id of the test
+     */
+    static String getTestId(Description description) {
+        String id = description.getMethodName() != null
+                ? description.getClassName() + "#" + description.getMethodName() : description.getDisplayName();
+        return clean(id);
+    }
+
+    private static String clean(String value) {
+        return value.replaceAll("[\\t\\r\\n]", " ");
+    }
+}
@@ -0,0 +1,98 @@
+package parallel;
+
+/**
+ * The history of a single test, as kept by the {@link TestHistory}: its smoothed duration, the number of times it
+ * ran and how many runs ago it last failed.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class TestRecord {
+
+    //Weight of the latest duration, older durations fade out so the estimate follows tests getting slower or faster
+    private static final double SMOOTHING = 0.3;
+    //A test failing in one of its last runs counts as recently failed
+    private static final int RECENT_RUNS = 3;
+
+    private final String feature;
+    private final String testId;
+    private long duration;
+    private int runs;
+    private long lastRun;
+    private int runsSinceFailure;
+
+    /**
+     * Class constructor specifying all fields.
+     *
+     * @param feature          the feature of the test
+     * @param testId           the id of the test
+     * @param duration         the duration of the test in milliseconds
+     * @param runs             the number of runs
+     * @param lastRun          the time of the last run in milliseconds since the epoch
+     * @param runsSinceFailure the number of runs since the last failure: 0 if the last run failed, -1 if the test
+     *                         never failed
+     */
+    TestRecord(String feature, String testId, long duration, int runs, long lastRun, int runsSinceFailure) {
+        this.feature = feature;
+        this.testId = testId;
+        this.duration = duration;
+        this.runs = runs;
+        this.lastRun = lastRun;
+        this.runsSinceFailure = runsSinceFailure;
+    }
+
+    /**
+     * Folds a later record of the same test into this one.
+     *
+     * @param later the later record, e.g. a single run
+     */
+    void fold(TestRecord later) {
+        duration = Math.round(SMOOTHING * later.duration + (1 - SMOOTHING) * duration);
+        if (later.runsSinceFailure >= 0) runsSinceFailure = later.runsSinceFailure;
+        else if (runsSinceFailure >= 0) runsSinceFailure += later.runs;
+        runs += later.runs;
+        lastRun = Math.max(lastRun, later.lastRun);
+    }
+
+    /**
+     * Returns true if the test failed in one of its last runs, false if otherwise.
+     *
+     * @return true if the test failed in one of its last runs, false if otherwise
+     */
+    public boolean isRecentlyFailed() {
+        return runsSinceFailure >= 0 && runsSinceFailure < RECENT_RUNS;
+    }
+
+    public String getFeature() {
+        return feature;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    /**
+     * Returns the smoothed duration of the test.
+     *
+     * @return the smoothed duration in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public long getLastRun() {
+        return lastRun;
+    }
+
+    public int getRunsSinceFailure() {
+        return runsSinceFailure;
+    }
+
+    @Override
+    public String toString() {
+        return testId + " (" + duration + " ms over " + runs + " runs)";
+    }
+}
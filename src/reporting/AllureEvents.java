@@ -0,0 +1,87 @@
+package reporting;
+
+import org.apache.log4j.Logger;
+import ru.yandex.qatools.allure.Allure;
+import ru.yandex.qatools.allure.events.MakeAttachmentEvent;
+import ru.yandex.qatools.allure.events.StepEvent;
+import ru.yandex.qatools.allure.events.StepFailureEvent;
+import ru.yandex.qatools.allure.events.StepFinishedEvent;
+import ru.yandex.qatools.allure.events.StepStartedEvent;
+
+import java.util.UUID;
+
+/**
+ * Class responsible for firing Allure events.
+ * Reporting should never break a test, failures to process an event are logged and ignored.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class AllureEvents {
+
+    private static final Logger LOGGER = Logger.getLogger(AllureEvents.class);
+
+    /**
+     * Fires a step event.
+     *
+     * @param event the event to fire
+     */
+    public static void fire(StepEvent event) {
+        try {
+            Allure.LIFECYCLE.fire(event);
+        } catch (Exception | LinkageError e) {
+            LOGGER.debug("Allure couldn't process " + event.getClass().getSimpleName() + ": " + e);
+        }
+    }
+
+    /**
+     * Attaches the given bytes to the current step.
+     *
+     * @param bytes the bytes to attach
+     * @param title the title of the attachment
+     * @param type  the mime type of the attachment
+     */
+    public static void attach(byte[] bytes, String title, String type) {
+        try {
+            fire(new MakeAttachmentEvent(bytes, title, type));
+        } catch (LinkageError e) {
+            LOGGER.debug("Allure couldn't attach " + title + ": " + e);
+        }
+    }
+
+    /**
+     * Starts a step.
+     *
+     * @param title the title of the step
+     */
+    public static void stepStarted(String title) {
+        try {
+            Allure.LIFECYCLE.fire(new StepStartedEvent(UUID.randomUUID().toString()).withTitle(title));
+        } catch (Exception | LinkageError e) {
+            LOGGER.debug("Allure couldn't start step " + title + ": " + e);
+        }
+    }
+
+    /**
+     * Marks the current step as failed.
+     *
+     * @param throwable the cause of the failure
+     */
+    public static void stepFailed(Throwable throwable) {
+        try {
+            Allure.LIFECYCLE.fire(new StepFailureEvent().withThrowable(throwable));
+        } catch (Exception | LinkageError e) {
+            LOGGER.debug("Allure couldn't fail step: " + e);
+        }
+    }
+
+    /**
+     * Finishes the current step.
+     */
+    public static void stepFinished() {
+        try {
+            Allure.LIFECYCLE.fire(new StepFinishedEvent());
+        } catch (Exception | LinkageError e) {
+            LOGGER.debug("Allure couldn't finish step: " + e);
+        }
+    }
+}
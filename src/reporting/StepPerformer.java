@@ -1,32 +1,245 @@
 package reporting;
 
+import reporting.actionlog.ActionLog;
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import reporting.cases.CaseStep;
+import reporting.flightrecorder.FlightRecorder;
+import reporting.trace.TraceRecorder;
 import ru.yandex.qatools.allure.annotations.Step;
+import stats.StatsAction;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
 
 /**
  * Class responsible for performing Allure steps.
+ * <p>
+ * Steps are started as a {@link StepScope} and timed until the scope is closed. Steps started while another
+ * step of the same thread is running are nested in that step, top level steps are added to the current case
+ * of the thread, if any. Code spanned by a single step can be run in it with {@link #run(StepScope, Runnable)} or
+ * {@link #call(StepScope, Supplier)}, which mark the step successful or failed according to its outcome.
  *
  * @author Thibault Helsmoortel
  */
 public final class StepPerformer {
 
-    //TODO make sure correct time spans are used (invoking perform takes only 0-1 ms)...
+    //Running steps of each thread, innermost step first
+    private static final ThreadLocal<Deque<CaseStep>> runningSteps = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<Case> currentCase = new ThreadLocal<>();
+    private static final ThreadLocal<Long> currentCaseStart = new ThreadLocal<>();
+
+    /**
+     * Starts a step using action and description.
+     *
+     * @param action      the action
+     * @param description the description
+     * @return the scope of the started step
+     */
+    public static StepScope start(String action, String description) {
+        return start(action + ": " + description);
+    }
+
+    /**
+     * Starts a step using action.
+     *
+     * @param action the action
+     * @return the scope of the started step
+     */
+    public static StepScope start(String action) {
+        return start(new CaseStep(action));
+    }
+
+    /**
+     * Starts a step for a browser action using action and description.
+     *
+     * @param action      the action
+     * @param description the description
+     * @return the scope of the started step
+     */
+    public static StepScope startAction(String action, String description) {
+        return start(new CaseStep(action + ": " + description, "action"));
+    }
+
+    /**
+     * Starts a step for a wait using action and description.
+     *
+     * @param action      the action
+     * @param description the description
+     * @return the scope of the started step
+     */
+    public static StepScope startWait(String action, String description) {
+        return start(new CaseStep(action + ": " + description, "wait"));
+    }
+
+    /**
+     * Starts a step for a wait using action.
+     *
+     * @param action the action
+     * @return the scope of the started step
+     */
+    public static StepScope startWait(String action) {
+        return start(new CaseStep(action, "wait"));
+    }
+
+    /**
+     * Runs an action in a started step, marking the step successful when the action completes and failed when
+     * it throws. The step is ended either way.
+     * <pre>
+     * StepPerformer.run(StepPerformer.startAction("Click", "Submit"), element::click);
+     * </pre>
+     *
+     * @param scope  the scope of the started step
+     * @param action the action to run
+     */
+    public static void run(StepScope scope, Runnable action) {
+        call(scope, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs an action in a started step and returns its result, marking the step successful when the action
+     * completes and failed when it throws. The step is ended either way.
+     *
+     * @param scope  the scope of the started step
+     * @param action the action to run
+     * @param <T>    the type of the result
+     * @return the result of the action
+     */
+    public static <T> T call(StepScope scope, Supplier<T> action) {
+        try (StepScope step = scope) {
+            try {
+                T result = action.get();
+                step.success();
+                return result;
+            } catch (RuntimeException | Error e) {
+                step.fail(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Starts running a step.
+     *
+     * @param step the step to start
+     * @return the scope of the started step
+     */
+    private static StepScope start(CaseStep step) {
+        Deque<CaseStep> steps = runningSteps.get();
+        CaseStep parent = steps.peek();
+        if (parent != null) parent.addChild(step);
+        else if (currentCase.get() != null) currentCase.get().addCaseStep(step);
+        steps.push(step);
+
+        AllureEvents.stepStarted(step.getTitle());
+        FlightRecorder.getInstance().onStep(step.getTitle());
+        return new StepScope(step);
+    }
+
+    /**
+     * Ends the step of a scope, along with any nested steps that are still running.
+     *
+     * @param scope   the scope of the step to end
+     * @param status  the status of the step
+     * @param failure the cause of the failure, if any
+     */
+    static void end(StepScope scope, CaseStatus status, Throwable failure) {
+        Deque<CaseStep> steps = runningSteps.get();
+        if (!steps.contains(scope.getStep())) return;
+
+        CaseStep step;
+        do {
+            step = steps.pop();
+            step.end(status);
+            TraceRecorder.getInstance().complete(step.getTitle(), step.getCategory(), step.getStartNanos(), step.getEndNanos());
+            ActionLog.getInstance().log(step, steps.size());
+            if (failure != null) AllureEvents.stepFailed(failure);
+            AllureEvents.stepFinished();
+        } while (step != scope.getStep());
+    }
+
+    /**
+     * Counts a tracked action in all running steps of the current thread.
+     *
+     * @param action the tracked action
+     */
+    public static void track(StatsAction action) {
+        runningSteps.get().forEach(step -> step.track(action));
+    }
+
+    /**
+     * Counts a WebDriver command in all running steps of the current thread.
+     *
+     * @param nanos the time the command took in nanoseconds
+     */
+    public static void trackCommand(long nanos) {
+        runningSteps.get().forEach(step -> step.trackCommand(nanos));
+    }
+
+    /**
+     * Returns the innermost running step of the current thread.
+     *
+     * @return the innermost running step, null if no step is running
+     */
+    public static CaseStep getCurrentStep() {
+        return runningSteps.get().peek();
+    }
+
+    /**
+     * Sets the case the top level steps of the current thread are added to.
+     * The time the previous case was set is traced as the duration of that case.
+     *
+     * @param c the case, null to stop adding steps to a case
+     */
+    public static void setCurrentCase(Case c) {
+        Case previous = currentCase.get();
+        if (previous != null) {
+            TraceRecorder.getInstance().complete(previous.getTitle(), "case", currentCaseStart.get(), System.nanoTime());
+        }
+        if (c == null) {
+            currentCase.remove();
+            currentCaseStart.remove();
+        } else {
+            currentCase.set(c);
+            currentCaseStart.set(System.nanoTime());
+        }
+    }
+
+    /**
+     * Returns the case the top level steps of the current thread are added to.
+     *
+     * @return the current case, null if none
+     */
+    public static Case getCurrentCase() {
+        return currentCase.get();
+    }
 
     /**
      * Performs an Allure Step using action and description.
      *
      * @param action      the action
      * @param description the description
+     * @deprecated the step doesn't span the action it describes, use {@link #start(String, String)}
      */
+    @Deprecated
     @Step("{0}: {1}")
     public static void perform(String action, String description) {
+        FlightRecorder.getInstance().onStep(action + ": " + description);
     }
 
     /**
      * Performs an Allure Step using action.
      *
      * @param action the action
+     * @deprecated the step doesn't span the action it describes, use {@link #start(String)}
      */
+    @Deprecated
     @Step("{0}")
     public static void perform(String action) {
+        FlightRecorder.getInstance().onStep(action);
     }
 }
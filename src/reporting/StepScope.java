@@ -0,0 +1,74 @@
+package reporting;
+
+import reporting.cases.CaseStatus;
+import reporting.cases.CaseStep;
+
+/**
+ * Scope of a running step, to be used in a try-with-resources statement.
+ * Closing the scope ends the step. Steps that weren't marked successful before are ended as broken,
+ * mark them failed before closing to report the cause of the failure.
+ * <pre>
+ * try (StepScope step = StepPerformer.start("Click", "Submit")) {
+ *     try {
+ *         element.click();
+ *         step.success();
+ *     } catch (RuntimeException | Error e) {
+ *         step.fail(e);
+ *         throw e;
+ *     }
+ * }
+ * </pre>
+ * The same can be written as {@code StepPerformer.run(StepPerformer.start("Click", "Submit"), element::click)},
+ * see {@link StepPerformer#run(StepScope, Runnable)}.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class StepScope implements AutoCloseable {
+
+    private final CaseStep step;
+    private CaseStatus status;
+    private Throwable failure;
+
+    /**
+     * Class constructor specifying the running step. Publicly unavailable, see {@link StepPerformer#start(String)}.
+     *
+     * @param step the running step
+     */
+    StepScope(CaseStep step) {
+        this.step = step;
+    }
+
+    /**
+     * Marks the step as successful.
+     */
+    public void success() {
+        this.status = CaseStatus.PASSED;
+    }
+
+    /**
+     * Marks the step as failed: failed for assertion errors, broken for any other throwable.
+     *
+     * @param throwable the cause of the failure
+     */
+    public void fail(Throwable throwable) {
+        this.status = throwable instanceof AssertionError ? CaseStatus.FAILED : CaseStatus.BROKEN;
+        this.failure = throwable;
+    }
+
+    /**
+     * Returns the running step.
+     *
+     * @return the running step
+     */
+    public CaseStep getStep() {
+        return step;
+    }
+
+    /**
+     * Ends the step.
+     */
+    @Override
+    public void close() {
+        StepPerformer.end(this, status == null ? CaseStatus.BROKEN : status, failure);
+    }
+}
@@ -0,0 +1,59 @@
+package reporting;
+
+import org.apache.log4j.Logger;
+import ru.yandex.qatools.allure.events.StepEvent;
+import ru.yandex.qatools.allure.model.Attachment;
+import ru.yandex.qatools.allure.model.Step;
+import ru.yandex.qatools.allure.utils.AllureResultsUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Allure event attaching a file to the current step without buffering it in memory.
+ * The file is transferred straight into the Allure results directory.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class StreamedAttachmentEvent implements StepEvent {
+
+    private static final Logger LOGGER = Logger.getLogger(StreamedAttachmentEvent.class);
+
+    private final String title;
+    private final File source;
+    private final String type;
+
+    /**
+     * Class constructor specifying the title, source file and mime type of the attachment.
+     *
+     * @param title  the title of the attachment
+     * @param source the file to attach
+     * @param type   the mime type of the attachment
+     */
+    public StreamedAttachmentEvent(String title, File source, String type) {
+        this.title = title;
+        this.source = source;
+        this.type = type;
+    }
+
+    @Override
+    public void process(Step step) {
+        String name = AllureResultsUtils.generateAttachmentName() + AllureResultsUtils.getExtensionByMimeType(type);
+        File target = new File(AllureResultsUtils.getResultsDirectory(), name);
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) position += in.transferTo(position, size - position, out);
+            step.getAttachments().add(new Attachment()
+                    .withTitle(title)
+                    .withSource(name)
+                    .withType(type)
+                    .withSize((int) Math.min(size, Integer.MAX_VALUE)));
+        } catch (IOException e) {
+            LOGGER.error("Couldn't attach " + source.getName() + ": " + e.getMessage());
+        }
+    }
+}
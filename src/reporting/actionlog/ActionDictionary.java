@@ -0,0 +1,99 @@
+package reporting.actionlog;
+
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only dictionary of the strings referred to by action records (sessions, categories and actions).
+ * Only strings with a limited amount of distinct values belong here, as every string is kept in memory.
+ * Every string is written once, records refer to it by id. Entries are an int id followed by the string
+ * in modified UTF-8 (see {@link DataOutput#writeUTF(String)}). Every new entry is flushed before its id is handed
+ * out, so the records of a killed process never refer to an entry that wasn't written. New entries are rare, as
+ * the strings have a limited amount of distinct values.
+ *
+ * @author Thibault Helsmoortel
+ */
+final class ActionDictionary implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(ActionDictionary.class);
+
+    //Longer strings are truncated, keeping the dictionary small
+    static final int MAX_LENGTH = 256;
+
+    private final Map<String, Integer> ids;
+    private final DataOutputStream out;
+    private int nextId;
+
+    /**
+     * Opens a dictionary, continuing the existing one if any.
+     *
+     * @param file the dictionary file
+     * @throws IOException thrown when the dictionary couldn't be read or opened
+     */
+    ActionDictionary(File file) throws IOException {
+        this.ids = new ConcurrentHashMap<>();
+        for (Map.Entry<Integer, String> entry : read(file).entrySet()) {
+            ids.put(entry.getValue(), entry.getKey());
+            nextId = Math.max(nextId, entry.getKey() + 1);
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    /**
+     * Returns the id of a string, adding it to the dictionary if it is new.
+     *
+     * @param value the string, may be null
+     * @return the id of the string, -1 for null
+     */
+    int id(String value) {
+        if (value == null) return -1;
+        String key = value.length() > MAX_LENGTH ? value.substring(0, MAX_LENGTH) : value;
+        Integer id = ids.get(key);
+        return id != null ? id : add(key);
+    }
+
+    private synchronized int add(String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        id = nextId++;
+        try {
+            out.writeInt(id);
+            out.writeUTF(value);
+            out.flush();
+        } catch (IOException e) {
+            LOGGER.error("Couldn't write to the action dictionary: " + e.getMessage());
+        }
+        ids.put(value, id);
+        return id;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Reads a dictionary. An incomplete last entry, left by a process that died while writing it, is ignored.
+     *
+     * @param file the dictionary file
+     * @return the strings by id
+     * @throws IOException thrown when the dictionary couldn't be read
+     */
+    static Map<Integer, String> read(File file) throws IOException {
+        Map<Integer, String> strings = new HashMap<>();
+        if (!file.exists()) return strings;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int id = in.readInt();
+                strings.put(id, in.readUTF());
+            }
+        } catch (EOFException ignored) {
+            //End of the dictionary
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,297 @@
+package reporting.actionlog;
+
+import org.apache.log4j.Logger;
+import reporting.cases.CaseStep;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Singleton class responsible for logging every framework action (the steps of the {@code ActionBot},
+ * {@code WaiterBot} and {@code Navigator}) in a compact binary format, meant to stay enabled during long runs.
+ * <p>
+ * Actions are written as fixed size records to memory-mapped segment files: logging an action reserves a slot
+ * and writes a few numbers into memory, the operating system takes care of writing them to disk. The few
+ * distinct strings (sessions, categories, actions) are stored once in a dictionary file and referred to by id.
+ * Details (locators, element texts) vary with every action, so they are stored in the record itself, truncated
+ * to {@value #DETAIL_SIZE} bytes. Text typed by {@code Send keys} actions is never logged. When a segment is
+ * full, logging continues in a new one. Use {@link ActionLogReader} to convert the segments to CSV or JSON.
+ * <p>
+ * Segment layout: a header (magic, version, record size, creation time in milliseconds since the epoch)
+ * followed by records of {@value #RECORD_SIZE} bytes: start (microseconds since the epoch, 0 for unused slots),
+ * duration, time spent in driver commands (both in nanoseconds), the ids of the session, category and action,
+ * the length of the detail, the amount of driver round trips, the status, the nesting depth and the detail in
+ * UTF-8.
+ * <p>
+ * Logging starts automatically when the {@code bromine.actionlog} system property points to a directory.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ActionLog {
+    private static final ActionLog actionLogInstance = new ActionLog();
+
+    private static final Logger LOGGER = Logger.getLogger(ActionLog.class);
+
+    static final int MAGIC = 0x4252414C;
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 128;
+    static final int DETAIL_OFFSET = 48;
+    static final int DETAIL_SIZE = RECORD_SIZE - DETAIL_OFFSET;
+    static final String SEGMENT_PREFIX = "actions-";
+    static final String SEGMENT_SUFFIX = ".bin";
+    static final String DICTIONARY_FILE = "actions.dict";
+
+    private static final String LOG_PROPERTY = "bromine.actionlog";
+    private static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final String SEND_KEYS = "Send keys";
+    //Quoted text of a send keys detail, e.g. "'secret' to input"
+    private static final Pattern TYPED_TEXT = Pattern.compile("^'.*'(?= to |$)", Pattern.DOTALL);
+
+    private final ThreadLocal<String> session = new ThreadLocal<>();
+
+    private volatile Segment segment;
+    private volatile ActionDictionary dictionary;
+    private File directory;
+    private int segmentIndex;
+    private long segmentSize = DEFAULT_SEGMENT_SIZE;
+    private long originNanos;
+    private long originMicros;
+
+    /**
+     * Class constructor. Publicly unavailable.
+     */
+    private ActionLog() {
+        String logDirectory = System.getProperty(LOG_PROPERTY);
+        if (logDirectory != null) {
+            try {
+                start(new File(logDirectory));
+            } catch (IOException e) {
+                LOGGER.error("Couldn't start logging actions to " + logDirectory + ": " + e.getMessage());
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "action-log-shutdown"));
+    }
+
+    /**
+     * Starts logging to a directory, stopping the previous log if any. Logging to a directory holding
+     * a previous log continues that log.
+     *
+     * @param directory the directory to write the segments to
+     * @throws IOException thrown when the log couldn't be opened
+     */
+    public synchronized void start(File directory) throws IOException {
+        stop();
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Couldn't create " + directory);
+
+        //Continue after the segments of a previous log
+        int index = 0;
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segments != null) {
+            for (File existing : segments) index = Math.max(index, segmentIndex(existing) + 1);
+        }
+
+        LOGGER.debug("Logging actions to " + directory);
+        this.directory = directory;
+        this.segmentIndex = index;
+        this.originNanos = System.nanoTime();
+        this.originMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.dictionary = new ActionDictionary(new File(directory, DICTIONARY_FILE));
+        this.segment = openSegment();
+    }
+
+    /**
+     * Stops logging, forcing the logged actions to disk.
+     */
+    public synchronized void stop() {
+        Segment current = segment;
+        if (current == null) return;
+        segment = null;
+        current.close();
+        try {
+            dictionary.close();
+        } catch (IOException e) {
+            LOGGER.debug("Couldn't close the action dictionary: " + e.getMessage());
+        }
+        LOGGER.debug("Action logging stopped");
+    }
+
+    /**
+     * Logs an ended step.
+     *
+     * @param step  the ended step
+     * @param depth the nesting depth of the step, 0 for top level steps
+     */
+    public void log(CaseStep step, int depth) {
+        Segment current = segment;
+        if (current == null) return;
+
+        int slot;
+        while ((slot = current.next.getAndIncrement()) >= current.capacity) {
+            current = rotate(current);
+            if (current == null) return;
+        }
+
+        String title = step.getTitle();
+        int separator = title.indexOf(": ");
+        String action = separator < 0 ? title : title.substring(0, separator);
+        String detail = separator < 0 ? null : title.substring(separator + 2);
+        if (detail != null && action.equals(SEND_KEYS)) detail = TYPED_TEXT.matcher(detail).replaceFirst("'***'");
+        String sessionName = session.get() != null ? session.get() : Thread.currentThread().getName();
+        ActionDictionary strings = dictionary;
+        current.write(slot,
+                originMicros + TimeUnit.NANOSECONDS.toMicros(step.getStartNanos() - originNanos),
+                step.getDurationNanos(), step.getCommandNanos(),
+                strings.id(sessionName), strings.id(step.getCategory()), strings.id(action), encode(detail),
+                step.getRoundTrips(), step.getStatus().ordinal(), depth);
+    }
+
+    /**
+     * Encodes a detail in UTF-8, truncated to {@value #DETAIL_SIZE} bytes without splitting a character.
+     *
+     * @param detail the detail, may be null
+     * @return the encoded detail, null for null
+     */
+    static byte[] encode(String detail) {
+        if (detail == null) return null;
+        byte[] bytes = detail.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= DETAIL_SIZE) return bytes;
+        int length = DETAIL_SIZE;
+        //Continuation bytes of a multi-byte character look like 10xxxxxx
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) length--;
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Replaces a full segment by a new one, unless another thread did so already.
+     *
+     * @param full the full segment
+     * @return the current segment, null if logging stopped
+     */
+    private synchronized Segment rotate(Segment full) {
+        if (segment != full) return segment;
+        try {
+            segment = openSegment();
+        } catch (IOException e) {
+            LOGGER.error("Couldn't open a new action log segment, logging stopped: " + e.getMessage());
+            segment = null;
+        }
+        full.close();
+        return segment;
+    }
+
+    private Segment openSegment() throws IOException {
+        File file = new File(directory, String.format("%s%05d%s", SEGMENT_PREFIX, segmentIndex++, SEGMENT_SUFFIX));
+        return new Segment(file, (int) ((segmentSize - HEADER_SIZE) / RECORD_SIZE));
+    }
+
+    /**
+     * Returns the index of a segment file.
+     *
+     * @param file the segment file
+     * @return the index of the segment, -1 if the file isn't a segment
+     */
+    static int segmentIndex(File file) {
+        String name = file.getName();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Sets the session the actions of the current thread are logged for, e.g. the browser session it drives.
+     *
+     * @param sessionName the name of the session, null to use the thread name
+     */
+    public void setSession(String sessionName) {
+        if (sessionName == null) session.remove();
+        else session.set(sessionName);
+    }
+
+    /**
+     * Returns true if actions are being logged, false if otherwise.
+     *
+     * @return true if actions are being logged, false if otherwise
+     */
+    public boolean isLogging() {
+        return segment != null;
+    }
+
+    /**
+     * Sets the size of the segment files in bytes, used from the next segment on.
+     *
+     * @param segmentSize the size of the segment files in bytes
+     */
+    public synchronized void setSegmentSize(long segmentSize) {
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size should fit at least one record and at most 2 GB.");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    public static ActionLog getInstance() {
+        return actionLogInstance;
+    }
+
+    /**
+     * A memory-mapped segment file.
+     */
+    private static final class Segment {
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final AtomicInteger next;
+
+        private Segment(File file, int capacity) throws IOException {
+            this.capacity = capacity;
+            this.next = new AtomicInteger();
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            buffer.putShort(6, (short) RECORD_SIZE);
+            buffer.putLong(8, System.currentTimeMillis());
+        }
+
+        /**
+         * Writes a record to a reserved slot. The start is written last: a slot with a start is complete.
+         */
+        private void write(int slot, long startMicros, long durationNanos, long commandNanos, int session, int category,
+                           int action, byte[] detail, int roundTrips, int status, int depth) {
+            int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            buffer.putLong(offset + 8, durationNanos);
+            buffer.putLong(offset + 16, commandNanos);
+            buffer.putInt(offset + 24, session);
+            buffer.putInt(offset + 28, category);
+            buffer.putInt(offset + 32, action);
+            buffer.putInt(offset + 36, detail == null ? -1 : detail.length);
+            buffer.putInt(offset + 40, roundTrips);
+            buffer.put(offset + 44, (byte) status);
+            buffer.putShort(offset + 46, (short) Math.min(depth, Short.MAX_VALUE));
+            if (detail != null) {
+                for (int i = 0; i < detail.length; i++) buffer.put(offset + DETAIL_OFFSET + i, detail[i]);
+            }
+            buffer.putLong(offset, Math.max(startMicros, 1));
+        }
+
+        private void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.debug("Couldn't close the action log segment: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package reporting.actionlog;
+
+import reporting.cases.CaseStatus;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Class responsible for reading the binary action log (see {@link ActionLog}) and converting it to CSV or JSON.
+ * <p>
+ * Usable from the command line: {@code java -cp <classpath> reporting.actionlog.ActionLogReader <directory> [csv|json]}
+ * writes the log to the standard output, as CSV (default) or a JSON object per line.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ActionLogReader {
+
+    public static final String CSV_HEADER = "start,session,category,action,detail,status,duration_nanos,depth,round_trips,command_nanos";
+
+    private static final CaseStatus[] STATUSES = CaseStatus.values();
+
+    /**
+     * Converts an action log from the command line.
+     *
+     * @param args the directory of the log and optionally the format: csv or json
+     * @throws IOException thrown when the log couldn't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ActionLogReader <directory> [csv|json]");
+            System.exit(1);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        export(new File(args[0]), args.length > 1 ? args[1] : "csv", out);
+        out.flush();
+    }
+
+    /**
+     * Writes an action log as CSV or JSON.
+     *
+     * @param directory the directory of the log
+     * @param format    the format: csv (with header) or json (an object per line)
+     * @param out       the writer to write to
+     * @throws IOException thrown when the log couldn't be read or written
+     */
+    public static void export(File directory, String format, Writer out) throws IOException {
+        boolean csv;
+        if ("csv".equalsIgnoreCase(format)) csv = true;
+        else if ("json".equalsIgnoreCase(format)) csv = false;
+        else throw new IllegalArgumentException("Unknown format: " + format + ", expected csv or json.");
+
+        if (csv) out.write(CSV_HEADER + "\n");
+        try {
+            forEach(directory, record -> {
+                try {
+                    out.write(csv ? record.toCsv() : record.toJson());
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads all records of an action log. Use {@link #forEach(File, Consumer)} for large logs.
+     *
+     * @param directory the directory of the log
+     * @return the records, per segment in order of logging
+     * @throws IOException thrown when the log couldn't be read
+     */
+    public static List<ActionRecord> read(File directory) throws IOException {
+        List<ActionRecord> records = new ArrayList<>();
+        forEach(directory, records::add);
+        return records;
+    }
+
+    /**
+     * Passes every record of an action log to a consumer, segment per segment.
+     * Slots reserved by a process that died before completing them are skipped.
+     *
+     * @param directory the directory of the log
+     * @param consumer  the consumer of the records
+     * @throws IOException thrown when the log couldn't be read
+     */
+    public static void forEach(File directory, Consumer<ActionRecord> consumer) throws IOException {
+        Map<Integer, String> strings = ActionDictionary.read(new File(directory, ActionLog.DICTIONARY_FILE));
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith(ActionLog.SEGMENT_PREFIX) && name.endsWith(ActionLog.SEGMENT_SUFFIX));
+        if (segments == null) throw new FileNotFoundException("No action log in " + directory);
+        Arrays.sort(segments, Comparator.comparingInt(ActionLog::segmentIndex));
+
+        for (File segment : segments) {
+            try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() < ActionLog.HEADER_SIZE || buffer.getInt(0) != ActionLog.MAGIC) {
+                    throw new IOException(segment + " isn't an action log segment.");
+                }
+                short version = buffer.getShort(4);
+                int recordSize = buffer.getShort(6);
+                for (int offset = ActionLog.HEADER_SIZE; offset + recordSize <= buffer.limit(); offset += recordSize) {
+                    long start = buffer.getLong(offset);
+                    if (start == 0) continue;
+                    int status = buffer.get(offset + 44);
+                    consumer.accept(new ActionRecord(start, buffer.getLong(offset + 8), strings.get(buffer.getInt(offset + 24)),
+                            strings.get(buffer.getInt(offset + 28)), strings.get(buffer.getInt(offset + 32)),
+                            version < 2 ? strings.get(buffer.getInt(offset + 36)) : detail(buffer, offset),
+                            status >= 0 && status < STATUSES.length ? STATUSES[status].name() : String.valueOf(status),
+                            buffer.getShort(offset + 46), buffer.getInt(offset + 40), buffer.getLong(offset + 16)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the detail stored in a record.
+     *
+     * @param buffer the segment
+     * @param offset the offset of the record
+     * @return the detail, null if the record has none
+     */
+    private static String detail(MappedByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset + 36);
+        if (length < 0) return null;
+        byte[] bytes = new byte[Math.min(length, ActionLog.DETAIL_SIZE)];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buffer.get(offset + ActionLog.DETAIL_OFFSET + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
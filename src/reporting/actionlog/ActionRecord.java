@@ -0,0 +1,149 @@
+package reporting.actionlog;
+
+import java.time.Instant;
+
+/**
+ * Class representing a logged framework action.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ActionRecord {
+
+    private final long startMicros;
+    private final long durationNanos;
+    private final String session;
+    private final String category;
+    private final String action;
+    private final String detail;
+    private final String status;
+    private final int depth;
+    private final int roundTrips;
+    private final long commandNanos;
+
+    /**
+     * Class constructor.
+     *
+     * @param startMicros   the start of the action in microseconds since the epoch
+     * @param durationNanos the duration of the action in nanoseconds
+     * @param session       the session the action was performed in
+     * @param category      the category of the action (e.g. step, action, wait)
+     * @param action        the action (e.g. Click)
+     * @param detail        the detail of the action (e.g. the locator), may be null
+     * @param status        the outcome of the action
+     * @param depth         the nesting depth of the action, 0 for top level steps
+     * @param roundTrips    the amount of WebDriver commands the action issued
+     * @param commandNanos  the time the action spent in WebDriver commands in nanoseconds
+     */
+    ActionRecord(long startMicros, long durationNanos, String session, String category, String action, String detail,
+                 String status, int depth, int roundTrips, long commandNanos) {
+        this.startMicros = startMicros;
+        this.durationNanos = durationNanos;
+        this.session = session;
+        this.category = category;
+        this.action = action;
+        this.detail = detail;
+        this.status = status;
+        this.depth = depth;
+        this.roundTrips = roundTrips;
+        this.commandNanos = commandNanos;
+    }
+
+    public long getStartMicros() {
+        return startMicros;
+    }
+
+    /**
+     * Returns the start of the action.
+     *
+     * @return the start of the action
+     */
+    public Instant getStart() {
+        return Instant.ofEpochSecond(startMicros / 1_000_000, (startMicros % 1_000_000) * 1000);
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getSession() {
+        return session;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    public long getCommandNanos() {
+        return commandNanos;
+    }
+
+    /**
+     * Returns this record as a CSV line, in the order of {@link ActionLogReader#CSV_HEADER}.
+     *
+     * @return the CSV representation of this record
+     */
+    public String toCsv() {
+        return getStart() + "," + csv(session) + "," + csv(category) + "," + csv(action) + "," + csv(detail) + ","
+                + status + "," + durationNanos + "," + depth + "," + roundTrips + "," + commandNanos;
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Returns this record as a JSON object.
+     *
+     * @return the JSON representation of this record
+     */
+    public String toJson() {
+        return "{\"start\":\"" + getStart() + "\",\"session\":" + json(session) + ",\"category\":" + json(category)
+                + ",\"action\":" + json(action) + ",\"detail\":" + json(detail) + ",\"status\":\"" + status
+                + "\",\"durationNanos\":" + durationNanos + ",\"depth\":" + depth + ",\"roundTrips\":" + roundTrips
+                + ",\"commandNanos\":" + commandNanos + "}";
+    }
+
+    private static String json(String value) {
+        if (value == null) return "null";
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') builder.append('\\').append(c);
+            else if (c < 0x20) builder.append(String.format("\\u%04x", (int) c));
+            else builder.append(c);
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Returns a String representation of this record.
+     *
+     * @return a String representation of this record
+     */
+    @Override
+    public String toString() {
+        return getStart() + " [" + session + "] " + action + (detail != null ? ": " + detail : "") + " " + status
+                + " (" + durationNanos / 1000 + " us)";
+    }
+}
@@ -1,17 +1,24 @@
 package reporting.cases;
 
 import java.io.File;
+import java.io.Serializable;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Class representing a test case.
+ * Cases are serializable, so cases of tests running in another JVM can be reported (see {@code ShardLauncher}).
  *
  * @author Thibault Helsmoortel
  */
-public class Case {
+public class Case implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
+    //Unique, unlike the title, e.g. when a test is run again
+    private final String id;
     private final String title;
     private String errorTrace;
     private final CaseEnvironment environment;
@@ -23,6 +30,7 @@ public class Case {
     private CaseStatus status;
 
     public Case(String title, CaseEnvironment environment, String description) {
+        this.id = UUID.randomUUID().toString();
         this.title = title;
         this.environment = environment;
         this.description = description;
@@ -77,15 +85,25 @@ public class Case {
     }
 
     /**
-     * Adds an attachment to the list
+     * Adds an attachment to the list.
+     * Attachments may be added from other threads, e.g. by the writers of the artifact store.
      *
      * @param attachment the attachment to add
      * @return true if the link was added, false if otherwise
      */
-    public boolean addAttachment(File attachment) {
+    public synchronized boolean addAttachment(File attachment) {
         return attachments.add(attachment);
     }
 
+    /**
+     * Returns the unique id of this case.
+     *
+     * @return the id of this case
+     */
+    public String getId() {
+        return id;
+    }
+
     /**
      * Returns the title of this case.
      *
@@ -159,12 +177,12 @@ public class Case {
     }
 
     /**
-     * Returns the attachments of this case.
+     * Returns a snapshot of the attachments of this case.
      *
      * @return the attachments of this case
      */
-    public List<File> getAttachments() {
-        return attachments;
+    public synchronized List<File> getAttachments() {
+        return new ArrayList<>(attachments);
     }
 
     /**
@@ -1,5 +1,6 @@
 package reporting.cases;
 
+import java.io.Serializable;
 import java.net.URL;
 
 /**
@@ -7,7 +8,9 @@ import java.net.URL;
  *
  * @author Thibault Helsmoortel
  */
-public class CaseEnvironment {
+public class CaseEnvironment implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final String browser;
     private final URL host;
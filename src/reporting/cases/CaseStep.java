@@ -1,23 +1,221 @@
 package reporting.cases;
 
+import stats.StatsAction;
 import util.TimeStampUtil;
 
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Class representing a case step.
+ * <p>
+ * A step is timed from its creation until it is ended and may contain nested steps.
+ * The actions tracked while the step was running are counted, so reports can show
+ * what happened in each step and how long it took.
  *
  * @author Thibault Helsmoortel
  */
-public class CaseStep {
+public class CaseStep implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final String title;
+    private final String category;
+    private final long startTime;
+    private final long startNanos;
+    private long endNanos;
+    private boolean ended;
+    private CaseStatus status;
+    private final List<CaseStep> children;
+    private final Map<StatsAction, Integer> stats;
+    private int roundTrips;
+    private long commandNanos;
 
     /**
      * Class constructor specifying the title.
+     * The step starts running straight away.
      *
      * @param title the step title
      */
     public CaseStep(String title) {
+        this(title, "step");
+    }
+
+    /**
+     * Class constructor specifying the title and category.
+     * The step starts running straight away.
+     *
+     * @param title    the step title
+     * @param category the step category (e.g. step, action, wait)
+     */
+    public CaseStep(String title, String category) {
         this.title = title;
+        this.category = category;
+        this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.ended = false;
+        this.status = CaseStatus.PENDING;
+        this.children = new ArrayList<>();
+        this.stats = new EnumMap<>(StatsAction.class);
+    }
+
+    /**
+     * Adds a nested step.
+     *
+     * @param child the nested step to add
+     * @return true if the step was added, false if otherwise
+     */
+    public synchronized boolean addChild(CaseStep child) {
+        return children.add(child);
+    }
+
+    /**
+     * Ends the step with a given status. Ending a step that was ended before has no effect.
+     *
+     * @param status the status of the step
+     */
+    public synchronized void end(CaseStatus status) {
+        if (ended) return;
+        this.endNanos = System.nanoTime();
+        this.ended = true;
+        this.status = status;
+    }
+
+    /**
+     * Counts an action tracked while the step was running.
+     *
+     * @param action the tracked action
+     */
+    public synchronized void track(StatsAction action) {
+        stats.merge(action, 1, Integer::sum);
+    }
+
+    /**
+     * Counts a WebDriver command executed while the step was running.
+     *
+     * @param nanos the time the command took in nanoseconds
+     */
+    public synchronized void trackCommand(long nanos) {
+        roundTrips++;
+        commandNanos += nanos;
+    }
+
+    /**
+     * Returns the title of this step.
+     *
+     * @return the title of this step
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the category of this step.
+     *
+     * @return the category of this step
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the system time in milliseconds at which this step started.
+     *
+     * @return the start time of this step
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which this step started.
+     *
+     * @return the start of this step in nanoseconds
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which this step ended.
+     *
+     * @return the end of this step in nanoseconds, meaningless while the step is still running
+     */
+    public synchronized long getEndNanos() {
+        return endNanos;
+    }
+
+    /**
+     * Returns the duration of this step in nanoseconds, up until now if the step is still running.
+     *
+     * @return the duration of this step in nanoseconds
+     */
+    public synchronized long getDurationNanos() {
+        return (ended ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Returns the duration of this step in milliseconds, up until now if the step is still running.
+     *
+     * @return the duration of this step in milliseconds
+     */
+    public long getDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(getDurationNanos());
+    }
+
+    /**
+     * Returns true if the step was ended, false if it is still running.
+     *
+     * @return true if the step was ended, false if otherwise
+     */
+    public synchronized boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * Returns the status of this step, pending while it is running.
+     *
+     * @return the status of this step
+     */
+    public synchronized CaseStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the nested steps of this step.
+     *
+     * @return the nested steps of this step
+     */
+    public synchronized List<CaseStep> getChildren() {
+        return new ArrayList<>(children);
+    }
+
+    /**
+     * Returns the amount of times each action was tracked while the step was running.
+     *
+     * @return the tracked actions and their count
+     */
+    public synchronized Map<StatsAction, Integer> getStats() {
+        return new EnumMap<>(stats);
+    }
+
+    /**
+     * Returns the amount of WebDriver commands executed while the step was running.
+     *
+     * @return the amount of WebDriver round trips
+     */
+    public synchronized int getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * Returns the time spent in WebDriver commands while the step was running.
+     *
+     * @return the time spent in WebDriver commands in nanoseconds
+     */
+    public synchronized long getCommandNanos() {
+        return commandNanos;
     }
 
     /**
@@ -27,6 +225,6 @@ public class CaseStep {
      */
     @Override
     public String toString() {
-        return TimeStampUtil.getShortTimeStamp() + " " + title;
+        return TimeStampUtil.getShortTimeStamp(startTime) + " " + title + " (" + getDuration() + " ms)";
     }
 }
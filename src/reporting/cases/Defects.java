@@ -1,6 +1,7 @@
 package reporting.cases;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -13,8 +14,9 @@ import java.util.List;
  */
 public final class Defects {
 
-    private static List<Case> failedDefects = new ArrayList<>();
-    private static List<Case> brokenDefects = new ArrayList<>();
+    //Synchronized, as cases of tests running in parallel are added concurrently
+    private static final List<Case> failedDefects = Collections.synchronizedList(new ArrayList<>());
+    private static final List<Case> brokenDefects = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * Adds a case to the list of failed cases.
@@ -0,0 +1,58 @@
+package reporting.flightrecorder;
+
+import util.TimeStampUtil;
+
+/**
+ * Class representing a single screenshot kept by the flight recorder, along with the step that produced it.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class FlightRecord {
+
+    private final String step;
+    private final String timeStamp;
+    private final byte[] screenshot;
+
+    /**
+     * Class constructor specifying the step and the screenshot.
+     *
+     * @param step       the step that was performed right before taking the screenshot
+     * @param screenshot the PNG bytes of the screenshot
+     */
+    public FlightRecord(String step, byte[] screenshot) {
+        this.step = step;
+        this.timeStamp = TimeStampUtil.getShortTimeStamp();
+        this.screenshot = screenshot;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public String getTimeStamp() {
+        return timeStamp;
+    }
+
+    public byte[] getScreenshot() {
+        return screenshot;
+    }
+
+    /**
+     * Returns the size of the screenshot in bytes.
+     *
+     * @return the size of the screenshot in bytes
+     */
+    public int getSize() {
+        return screenshot.length;
+    }
+
+    /**
+     * Returns a String representation of this record.
+     *
+     * @return a String representation of this record
+     */
+    @Override
+    public String toString() {
+        return timeStamp + " " + step;
+    }
+}
@@ -0,0 +1,338 @@
+package reporting.flightrecorder;
+
+import navigation.Navigator;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import util.RingBuffer;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Singleton class keeping the last screenshots taken during a test in a memory-bounded ring buffer.
+ * <p>
+ * Screenshots are taken on the thread performing the step, as WebDrivers aren't thread-safe, at most once per
+ * capture interval and only when no capture is in flight. Scaling and buffering them happens asynchronously on
+ * a single recorder thread. Steps performed in between are skipped rather than queued, so the recorder slows down
+ * the test by no more than a screenshot per interval. The buffer is meant to be dumped on failure only.
+ * <p>
+ * The recorder keeps a separate buffer for every thread, like the Navigator bound to a thread (see
+ * {@link Navigator#bindToThread()}), so tests running in parallel only record, dump and clear their own
+ * screenshots. The settings are shared. Captures that complete after the buffer they were taken for was
+ * cleared or disabled are dropped.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class FlightRecorder {
+    private static final FlightRecorder flightRecorderInstance = new FlightRecorder();
+
+    private static final Logger LOGGER = Logger.getLogger(FlightRecorder.class);
+
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+    private static final long DEFAULT_CAPTURE_INTERVAL = 1000;
+
+    private final ExecutorService executor;
+    private final ThreadLocal<Track> tracks;
+
+    private volatile int capacity;
+    private volatile long maxBytes;
+    private volatile float scale;
+    private volatile long captureInterval;
+
+    /**
+     * Class constructor. Publicly unavailable.
+     */
+    private FlightRecorder() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flight-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tracks = ThreadLocal.withInitial(Track::new);
+        this.capacity = DEFAULT_CAPACITY;
+        this.maxBytes = DEFAULT_MAX_BYTES;
+        this.scale = 1f;
+        this.captureInterval = DEFAULT_CAPTURE_INTERVAL;
+    }
+
+    /**
+     * Notifies the recorder a step was performed.
+     * A screenshot is taken on the current thread and recorded asynchronously, unless the recorder is disabled on
+     * the current thread, a capture is still in flight or the previous capture is too recent.
+     *
+     * @param step the step that was performed
+     */
+    public void onStep(String step) {
+        Track track = tracks.get();
+        if (!track.enabled) return;
+
+        WebDriver driver = Navigator.getInstance().getDriver();
+        if (!(driver instanceof TakesScreenshot)) return;
+
+        long now = System.currentTimeMillis();
+        if (now - track.lastCapture < captureInterval) return;
+        if (!track.captureInFlight.compareAndSet(false, true)) return;
+        track.lastCapture = now;
+        int generation = track.generation;
+
+        byte[] screenshot;
+        try {
+            screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (RuntimeException e) {
+            track.captureInFlight.set(false);
+            LOGGER.debug("Flight recorder couldn't capture step '" + step + "': " + e.getMessage());
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                record(track, generation, step, screenshot);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Flight recorder couldn't record step '" + step + "': " + e.getMessage());
+            } finally {
+                track.captureInFlight.set(false);
+            }
+        });
+    }
+
+    /**
+     * Records a screenshot for a given step on the current thread, scaling it down if required.
+     * Evicts the oldest records until the buffer fits its memory bound again.
+     *
+     * @param step       the step that produced the screenshot
+     * @param screenshot the PNG bytes of the screenshot
+     */
+    public void record(String step, byte[] screenshot) {
+        Track track = tracks.get();
+        record(track, track.generation, step, screenshot);
+    }
+
+    /**
+     * Records a screenshot in a given buffer, unless the buffer was cleared or disabled since it was taken.
+     *
+     * @param track      the buffer to record the screenshot in
+     * @param generation the generation of the buffer when the screenshot was taken
+     * @param step       the step that produced the screenshot
+     * @param screenshot the PNG bytes of the screenshot
+     */
+    private void record(Track track, int generation, String step, byte[] screenshot) {
+        byte[] bytes = scale < 1f ? scaleDown(screenshot) : screenshot;
+        FlightRecord record = new FlightRecord(step, bytes);
+
+        synchronized (track) {
+            if (track.generation != generation) {
+                LOGGER.debug("Flight recorder dropped late capture of step '" + step + "'");
+                return;
+            }
+            FlightRecord evicted = track.records.add(record);
+            if (evicted != null) track.bufferedBytes -= evicted.getSize();
+            track.bufferedBytes += record.getSize();
+            while (track.bufferedBytes > maxBytes && track.records.size() > 1) {
+                track.bufferedBytes -= track.records.removeOldest().getSize();
+            }
+        }
+    }
+
+    /**
+     * Waits for a capture of the current thread that is still in flight, if any.
+     *
+     * @param timeout the maximum time to wait in milliseconds
+     */
+    public void awaitCapture(long timeout) {
+        Track track = tracks.get();
+        long deadline = System.currentTimeMillis() + timeout;
+        while (track.captureInFlight.get() && System.currentTimeMillis() < deadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the screenshots recorded on the current thread, oldest first, and empties its buffer.
+     *
+     * @return the recorded screenshots, oldest first
+     */
+    public List<FlightRecord> drain() {
+        Track track = tracks.get();
+        synchronized (track) {
+            track.bufferedBytes = 0;
+            return track.records.drain();
+        }
+    }
+
+    /**
+     * Discards all screenshots recorded on the current thread, including those still in flight.
+     */
+    public void clear() {
+        Track track = tracks.get();
+        synchronized (track) {
+            track.generation++;
+            if (track.records.capacity() != capacity) track.records = new RingBuffer<>(capacity);
+            else track.records.clear();
+            track.bufferedBytes = 0;
+            track.lastCapture = 0;
+        }
+    }
+
+    /**
+     * Scales down a screenshot using the configured scale.
+     *
+     * @param screenshot the PNG bytes of the screenshot
+     * @return the PNG bytes of the scaled screenshot, the original bytes if it couldn't be scaled
+     */
+    private byte[] scaleDown(byte[] screenshot) {
+        try {
+            BufferedImage original = ImageIO.read(new ByteArrayInputStream(screenshot));
+            if (original == null) return screenshot;
+            int width = Math.max(1, Math.round(original.getWidth() * scale));
+            int height = Math.max(1, Math.round(original.getHeight() * scale));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(original, 0, 0, width, height, null);
+            graphics.dispose();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(scaled, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            LOGGER.debug("Couldn't scale screenshot: " + e.getMessage());
+            return screenshot;
+        }
+    }
+
+    /**
+     * Enables the recorder on the current thread.
+     */
+    public void enable() {
+        LOGGER.debug("Enabling flight recorder");
+        tracks.get().enabled = true;
+    }
+
+    /**
+     * Disables the recorder on the current thread, dropping the captures still in flight.
+     */
+    public void disable() {
+        LOGGER.debug("Disabling flight recorder");
+        Track track = tracks.get();
+        synchronized (track) {
+            track.enabled = false;
+            track.generation++;
+        }
+    }
+
+    public boolean isEnabled() {
+        return tracks.get().enabled;
+    }
+
+    /**
+     * Sets the maximum amount of screenshots to keep. Discards the screenshots recorded on the current thread,
+     * the buffers of other threads are resized when they are cleared.
+     *
+     * @param capacity the maximum amount of screenshots to keep
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+        clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Sets the scale at which screenshots are kept.
+     *
+     * @param scale the scale, 1 keeps the original resolution
+     * @throws IllegalArgumentException when the scale is not within (0, 1]
+     */
+    public void setScale(float scale) {
+        if (scale <= 0f || scale > 1f) throw new IllegalArgumentException("Scale should be within (0, 1].");
+        this.scale = scale;
+    }
+
+    public long getCaptureInterval() {
+        return captureInterval;
+    }
+
+    /**
+     * Sets the minimum amount of time between two captures.
+     *
+     * @param captureInterval the minimum amount of time between two captures in milliseconds
+     */
+    public void setCaptureInterval(long captureInterval) {
+        this.captureInterval = captureInterval;
+    }
+
+    /**
+     * Returns the amount of screenshots currently recorded on the current thread.
+     *
+     * @return the amount of screenshots currently recorded
+     */
+    public int size() {
+        Track track = tracks.get();
+        synchronized (track) {
+            return track.records.size();
+        }
+    }
+
+    /**
+     * Returns the amount of bytes currently recorded on the current thread.
+     *
+     * @return the amount of bytes currently recorded
+     */
+    public long getBufferedBytes() {
+        Track track = tracks.get();
+        synchronized (track) {
+            return track.bufferedBytes;
+        }
+    }
+
+    public static FlightRecorder getInstance() {
+        return flightRecorderInstance;
+    }
+
+    @Override
+    protected Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException();
+    }
+
+    /**
+     * The recording state of a single thread. The generation changes whenever the buffer is cleared or the
+     * recorder disabled, so captures taken before are recognized as late.
+     */
+    private final class Track {
+        private final AtomicBoolean captureInFlight = new AtomicBoolean(false);
+        private volatile boolean enabled;
+        private volatile long lastCapture;
+        private volatile int generation;
+        private RingBuffer<FlightRecord> records = new RingBuffer<>(capacity);
+        private long bufferedBytes;
+    }
+}
@@ -0,0 +1,120 @@
+package reporting.trace;
+
+/**
+ * Class representing an event in the Chrome Trace Event Format: either a complete duration
+ * or the metadata naming a track.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class TraceEvent {
+
+    private static final char COMPLETE = 'X';
+    private static final char METADATA = 'M';
+
+    private final char phase;
+    private final String name;
+    private final String category;
+    private final long timestamp;
+    private final long duration;
+    private final int trackId;
+
+    /**
+     * Class constructor specifying name, category, timing and track.
+     *
+     * @param name      the name of the event
+     * @param category  the category of the event
+     * @param timestamp the start of the event in microseconds since the trace started
+     * @param duration  the duration of the event in microseconds
+     * @param trackId   the id of the track the event is shown on
+     */
+    public TraceEvent(String name, String category, long timestamp, long duration, int trackId) {
+        this(COMPLETE, name, category, timestamp, duration, trackId);
+    }
+
+    private TraceEvent(char phase, String name, String category, long timestamp, long duration, int trackId) {
+        this.phase = phase;
+        this.name = name;
+        this.category = category;
+        this.timestamp = timestamp;
+        this.duration = duration;
+        this.trackId = trackId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public int getTrackId() {
+        return trackId;
+    }
+
+    /**
+     * Creates the metadata event naming a track.
+     *
+     * @param trackId   the id of the track
+     * @param trackName the name of the track
+     * @return the metadata event
+     */
+    static TraceEvent trackName(int trackId, String trackName) {
+        return new TraceEvent(METADATA, trackName, "", 0, 0, trackId);
+    }
+
+    /**
+     * Returns the JSON representation of this event.
+     *
+     * @return the JSON representation of this event
+     */
+    public String toJson() {
+        if (phase == METADATA) {
+            return "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + trackId
+                    + ",\"args\":{\"name\":\"" + escape(name) + "\"}}";
+        }
+        return "{\"name\":\"" + escape(name) + "\",\"cat\":\"" + escape(category) + "\",\"ph\":\"X\",\"ts\":" + timestamp
+                + ",\"dur\":" + duration + ",\"pid\":1,\"tid\":" + trackId + "}";
+    }
+
+    /**
+     * Escapes a String for use in a JSON String literal.
+     *
+     * @param value the String to escape
+     * @return the escaped String
+     */
+    static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package reporting.trace;
+
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Singleton class responsible for recording a timeline of a test run in the Chrome Trace Event Format.
+ * The resulting file opens in chrome://tracing or Perfetto.
+ * <p>
+ * Every traced duration (tests, cases, steps, actions, waits and driver commands) is recorded as a complete event
+ * on the track of the session it belongs to, by default the thread it ran on. Events are handed to a background
+ * thread streaming them to disk. The buffer between both is bounded: when the writer can't keep up, events
+ * are dropped (and counted) rather than slowing down the tests.
+ * <p>
+ * Recording starts automatically when the {@code bromine.trace} system property points to a file.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class TraceRecorder {
+    private static final TraceRecorder traceRecorderInstance = new TraceRecorder();
+
+    private static final Logger LOGGER = Logger.getLogger(TraceRecorder.class);
+
+    private static final String TRACE_PROPERTY = "bromine.trace";
+    private static final int DEFAULT_CAPACITY = 8192;
+    //Marks the end of the recording in the queue
+    private static final TraceEvent END = new TraceEvent("", "", 0, 0, 0);
+
+    private final ThreadLocal<String> track = new ThreadLocal<>();
+    private final Map<String, Integer> trackIds = new ConcurrentHashMap<>();
+    private final AtomicInteger trackCount = new AtomicInteger();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private volatile BlockingQueue<TraceEvent> queue;
+    private volatile Thread writerThread;
+    private volatile long originNanos;
+    private int capacity = DEFAULT_CAPACITY;
+
+    /**
+     * Class constructor. Publicly unavailable.
+     */
+    private TraceRecorder() {
+        String traceFile = System.getProperty(TRACE_PROPERTY);
+        if (traceFile != null) {
+            try {
+                start(new File(traceFile));
+            } catch (IOException e) {
+                LOGGER.error("Couldn't start tracing to " + traceFile + ": " + e.getMessage());
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "trace-recorder-shutdown"));
+    }
+
+    /**
+     * Starts recording to a file, stopping a previous recording if any.
+     *
+     * @param file the file to write the trace to
+     * @throws IOException thrown when the file couldn't be opened
+     */
+    public synchronized void start(File file) throws IOException {
+        stop();
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) throw new IOException("Couldn't create " + parent);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+
+        LOGGER.debug("Recording trace to " + file);
+        BlockingQueue<TraceEvent> events = new ArrayBlockingQueue<>(capacity);
+        trackIds.clear();
+        droppedEvents.set(0);
+        originNanos = System.nanoTime();
+        writerThread = new Thread(() -> write(events, writer), "trace-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        queue = events;
+    }
+
+    /**
+     * Stops recording, waiting for the recorded events to be written.
+     */
+    public synchronized void stop() {
+        BlockingQueue<TraceEvent> events = queue;
+        if (events == null) return;
+        queue = null;
+        try {
+            events.put(END);
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (droppedEvents.get() > 0) LOGGER.warn("Dropped " + droppedEvents.get() + " trace events, the trace writer couldn't keep up");
+        LOGGER.debug("Trace recording stopped");
+    }
+
+    /**
+     * Writes the queued events until the end of the recording.
+     *
+     * @param events the queued events
+     * @param writer the writer of the trace file
+     */
+    private void write(BlockingQueue<TraceEvent> events, Writer writer) {
+        try (Writer out = writer) {
+            out.write("[\n");
+            boolean first = true;
+            TraceEvent event;
+            while ((event = events.take()) != END) {
+                if (!first) out.write(",\n");
+                out.write(event.toJson());
+                first = false;
+                //Flush whenever the writer caught up, so the trace is readable while the run is going on
+                if (events.isEmpty()) out.flush();
+            }
+            out.write("\n]\n");
+        } catch (IOException e) {
+            LOGGER.error("Something went wrong writing the trace: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Begins a traced span on the track of the current thread.
+     *
+     * @param name     the name of the span
+     * @param category the category of the span (e.g. test, step, action, wait, driver)
+     * @return the span, to be closed when the traced duration ends
+     */
+    public TraceSpan begin(String name, String category) {
+        return new TraceSpan(name, category);
+    }
+
+    /**
+     * Records a complete duration on the track of the current thread.
+     *
+     * @param name       the name of the duration
+     * @param category   the category of the duration
+     * @param startNanos the start of the duration, in {@link System#nanoTime()}
+     * @param endNanos   the end of the duration, in {@link System#nanoTime()}
+     */
+    public void complete(String name, String category, long startNanos, long endNanos) {
+        BlockingQueue<TraceEvent> events = queue;
+        if (events == null) return;
+
+        String trackName = track.get() != null ? track.get() : Thread.currentThread().getName();
+        Integer trackId = trackIds.get(trackName);
+        if (trackId == null) trackId = registerTrack(events, trackName);
+
+        TraceEvent event = new TraceEvent(name, category, TimeUnit.NANOSECONDS.toMicros(startNanos - originNanos),
+                TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos), trackId);
+        if (!events.offer(event)) droppedEvents.incrementAndGet();
+    }
+
+    /**
+     * Registers a new track, naming it in the trace.
+     *
+     * @param events    the queued events
+     * @param trackName the name of the track
+     * @return the id of the track
+     */
+    private synchronized int registerTrack(BlockingQueue<TraceEvent> events, String trackName) {
+        Integer trackId = trackIds.get(trackName);
+        if (trackId != null) return trackId;
+        int id = trackCount.incrementAndGet();
+        if (!events.offer(TraceEvent.trackName(id, trackName))) droppedEvents.incrementAndGet();
+        trackIds.put(trackName, id);
+        return id;
+    }
+
+    /**
+     * Sets the track the events of the current thread are recorded on, e.g. the browser session it drives.
+     *
+     * @param trackName the name of the track, null to use the thread name
+     */
+    public void setTrack(String trackName) {
+        if (trackName == null) track.remove();
+        else track.set(trackName);
+    }
+
+    /**
+     * Returns true if a trace is being recorded, false if otherwise.
+     *
+     * @return true if a trace is being recorded, false if otherwise
+     */
+    public boolean isRecording() {
+        return queue != null;
+    }
+
+    /**
+     * Returns the amount of events dropped in the current recording because the buffer was full.
+     *
+     * @return the amount of dropped events
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Sets the maximum amount of events buffered before they are written, used from the next recording on.
+     *
+     * @param capacity the maximum amount of buffered events
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity should be positive.");
+        this.capacity = capacity;
+    }
+
+    public static TraceRecorder getInstance() {
+        return traceRecorderInstance;
+    }
+}
@@ -0,0 +1,37 @@
+package reporting.trace;
+
+/**
+ * Span of a traced duration, to be used in a try-with-resources statement.
+ * Closing the span records it.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class TraceSpan implements AutoCloseable {
+
+    private final String name;
+    private final String category;
+    private final long startNanos;
+    private boolean closed;
+
+    /**
+     * Class constructor specifying name and category. Publicly unavailable, see {@link TraceRecorder#begin(String, String)}.
+     *
+     * @param name     the name of the span
+     * @param category the category of the span
+     */
+    TraceSpan(String name, String category) {
+        this.name = name;
+        this.category = category;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Ends and records the span. Closing a span more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        TraceRecorder.getInstance().complete(name, category, startNanos, System.nanoTime());
+    }
+}
@@ -0,0 +1,71 @@
+package rules;
+
+import artifacts.ArtifactCollector;
+import artifacts.FailureContext;
+import logging.TestLogBufferAppender;
+import navigation.Navigator;
+import org.apache.log4j.Logger;
+import org.junit.rules.MethodRule;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+import reporting.StepPerformer;
+import ru.yandex.qatools.allure.annotations.Step;
+import util.LogUtil;
+
+/**
+ * Rule responsible for collecting all failure artifacts right before test failure.
+ * The artifacts are contributed by the contributors registered to the {@link ArtifactCollector},
+ * replacing the separate {@link ScreenShotOnFailure} and {@link LogsOnFailure} rules.
+ * The stored artifacts are attached to the current case, see {@link RecordCases}.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class ArtifactsOnFailure implements MethodRule {
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactsOnFailure.class);
+
+    private String packagePath;
+
+    /**
+     * Class constructor specifying the artifacts destination package path.
+     *
+     * @param packagePath the artifacts destination package path
+     */
+    public ArtifactsOnFailure(String packagePath) {
+        this.packagePath = packagePath;
+    }
+
+    @Override
+    public Statement apply(Statement statement, FrameworkMethod frameworkMethod, Object o) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                boolean buffered = TestLogBufferAppender.isActive();
+                long offset = 0;
+                if (buffered) TestLogBufferAppender.startCapture();
+                else offset = LogUtil.getLogFileOffset();
+                try {
+                    statement.evaluate();
+                } catch (Throwable t) {
+                    // exception will be thrown only when a test fails.
+                    collectArtifacts(new FailureContext(frameworkMethod.getName(), t, Navigator.getInstance().getDriver(),
+                            offset, StepPerformer.getCurrentCase()));
+                    // rethrow to allow the failure to be reported by JUnit
+                    throw t;
+                } finally {
+                    if (buffered) TestLogBufferAppender.stopCapture();
+                }
+            }
+
+            /**
+             * Collects the failure artifacts of the failed test.
+             * @param context the context of the failed test
+             */
+            @Step("Collect failure artifacts")
+            private void collectArtifacts(FailureContext context) {
+                LOGGER.debug("Collecting failure artifacts due to test failure");
+                ArtifactCollector.getInstance().collect(context, packagePath);
+            }
+        };
+    }
+}
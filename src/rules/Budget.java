@@ -0,0 +1,38 @@
+package rules;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation setting the performance budget of a test, enforced by the {@link EnforceBudgets} rule.
+ * Annotating a test class sets the budget of all its tests, annotating a test method replaces it as a whole:
+ * limits the method doesn't set aren't taken from the class.
+ * Negative limits are not enforced.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Budget {
+
+    /**
+     * Returns the maximum amount of WebDriver round trips.
+     *
+     * @return the maximum amount of round trips
+     */
+    int maxRoundTrips() default -1;
+
+    /**
+     * Returns the maximum wall-clock time in milliseconds.
+     *
+     * @return the maximum time in milliseconds
+     */
+    long maxMillis() default -1;
+
+    /**
+     * Returns what happens when the budget is exceeded.
+     *
+     * @return the budget mode
+     */
+    BudgetMode mode() default BudgetMode.FAIL;
+}
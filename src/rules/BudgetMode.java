@@ -0,0 +1,10 @@
+package rules;
+
+/**
+ * Enum representing what happens when a performance budget is exceeded.
+ *
+ * @author Thibault Helsmoortel
+ */
+public enum BudgetMode {
+    FAIL, WARN
+}
@@ -0,0 +1,122 @@
+package rules;
+
+import org.apache.log4j.Logger;
+import stats.DriverCommandAccounting;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class representing a block of code with a performance budget: a maximum amount of WebDriver round trips
+ * and a maximum wall-clock time. The budget is checked when the scope is closed, so the block is best
+ * written as a try-with-resources statement:
+ * <pre>
+ * try (BudgetScope ignored = BudgetScope.open("Read table", 5, 2000)) {
+ *     table.getRows();
+ * }
+ * </pre>
+ * Only the round trips of the current thread are accounted for, see {@link DriverCommandAccounting}.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class BudgetScope implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(BudgetScope.class);
+
+    private final String name;
+    private final int maxRoundTrips;
+    private final long maxMillis;
+    private final BudgetMode mode;
+    private final long startRoundTrips;
+    private final long startNanos;
+    private boolean closed;
+
+    /**
+     * Class constructor specifying the name, limits and mode.
+     *
+     * @param name          the name of the budgeted block
+     * @param maxRoundTrips the maximum amount of round trips, negative for no limit
+     * @param maxMillis     the maximum time in milliseconds, negative for no limit
+     * @param mode          what happens when the budget is exceeded
+     */
+    private BudgetScope(String name, int maxRoundTrips, long maxMillis, BudgetMode mode) {
+        if (mode == null) throw new IllegalArgumentException("Budget mode should be specified.");
+        this.name = name;
+        this.maxRoundTrips = maxRoundTrips;
+        this.maxMillis = maxMillis;
+        this.mode = mode;
+        this.startRoundTrips = DriverCommandAccounting.getRoundTrips();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Opens a budgeted block, failing when the budget is exceeded.
+     *
+     * @param name          the name of the budgeted block
+     * @param maxRoundTrips the maximum amount of round trips, negative for no limit
+     * @param maxMillis     the maximum time in milliseconds, negative for no limit
+     * @return the scope of the budgeted block
+     */
+    public static BudgetScope open(String name, int maxRoundTrips, long maxMillis) {
+        return open(name, maxRoundTrips, maxMillis, BudgetMode.FAIL);
+    }
+
+    /**
+     * Opens a budgeted block.
+     *
+     * @param name          the name of the budgeted block
+     * @param maxRoundTrips the maximum amount of round trips, negative for no limit
+     * @param maxMillis     the maximum time in milliseconds, negative for no limit
+     * @param mode          what happens when the budget is exceeded
+     * @return the scope of the budgeted block
+     */
+    public static BudgetScope open(String name, int maxRoundTrips, long maxMillis, BudgetMode mode) {
+        return new BudgetScope(name, maxRoundTrips, maxMillis, mode);
+    }
+
+    /**
+     * Returns the amount of round trips made in this block so far.
+     *
+     * @return the amount of round trips
+     */
+    public long getRoundTrips() {
+        return DriverCommandAccounting.getRoundTrips() - startRoundTrips;
+    }
+
+    /**
+     * Returns the time spent in this block so far.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Checks the budget of the block. Closing a scope that was closed before has no effect.
+     *
+     * @throws AssertionError thrown when the budget was exceeded in {@link BudgetMode#FAIL} mode
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        long roundTrips = getRoundTrips();
+        long millis = getElapsedMillis();
+        StringBuilder violations = new StringBuilder();
+        if (maxRoundTrips >= 0 && roundTrips > maxRoundTrips) {
+            violations.append(" ").append(roundTrips).append(" round trips (budget ").append(maxRoundTrips).append(")");
+        }
+        if (maxMillis >= 0 && millis > maxMillis) {
+            violations.append(" ").append(millis).append(" ms (budget ").append(maxMillis).append(" ms)");
+        }
+        if (violations.length() == 0) {
+            LOGGER.debug(name + " stayed within budget: " + roundTrips + " round trips, " + millis + " ms");
+            return;
+        }
+
+        String message = name + " exceeded its budget:" + violations;
+        if (mode == BudgetMode.FAIL) throw new AssertionError(message);
+        LOGGER.warn(message);
+    }
+}
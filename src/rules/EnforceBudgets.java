@@ -0,0 +1,119 @@
+package rules;
+
+import navigation.InstrumentedDriver;
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import org.apache.log4j.Logger;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Rule responsible for enforcing the performance budgets of tests: a maximum amount of WebDriver round trips
+ * and a maximum wall-clock time. Budgets are set with the {@link Budget} annotation on the test method or class,
+ * tests without annotation get the default budget of the rule (if any). The budget of a method fully replaces the
+ * one of its class, limits it doesn't set aren't taken from the class. Blocks within a test can be budgeted
+ * separately with a {@link BudgetScope}.
+ * <p>
+ * Round trips are only counted when the driver is instrumented. While a test with a round trip budget runs, the
+ * rule enables instrumentation (see {@link NavigatorFactory#setInstrumentationEnabled(boolean)}), so the drivers
+ * created by the test and its {@code Before} methods are instrumented. When the Navigator of the test operates a
+ * driver that isn't instrumented, e.g. one created before the rule applied, the round trips couldn't be counted:
+ * the test fails (or a warning is logged in {@link BudgetMode#WARN} mode) rather than passing unchecked.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class EnforceBudgets implements TestRule {
+
+    private static final Logger LOGGER = Logger.getLogger(EnforceBudgets.class);
+
+    //Tests with a round trip budget that are running, instrumentation is enabled as long as there are any
+    private static final Object instrumentationLock = new Object();
+    private static int instrumentingTests;
+    private static boolean instrumentationWasEnabled;
+
+    private final int defaultMaxRoundTrips;
+    private final long defaultMaxMillis;
+    private final BudgetMode defaultMode;
+
+    /**
+     * Class constructor. Only annotated tests are budgeted.
+     */
+    public EnforceBudgets() {
+        this(-1, -1, BudgetMode.FAIL);
+    }
+
+    /**
+     * Class constructor specifying the default budget of tests without annotation.
+     *
+     * @param defaultMaxRoundTrips the default maximum amount of round trips, negative for no limit
+     * @param defaultMaxMillis     the default maximum time in milliseconds, negative for no limit
+     * @param defaultMode          what happens when the default budget is exceeded
+     */
+    public EnforceBudgets(int defaultMaxRoundTrips, long defaultMaxMillis, BudgetMode defaultMode) {
+        if (defaultMode == null) throw new IllegalArgumentException("Budget mode should be specified.");
+        this.defaultMaxRoundTrips = defaultMaxRoundTrips;
+        this.defaultMaxMillis = defaultMaxMillis;
+        this.defaultMode = defaultMode;
+    }
+
+    @Override
+    public Statement apply(final Statement statement, final Description description) {
+        Budget budget = description.getAnnotation(Budget.class);
+        if (budget == null && description.getTestClass() != null) {
+            budget = description.getTestClass().getAnnotation(Budget.class);
+        }
+        final int maxRoundTrips = budget != null ? budget.maxRoundTrips() : defaultMaxRoundTrips;
+        final long maxMillis = budget != null ? budget.maxMillis() : defaultMaxMillis;
+        final BudgetMode mode = budget != null ? budget.mode() : defaultMode;
+        if (maxRoundTrips < 0 && maxMillis < 0) return statement;
+
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                if (maxRoundTrips >= 0) enableInstrumentation();
+                try {
+                    BudgetScope scope = BudgetScope.open(description.getDisplayName(), maxRoundTrips, maxMillis, mode);
+                    statement.evaluate();
+                    //The budget of a failed test doesn't matter, its failure is reported instead
+                    if (maxRoundTrips >= 0) verifyInstrumented(description, mode);
+                    scope.close();
+                } finally {
+                    if (maxRoundTrips >= 0) restoreInstrumentation();
+                }
+            }
+        };
+    }
+
+    /**
+     * Checks whether the driver of the Navigator of the current thread is instrumented, if it has one.
+     *
+     * @param description the description of the test
+     * @param mode        what happens when the round trips couldn't be counted
+     * @throws IllegalStateException thrown when the driver isn't instrumented in {@link BudgetMode#FAIL} mode
+     */
+    private static void verifyInstrumented(Description description, BudgetMode mode) {
+        WebDriver driver = Navigator.getInstance().getDriver();
+        if (driver == null || InstrumentedDriver.isInstrumented(driver)) return;
+        String message = "The round trips of " + description.getDisplayName() + " couldn't be counted, its driver isn't"
+                + " instrumented. Create the driver after the EnforceBudgets rule applied, or enable instrumentation.";
+        if (mode == BudgetMode.FAIL) throw new IllegalStateException(message);
+        LOGGER.warn(message);
+    }
+
+    private static void enableInstrumentation() {
+        synchronized (instrumentationLock) {
+            if (instrumentingTests++ == 0) {
+                instrumentationWasEnabled = NavigatorFactory.isInstrumentationEnabled();
+                NavigatorFactory.setInstrumentationEnabled(true);
+            }
+        }
+    }
+
+    private static void restoreInstrumentation() {
+        synchronized (instrumentationLock) {
+            if (--instrumentingTests == 0) NavigatorFactory.setInstrumentationEnabled(instrumentationWasEnabled);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package rules;
 
 import commands.CaptureLogsCommand;
+import logging.TestLogBufferAppender;
 import org.apache.log4j.Logger;
 import org.junit.rules.MethodRule;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
 import ru.yandex.qatools.allure.annotations.Step;
+import util.LogUtil;
 
 /**
  * Rule responsible for taking a snapshot of the log output right before test failure.
+ * Only the log output written during the failing test is captured. When the {@link TestLogBufferAppender}
+ * is configured, the log output is kept in memory and only written to disk when the test fails.
  *
  * @author Thibault Helsmoortel
  */
@@ -32,24 +36,31 @@ public class LogsOnFailure implements MethodRule {
         return new Statement() {
             @Override
             public void evaluate() throws Throwable {
+                boolean buffered = TestLogBufferAppender.isActive();
+                long offset = 0;
+                if (buffered) TestLogBufferAppender.startCapture();
+                else offset = LogUtil.getLogFileOffset();
                 try {
                     statement.evaluate();
                 } catch (Throwable t) {
                     // exception will be thrown only when a test fails.
-                    captureLogs(frameworkMethod.getName());
+                    captureLogs(frameworkMethod.getName(), offset);
                     // rethrow to allow the failure to be reported by JUnit
                     throw t;
+                } finally {
+                    if (buffered) TestLogBufferAppender.stopCapture();
                 }
             }
 
             /**
              * Captures the actual logs with a given name.
              * @param fileName the name of the logs to capture
+             * @param offset   the log file offset at which the test started
              */
             @Step("Capture logs")
-            private void captureLogs(String fileName) {
-                LOGGER.debug("Firing screenshot capture command due to test failure");
-                new CaptureLogsCommand(packagePath, fileName).execute();
+            private void captureLogs(String fileName, long offset) {
+                LOGGER.debug("Firing log capture command due to test failure");
+                new CaptureLogsCommand(packagePath, fileName, offset).execute();
             }
         };
     }
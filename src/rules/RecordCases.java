@@ -0,0 +1,91 @@
+package rules;
+
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.log4j.Logger;
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import reporting.StepPerformer;
+import reporting.cases.Case;
+import reporting.cases.CaseEnvironment;
+import reporting.cases.CaseStatus;
+import sut.Environment;
+
+/**
+ * Rule responsible for recording every test as a {@link Case}.
+ * <p>
+ * The case is set as the current case of the {@link StepPerformer} while the test runs, so the steps of the test
+ * are added to it, its duration is traced and rules like {@link ArtifactsOnFailure} attach their files to it.
+ * Afterwards the case is passed, failed (on an AssertionError), broken (on any other throwable) or canceled (when
+ * an assumption failed), unless an inner rule marked it broken already. When a case is current already, e.g. in a worker JVM of the {@code ShardLauncher}, that
+ * case is used and left to whoever set it.
+ * The rule should be the outermost rule, so the case is current for the other rules as well.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class RecordCases implements TestRule {
+
+    private static final Logger LOGGER = Logger.getLogger(RecordCases.class);
+
+    private Case lastCase;
+
+    @Override
+    public Statement apply(final Statement statement, final Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Case current = StepPerformer.getCurrentCase();
+                if (current != null) {
+                    lastCase = current;
+                    statement.evaluate();
+                    return;
+                }
+
+                Case testCase = new Case(description.getDisplayName(), getEnvironment(), description.getMethodName());
+                lastCase = testCase;
+                StepPerformer.setCurrentCase(testCase);
+                long start = System.currentTimeMillis();
+                try {
+                    statement.evaluate();
+                    testCase.setStatus(CaseStatus.PASSED);
+                } catch (AssumptionViolatedException e) {
+                    testCase.setStatus(CaseStatus.CANCELED);
+                    throw e;
+                } catch (Throwable t) {
+                    //Inner rules may have marked the case broken already, e.g. RecoverDeadSession
+                    if (testCase.getStatus() != CaseStatus.BROKEN) {
+                        testCase.setErrorTrace(ExceptionUtils.getStackTrace(t));
+                        testCase.setStatus(t instanceof AssertionError ? CaseStatus.FAILED : CaseStatus.BROKEN);
+                    }
+                    throw t;
+                } finally {
+                    testCase.setDuration(System.currentTimeMillis() - start);
+                    StepPerformer.setCurrentCase(null);
+                    LOGGER.debug("Recorded " + testCase.getTitle() + ": " + testCase.getStatus());
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the case of the test that ran last.
+     *
+     * @return the case of the last test, null if no test ran yet
+     */
+    public Case getLastCase() {
+        return lastCase;
+    }
+
+    /**
+     * Returns the environment of the Navigator of the current thread.
+     *
+     * @return the environment of the Navigator, null if it has none
+     */
+    private static CaseEnvironment getEnvironment() {
+        Environment environment = Navigator.getInstance().getEnvironment();
+        return environment != null ? new CaseEnvironment(NavigatorFactory.getBrowserName(), environment.getUrl()) : null;
+    }
+}
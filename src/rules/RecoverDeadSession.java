@@ -0,0 +1,75 @@
+package rules;
+
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.SessionHealth;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.log4j.Logger;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import reporting.StepPerformer;
+import reporting.cases.Case;
+import reporting.cases.CaseEnvironment;
+import reporting.cases.CaseStatus;
+import sut.Environment;
+
+/**
+ * Rule responsible for recovering from a dead driver session, e.g. after chromedriver or the browser crashed.
+ * <p>
+ * The session is health-checked before every test and recreated if it died. A test failing because its session
+ * died is marked as broken in the {@link reporting.cases.Defects}, rather than failed, after which the session is
+ * recreated with the same browser, profile and environment so the next tests can continue. The current case of
+ * the {@link StepPerformer} is marked, e.g. the one of {@link RecordCases}, a case is only created when there is
+ * none.
+ * The Navigator should be created from a browser or a driver supplier to be recreatable.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class RecoverDeadSession implements TestRule {
+
+    private static final Logger LOGGER = Logger.getLogger(RecoverDeadSession.class);
+
+    @Override
+    public Statement apply(final Statement statement, final Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                if (NavigatorFactory.ensureAlive()) {
+                    LOGGER.warn("Recreated the dead session before " + description.getDisplayName());
+                }
+                Environment environment = Navigator.getInstance().getEnvironment();
+                String browser = NavigatorFactory.getBrowserName();
+                try {
+                    statement.evaluate();
+                } catch (Throwable t) {
+                    if (!SessionHealth.isFatal(t)) throw t;
+                    LOGGER.error("The session died during " + description.getDisplayName() + ": " + t.getMessage());
+                    markBroken(description, environment, browser, t);
+                    if (NavigatorFactory.isRecreatable()) NavigatorFactory.recreateNavigator();
+                    // rethrow to allow the error to be reported by JUnit
+                    throw t;
+                }
+            }
+        };
+    }
+
+    /**
+     * Marks the test as broken, as it failed because of its session and not because of the product.
+     * Marks the current case if there is one, so the test isn't reported twice.
+     *
+     * @param description the description of the test
+     * @param environment the environment the test operated on
+     * @param browser     the name of the browser the test used
+     * @param t           the error the test failed with
+     */
+    private static void markBroken(Description description, Environment environment, String browser, Throwable t) {
+        Case broken = StepPerformer.getCurrentCase();
+        if (broken == null) {
+            CaseEnvironment caseEnvironment = environment != null ? new CaseEnvironment(browser, environment.getUrl()) : null;
+            broken = new Case(description.getDisplayName(), caseEnvironment, "The driver session died");
+        }
+        broken.setErrorTrace(ExceptionUtils.getStackTrace(t));
+        broken.setStatus(CaseStatus.BROKEN);
+    }
+}
@@ -0,0 +1,46 @@
+package rules;
+
+import navigation.RecyclingPolicy;
+import navigation.SessionRecycler;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Rule responsible for recycling the browser session between tests, according to the {@link RecyclingPolicy}
+ * of the {@link SessionRecycler}.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class RecycleSessions implements TestRule {
+
+    /**
+     * Class constructor using the policy configured through the system properties.
+     */
+    public RecycleSessions() {
+    }
+
+    /**
+     * Class constructor specifying the recycling policy.
+     *
+     * @param policy the recycling policy to use
+     */
+    public RecycleSessions(RecyclingPolicy policy) {
+        SessionRecycler.setPolicy(policy);
+    }
+
+    @Override
+    public Statement apply(final Statement statement, final Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                SessionRecycler.getInstance().beforeTest();
+                try {
+                    statement.evaluate();
+                } finally {
+                    SessionRecycler.getInstance().afterTest();
+                }
+            }
+        };
+    }
+}
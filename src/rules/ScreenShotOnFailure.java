@@ -1,14 +1,20 @@
 package rules;
 
 import commands.CaptureScreenshotCommand;
+import commands.DumpFlightRecorderCommand;
 import org.apache.log4j.Logger;
 import org.junit.rules.MethodRule;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
+import reporting.flightrecorder.FlightRecorder;
 import ru.yandex.qatools.allure.annotations.Step;
 
 /**
  * Rule responsible for taking a screenshot right before test failure.
+ * <p>
+ * In flight recorder mode, the screenshots taken by the {@link FlightRecorder} during the test
+ * are dumped as well, showing the state leading up to the failure. The recorder is enabled and
+ * cleared for the thread running the test only, so tests running in parallel keep their own screenshots.
  *
  * @author Thibault Helsmoortel
  */
@@ -17,6 +23,7 @@ public class ScreenShotOnFailure implements MethodRule {
     private static final Logger LOGGER = Logger.getLogger(ScreenShotOnFailure.class);
 
     private String packagePath;
+    private boolean flightRecorderEnabled;
 
     /**
      * Class constructor specifying the screenshot destination package path.
@@ -24,7 +31,18 @@ public class ScreenShotOnFailure implements MethodRule {
      * @param packagePath the screenshot destination package path
      */
     public ScreenShotOnFailure(String packagePath) {
+        this(packagePath, false);
+    }
+
+    /**
+     * Class constructor specifying the screenshot destination package path and the flight recorder mode.
+     *
+     * @param packagePath           the screenshot destination package path
+     * @param flightRecorderEnabled boolean value indicating whether or not to use the flight recorder
+     */
+    public ScreenShotOnFailure(String packagePath, boolean flightRecorderEnabled) {
         this.packagePath = packagePath;
+        this.flightRecorderEnabled = flightRecorderEnabled;
     }
 
     @Override
@@ -32,16 +50,36 @@ public class ScreenShotOnFailure implements MethodRule {
         return new Statement() {
             @Override
             public void evaluate() throws Throwable {
+                if (flightRecorderEnabled) {
+                    FlightRecorder.getInstance().clear();
+                    FlightRecorder.getInstance().enable();
+                }
                 try {
                     statement.evaluate();
                 } catch (Throwable t) {
                     // exception will be thrown only when a test fails.
+                    if (flightRecorderEnabled) dumpFlightRecorder(frameworkMethod.getName());
                     captureScreenShot(frameworkMethod.getName());
                     // rethrow to allow the failure to be reported by JUnit
                     throw t;
+                } finally {
+                    if (flightRecorderEnabled) {
+                        FlightRecorder.getInstance().disable();
+                        FlightRecorder.getInstance().clear();
+                    }
                 }
             }
 
+            /**
+             * Dumps the screenshots kept by the flight recorder with a given name.
+             * @param fileName the name of the dump
+             */
+            @Step("Dump flight recorder")
+            public void dumpFlightRecorder(String fileName) {
+                LOGGER.debug("Firing flight recorder dump command due to test failure");
+                new DumpFlightRecorderCommand(packagePath, fileName).execute();
+            }
+
             /**
              * Captures the actual screenshot with a given name.
              * @param fileName the name of the screenshot to take
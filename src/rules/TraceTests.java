@@ -0,0 +1,31 @@
+package rules;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import reporting.trace.TraceRecorder;
+import reporting.trace.TraceSpan;
+
+/**
+ * Rule responsible for tracing the duration of tests in the timeline recorded by the {@link TraceRecorder}.
+ * Use it as a ClassRule to trace a test class as a whole.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class TraceTests implements TestRule {
+
+    @Override
+    public Statement apply(final Statement statement, final Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                TraceSpan span = TraceRecorder.getInstance().begin(description.getDisplayName(), "test");
+                try {
+                    statement.evaluate();
+                } finally {
+                    span.close();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,242 @@
+package session;
+
+import navigation.Navigator;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import reporting.StepPerformer;
+import sut.Account;
+import sut.Environment;
+import util.HashUtil;
+import util.UrlUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of authenticated sessions, keyed by account and environment.
+ * <p>
+ * The first login of an account on an environment performs the login flow and captures the resulting session
+ * state (see {@link AuthState}). Later logins restore that state instead, which only takes a handful of round
+ * trips compared to filling in and submitting a login form. A state is only reused while it is younger than the
+ * time to live and, when a validity probe is set, while the probe confirms the restored session is still logged
+ * in; otherwise the login flow is performed again.
+ * <p>
+ * States can be persisted to a directory, so they are shared between runs and JVMs. Only the session state is
+ * persisted, never the password of the account. Persistence starts automatically when the
+ * {@code bromine.authcache} system property points to a directory.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class AuthSessionCache {
+    private static final AuthSessionCache authSessionCacheInstance = new AuthSessionCache();
+
+    private static final Logger LOGGER = Logger.getLogger(AuthSessionCache.class);
+
+    private static final String PERSISTENCE_PROPERTY = "bromine.authcache";
+
+    private final Map<String, AuthState> states = new ConcurrentHashMap<>();
+    private volatile long timeToLive = TimeUnit.MINUTES.toMillis(30);
+    private volatile ExpectedCondition<Boolean> validityProbe;
+    private volatile File persistenceDirectory = System.getProperty(PERSISTENCE_PROPERTY) != null
+            ? new File(System.getProperty(PERSISTENCE_PROPERTY)) : null;
+
+    private AuthSessionCache() {
+    }
+
+    /**
+     * Logs the account in on the environment, restoring its cached session if there is a valid one and
+     * performing the login flow and caching the resulting session if otherwise.
+     *
+     * @param account     the account to log in
+     * @param environment the environment to log in on
+     * @param loginFlow   the flow logging the account in through the application
+     * @return true if a cached session was restored, false if the login flow was performed
+     */
+    public boolean login(Account account, Environment environment, Runnable loginFlow) {
+        if (loginFlow == null) throw new IllegalArgumentException("Login flow should be specified.");
+        if (restore(account, environment)) return true;
+
+        StepPerformer.run(StepPerformer.start("Log in", account.getMail() + " on " + environment.getName()), () -> {
+            loginFlow.run();
+            store(account, environment);
+        });
+        return false;
+    }
+
+    /**
+     * Restores the cached session of the account on the environment, if there is a valid one.
+     * The driver navigates to the environment first when it isn't on its origin.
+     *
+     * @param account     the account to restore the session of
+     * @param environment the environment to restore the session on
+     * @return true if the session was restored, false if there was no valid session
+     */
+    public boolean restore(Account account, Environment environment) {
+        String key = key(account, environment);
+        AuthState state = lookup(key);
+        if (state == null) return false;
+
+        WebDriver driver = Navigator.getInstance().getDriver();
+        StepPerformer.run(StepPerformer.start("Restore session", account.getMail() + " on " + environment.getName()), () -> {
+            if (!UrlUtil.isSameOrigin(driver.getCurrentUrl(), environment.getUrl().toString())) driver.get(environment.getUrl().toString());
+            state.restore(driver);
+            driver.navigate().refresh();
+        });
+
+        if (!isValid(driver)) {
+            LOGGER.debug("Cached session of " + account.getMail() + " on " + environment.getName() + " is no longer valid");
+            invalidate(account, environment);
+            return false;
+        }
+        LOGGER.debug("Restored session of " + account.getMail() + " on " + environment.getName());
+        return true;
+    }
+
+    /**
+     * Captures the session of the current driver and caches it for the account on the environment.
+     * Should be called right after logging in.
+     *
+     * @param account     the logged in account
+     * @param environment the environment the account is logged in on
+     */
+    public void store(Account account, Environment environment) {
+        String key = key(account, environment);
+        AuthState state = AuthState.capture(Navigator.getInstance().getDriver());
+        states.put(key, state);
+        persist(key, state);
+    }
+
+    /**
+     * Removes the cached session of the account on the environment, including its persisted copy.
+     *
+     * @param account     the account to remove the session of
+     * @param environment the environment to remove the session of
+     */
+    public void invalidate(Account account, Environment environment) {
+        String key = key(account, environment);
+        states.remove(key);
+        File file = getFile(key);
+        if (file != null && file.exists() && !file.delete()) LOGGER.warn("Couldn't delete cached session " + file);
+    }
+
+    /**
+     * Removes all sessions cached in memory. Persisted sessions are kept.
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    private AuthState lookup(String key) {
+        AuthState state = states.get(key);
+        if (state == null) state = load(key);
+        if (state != null && state.isExpired(timeToLive)) {
+            states.remove(key, state);
+            File file = getFile(key);
+            if (file != null && file.exists() && !file.delete()) LOGGER.warn("Couldn't delete cached session " + file);
+            return null;
+        }
+        return state;
+    }
+
+    private boolean isValid(WebDriver driver) {
+        ExpectedCondition<Boolean> probe = validityProbe;
+        if (probe == null) return true;
+        try {
+            return Boolean.TRUE.equals(probe.apply(driver));
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private AuthState load(String key) {
+        File file = getFile(key);
+        if (file == null || !file.isFile()) return null;
+        try {
+            AuthState state = AuthState.fromJson(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            states.putIfAbsent(key, state);
+            return state;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Couldn't read cached session " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(String key, AuthState state) {
+        File file = getFile(key);
+        if (file == null) return;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            //Write to a temporary file first, so other JVMs never read a partially written state
+            Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            Files.write(temp, state.toJson().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't persist cached session " + file + ": " + e.getMessage());
+        }
+    }
+
+    private File getFile(String key) {
+        File directory = persistenceDirectory;
+        return directory == null ? null : new File(directory, HashUtil.sha256(key) + ".json");
+    }
+
+    private static String key(Account account, Environment environment) {
+        if (account == null) throw new IllegalArgumentException("Account should be specified.");
+        if (environment == null) throw new IllegalArgumentException("Environment should be specified.");
+        return environment.getName() + "|" + environment.getUrl() + "|" + account.getMail();
+    }
+    /**
+     * Sets the time a cached session is reused for, counting from its capture.
+     *
+     * @param timeToLive the time to live
+     * @param unit       the unit of the time to live
+     */
+    public void setTimeToLive(long timeToLive, TimeUnit unit) {
+        if (timeToLive < 0) throw new IllegalArgumentException("Time to live should not be negative.");
+        this.timeToLive = unit.toMillis(timeToLive);
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets the condition verifying a restored session is still logged in, e.g. the presence of a logout link.
+     * The condition is evaluated once, right after restoring.
+     *
+     * @param validityProbe the condition verifying the session, null to trust restored sessions
+     */
+    public void setValidityProbe(ExpectedCondition<Boolean> validityProbe) {
+        this.validityProbe = validityProbe;
+    }
+
+    public ExpectedCondition<Boolean> getValidityProbe() {
+        return validityProbe;
+    }
+
+    /**
+     * Sets the directory sessions are persisted to, so they are shared between runs and JVMs.
+     *
+     * @param persistenceDirectory the directory to persist to, null to only cache in memory
+     */
+    public void setPersistenceDirectory(File persistenceDirectory) {
+        this.persistenceDirectory = persistenceDirectory;
+    }
+
+    public File getPersistenceDirectory() {
+        return persistenceDirectory;
+    }
+
+    public static AuthSessionCache getInstance() {
+        return authSessionCacheInstance;
+    }
+}
@@ -0,0 +1,177 @@
+package session;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import java.util.*;
+
+/**
+ * Snapshot of the state identifying an authenticated session: the cookies and the local and session storage
+ * of the current origin.
+ * <p>
+ * Both storages are read and restored in bulk by a single script (see {@link StorageManager}), only the cookies
+ * that differ are replaced (see {@link CookiesManager#replaceCookies(WebDriver, Collection)}).
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class AuthState {
+
+    private static final String LOCAL_STORAGE = StorageType.LOCAL.getProperty();
+    private static final String SESSION_STORAGE = StorageType.SESSION.getProperty();
+
+    private final Set<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    private final long capturedAt;
+
+    /**
+     * Class constructor specifying the state.
+     *
+     * @param cookies        the session cookies
+     * @param localStorage   the local storage items
+     * @param sessionStorage the session storage items
+     * @param capturedAt     the system time in milliseconds at which the state was captured
+     */
+    public AuthState(Set<Cookie> cookies, Map<String, String> localStorage, Map<String, String> sessionStorage, long capturedAt) {
+        this.cookies = Collections.unmodifiableSet(new LinkedHashSet<>(cookies));
+        this.localStorage = Collections.unmodifiableMap(new LinkedHashMap<>(localStorage));
+        this.sessionStorage = Collections.unmodifiableMap(new LinkedHashMap<>(sessionStorage));
+        this.capturedAt = capturedAt;
+    }
+
+    /**
+     * Captures the state of the session of the given driver, on the origin it is currently on.
+     *
+     * @param driver the driver to capture the state of
+     * @return the captured state
+     */
+    public static AuthState capture(WebDriver driver) {
+        return capture(driver, StorageManager.getState(driver));
+    }
+
+    /**
+     * Captures the state of the session of the given driver, using a previously read state of its storage.
+     *
+     * @param driver the driver to capture the cookies of
+     * @param state  the state of the storage of the driver
+     * @return the captured state
+     */
+    static AuthState capture(WebDriver driver, BrowserState state) {
+        return new AuthState(driver.manage().getCookies(), state.getLocalStorage(), state.getSessionStorage(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Restores this state into the session of the given driver, replacing its cookies and storage.
+     * Only the cookies and items that differ are changed. The driver should be on the origin the state was
+     * captured on. Expired cookies are left out.
+     * The page should be reloaded for the restored state to take effect.
+     *
+     * @param driver the driver to restore the state into
+     */
+    public void restore(WebDriver driver) {
+        CookiesManager.replaceCookies(driver, cookies);
+        Map<StorageType, Map<String, String>> items = new EnumMap<>(StorageType.class);
+        items.put(StorageType.LOCAL, localStorage);
+        items.put(StorageType.SESSION, sessionStorage);
+        StorageManager.restoreItems(driver, items);
+    }
+
+    /**
+     * Returns true if the state is older than the given time to live, false if otherwise.
+     *
+     * @param timeToLive the time to live in milliseconds
+     * @return true if the state expired, false if otherwise
+     */
+    public boolean isExpired(long timeToLive) {
+        return System.currentTimeMillis() - capturedAt >= timeToLive;
+    }
+
+    public Set<Cookie> getCookies() {
+        return cookies;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    /**
+     * Returns a JSON representation of this state.
+     *
+     * @return a JSON representation of this state
+     */
+    public String toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("capturedAt", capturedAt);
+        JsonArray cookieArray = new JsonArray();
+        for (Cookie cookie : cookies) {
+            JsonObject object = new JsonObject();
+            object.addProperty("name", cookie.getName());
+            object.addProperty("value", cookie.getValue());
+            object.addProperty("domain", cookie.getDomain());
+            object.addProperty("path", cookie.getPath());
+            if (cookie.getExpiry() != null) object.addProperty("expiry", cookie.getExpiry().getTime());
+            object.addProperty("secure", cookie.isSecure());
+            object.addProperty("httpOnly", cookie.isHttpOnly());
+            cookieArray.add(object);
+        }
+        json.add("cookies", cookieArray);
+        json.add(LOCAL_STORAGE, toJson(localStorage));
+        json.add(SESSION_STORAGE, toJson(sessionStorage));
+        return json.toString();
+    }
+
+    private static JsonObject toJson(Map<String, String> items) {
+        JsonObject object = new JsonObject();
+        items.forEach(object::addProperty);
+        return object;
+    }
+
+    /**
+     * Parses a state from its JSON representation.
+     *
+     * @param json the JSON representation
+     * @return the parsed state
+     * @throws IllegalArgumentException thrown when the JSON doesn't represent a state
+     */
+    public static AuthState fromJson(String json) {
+        try {
+            JsonObject object = new JsonParser().parse(json).getAsJsonObject();
+            Set<Cookie> cookies = new LinkedHashSet<>();
+            for (JsonElement element : object.getAsJsonArray("cookies")) {
+                JsonObject cookie = element.getAsJsonObject();
+                cookies.add(new Cookie(cookie.get("name").getAsString(), cookie.get("value").getAsString(),
+                        string(cookie, "domain"), string(cookie, "path"),
+                        cookie.has("expiry") ? new Date(cookie.get("expiry").getAsLong()) : null,
+                        cookie.get("secure").getAsBoolean(), cookie.get("httpOnly").getAsBoolean()));
+            }
+            return new AuthState(cookies, fromJson(object.getAsJsonObject(LOCAL_STORAGE)),
+                    fromJson(object.getAsJsonObject(SESSION_STORAGE)), object.get("capturedAt").getAsLong());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid session state: " + e.getMessage(), e);
+        }
+    }
+
+    private static String string(JsonObject object, String member) {
+        JsonElement element = object.get(member);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    private static Map<String, String> fromJson(JsonObject object) {
+        Map<String, String> items = new LinkedHashMap<>();
+        if (object != null) object.entrySet().forEach(entry -> items.put(entry.getKey(), entry.getValue().getAsString()));
+        return items;
+    }
+}
@@ -0,0 +1,67 @@
+package session;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the client side state of the current page: its web storage, scroll position and history length.
+ * The snapshot is read in a single script execution (see {@link StorageManager#getState()}).
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class BrowserState {
+
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    private final long scrollX;
+    private final long scrollY;
+    private final long historyLength;
+
+    /**
+     * Class constructor specifying the state.
+     *
+     * @param localStorage   the local storage items
+     * @param sessionStorage the session storage items
+     * @param scrollX        the horizontal scroll position
+     * @param scrollY        the vertical scroll position
+     * @param historyLength  the length of the browser history
+     */
+    public BrowserState(Map<String, String> localStorage, Map<String, String> sessionStorage, long scrollX, long scrollY, long historyLength) {
+        this.localStorage = Collections.unmodifiableMap(new LinkedHashMap<>(localStorage));
+        this.sessionStorage = Collections.unmodifiableMap(new LinkedHashMap<>(sessionStorage));
+        this.scrollX = scrollX;
+        this.scrollY = scrollY;
+        this.historyLength = historyLength;
+    }
+
+    /**
+     * Returns the items of the given storage.
+     *
+     * @param type the storage type
+     * @return the items of the storage
+     */
+    public Map<String, String> getItems(StorageType type) {
+        return type == StorageType.LOCAL ? localStorage : sessionStorage;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    public long getScrollX() {
+        return scrollX;
+    }
+
+    public long getScrollY() {
+        return scrollY;
+    }
+
+    public long getHistoryLength() {
+        return historyLength;
+    }
+}
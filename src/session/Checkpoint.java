@@ -0,0 +1,138 @@
+package session;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import util.UrlUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named snapshot of the application state reached after an expensive setup: the url, the cookies and web storage
+ * (see {@link AuthState}) and the scroll position.
+ * <p>
+ * Restoring a checkpoint replaces redoing the setup. The checkpoint keeps track of how long the setup took and
+ * how long its restores take, so the time it saved can be reported.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class Checkpoint {
+
+    private static final String WRITE_SCROLL = "window.scrollTo(arguments[0], arguments[1]);";
+
+    private final String name;
+    private final String url;
+    private final AuthState state;
+    private final long scrollX;
+    private final long scrollY;
+    private final long setupNanos;
+    private int restores;
+    private long restoreNanos;
+
+    /**
+     * Class constructor specifying the checkpoint state.
+     *
+     * @param name       the checkpoint name
+     * @param url        the url of the checkpoint
+     * @param state      the cookies and web storage of the checkpoint
+     * @param scrollX    the horizontal scroll position
+     * @param scrollY    the vertical scroll position
+     * @param setupNanos the time the setup leading up to the checkpoint took in nanoseconds, 0 if unknown
+     */
+    public Checkpoint(String name, String url, AuthState state, long scrollX, long scrollY, long setupNanos) {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("Checkpoint name should be specified.");
+        this.name = name;
+        this.url = url;
+        this.state = state;
+        this.scrollX = scrollX;
+        this.scrollY = scrollY;
+        this.setupNanos = setupNanos;
+    }
+
+    /**
+     * Captures the current state of the given driver as a checkpoint.
+     *
+     * @param name       the checkpoint name
+     * @param driver     the driver to capture the state of
+     * @param setupNanos the time the setup leading up to the checkpoint took in nanoseconds, 0 if unknown
+     * @return the captured checkpoint
+     */
+    public static Checkpoint capture(String name, WebDriver driver, long setupNanos) {
+        //The storage and scroll position are read in a single script
+        BrowserState state = StorageManager.getState(driver);
+        return new Checkpoint(name, driver.getCurrentUrl(), AuthState.capture(driver, state), state.getScrollX(),
+                state.getScrollY(), setupNanos);
+    }
+
+    /**
+     * Restores this checkpoint into the session of the given driver: its cookies and web storage are replaced,
+     * the url of the checkpoint is loaded and scrolled to the captured position.
+     *
+     * @param driver the driver to restore the checkpoint into
+     */
+    public void restore(WebDriver driver) {
+        long start = System.nanoTime();
+        //Cookies and storage can only be set on the origin they belong to
+        if (!UrlUtil.isSameOrigin(driver.getCurrentUrl(), url)) driver.get(url);
+        state.restore(driver);
+        driver.get(url);
+        if (scrollX != 0 || scrollY != 0) ((JavascriptExecutor) driver).executeScript(WRITE_SCROLL, scrollX, scrollY);
+        synchronized (this) {
+            restores++;
+            restoreNanos += System.nanoTime() - start;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public AuthState getState() {
+        return state;
+    }
+
+    public long getScrollX() {
+        return scrollX;
+    }
+
+    public long getScrollY() {
+        return scrollY;
+    }
+
+    public long getSetupNanos() {
+        return setupNanos;
+    }
+
+    public synchronized int getRestores() {
+        return restores;
+    }
+
+    public synchronized long getRestoreNanos() {
+        return restoreNanos;
+    }
+
+    /**
+     * Returns the time saved by restoring this checkpoint rather than redoing its setup.
+     *
+     * @return the time saved in nanoseconds, 0 if the setup time is unknown
+     */
+    public synchronized long getSavedNanos() {
+        if (setupNanos == 0) return 0;
+        return restores * setupNanos - restoreNanos;
+    }
+
+    /**
+     * Returns a String representation of this checkpoint and its statistics.
+     *
+     * @return a String representation of this checkpoint
+     */
+    @Override
+    public synchronized String toString() {
+        return name + " (" + url + "): setup " + TimeUnit.NANOSECONDS.toMillis(setupNanos) + " ms, "
+                + restores + " restores in " + TimeUnit.NANOSECONDS.toMillis(restoreNanos) + " ms, saved "
+                + TimeUnit.NANOSECONDS.toMillis(getSavedNanos()) + " ms";
+    }
+}
@@ -0,0 +1,143 @@
+package session;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the checkpoints captured during the run, shared by all sessions.
+ * <p>
+ * A checkpoint captured in one session can be restored into any other session on the same application.
+ * Checkpoints should be invalidated when the state they rely on changes, e.g. when the data created by their
+ * setup is deleted; invalidation listeners are notified of every invalidated checkpoint.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class CheckpointRegistry {
+    private static final CheckpointRegistry checkpointRegistryInstance = new CheckpointRegistry();
+
+    private static final Logger LOGGER = Logger.getLogger(CheckpointRegistry.class);
+
+    private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+    private final List<Consumer<Checkpoint>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    private CheckpointRegistry() {
+    }
+
+    /**
+     * Captures the current state of the given driver as a checkpoint, replacing the checkpoint with the same name.
+     *
+     * @param name       the checkpoint name
+     * @param driver     the driver to capture the state of
+     * @param setupNanos the time the setup leading up to the checkpoint took in nanoseconds, 0 if unknown
+     * @return the captured checkpoint
+     */
+    public Checkpoint capture(String name, WebDriver driver, long setupNanos) {
+        Checkpoint checkpoint = Checkpoint.capture(name, driver, setupNanos);
+        checkpoints.put(name, checkpoint);
+        LOGGER.debug("Captured checkpoint " + name + " at " + checkpoint.getUrl());
+        return checkpoint;
+    }
+
+    /**
+     * Restores the checkpoint with the given name into the session of the given driver, if there is one.
+     *
+     * @param name   the checkpoint name
+     * @param driver the driver to restore the checkpoint into
+     * @return true if the checkpoint was restored, false if there is no such checkpoint
+     */
+    public boolean restore(String name, WebDriver driver) {
+        Checkpoint checkpoint = checkpoints.get(name);
+        if (checkpoint == null) return false;
+        checkpoint.restore(driver);
+        LOGGER.debug("Restored checkpoint " + name);
+        return true;
+    }
+
+    /**
+     * Returns the checkpoint with the given name.
+     *
+     * @param name the checkpoint name
+     * @return the checkpoint with the given name, null if there is none
+     */
+    public Checkpoint get(String name) {
+        return checkpoints.get(name);
+    }
+
+    /**
+     * Returns all checkpoints.
+     *
+     * @return all checkpoints
+     */
+    public List<Checkpoint> getCheckpoints() {
+        return new ArrayList<>(checkpoints.values());
+    }
+
+    /**
+     * Invalidates the checkpoint with the given name, so its setup is performed again next time.
+     *
+     * @param name the checkpoint name
+     */
+    public void invalidate(String name) {
+        Checkpoint checkpoint = checkpoints.remove(name);
+        if (checkpoint == null) return;
+        LOGGER.debug("Invalidated checkpoint " + checkpoint);
+        invalidationListeners.forEach(listener -> listener.accept(checkpoint));
+    }
+
+    /**
+     * Invalidates all checkpoints.
+     */
+    public void invalidateAll() {
+        new ArrayList<>(checkpoints.keySet()).forEach(this::invalidate);
+    }
+
+    /**
+     * Adds a listener notified of every invalidated checkpoint.
+     *
+     * @param listener the listener to add
+     */
+    public void addInvalidationListener(Consumer<Checkpoint> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Removes an invalidation listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeInvalidationListener(Consumer<Checkpoint> listener) {
+        invalidationListeners.remove(listener);
+    }
+
+    /**
+     * Returns the total time saved by restoring checkpoints rather than redoing their setup.
+     *
+     * @return the time saved in nanoseconds
+     */
+    public long getSavedNanos() {
+        return checkpoints.values().stream().mapToLong(Checkpoint::getSavedNanos).sum();
+    }
+
+    /**
+     * Returns a representation of the checkpoints and the time they saved.
+     *
+     * @return a representation of the checkpoint statistics
+     */
+    public String represent() {
+        StringBuilder builder = new StringBuilder("Checkpoints (saved " + TimeUnit.NANOSECONDS.toMillis(getSavedNanos()) + " ms):");
+        checkpoints.values().forEach(checkpoint -> builder.append(System.lineSeparator()).append("  ").append(checkpoint));
+        return builder.toString();
+    }
+
+    public static CheckpointRegistry getInstance() {
+        return checkpointRegistryInstance;
+    }
+}
@@ -3,12 +3,14 @@ package session;
 import navigation.Navigator;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
 import ru.yandex.qatools.allure.annotations.Step;
 
-import java.util.Set;
+import java.util.*;
 
 /**
  * Class responsible for the management of cookies.
+ * Whole cookie sets can be replaced at once, only changing the cookies that differ.
  *
  * @author Thibault Helsmoortel
  */
@@ -75,4 +77,83 @@ public final class CookiesManager {
         LOGGER.debug("Deleting all cookies");
         Navigator.getInstance().getDriver().manage().deleteAllCookies();
     }
+
+    /**
+     * Adds the specified cookies to the current session.
+     *
+     * @param cookies the cookies to add
+     */
+    @Step("Adding cookies")
+    public static void addCookies(Collection<Cookie> cookies) {
+        LOGGER.debug("Adding " + cookies.size() + " cookies");
+        WebDriver driver = Navigator.getInstance().getDriver();
+        for (Cookie cookie : cookies) driver.manage().addCookie(cookie);
+    }
+
+    /**
+     * Replaces the cookies of the current session by the specified cookies.
+     *
+     * @param cookies the new cookies
+     * @return the amount of cookies that were added or deleted
+     */
+    @Step("Replacing cookies")
+    public static int replaceCookies(Collection<Cookie> cookies) {
+        return replaceCookies(Navigator.getInstance().getDriver(), cookies);
+    }
+
+    /**
+     * Replaces the cookies of the session of the driver by the specified cookies. Only the cookies that differ
+     * are deleted or added, cookies that are already present are left untouched. Expired cookies are left out.
+     *
+     * @param driver  the driver
+     * @param cookies the new cookies
+     * @return the amount of cookies that were added or deleted
+     */
+    public static int replaceCookies(WebDriver driver, Collection<Cookie> cookies) {
+        Date now = new Date();
+        Map<String, Cookie> desired = new LinkedHashMap<>();
+        for (Cookie cookie : cookies) {
+            if (cookie.getExpiry() == null || cookie.getExpiry().after(now)) desired.put(cookie.getName(), cookie);
+        }
+
+        int changed = 0;
+        Map<String, Cookie> present = new HashMap<>();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            Cookie wanted = desired.get(cookie.getName());
+            if (wanted != null && isSame(cookie, wanted)) {
+                present.put(cookie.getName(), cookie);
+            } else {
+                driver.manage().deleteCookieNamed(cookie.getName());
+                changed++;
+            }
+        }
+        for (Cookie cookie : desired.values()) {
+            if (present.containsKey(cookie.getName())) continue;
+            driver.manage().addCookie(cookie);
+            changed++;
+        }
+        LOGGER.debug("Replaced cookies, " + changed + " cookies changed");
+        return changed;
+    }
+
+    /**
+     * Returns true if both cookies are the same as far as the browser is concerned, false if otherwise.
+     * Browsers may report the domain with a leading dot and the expiry in seconds.
+     *
+     * @param cookie the first cookie
+     * @param other  the second cookie
+     * @return true if both cookies are the same, false if otherwise
+     */
+    private static boolean isSame(Cookie cookie, Cookie other) {
+        return Objects.equals(cookie.getValue(), other.getValue())
+                && (cookie.getDomain() == null || other.getDomain() == null
+                || cookie.getDomain().replaceFirst("^\\.", "").equalsIgnoreCase(other.getDomain().replaceFirst("^\\.", "")))
+                && Objects.equals(cookie.getPath(), other.getPath())
+                && cookie.isSecure() == other.isSecure()
+                && Objects.equals(seconds(cookie.getExpiry()), seconds(other.getExpiry()));
+    }
+
+    private static Long seconds(Date date) {
+        return date == null ? null : date.getTime() / 1000;
+    }
 }
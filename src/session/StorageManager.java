@@ -0,0 +1,158 @@
+package session;
+
+import navigation.Navigator;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import ru.yandex.qatools.allure.annotations.Step;
+
+import java.util.*;
+
+/**
+ * Class responsible for the management of the web storage (local and session storage).
+ * <p>
+ * All operations are performed in bulk: reading or writing any amount of items takes a single script execution.
+ * Restoring items only changes the items that differ, so restoring a state that barely changed is cheap.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class StorageManager {
+
+    private static final Logger LOGGER = Logger.getLogger(StorageManager.class);
+
+    private static final String READ_ITEMS = "var storage = window[arguments[0]], items = {};"
+            + " for (var i = 0; i < storage.length; i++) { var key = storage.key(i); items[key] = storage.getItem(key); }"
+            + " return items;";
+    private static final String WRITE_ITEMS = "var storage = window[arguments[0]], items = arguments[1];"
+            + " storage.clear(); for (var key in items) storage.setItem(key, items[key]);";
+    private static final String RESTORE_ITEMS = "var state = arguments[0], changed = 0; for (var name in state) {"
+            + " var storage = window[name], items = state[name];"
+            + " for (var i = storage.length - 1; i >= 0; i--) { var key = storage.key(i);"
+            + " if (!items.hasOwnProperty(key)) { storage.removeItem(key); changed++; } }"
+            + " for (var key in items) if (storage.getItem(key) !== items[key]) { storage.setItem(key, items[key]); changed++; } }"
+            + " return changed;";
+    private static final String READ_STATE = "var state = {historyLength: window.history.length,"
+            + " scroll: [window.pageXOffset, window.pageYOffset]};"
+            + " ['localStorage', 'sessionStorage'].forEach(function (name) { var storage = window[name], items = {};"
+            + " for (var i = 0; i < storage.length; i++) { var key = storage.key(i); items[key] = storage.getItem(key); }"
+            + " state[name] = items; }); return state;";
+
+    /**
+     * Returns all items of the given storage of the current page.
+     *
+     * @param type the storage type
+     * @return the items of the storage
+     */
+    public static Map<String, String> getItems(StorageType type) {
+        return getItems(Navigator.getInstance().getDriver(), type);
+    }
+
+    /**
+     * Returns all items of the given storage of the page the driver is on.
+     *
+     * @param driver the driver
+     * @param type   the storage type
+     * @return the items of the storage
+     */
+    public static Map<String, String> getItems(WebDriver driver, StorageType type) {
+        return toItems(((JavascriptExecutor) driver).executeScript(READ_ITEMS, type.getProperty()));
+    }
+
+    /**
+     * Returns the value of an item of the given storage of the current page.
+     *
+     * @param type the storage type
+     * @param key  the item key
+     * @return the value of the item, null if there is no such item
+     */
+    public static String getItem(StorageType type, String key) {
+        return getItems(type).get(key);
+    }
+
+    /**
+     * Replaces all items of the given storage of the current page.
+     *
+     * @param type  the storage type
+     * @param items the new items
+     */
+    @Step("Setting {0} storage items")
+    public static void setItems(StorageType type, Map<String, String> items) {
+        setItems(Navigator.getInstance().getDriver(), type, items);
+    }
+
+    /**
+     * Replaces all items of the given storage of the page the driver is on.
+     *
+     * @param driver the driver
+     * @param type   the storage type
+     * @param items  the new items
+     */
+    public static void setItems(WebDriver driver, StorageType type, Map<String, String> items) {
+        LOGGER.debug("Setting " + items.size() + " " + type.getProperty() + " items");
+        ((JavascriptExecutor) driver).executeScript(WRITE_ITEMS, type.getProperty(), new HashMap<>(items));
+    }
+
+    /**
+     * Clears the given storage of the current page.
+     *
+     * @param type the storage type
+     */
+    @Step("Clearing {0} storage")
+    public static void clear(StorageType type) {
+        setItems(Navigator.getInstance().getDriver(), type, Collections.emptyMap());
+    }
+
+    /**
+     * Restores the items of both storages of the page the driver is on, only changing the items that differ.
+     * Storages missing from the given map are left untouched.
+     *
+     * @param driver the driver
+     * @param items  the items to restore per storage type
+     * @return the amount of items that were set or removed
+     */
+    public static int restoreItems(WebDriver driver, Map<StorageType, Map<String, String>> items) {
+        Map<String, Object> state = new HashMap<>();
+        items.forEach((type, typeItems) -> state.put(type.getProperty(), new HashMap<>(typeItems)));
+        Object changed = ((JavascriptExecutor) driver).executeScript(RESTORE_ITEMS, state);
+        int count = changed instanceof Number ? ((Number) changed).intValue() : 0;
+        LOGGER.debug("Restored web storage, " + count + " items changed");
+        return count;
+    }
+
+    /**
+     * Returns the web storage, scroll position and history length of the current page.
+     *
+     * @return the state of the current page
+     */
+    public static BrowserState getState() {
+        return getState(Navigator.getInstance().getDriver());
+    }
+
+    /**
+     * Returns the web storage, scroll position and history length of the page the driver is on,
+     * read in a single script execution.
+     *
+     * @param driver the driver
+     * @return the state of the page
+     */
+    public static BrowserState getState(WebDriver driver) {
+        Object result = ((JavascriptExecutor) driver).executeScript(READ_STATE);
+        if (!(result instanceof Map)) return new BrowserState(Collections.emptyMap(), Collections.emptyMap(), 0, 0, 0);
+        Map<?, ?> state = (Map<?, ?>) result;
+        long scrollX = 0;
+        long scrollY = 0;
+        if (state.get("scroll") instanceof List && ((List<?>) state.get("scroll")).size() == 2) {
+            scrollX = ((Number) ((List<?>) state.get("scroll")).get(0)).longValue();
+            scrollY = ((Number) ((List<?>) state.get("scroll")).get(1)).longValue();
+        }
+        long historyLength = state.get("historyLength") instanceof Number ? ((Number) state.get("historyLength")).longValue() : 0;
+        return new BrowserState(toItems(state.get(StorageType.LOCAL.getProperty())),
+                toItems(state.get(StorageType.SESSION.getProperty())), scrollX, scrollY, historyLength);
+    }
+
+    private static Map<String, String> toItems(Object result) {
+        Map<String, String> items = new LinkedHashMap<>();
+        if (result instanceof Map) ((Map<?, ?>) result).forEach((key, value) -> items.put(String.valueOf(key), String.valueOf(value)));
+        return items;
+    }
+}
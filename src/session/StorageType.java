@@ -0,0 +1,26 @@
+package session;
+
+/**
+ * Enumeration of the web storages of a page.
+ *
+ * @author Thibault Helsmoortel
+ */
+public enum StorageType {
+    LOCAL("localStorage"),
+    SESSION("sessionStorage");
+
+    private final String property;
+
+    StorageType(String property) {
+        this.property = property;
+    }
+
+    /**
+     * Returns the name of the window property exposing this storage.
+     *
+     * @return the name of the window property exposing this storage
+     */
+    public String getProperty() {
+        return property;
+    }
+}
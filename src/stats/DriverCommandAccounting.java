@@ -0,0 +1,48 @@
+package stats;
+
+/**
+ * Class keeping count of the WebDriver commands executed by each thread.
+ * Counting is cumulative, compare the counts before and after a block of code to account for that block.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class DriverCommandAccounting {
+
+    private static final ThreadLocal<long[]> counters = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * Records a command executed by the current thread.
+     *
+     * @param nanos the time the command took in nanoseconds
+     */
+    static void record(long nanos) {
+        long[] counter = counters.get();
+        counter[0]++;
+        counter[1] += nanos;
+    }
+
+    /**
+     * Returns the amount of commands executed by the current thread.
+     *
+     * @return the amount of round trips
+     */
+    public static long getRoundTrips() {
+        return counters.get()[0];
+    }
+
+    /**
+     * Returns the time the current thread spent in commands.
+     *
+     * @return the time spent in commands in nanoseconds
+     */
+    public static long getCommandNanos() {
+        return counters.get()[1];
+    }
+
+    /**
+     * Resets the counts of the current thread.
+     */
+    public static void reset() {
+        counters.remove();
+    }
+}
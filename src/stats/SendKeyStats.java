@@ -1,11 +1,15 @@
 package stats;
 
+import java.io.Serializable;
+
 /**
  * StatsPlugin tracking only sendKey events.
  *
  * @author Thibault Helsmoortel
  */
-public class SendKeyStats implements StatsPlugin {
+public class SendKeyStats implements StatsPlugin, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private boolean trackingEnabled;
     private int timesKeysSent;
@@ -46,6 +50,13 @@ public class SendKeyStats implements StatsPlugin {
         this.timesKeysSent = 0;
     }
 
+    @Override
+    public boolean merge(StatsPlugin other) {
+        if (other.getClass() != getClass()) return false;
+        timesKeysSent += ((SendKeyStats) other).timesKeysSent;
+        return true;
+    }
+
     @Override
     public String represent() {
         return "Times keys sent: " + timesKeysSent;
@@ -17,6 +17,26 @@ public interface StatsPlugin {
 
     void reset();
 
+    /**
+     * Tracks a WebDriver command (a round trip to the browser). Ignored by default.
+     *
+     * @param command the name of the command
+     * @param nanos   the time the command took in nanoseconds
+     */
+    default void trackCommand(String command, long nanos) {
+    }
+
+    /**
+     * Adds the statistics of another instance of this plugin, e.g. one tracking another thread.
+     * Not supported by default.
+     *
+     * @param other the plugin to add the statistics of
+     * @return true if the statistics were added, false if merging isn't supported
+     */
+    default boolean merge(StatsPlugin other) {
+        return false;
+    }
+
     default String represent() {
         return toString();
     }
@@ -1,27 +1,38 @@
 package stats;
 
 import org.apache.log4j.Logger;
+import reporting.StepPerformer;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Singleton class responsible for tracking multiple events.
+ * <p>
+ * When tests run in parallel, every thread can be bound to a tracker of its own (see {@link #bindToThread()}),
+ * so plugins don't have to be thread-safe. Once the thread is done, its statistics are merged into the shared
+ * tracker (see {@link StatsPlugin#merge(StatsPlugin)}).
  *
  * @author Thibault Helsmoortel
  */
 public final class StatsTracker {
     private static final StatsTracker statsTrackerInstance = new StatsTracker();
+    private static final ThreadLocal<StatsTracker> boundInstance = new ThreadLocal<>();
 
     private static final Logger LOGGER = Logger.getLogger(StatsTracker.class);
 
-    private static List<StatsPlugin> plugins;
+    private final List<StatsPlugin> plugins;
+    //The shared plugins the plugins of a thread were copied from
+    private final Map<StatsPlugin, StatsPlugin> sources = new IdentityHashMap<>();
 
     /**
      * Class constructor. Publicly unavailable.
      */
     private StatsTracker() {
-        plugins = new ArrayList<>();
+        plugins = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -56,7 +67,7 @@ public final class StatsTracker {
      * @return a list of the currently registered plugins
      */
     public static List<StatsPlugin> getPlugins() {
-        return new ArrayList<>(plugins);
+        return new ArrayList<>(getInstance().plugins);
     }
 
     /**
@@ -67,6 +78,21 @@ public final class StatsTracker {
     public void track(StatsAction action) {
         LOGGER.debug("Tracking action: " + action.toString());
         plugins.forEach(plugin -> plugin.track(action));
+        //Attribute the action to the running steps
+        StepPerformer.track(action);
+    }
+
+    /**
+     * Means to track a WebDriver command in all registered plugins.
+     * The command is attributed to the running steps and the current thread as well.
+     *
+     * @param command the name of the command
+     * @param nanos   the time the command took in nanoseconds
+     */
+    public void trackCommand(String command, long nanos) {
+        plugins.forEach(plugin -> plugin.trackCommand(command, nanos));
+        StepPerformer.trackCommand(nanos);
+        DriverCommandAccounting.record(nanos);
     }
 
     /**
@@ -93,8 +119,56 @@ public final class StatsTracker {
         plugins.forEach(StatsPlugin::disableTracking);
     }
 
-    public synchronized static StatsTracker getInstance() {
-        return statsTrackerInstance;
+    /**
+     * Returns the tracker bound to the current thread, the shared tracker if none is bound.
+     *
+     * @return the tracker of the current thread
+     */
+    public static StatsTracker getInstance() {
+        StatsTracker bound = boundInstance.get();
+        return bound != null ? bound : statsTrackerInstance;
+    }
+
+    /**
+     * Binds a new tracker to the current thread, with a fresh instance of every plugin of the shared tracker.
+     * Plugins that can't be instantiated (lacking a public no-arg constructor) aren't tracked by the thread.
+     *
+     * @return the tracker bound to the current thread
+     * @throws IllegalStateException thrown when a tracker is bound to the current thread already
+     */
+    public static StatsTracker bindToThread() {
+        if (boundInstance.get() != null) throw new IllegalStateException("A StatsTracker is bound to this thread already.");
+        StatsTracker tracker = new StatsTracker();
+        for (StatsPlugin plugin : statsTrackerInstance.plugins) {
+            try {
+                StatsPlugin copy = plugin.getClass().getDeclaredConstructor().newInstance();
+                if (plugin.isTrackingEnabled()) copy.enableTracking();
+                tracker.plugins.add(copy);
+                tracker.sources.put(copy, plugin);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Couldn't track " + plugin.getClass().getSimpleName() + " on " + Thread.currentThread().getName());
+            }
+        }
+        boundInstance.set(tracker);
+        return tracker;
+    }
+
+    /**
+     * Unbinds the tracker of the current thread, merging its statistics into the shared tracker.
+     */
+    public static void unbindFromThread() {
+        StatsTracker tracker = boundInstance.get();
+        if (tracker == null) return;
+        boundInstance.remove();
+        for (StatsPlugin plugin : tracker.plugins) {
+            StatsPlugin target = tracker.sources.get(plugin);
+            //Plugins registered by the thread itself have nowhere to go
+            if (target == null || !statsTrackerInstance.plugins.contains(target)) continue;
+            //Merging is synchronized, as several threads may finish at once
+            synchronized (target) {
+                if (!target.merge(plugin)) LOGGER.warn("Couldn't merge the statistics of " + plugin.getClass().getSimpleName());
+            }
+        }
     }
 
     @Override
@@ -30,6 +30,7 @@ public final class StatsTrackerFactory {
         statsTracker.registerPlugin(new WaitStats());
         statsTracker.registerPlugin(new ImplicitWaitStats());
         statsTracker.registerPlugin(new ExplicitWaitStats());
+        statsTracker.registerPlugin(new DriverCommandStats());
 
         //Enable tracking on all the plugins straight away
         statsTracker.enableTracking();
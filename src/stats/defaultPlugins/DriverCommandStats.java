@@ -0,0 +1,155 @@
+package stats.defaultPlugins;
+
+import stats.StatsAction;
+import stats.StatsPlugin;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatsPlugin tracking WebDriver commands: the amount of round trips and latency distribution per command.
+ * Latencies are kept in a histogram of fixed, exponentially growing buckets, so tracking is cheap
+ * no matter how many commands are executed.
+ *
+ * @author Thibault Helsmoortel
+ */
+public class DriverCommandStats implements StatsPlugin, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //Upper bounds of the latency buckets in milliseconds, the last bucket is unbounded
+    private static final long[] BUCKET_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private volatile boolean trackingEnabled;
+    private final Map<String, long[]> histograms;
+    private final Map<String, Long> totalNanos;
+    private final Map<String, Long> maxNanos;
+
+    /**
+     * Class constructor. Initializes state.
+     */
+    public DriverCommandStats() {
+        this.trackingEnabled = false;
+        this.histograms = new TreeMap<>();
+        this.totalNanos = new TreeMap<>();
+        this.maxNanos = new TreeMap<>();
+    }
+
+    @Override
+    public void enableTracking() {
+        this.trackingEnabled = true;
+    }
+
+    @Override
+    public void disableTracking() {
+        this.trackingEnabled = false;
+    }
+
+    @Override
+    public boolean isTrackingEnabled() {
+        return trackingEnabled;
+    }
+
+    @Override
+    public void track(StatsAction statsAction) {
+        //Only WebDriver commands are tracked
+    }
+
+    @Override
+    public synchronized void trackCommand(String command, long nanos) {
+        if (!trackingEnabled) return;
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && millis >= BUCKET_BOUNDS[bucket]) bucket++;
+        histograms.computeIfAbsent(command, key -> new long[BUCKET_BOUNDS.length + 1])[bucket]++;
+        totalNanos.merge(command, nanos, Long::sum);
+        maxNanos.merge(command, nanos, Math::max);
+    }
+
+    @Override
+    public synchronized void reset() {
+        histograms.clear();
+        totalNanos.clear();
+        maxNanos.clear();
+    }
+
+    @Override
+    public synchronized boolean merge(StatsPlugin other) {
+        if (other.getClass() != getClass()) return false;
+        DriverCommandStats stats = (DriverCommandStats) other;
+        synchronized (stats) {
+            stats.histograms.forEach((command, histogram) -> {
+                long[] merged = histograms.computeIfAbsent(command, key -> new long[BUCKET_BOUNDS.length + 1]);
+                for (int bucket = 0; bucket < merged.length; bucket++) merged[bucket] += histogram[bucket];
+            });
+            stats.totalNanos.forEach((command, nanos) -> totalNanos.merge(command, nanos, Long::sum));
+            stats.maxNanos.forEach((command, nanos) -> maxNanos.merge(command, nanos, Math::max));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of round trips of all commands.
+     *
+     * @return the amount of round trips
+     */
+    public synchronized long getRoundTrips() {
+        long roundTrips = 0;
+        for (long[] histogram : histograms.values()) roundTrips += count(histogram);
+        return roundTrips;
+    }
+
+    /**
+     * Returns the amount of round trips of a command.
+     *
+     * @param command the name of the command
+     * @return the amount of round trips of the command
+     */
+    public synchronized long getRoundTrips(String command) {
+        long[] histogram = histograms.get(command);
+        return histogram == null ? 0 : count(histogram);
+    }
+
+    /**
+     * Returns an estimate of a latency percentile of a command: the upper bound of the bucket it falls in.
+     *
+     * @param command    the name of the command
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated latency in milliseconds, -1 if the command wasn't tracked
+     */
+    public synchronized long getPercentile(String command, double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile should be between 0 and 100.");
+        long[] histogram = histograms.get(command);
+        if (histogram == null) return -1;
+        long rank = (long) Math.ceil(percentile / 100 * count(histogram));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS.length; bucket++) {
+            seen += histogram[bucket];
+            if (seen >= rank && seen > 0) return BUCKET_BOUNDS[bucket];
+        }
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get(command));
+    }
+
+    private static long count(long[] histogram) {
+        long count = 0;
+        for (long bucketCount : histogram) count += bucketCount;
+        return count;
+    }
+
+    @Override
+    public synchronized String represent() {
+        StringBuilder sb = new StringBuilder("Driver round trips: " + getRoundTrips());
+        for (Map.Entry<String, long[]> entry : histograms.entrySet()) {
+            String command = entry.getKey();
+            long count = count(entry.getValue());
+            sb.append("\n  ").append(command).append(": ").append(count)
+                    .append(" (mean ").append(TimeUnit.NANOSECONDS.toMillis(totalNanos.get(command) / count)).append(" ms")
+                    .append(", p50 <").append(getPercentile(command, 50)).append(" ms")
+                    .append(", p95 <").append(getPercentile(command, 95)).append(" ms")
+                    .append(", max ").append(TimeUnit.NANOSECONDS.toMillis(maxNanos.get(command))).append(" ms)");
+        }
+        return sb.toString();
+    }
+}
@@ -9,6 +9,8 @@ import stats.StatsAction;
  */
 public class ImplicitWaitStats extends WaitStats {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public void track(StatsAction statsAction) {
         if (statsAction.equals(StatsAction.WAIT_IMPLICIT) && isTrackingEnabled()) timesWaited++;
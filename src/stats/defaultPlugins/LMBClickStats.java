@@ -3,12 +3,16 @@ package stats.defaultPlugins;
 import stats.StatsAction;
 import stats.StatsPlugin;
 
+import java.io.Serializable;
+
 /**
  * StatsPlugin tracking only LMB clicks.
  *
  * @author Thibault Helsmoortel
  */
-public class LMBClickStats implements StatsPlugin {
+public class LMBClickStats implements StatsPlugin, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     boolean trackingEnabled;
     protected int clicks;
@@ -50,6 +54,13 @@ public class LMBClickStats implements StatsPlugin {
         this.clicks = 0;
     }
 
+    @Override
+    public boolean merge(StatsPlugin other) {
+        if (other.getClass() != getClass()) return false;
+        clicks += ((LMBClickStats) other).clicks;
+        return true;
+    }
+
     @Override
     public String represent() {
         return "Clicks: " + clicks;
@@ -9,6 +9,8 @@ import stats.StatsAction;
  */
 public class LMBDoubleClickStats extends LMBClickStats {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public void track(StatsAction statsAction) {
         if (statsAction.equals(StatsAction.MOUSE_LMB_DOUBLE_CLICK) && trackingEnabled) clicks++;
@@ -3,12 +3,16 @@ package stats.defaultPlugins;
 import stats.StatsAction;
 import stats.StatsPlugin;
 
+import java.io.Serializable;
+
 /**
  * StatsPlugin tracking waits.
  *
  * @author Thibault Helsmoortel
  */
-public class WaitStats implements StatsPlugin {
+public class WaitStats implements StatsPlugin, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private boolean trackingEnabled;
     int timesWaited;
@@ -44,6 +48,13 @@ public class WaitStats implements StatsPlugin {
         this.timesWaited = 0;
     }
 
+    @Override
+    public boolean merge(StatsPlugin other) {
+        if (other.getClass() != getClass()) return false;
+        timesWaited += ((WaitStats) other).timesWaited;
+        return true;
+    }
+
     @Override
     public String represent() {
         return "Times waited: " + timesWaited;
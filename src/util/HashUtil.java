@@ -0,0 +1,77 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class for SHA-256 hashes, as used for cache keys and checksums.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class HashUtil {
+
+    /**
+     * Returns a new SHA-256 digest.
+     *
+     * @return a new SHA-256 digest
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            //Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of the given content as a hexadecimal String.
+     *
+     * @param content the content to hash
+     * @return the hash of the content
+     */
+    public static String sha256(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    /**
+     * Returns the SHA-256 hash of the UTF-8 bytes of the given String as a hexadecimal String.
+     *
+     * @param content the content to hash
+     * @return the hash of the content
+     */
+    public static String sha256(String content) {
+        return sha256(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the SHA-256 hash of the remaining content of the given stream as a hexadecimal String.
+     * The stream isn't closed.
+     *
+     * @param in the stream to hash
+     * @return the hash of the content of the stream
+     * @throws IOException thrown when the stream couldn't be read
+     */
+    public static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) digest.update(buffer, 0, read);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns the given bytes as a lower case hexadecimal String.
+     *
+     * @param bytes the bytes
+     * @return the hexadecimal String
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+}
@@ -3,7 +3,11 @@ package util;
 import org.apache.log4j.Level;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.FileAppender;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.List;
 
@@ -14,6 +18,10 @@ import java.util.List;
  */
 public final class LogUtil {
 
+    //Name of the file appender capturing all logs, as configured in log4j2.xml
+    private static final String LOG_APPENDER = "AllLogs";
+    private static final String DEFAULT_LOG_FILE = "all.log";
+
     /**
      * Stops the log output.
      */
@@ -40,4 +48,43 @@ public final class LogUtil {
             logger.setLevel(level);
         }
     }
+
+    /**
+     * Returns the file all logs are written to.
+     *
+     * @return the file all logs are written to
+     */
+    public static File getLogFile() {
+        FileAppender appender = getLogFileAppender();
+        return new File(appender != null ? appender.getFileName() : DEFAULT_LOG_FILE);
+    }
+
+    /**
+     * Flushes the buffered log output to the log file.
+     */
+    public static void flushLogFile() {
+        FileAppender appender = getLogFileAppender();
+        if (appender != null) appender.getManager().flush();
+    }
+
+    /**
+     * Returns the current offset of the log file, after flushing the buffered log output.
+     * Log output written after this call starts at the returned offset.
+     *
+     * @return the current offset of the log file
+     */
+    public static long getLogFileOffset() {
+        flushLogFile();
+        return getLogFile().length();
+    }
+
+    /**
+     * Returns the file appender capturing all logs, if configured.
+     *
+     * @return the file appender capturing all logs, null if not configured
+     */
+    private static FileAppender getLogFileAppender() {
+        Appender appender = LoggerContext.getContext(false).getConfiguration().getAppender(LOG_APPENDER);
+        return appender instanceof FileAppender ? (FileAppender) appender : null;
+    }
 }
@@ -0,0 +1,140 @@
+package util;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Utility class for inspecting processes through {@code /proc}. Only available on Linux, elsewhere no processes
+ * are found and no memory is reported.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class ProcessUtil {
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessUtil.class);
+
+    private static final Path PROC = Paths.get("/proc");
+
+    /**
+     * Returns true if processes can be inspected, false if otherwise.
+     *
+     * @return true if processes can be inspected, false if otherwise
+     */
+    public static boolean isSupported() {
+        return Files.isDirectory(PROC.resolve("self"));
+    }
+
+    /**
+     * Returns the id of the current process.
+     *
+     * @return the id of the current process, -1 if it isn't known
+     */
+    public static long getPid() {
+        try {
+            return Long.parseLong(PROC.resolve("self").toRealPath().getFileName().toString());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the ids of the direct children of a process.
+     *
+     * @param pid the id of the parent process
+     * @return the ids of the direct children of the process
+     */
+    public static Set<Long> getChildren(long pid) {
+        Set<Long> children = getParents().get(pid);
+        return children != null ? children : new HashSet<>();
+    }
+
+    /**
+     * Returns the resident set size of the given processes and all of their descendants, e.g. a driver
+     * together with the browser processes it started.
+     *
+     * @param roots the ids of the processes
+     * @return the resident set size in bytes, 0 if none of the processes are running
+     */
+    public static long getTreeRss(Collection<Long> roots) {
+        if (roots.isEmpty()) return 0;
+        Map<Long, Set<Long>> parents = getParents();
+        Set<Long> visited = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>(roots);
+        long rss = 0;
+        while (!pending.isEmpty()) {
+            long pid = pending.pop();
+            if (!visited.add(pid)) continue;
+            rss += getRss(pid);
+            pending.addAll(parents.getOrDefault(pid, Collections.emptySet()));
+        }
+        return rss;
+    }
+
+    /**
+     * Returns the resident set size of a single process.
+     *
+     * @param pid the id of the process
+     * @return the resident set size in bytes, 0 if the process isn't running
+     */
+    public static long getRss(long pid) {
+        try {
+            for (String line : Files.readAllLines(PROC.resolve(String.valueOf(pid)).resolve("status"), StandardCharsets.UTF_8)) {
+                //E.g. "VmRSS:     10236 kB"
+                if (line.startsWith("VmRSS:")) return Long.parseLong(line.substring(6).trim().split("\\s+")[0]) * 1024;
+            }
+        } catch (IOException | NumberFormatException e) {
+            //The process ended in the meantime
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the memory available for starting new processes without swapping.
+     *
+     * @return the available memory in bytes, -1 if it isn't known
+     */
+    public static long getAvailableMemory() {
+        try {
+            for (String line : Files.readAllLines(PROC.resolve("meminfo"), StandardCharsets.UTF_8)) {
+                //E.g. "MemAvailable:   12345678 kB"
+                if (line.startsWith("MemAvailable:")) return Long.parseLong(line.substring(13).trim().split("\\s+")[0]) * 1024;
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.debug("Couldn't read the available memory: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Maps the ids of all running processes having children to the ids of their children.
+     *
+     * @return the children of every process
+     */
+    private static Map<Long, Set<Long>> getParents() {
+        Map<Long, Set<Long>> parents = new HashMap<>();
+        if (!isSupported()) return parents;
+        try (DirectoryStream<Path> processes = Files.newDirectoryStream(PROC, "[0-9]*")) {
+            for (Path process : processes) {
+                try {
+                    //E.g. "1234 (chrome) S 1200 ...", the name itself may contain spaces and parentheses
+                    String stat = new String(Files.readAllBytes(process.resolve("stat")), StandardCharsets.UTF_8);
+                    String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                    long pid = Long.parseLong(process.getFileName().toString());
+                    parents.computeIfAbsent(Long.parseLong(fields[1]), k -> new HashSet<>()).add(pid);
+                } catch (IOException | RuntimeException e) {
+                    //The process ended in the meantime
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Couldn't list the running processes: " + e.getMessage());
+        }
+        return parents;
+    }
+}
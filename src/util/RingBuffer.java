@@ -0,0 +1,108 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed capacity, thread safe ring buffer.
+ * When the buffer is full, adding an element overwrites the oldest one.
+ *
+ * @param <T> the type of the buffered elements
+ * @author Thibault Helsmoortel
+ */
+public final class RingBuffer<T> {
+
+    private final Object[] elements;
+    private int head;
+    private int size;
+
+    /**
+     * Class constructor specifying the capacity.
+     *
+     * @param capacity the maximum amount of elements the buffer holds
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity should be positive.");
+        this.elements = new Object[capacity];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Adds an element to the buffer, evicting the oldest element if the buffer is full.
+     *
+     * @param element the element to add
+     * @return the evicted element, null if none was evicted
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T add(T element) {
+        int tail = (head + size) % elements.length;
+        T evicted = null;
+        if (size == elements.length) {
+            evicted = (T) elements[head];
+            head = (head + 1) % elements.length;
+        } else size++;
+        elements[tail] = element;
+        return evicted;
+    }
+
+    /**
+     * Removes and returns the oldest element of the buffer.
+     *
+     * @return the oldest element, null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T removeOldest() {
+        if (size == 0) return null;
+        T oldest = (T) elements[head];
+        elements[head] = null;
+        head = (head + 1) % elements.length;
+        size--;
+        return oldest;
+    }
+
+    /**
+     * Returns the buffered elements, oldest first.
+     *
+     * @return the buffered elements, oldest first
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> toList() {
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add((T) elements[(head + i) % elements.length]);
+        return list;
+    }
+
+    /**
+     * Returns the buffered elements, oldest first, and empties the buffer.
+     *
+     * @return the buffered elements, oldest first
+     */
+    public synchronized List<T> drain() {
+        List<T> list = toList();
+        clear();
+        return list;
+    }
+
+    /**
+     * Removes all elements from the buffer.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < elements.length; i++) elements[i] = null;
+        head = 0;
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
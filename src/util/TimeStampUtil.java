@@ -36,4 +36,15 @@ public final class TimeStampUtil {
         String formatTime = df.format(time);
         return formatTime;
     }
+
+    /**
+     * Returns a short timestamp String of a given system time.
+     *
+     * @param millis the system time in milliseconds
+     * @return a timestamp String of the given system time
+     */
+    public static String getShortTimeStamp(long millis) {
+        SimpleDateFormat df = new SimpleDateFormat("[HH:mm:ss]");
+        return df.format(new Date(millis));
+    }
 }
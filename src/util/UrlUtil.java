@@ -0,0 +1,35 @@
+package util;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Utility class for urls.
+ *
+ * @author Thibault Helsmoortel
+ */
+public final class UrlUtil {
+
+    /**
+     * Returns true if both urls share the same origin (protocol, host and port), false if otherwise or if either
+     * of them isn't a valid url.
+     *
+     * @param url   the first url
+     * @param other the second url
+     * @return true if both urls share the same origin, false if otherwise
+     */
+    public static boolean isSameOrigin(String url, String other) {
+        try {
+            URL first = new URL(url);
+            URL second = new URL(other);
+            return first.getProtocol().equalsIgnoreCase(second.getProtocol()) && first.getHost().equalsIgnoreCase(second.getHost())
+                    && getPort(first) == getPort(second);
+        } catch (MalformedURLException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    private static int getPort(URL url) {
+        return url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+    }
+}
@@ -0,0 +1,196 @@
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reporting.StepPerformer;
+import reporting.StepScope;
+import reporting.actionlog.ActionLog;
+import reporting.actionlog.ActionLogReader;
+import reporting.actionlog.ActionRecord;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the ActionLog.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Reporting")
+public class ActionLogTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(ActionLogTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Stops logging.
+     */
+    @After
+    public void tearDown() {
+        ActionLog.getInstance().stop();
+        ActionLog.getInstance().setSession(null);
+        ActionLog.getInstance().setSegmentSize(16 * 1024 * 1024);
+    }
+
+    /**
+     * Performs a click action nested in a step.
+     */
+    private static void performSteps(String locator) {
+        try (StepScope step = StepPerformer.start("Submit form")) {
+            try (StepScope action = StepPerformer.startAction("Click", locator)) {
+                action.success();
+            }
+            step.success();
+        }
+    }
+
+    /**
+     * Tests if ended steps are logged with their details, in order of ending.
+     *
+     * @throws IOException thrown when the log couldn't be written or read
+     */
+    @Test
+    public void shouldLogSteps() throws IOException {
+        File directory = temporaryFolder.newFolder("actions");
+        ActionLog.getInstance().start(directory);
+        ActionLog.getInstance().setSession("session-1");
+        performSteps("By.id: submit");
+        try (StepScope ignored = StepPerformer.startWait("Wait for page loaded")) {
+            //Ended without success, so broken
+        }
+        ActionLog.getInstance().stop();
+
+        List<ActionRecord> records = ActionLogReader.read(directory);
+        records.forEach(LOGGER::debug);
+        assertEquals(3, records.size());
+
+        ActionRecord click = records.get(0);
+        assertEquals("Click", click.getAction());
+        assertEquals("By.id: submit", click.getDetail());
+        assertEquals("action", click.getCategory());
+        assertEquals("session-1", click.getSession());
+        assertEquals("PASSED", click.getStatus());
+        assertEquals(1, click.getDepth());
+
+        assertEquals("Submit form", records.get(1).getAction());
+        assertNull(records.get(1).getDetail());
+        assertEquals(0, records.get(1).getDepth());
+        assertTrue(records.get(1).getDurationNanos() >= click.getDurationNanos());
+        assertFalse(records.get(1).getStart().isAfter(click.getStart()));
+
+        assertEquals("wait", records.get(2).getCategory());
+        assertEquals("BROKEN", records.get(2).getStatus());
+    }
+
+    /**
+     * Tests if the records of a process that never stopped logging, e.g. because it got killed, can be decoded.
+     *
+     * @throws IOException thrown when the log couldn't be written or read
+     */
+    @Test
+    public void shouldDecodeUnstoppedLog() throws IOException {
+        File directory = temporaryFolder.newFolder("actions");
+        ActionLog.getInstance().start(directory);
+        ActionLog.getInstance().setSession("killed-session");
+        performSteps("By.id: submit");
+
+        List<ActionRecord> records = ActionLogReader.read(directory);
+        assertEquals(2, records.size());
+        assertEquals("Click", records.get(0).getAction());
+        assertEquals("killed-session", records.get(0).getSession());
+        assertEquals("Submit form", records.get(1).getAction());
+    }
+
+    /**
+     * Tests if logging continues in new segments when a segment is full, and in new segments after a restart.
+     *
+     * @throws IOException thrown when the log couldn't be written or read
+     */
+    @Test
+    public void shouldRotateSegments() throws IOException {
+        File directory = temporaryFolder.newFolder("actions");
+        ActionLog.getInstance().setSegmentSize(16 + 3 * 128);
+        ActionLog.getInstance().start(directory);
+        for (int i = 0; i < 5; i++) performSteps("By.id: button" + i);
+        ActionLog.getInstance().start(directory);
+        performSteps("By.id: last");
+        ActionLog.getInstance().stop();
+
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(".bin"));
+        assertNotNull(segments);
+        assertEquals(5, segments.length);
+
+        List<ActionRecord> records = ActionLogReader.read(directory);
+        assertEquals(12, records.size());
+        assertEquals("By.id: button0", records.get(0).getDetail());
+        assertEquals("By.id: last", records.get(10).getDetail());
+    }
+
+    /**
+     * Tests if the log is exported as CSV and JSON.
+     *
+     * @throws IOException thrown when the log couldn't be written or read
+     */
+    @Test
+    public void shouldExport() throws IOException {
+        File directory = temporaryFolder.newFolder("actions");
+        ActionLog.getInstance().start(directory);
+        performSteps("By.cssSelector: a[title=\"Home, sweet home\"]");
+        ActionLog.getInstance().stop();
+
+        StringWriter csv = new StringWriter();
+        ActionLogReader.export(directory, "csv", csv);
+        LOGGER.debug(csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(ActionLogReader.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].contains(",Click,\"By.cssSelector: a[title=\"\"Home, sweet home\"\"]\",PASSED,"));
+
+        StringWriter json = new StringWriter();
+        ActionLogReader.export(directory, "json", json);
+        assertTrue(json.toString().contains("\"detail\":\"By.cssSelector: a[title=\\\"Home, sweet home\\\"]\""));
+    }
+
+    /**
+     * Tests if typed text is redacted and long details are truncated, neither of them ending up in the dictionary.
+     *
+     * @throws IOException thrown when the log couldn't be written or read
+     */
+    @Test
+    public void shouldRedactAndTruncateDetails() throws IOException {
+        File directory = temporaryFolder.newFolder("actions");
+        ActionLog.getInstance().start(directory);
+        try (StepScope action = StepPerformer.startAction("Send keys", "'hunter2' to Password")) {
+            action.success();
+        }
+        try (StepScope action = StepPerformer.startAction("Send keys", "'hunter2'")) {
+            action.success();
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) text.append('\u00e9');
+        try (StepScope action = StepPerformer.startAction("Click", text.toString())) {
+            action.success();
+        }
+        ActionLog.getInstance().stop();
+
+        List<ActionRecord> records = ActionLogReader.read(directory);
+        assertEquals("'***' to Password", records.get(0).getDetail());
+        assertEquals("'***'", records.get(1).getDetail());
+        //Two bytes per character, never split
+        assertEquals(text.substring(0, 40), records.get(2).getDetail());
+
+        String dictionary = new String(Files.readAllBytes(new File(directory, "actions.dict").toPath()), StandardCharsets.ISO_8859_1);
+        assertFalse(dictionary.contains("hunter2"));
+        assertFalse(dictionary.contains("Password"));
+    }
+}
@@ -0,0 +1,209 @@
+import artifacts.Artifact;
+import artifacts.ArtifactCollector;
+import artifacts.ArtifactContributor;
+import artifacts.ArtifactStore;
+import artifacts.FailureContext;
+import artifacts.StoredArtifact;
+import artifacts.defaultContributors.*;
+import commands.InitFrameworkCommand;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.WebDriver;
+import reporting.cases.Case;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the ArtifactCollector.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Artifacts")
+public class ArtifactCollectorTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactCollectorTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private List<ArtifactContributor> defaultContributors;
+
+    /**
+     * Initialises the framework and sets its contributors aside, so only those of the tests are used.
+     */
+    @Before
+    public void setUp() {
+        new InitFrameworkCommand().execute();
+        ArtifactCollector collector = ArtifactCollector.getInstance();
+        defaultContributors = collector.getContributors();
+        defaultContributors.forEach(collector::deregisterContributor);
+    }
+
+    /**
+     * Tests if the default contributors are registered when the framework is initialised.
+     */
+    @Test
+    public void shouldRegisterDefaultContributors() {
+        Set<Class<?>> types = defaultContributors.stream().map(Object::getClass).collect(Collectors.toSet());
+        assertEquals(new HashSet<>(Arrays.asList(ScreenshotContributor.class, LogsContributor.class,
+                DomContributor.class, ConsoleLogsContributor.class, CookiesContributor.class)), types);
+    }
+
+    /**
+     * Tests if the artifacts of all contributors are collected and stored for the case of the test.
+     *
+     * @throws Exception thrown when the artifacts couldn't be read
+     */
+    @Test
+    public void shouldCollectAndStoreArtifacts() throws Exception {
+        ArtifactCollector collector = ArtifactCollector.getInstance();
+        assertFalse(collector.isParallelDriverAccess());
+        collector.setParallelDriverAccess(true);
+        collector.registerContributor(contributor(false, new Artifact("logs", "text/plain", "log", bytes("log line"))));
+        collector.registerContributor(contributor(true, new Artifact("image", "image/png", "png", bytes("png"))));
+        collector.registerContributor(contributor(true, new Artifact("dom", "text/html", "html", bytes("<html/>"))));
+
+        Case testCase = new Case("failingTest", null, "Failing test");
+        FailureContext context = new FailureContext("failingTest", new AssertionError("Failed"), stubDriver(), 0, testCase);
+        List<Artifact> artifacts = collector.collect(context, packagePath());
+        assertEquals(3, artifacts.size());
+        assertTrue(collector.awaitWrites(10, TimeUnit.SECONDS));
+
+        ArtifactStore store = ArtifactStore.getInstance(temporaryFolder.getRoot().toPath());
+        List<StoredArtifact> stored = store.getArtifacts(testCase);
+        assertEquals(3, stored.size());
+        assertEquals(3, testCase.getAttachments().size());
+        Set<File> storedFiles = stored.stream().map(artifact -> artifact.getPath().toFile()).collect(Collectors.toSet());
+        //A single copy is kept, deflated attachments are inflated when read
+        assertEquals(storedFiles, new HashSet<>(testCase.getAttachments()));
+        for (File attachment : testCase.getAttachments()) {
+            if (attachment.getName().endsWith(".log.deflate")) {
+                try (InputStream in = ArtifactStore.openAttachment(attachment)) {
+                    assertEquals("log line", IOUtils.toString(in, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        for (StoredArtifact storedArtifact : stored) {
+            LOGGER.debug("Stored artifact: " + storedArtifact.getPath());
+            assertTrue(Files.exists(storedArtifact.getPath()));
+            if (storedArtifact.getName().equals("logs")) {
+                assertTrue(storedArtifact.isCompressed());
+                try (InputStream in = store.open(storedArtifact)) {
+                    assertEquals("log line", IOUtils.toString(in, StandardCharsets.UTF_8));
+                }
+            } else if (storedArtifact.getName().equals("image")) assertFalse(storedArtifact.isCompressed());
+        }
+    }
+
+    /**
+     * Tests if contributors querying the browser are skipped when there is no driver.
+     */
+    @Test
+    public void shouldSkipDriverContributorsWithoutDriver() {
+        ArtifactCollector collector = ArtifactCollector.getInstance();
+        collector.registerContributor(contributor(false, new Artifact("logs", "text/plain", "log", bytes("log line"))));
+        collector.registerContributor(contributor(true, new Artifact("image", "image/png", "png", bytes("png"))));
+
+        List<Artifact> artifacts = collector.collect(context(null), packagePath());
+        assertEquals(1, artifacts.size());
+        assertEquals("logs", artifacts.get(0).getName());
+    }
+
+    /**
+     * Tests if a failing contributor doesn't prevent the other artifacts from being collected.
+     */
+    @Test
+    public void shouldIgnoreFailingContributor() {
+        ArtifactCollector collector = ArtifactCollector.getInstance();
+        collector.registerContributor(new ArtifactContributor() {
+            @Override
+            public boolean requiresDriver() {
+                return true;
+            }
+
+            @Override
+            public Artifact collect(FailureContext context) throws IOException {
+                throw new IOException("Browser unreachable");
+            }
+        });
+        collector.registerContributor(contributor(true, new Artifact("dom", "text/html", "html", bytes("<html/>"))));
+
+        List<Artifact> artifacts = collector.collect(context(stubDriver()), packagePath());
+        assertEquals(1, artifacts.size());
+        assertEquals("dom", artifacts.get(0).getName());
+    }
+
+    /**
+     * Tests if a contributor can't be registered twice.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRegisterTwice() {
+        ArtifactContributor contributor = contributor(false, null);
+        ArtifactCollector.getInstance().registerContributor(contributor);
+        ArtifactCollector.getInstance().registerContributor(contributor);
+    }
+
+    /**
+     * Waits for the pending writes, before the temporary folder is deleted, and restores the default contributors.
+     *
+     * @throws InterruptedException thrown when waiting for the writes got interrupted
+     */
+    @After
+    public void tearDown() throws InterruptedException {
+        ArtifactCollector collector = ArtifactCollector.getInstance();
+        assertTrue(collector.awaitWrites(10, TimeUnit.SECONDS));
+        collector.getContributors().forEach(collector::deregisterContributor);
+        defaultContributors.forEach(collector::registerContributor);
+        collector.setParallelDriverAccess(false);
+    }
+
+    private String packagePath() {
+        return temporaryFolder.getRoot().getPath() + File.separator;
+    }
+
+    private FailureContext context(WebDriver driver) {
+        return new FailureContext("failingTest", new AssertionError("Failed"), driver, 0);
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ArtifactContributor contributor(boolean requiresDriver, Artifact artifact) {
+        return new ArtifactContributor() {
+            @Override
+            public boolean requiresDriver() {
+                return requiresDriver;
+            }
+
+            @Override
+            public Artifact collect(FailureContext context) {
+                return artifact;
+            }
+        };
+    }
+
+    private static WebDriver stubDriver() {
+        return (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(), new Class[]{WebDriver.class},
+                (proxy, method, args) -> null);
+    }
+}
@@ -0,0 +1,164 @@
+import artifacts.Artifact;
+import artifacts.ArtifactStore;
+import artifacts.StoredArtifact;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reporting.cases.Case;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the ArtifactStore.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Artifacts")
+public class ArtifactStoreTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactStoreTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Tests if identical artifacts are stored only once, under their content hash.
+     *
+     * @throws IOException thrown when the artifacts couldn't be stored
+     */
+    @Test
+    public void shouldDeduplicateArtifacts() throws IOException {
+        ArtifactStore store = ArtifactStore.getInstance(temporaryFolder.getRoot().toPath());
+        Case first = new Case("first", null, "First case");
+        Case second = new Case("second", null, "Second case");
+
+        StoredArtifact stored = store.store(new Artifact("screenshot", "image/png", "png", bytes("same image")), first);
+        StoredArtifact duplicate = store.store(new Artifact("screenshot", "image/png", "png", bytes("same image")), second);
+        LOGGER.debug("Stored artifact: " + stored);
+
+        assertEquals(stored.getHash(), duplicate.getHash());
+        assertEquals(stored.getPath(), duplicate.getPath());
+        assertTrue(stored.getPath().getFileName().toString().startsWith(stored.getHash()));
+        assertEquals(1, store.getArtifacts(first).size());
+        assertEquals(1, store.getArtifacts(second).size());
+    }
+
+    /**
+     * Tests if textual artifacts are deflated and read back unchanged.
+     *
+     * @throws IOException thrown when the artifacts couldn't be stored or read
+     */
+    @Test
+    public void shouldCompressTextualArtifacts() throws IOException {
+        ArtifactStore store = ArtifactStore.getInstance(temporaryFolder.getRoot().toPath());
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) sb.append("Repeated log line ").append(i % 10).append("\n");
+        byte[] content = bytes(sb.toString());
+
+        StoredArtifact stored = store.store(new Artifact("logs", "text/plain", "log", content));
+        assertTrue(stored.isCompressed());
+        assertTrue(Files.size(stored.getPath()) < content.length);
+        try (InputStream in = store.open(stored)) {
+            assertArrayEquals(content, IOUtils.toByteArray(in));
+        }
+    }
+
+    /**
+     * Tests if parallel writes of the same content result in a single intact file.
+     *
+     * @throws Exception thrown when the artifacts couldn't be stored
+     */
+    @Test
+    public void shouldStoreConcurrently() throws Exception {
+        ArtifactStore store = ArtifactStore.getInstance(temporaryFolder.getRoot().toPath());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<StoredArtifact>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(executor.submit(() -> store.store(new Artifact("dom", "text/html", "html", bytes("<html/>")))));
+        }
+        Set<Path> paths = new HashSet<>();
+        for (Future<StoredArtifact> future : futures) paths.add(future.get().getPath());
+        executor.shutdown();
+
+        assertEquals(1, paths.size());
+        Path path = paths.iterator().next();
+        try (InputStream in = store.open(futures.get(0).get())) {
+            assertEquals("<html/>", IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path.getParent())) {
+            int count = 0;
+            for (Path ignored : files) count++;
+            assertEquals(1, count);
+        }
+    }
+
+    /**
+     * Tests if cases sharing a title keep their own artifacts, in the index and in the export.
+     *
+     * @throws IOException thrown when the artifacts couldn't be stored or exported
+     */
+    @Test
+    public void shouldIndexCasesById() throws IOException {
+        ArtifactStore store = ArtifactStore.getInstance(temporaryFolder.getRoot().toPath());
+        Case first = new Case("rerunCase", null, "First run");
+        Case second = new Case("rerunCase", null, "Second run");
+        store.store(new Artifact("logs", "text/plain", "log", bytes("first run")), first);
+        store.store(new Artifact("logs", "text/plain", "log", bytes("second run")), second);
+
+        assertEquals(1, store.getArtifacts(first).size());
+        assertEquals(1, store.getArtifacts(second).size());
+        assertNotEquals(store.getArtifacts(first).get(0).getHash(), store.getArtifacts(second).get(0).getHash());
+
+        Path zipFile = temporaryFolder.newFile("artifacts.zip").toPath();
+        store.exportZip(zipFile);
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(zipFile))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) entries.put(entry.getName(), IOUtils.toString(zip, StandardCharsets.UTF_8));
+        }
+        assertEquals("first run", entries.get("rerunCase/logs.log"));
+        assertEquals("second run", entries.get("rerunCase_2/logs.log"));
+    }
+
+    /**
+     * Tests if the indexed artifacts are exported per case.
+     *
+     * @throws IOException thrown when the artifacts couldn't be exported
+     */
+    @Test
+    public void shouldExportZip() throws IOException {
+        ArtifactStore store = ArtifactStore.getInstance(temporaryFolder.getRoot().toPath());
+        Case c = new Case("exportedCase", null, "Exported case");
+        store.store(new Artifact("logs", "text/plain", "log", bytes("log line")), c);
+        store.store(new Artifact("screenshot", "image/png", "png", bytes("image")), c);
+
+        Path zipFile = temporaryFolder.newFile("artifacts.zip").toPath();
+        store.exportZip(zipFile);
+
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(zipFile))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) entries.put(entry.getName(), IOUtils.toString(zip, StandardCharsets.UTF_8));
+        }
+        assertEquals("log line", entries.get("exportedCase/logs.log"));
+        assertEquals("image", entries.get("exportedCase/screenshot.png"));
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
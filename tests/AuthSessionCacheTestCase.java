@@ -0,0 +1,155 @@
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import ru.yandex.qatools.allure.annotations.Features;
+import session.AuthSessionCache;
+import session.CookiesManager;
+import sut.Account;
+import sut.Environment;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the AuthSessionCache.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Session")
+public class AuthSessionCacheTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(AuthSessionCacheTestCase.class);
+
+    private static final String WRITE_STORAGE = "var storage = window[arguments[0]], items = arguments[1];"
+            + " storage.clear(); for (var key in items) storage.setItem(key, items[key]);";
+    private static final String READ_STORAGE = "var storage = window[arguments[0]], items = {};"
+            + " for (var i = 0; i < storage.length; i++) { var key = storage.key(i); items[key] = storage.getItem(key); }"
+            + " return items;";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Account account = new Account("john@example.com", "secret");
+    private final Environment environment = new Environment("Website", "http://thibaulthelsmoortel.be");
+    private AuthSessionCache cache;
+    private int logins;
+
+    /**
+     * Starts a session on the fake driver and resets the cache.
+     */
+    @Before
+    public void setUp() {
+        cache = AuthSessionCache.getInstance();
+        cache.clear();
+        cache.setPersistenceDirectory(null);
+        cache.setValidityProbe(null);
+        cache.setTimeToLive(30, TimeUnit.MINUTES);
+        cache.invalidate(account, environment);
+        logins = 0;
+        startSession();
+    }
+
+    /**
+     * Destroys the navigator and resets the cache.
+     */
+    @After
+    public void tearDown() {
+        NavigatorFactory.destroyNavigator();
+        cache.clear();
+        cache.setPersistenceDirectory(null);
+        cache.setValidityProbe(null);
+        cache.setTimeToLive(30, TimeUnit.MINUTES);
+    }
+
+    private void startSession() {
+        NavigatorFactory.createNavigator(environment, new FakeWebDriver(Paths.get("tests/fixtures/site")));
+    }
+
+    private void loginFlow() {
+        logins++;
+        CookiesManager.addCookie(new Cookie("auth", "token-" + logins));
+        ((JavascriptExecutor) Navigator.getInstance().getDriver())
+                .executeScript(WRITE_STORAGE, "localStorage", Collections.singletonMap("user", account.getMail()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getLocalStorage() {
+        return (Map<String, Object>) ((JavascriptExecutor) Navigator.getInstance().getDriver()).executeScript(READ_STORAGE, "localStorage");
+    }
+
+    /**
+     * Tests if the session of the first login is restored in later sessions.
+     */
+    @Test
+    public void shouldRestoreCachedSession() {
+        assertFalse(cache.login(account, environment, this::loginFlow));
+
+        startSession();
+        assertNull(CookiesManager.getCookie("auth"));
+        assertTrue(cache.login(account, environment, this::loginFlow));
+        assertEquals(1, logins);
+        assertEquals("token-1", CookiesManager.getCookie("auth").getValue());
+        assertEquals(account.getMail(), getLocalStorage().get("user"));
+        //Cookies set by the page itself are restored as well
+        assertNotNull(CookiesManager.getCookie("_ga"));
+    }
+
+    /**
+     * Tests if expired sessions and sessions rejected by the validity probe cause a new login.
+     */
+    @Test
+    public void shouldLoginAgainWhenSessionIsInvalid() {
+        cache.login(account, environment, this::loginFlow);
+
+        cache.setValidityProbe(driver -> false);
+        startSession();
+        assertFalse(cache.login(account, environment, this::loginFlow));
+        assertEquals(2, logins);
+
+        cache.setValidityProbe(driver -> driver.manage().getCookieNamed("auth") != null);
+        cache.setTimeToLive(0, TimeUnit.MILLISECONDS);
+        startSession();
+        assertFalse(cache.login(account, environment, this::loginFlow));
+        assertEquals(3, logins);
+    }
+
+    /**
+     * Tests if sessions are shared through the persistence directory, without storing the password.
+     */
+    @Test
+    public void shouldPersistSessions() throws Exception {
+        File directory = folder.newFolder("sessions");
+        cache.setPersistenceDirectory(directory);
+        cache.login(account, environment, this::loginFlow);
+
+        File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        String json = new String(Files.readAllBytes(files[0].toPath()), "UTF-8");
+        LOGGER.debug(json);
+        assertFalse(json.contains(account.getPassword()));
+
+        //Only the persisted copy is left, as in another JVM
+        cache.clear();
+        startSession();
+        assertTrue(cache.login(account, environment, this::loginFlow));
+        assertEquals(1, logins);
+        assertEquals("token-1", CookiesManager.getCookie("auth").getValue());
+
+        cache.invalidate(account, environment);
+        assertEquals(0, directory.listFiles().length);
+    }
+}
@@ -0,0 +1,109 @@
+import com.google.gson.JsonObject;
+import navigation.Browser;
+import navigation.BrowserProfile;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxProfile;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the BrowserProfile.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Navigation")
+public class BrowserProfileTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(BrowserProfileTestCase.class);
+
+    /**
+     * Restores the default profiles.
+     */
+    @After
+    public void tearDown() {
+        NavigatorFactory.setProfile(Browser.CHROME, null);
+        NavigatorFactory.setProfile(Browser.FIREFOX, null);
+    }
+
+    /**
+     * Tests if the headless profile translates to lean Chrome capabilities.
+     */
+    @Test
+    public void shouldCreateHeadlessChromeCapabilities() throws Exception {
+        DesiredCapabilities capabilities = BrowserProfile.headless().setRendererProcessLimit(2).toChromeCapabilities();
+        JsonObject options = ((ChromeOptions) capabilities.getCapability(ChromeOptions.CAPABILITY)).toJson().getAsJsonObject();
+        String arguments = options.get("args").toString();
+        LOGGER.debug(arguments);
+
+        assertTrue(arguments.contains("--headless"));
+        assertTrue(arguments.contains("--window-size=1366,768"));
+        assertTrue(arguments.contains("--blink-settings=imagesEnabled=false"));
+        assertTrue(arguments.contains("--disable-remote-fonts"));
+        assertTrue(arguments.contains("--disable-extensions"));
+        assertTrue(arguments.contains("--renderer-process-limit=2"));
+        assertFalse(arguments.contains("start-maximized"));
+        assertEquals("eager", capabilities.getCapability(CapabilityType.PAGE_LOAD_STRATEGY));
+
+        String defaultArguments = ((ChromeOptions) BrowserProfile.defaultProfile().toChromeCapabilities()
+                .getCapability(ChromeOptions.CAPABILITY)).toJson().getAsJsonObject().get("args").toString();
+        assertTrue(defaultArguments.contains("start-maximized"));
+        assertTrue(defaultArguments.contains("--incognito"));
+        assertFalse(defaultArguments.contains("--headless"));
+    }
+
+    /**
+     * Tests if the headless profile translates to lean Firefox preferences.
+     */
+    @Test
+    public void shouldCreateHeadlessFirefoxProfile() {
+        FirefoxProfile profile = BrowserProfile.headless().toFirefoxProfile();
+        assertEquals(2, profile.getIntegerPreference("permissions.default.image", 1));
+        assertFalse(profile.getBooleanPreference("gfx.downloadable_fonts.enabled", true));
+        assertEquals(1, profile.getIntegerPreference("dom.ipc.processCount", 8));
+        assertTrue(profile.getBooleanPreference("javascript.enabled", false));
+    }
+
+    /**
+     * Tests if the window is set up according to the profile.
+     */
+    @Test
+    public void shouldSetUpWindow() {
+        FakeWebDriver driver = new FakeWebDriver();
+        BrowserProfile.headless().setWindowSize(new Dimension(800, 600)).setUpWindow(driver);
+        assertEquals(new Dimension(800, 600), driver.manage().window().getSize());
+
+        BrowserProfile.defaultProfile().setUpWindow(driver);
+        assertEquals(new Point(0, 0), driver.manage().window().getPosition());
+        driver.quit();
+    }
+
+    /**
+     * Tests if profiles are selected by name and per browser.
+     */
+    @Test
+    public void shouldSelectProfiles() {
+        assertEquals("headless", BrowserProfile.forName("HEADLESS").getName());
+        try {
+            BrowserProfile.forName("turbo");
+            fail("Unknown profiles should be rejected");
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug(e.getMessage());
+        }
+
+        BrowserProfile profile = BrowserProfile.headless().setPageLoadTimeout(5);
+        NavigatorFactory.setProfile(Browser.FIREFOX, profile);
+        assertSame(profile, NavigatorFactory.getProfile(Browser.FIREFOX));
+        assertEquals("default", NavigatorFactory.getProfile(Browser.CHROME).getName());
+        assertTrue(NavigatorFactory.getProfile(Browser.CHROME).isIncognito());
+    }
+}
@@ -1,7 +1,8 @@
 import commands.CaptureLogsCommand;
-import navigation.Browser;
 import navigation.Navigator;
 import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -10,10 +11,14 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import ru.yandex.qatools.allure.annotations.Features;
 import sut.Environment;
+import util.LogUtil;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 /**
  * Test class testing log capturing functionality.
@@ -33,7 +38,9 @@ public class CaptureLogsCommandTestCase {
      */
     @BeforeClass
     public static void init() {
-        NavigatorFactory.createHighlightingNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"), Browser.CHROME);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        Navigator.getInstance().setHighlightingEnabled(true);
     }
 
     /**
@@ -49,6 +56,24 @@ public class CaptureLogsCommandTestCase {
         temporaryFolder.delete();
     }
 
+    /**
+     * Tests if only the logs written from the given offset are captured.
+     *
+     * @throws IOException thrown when the temporary folder couldn't be created
+     */
+    @Test
+    public void shouldCaptureLogSlice() throws IOException {
+        temporaryFolder.create();
+        LOGGER.debug("Before the slice");
+        long offset = LogUtil.getLogFileOffset();
+        LOGGER.debug("Inside the slice");
+        File logs = (File) new CaptureLogsCommand(temporaryFolder.getRoot().getPath(), "testSlice", offset).execute();
+        String captured = FileUtils.readFileToString(logs, StandardCharsets.UTF_8);
+        assertTrue(captured.contains("Inside the slice"));
+        assertFalse(captured.contains("Before the slice"));
+        temporaryFolder.delete();
+    }
+
     /**
      * Destroys the setup.
      */
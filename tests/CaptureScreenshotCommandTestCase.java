@@ -1,8 +1,8 @@
 import commands.CaptureScreenshotCommand;
 import commands.InitFrameworkCommand;
-import navigation.Browser;
 import navigation.Navigator;
 import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -12,6 +12,7 @@ import ru.yandex.qatools.allure.annotations.Features;
 import sut.Environment;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 
 import static org.junit.Assert.assertNotNull;
 
@@ -32,7 +33,9 @@ public class CaptureScreenshotCommandTestCase {
     @BeforeClass
     public static void init() {
         new InitFrameworkCommand().execute();
-        NavigatorFactory.createHighlightingNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"), Browser.CHROME);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        Navigator.getInstance().setHighlightingEnabled(true);
     }
 
     /**
@@ -0,0 +1,111 @@
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import ru.yandex.qatools.allure.annotations.Features;
+import session.Checkpoint;
+import session.CheckpointRegistry;
+import session.CookiesManager;
+import sut.Environment;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the Navigator checkpoints.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Session")
+public class CheckpointTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(CheckpointTestCase.class);
+
+    private int setups;
+
+    /**
+     * Starts a session on the fake driver.
+     */
+    @Before
+    public void setUp() {
+        CheckpointRegistry.getInstance().invalidateAll();
+        setups = 0;
+        startSession();
+    }
+
+    /**
+     * Destroys the navigator and the checkpoints.
+     */
+    @After
+    public void tearDown() {
+        NavigatorFactory.destroyNavigator();
+        CheckpointRegistry.getInstance().invalidateAll();
+    }
+
+    private void startSession() {
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+    }
+
+    private void setup() {
+        setups++;
+        Navigator.getInstance().navigateTo("http://thibaulthelsmoortel.be/repos.html");
+        CookiesManager.addCookie(new Cookie("project", "bromine"));
+        ((JavascriptExecutor) Navigator.getInstance().getDriver()).executeScript("window.scrollTo(arguments[0], arguments[1]);", 0, 500);
+        try {
+            //An expensive setup
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tests if a checkpoint is restored into another session instead of redoing the setup.
+     */
+    @Test
+    public void shouldRestoreCheckpoint() {
+        assertFalse(Navigator.getInstance().checkpoint("repos", this::setup));
+
+        startSession();
+        assertTrue(Navigator.getInstance().checkpoint("repos", this::setup));
+        assertEquals(1, setups);
+        assertEquals("http://thibaulthelsmoortel.be/repos.html", Navigator.getInstance().getUrl());
+        assertEquals("bromine", CookiesManager.getCookie("project").getValue());
+        assertEquals(Arrays.asList(0L, 500L), ((JavascriptExecutor) Navigator.getInstance().getDriver())
+                .executeScript("return [window.pageXOffset, window.pageYOffset];"));
+
+        Checkpoint checkpoint = CheckpointRegistry.getInstance().get("repos");
+        LOGGER.debug(CheckpointRegistry.getInstance().represent());
+        assertEquals(1, checkpoint.getRestores());
+        assertTrue(checkpoint.getSavedNanos() > 0);
+    }
+
+    /**
+     * Tests if invalidated checkpoints are reported and their setup is performed again.
+     */
+    @Test
+    public void shouldInvalidateCheckpoint() {
+        List<String> invalidated = new ArrayList<>();
+        Consumer<Checkpoint> listener = checkpoint -> invalidated.add(checkpoint.getName());
+        CheckpointRegistry.getInstance().addInvalidationListener(listener);
+        Navigator.getInstance().checkpoint("repos", this::setup);
+
+        Navigator.getInstance().invalidateCheckpoint("repos");
+        CheckpointRegistry.getInstance().removeInvalidationListener(listener);
+        assertEquals(Arrays.asList("repos"), invalidated);
+        assertFalse(Navigator.getInstance().restoreCheckpoint("repos"));
+        assertFalse(Navigator.getInstance().checkpoint("repos", this::setup));
+        assertEquals(2, setups);
+    }
+}
@@ -0,0 +1,284 @@
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import navigation.replay.*;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.*;
+import pages.Page;
+import ru.yandex.qatools.allure.annotations.Features;
+import sut.Environment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the recording and replaying of driver commands.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Navigation")
+public class CommandReplayTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(CommandReplayTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Stops recording and destroys the Navigator.
+     */
+    @After
+    public void tearDown() {
+        NavigatorFactory.setRecordingFile(null);
+        NavigatorFactory.destroyNavigator();
+    }
+
+    /**
+     * Records a session filling in the name field of the home page.
+     *
+     * @param file the trace file
+     * @return the value of the name field
+     * @throws IOException thrown when the trace couldn't be written
+     */
+    private String recordSession(File file) throws IOException {
+        WebDriver driver = CommandRecorder.wrap(new FakeWebDriver(Paths.get("tests/fixtures/site")), file);
+        driver.get("http://thibaulthelsmoortel.be/index.html");
+        WebElement name = driver.findElement(By.id("name"));
+        name.sendKeys("John" + Keys.BACK_SPACE);
+        String value = name.getAttribute("value");
+        try {
+            driver.findElement(By.id("missing"));
+            fail("Missing element should not be found.");
+        } catch (NoSuchElementException expected) {
+            //Expected
+        }
+        driver.quit();
+        return value;
+    }
+
+    /**
+     * Tests if a recorded session is replayed with the same results, exceptions included.
+     *
+     * @throws IOException thrown when the trace couldn't be written
+     */
+    @Test
+    public void shouldReplaySession() throws IOException {
+        File file = temporaryFolder.newFile("session.trace");
+        assertEquals("Joh", recordSession(file));
+
+        CommandTrace trace = CommandTrace.readLast(file);
+        LOGGER.debug(trace);
+        assertEquals(6, trace.size());
+
+        WebDriver driver = CommandReplayer.replay(file, ReplayStrictness.STRICT);
+        assertTrue(driver instanceof JavascriptExecutor);
+        driver.get("http://thibaulthelsmoortel.be/index.html");
+        WebElement name = driver.findElement(By.id("name"));
+        name.sendKeys("John" + Keys.BACK_SPACE);
+        assertEquals("Joh", name.getAttribute("value"));
+        try {
+            driver.findElement(By.id("missing"));
+            fail("Replayed exception should be thrown.");
+        } catch (NoSuchElementException expected) {
+            //Expected
+        }
+        driver.quit();
+    }
+
+    /**
+     * Tests if elements found before a navigation are still recorded and replayed as stale, and new ones get new ids.
+     *
+     * @throws IOException thrown when the trace couldn't be written
+     */
+    @Test
+    public void shouldRecordAcrossNavigations() throws IOException {
+        File file = temporaryFolder.newFile("navigations.trace");
+        WebDriver driver = CommandRecorder.wrap(new FakeWebDriver(Paths.get("tests/fixtures/site")), file);
+        driver.get("http://thibaulthelsmoortel.be/index.html");
+        WebElement before = driver.findElement(By.id("name"));
+        driver.navigate().refresh();
+        WebElement after = driver.findElement(By.id("name"));
+        after.sendKeys("Jane");
+        assertStale(before);
+        driver.quit();
+
+        String trace = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(trace.contains("\"ref\":\"e2\""));
+
+        WebDriver replayed = CommandReplayer.replay(file, ReplayStrictness.STRICT);
+        replayed.get("http://thibaulthelsmoortel.be/index.html");
+        WebElement replayedBefore = replayed.findElement(By.id("name"));
+        replayed.navigate().refresh();
+        WebElement replayedAfter = replayed.findElement(By.id("name"));
+        replayedAfter.sendKeys("Jane");
+        assertStale(replayedBefore);
+        replayed.quit();
+    }
+
+    private static void assertStale(WebElement element) {
+        try {
+            element.getAttribute("placeholder");
+            fail("Elements found before a navigation should be stale.");
+        } catch (StaleElementReferenceException expected) {
+            //Expected
+        }
+    }
+
+    /**
+     * Tests if a strict replay rejects deviating commands, and a lenient replay skips recorded commands.
+     *
+     * @throws IOException thrown when the trace couldn't be written
+     */
+    @Test
+    public void shouldHandleMismatchesAccordingToStrictness() throws IOException {
+        File file = temporaryFolder.newFile("session.trace");
+        recordSession(file);
+
+        WebDriver strict = CommandReplayer.replay(file, ReplayStrictness.STRICT);
+        try {
+            strict.findElement(By.id("name"));
+            fail("Strict replay should reject commands out of order.");
+        } catch (ReplayMismatchException e) {
+            LOGGER.debug(e.getMessage());
+        }
+
+        WebDriver lenient = CommandReplayer.replay(file, ReplayStrictness.LENIENT);
+        WebElement name = lenient.findElement(By.id("name"));
+        assertEquals("Joh", name.getAttribute("value"));
+        try {
+            name.getAttribute("placeholder");
+            fail("Lenient replay should reject commands with other arguments.");
+        } catch (ReplayMismatchException expected) {
+            //Expected
+        }
+
+        WebDriver loose = CommandReplayer.replay(file, ReplayStrictness.LOOSE);
+        assertNotNull(loose.findElement(By.id("email")));
+    }
+
+    /**
+     * Tests if sessions are appended to the trace file and long strings are interned.
+     *
+     * @throws IOException thrown when the trace couldn't be written
+     */
+    @Test
+    public void shouldAppendSessions() throws IOException {
+        File file = temporaryFolder.newFile("sessions.trace");
+        String script = "return document.readyState; // " + new String(new char[100]).replace('\0', 'x');
+        for (int i = 0; i < 2; i++) {
+            JavascriptExecutor driver = (JavascriptExecutor) CommandRecorder.wrap(new FakeWebDriver(), file);
+            driver.executeScript(script);
+            driver.executeScript(script);
+        }
+
+        List<CommandTrace> traces = CommandTrace.read(file);
+        assertEquals(2, traces.size());
+        assertEquals(2, traces.get(1).size());
+        //The script is written once per session
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertEquals(2, contents.split(Pattern.quote(script), -1).length - 1);
+
+        JavascriptExecutor replayed = (JavascriptExecutor) CommandReplayer.replay(traces.get(0), ReplayStrictness.STRICT);
+        assertEquals("complete", replayed.executeScript(script));
+    }
+
+    /**
+     * Tests if sessions recorded in parallel to the same file are read and replayed apart.
+     *
+     * @throws Exception thrown when the trace couldn't be written or a session failed
+     */
+    @Test
+    public void shouldRecordParallelSessions() throws Exception {
+        File file = temporaryFolder.newFile("parallel.trace");
+        String script = "return document.readyState; // " + new String(new char[10000]).replace('\0', 'x');
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> sessions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String url = "http://thibaulthelsmoortel.be/session" + i + ".html";
+            sessions.add(executor.submit(() -> {
+                WebDriver driver = CommandRecorder.wrap(new FakeWebDriver(), file);
+                for (int j = 0; j < 20; j++) {
+                    driver.get(url);
+                    ((JavascriptExecutor) driver).executeScript(script);
+                    assertEquals(url, driver.getCurrentUrl());
+                }
+                driver.quit();
+                return null;
+            }));
+        }
+        for (Future<?> session : sessions) session.get();
+        executor.shutdown();
+
+        List<CommandTrace> traces = CommandTrace.read(file);
+        assertEquals(4, traces.size());
+        Set<String> replayedUrls = new HashSet<>();
+        for (CommandTrace trace : traces) {
+            assertEquals(61, trace.size());
+            for (int i = 0; i < 4; i++) {
+                String url = "http://thibaulthelsmoortel.be/session" + i + ".html";
+                WebDriver replayed = CommandReplayer.replay(trace, ReplayStrictness.STRICT);
+                try {
+                    replayed.get(url);
+                } catch (ReplayMismatchException e) {
+                    //Recorded by another session
+                    continue;
+                }
+                ((JavascriptExecutor) replayed).executeScript(script);
+                assertEquals(url, replayed.getCurrentUrl());
+                for (int j = 1; j < 20; j++) {
+                    replayed.get(url);
+                    ((JavascriptExecutor) replayed).executeScript(script);
+                    assertEquals(url, replayed.getCurrentUrl());
+                }
+                replayed.quit();
+                replayedUrls.add(url);
+            }
+        }
+        assertEquals(4, replayedUrls.size());
+    }
+
+    /**
+     * Tests if page objects run against a replayed Navigator session.
+     *
+     * @throws IOException thrown when the trace couldn't be written
+     */
+    @Test
+    public void shouldReplayNavigator() throws IOException {
+        File file = temporaryFolder.newFile("navigator.trace");
+        Environment environment = new Environment("Website", "http://thibaulthelsmoortel.be");
+        Page repos = new Page("/repos.html") {
+        };
+
+        NavigatorFactory.setRecordingFile(file);
+        NavigatorFactory.createNavigator(environment, new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        repos.goTo();
+        assertTrue(repos.isAt());
+        Navigator.getInstance().click(Navigator.getInstance().getDriver().findElement(By.className("navbar-brand")));
+        String recordedUrl = Navigator.getInstance().getUrl();
+        NavigatorFactory.destroyNavigator();
+        NavigatorFactory.setRecordingFile(null);
+
+        NavigatorFactory.createNavigator(environment, CommandReplayer.replay(file, ReplayStrictness.STRICT));
+        repos.goTo();
+        assertTrue(repos.isAt());
+        Navigator.getInstance().click(Navigator.getInstance().getDriver().findElement(By.className("navbar-brand")));
+        assertEquals(recordedUrl, Navigator.getInstance().getUrl());
+    }
+}
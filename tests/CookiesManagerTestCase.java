@@ -1,6 +1,7 @@
 import commands.InitFrameworkCommand;
-import navigation.Browser;
+import navigation.Navigator;
 import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
 import org.apache.log4j.Logger;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -10,6 +11,8 @@ import ru.yandex.qatools.allure.annotations.Features;
 import session.CookiesManager;
 import sut.Environment;
 
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -30,7 +33,9 @@ public class CookiesManagerTestCase {
     @BeforeClass
     public static void init() {
         new InitFrameworkCommand().execute();
-        NavigatorFactory.createHighlightingNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"), Browser.CHROME);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        Navigator.getInstance().setHighlightingEnabled(true);
     }
 
     /**
@@ -93,6 +98,27 @@ public class CookiesManagerTestCase {
         assertNull(CookiesManager.getCookie(cookie.getName()));
     }
 
+    /**
+     * Test if a cookie set is replaced, only changing the cookies that differ.
+     */
+    @Test
+    public void shouldReplaceCookies() {
+        CookiesManager.deleteAllCookies();
+        CookiesManager.addCookies(Arrays.asList(new Cookie("a", "1", "/"), new Cookie("b", "2", "/")));
+        assertEquals(2, CookiesManager.getCookies().size());
+
+        //a is kept, b is replaced by c
+        assertEquals(2, CookiesManager.replaceCookies(Arrays.asList(new Cookie("a", "1", "/"), new Cookie("c", "3", "/"))));
+        assertEquals("1", CookiesManager.getCookie("a").getValue());
+        assertNull(CookiesManager.getCookie("b"));
+        assertEquals("3", CookiesManager.getCookie("c").getValue());
+        assertEquals(0, CookiesManager.replaceCookies(CookiesManager.getCookies()));
+
+        //Changed values are replaced
+        assertEquals(2, CookiesManager.replaceCookies(Arrays.asList(new Cookie("a", "1", "/"), new Cookie("c", "4", "/"))));
+        assertEquals("4", CookiesManager.getCookie("c").getValue());
+    }
+
     /**
      * Adds a cookie to the current driver instance and returns it.
      *
@@ -0,0 +1,159 @@
+import navigation.DriverBinaryManager;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the DriverBinaryManager.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Navigation")
+public class DriverBinaryManagerTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(DriverBinaryManagerTestCase.class);
+
+    private static final String RESOURCE = "linux/geckodriver";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path originalCacheDirectory;
+
+    /**
+     * Points the manager to a temporary cache directory.
+     */
+    @Before
+    public void setUp() {
+        originalCacheDirectory = DriverBinaryManager.getInstance().getCacheDirectory();
+        DriverBinaryManager.getInstance().setCacheDirectory(temporaryFolder.getRoot().toPath());
+    }
+
+    /**
+     * Tests if a binary is extracted as an executable file, along with its checksum.
+     *
+     * @throws IOException thrown when the binary couldn't be extracted
+     */
+    @Test
+    public void shouldExtractExecutableBinary() throws IOException {
+        Path binary = DriverBinaryManager.getInstance().getBinary(RESOURCE);
+        LOGGER.debug("Extracted binary: " + binary);
+        assertNotNull(binary);
+        assertTrue(binary.startsWith(temporaryFolder.getRoot().toPath()));
+        assertTrue(Files.isExecutable(binary));
+        assertTrue(Files.exists(binary.resolveSibling(binary.getFileName() + ".sha256")));
+    }
+
+    /**
+     * Tests if a binary extracted before is reused, also when resolved again from scratch.
+     *
+     * @throws IOException thrown when the binary couldn't be extracted
+     */
+    @Test
+    public void shouldReuseExtractedBinary() throws IOException {
+        Path binary = DriverBinaryManager.getInstance().getBinary(RESOURCE);
+        long modified = Files.getLastModifiedTime(binary).toMillis();
+
+        //Forget the resolved binary, as a new JVM would
+        DriverBinaryManager.getInstance().setCacheDirectory(temporaryFolder.getRoot().toPath());
+        assertEquals(binary, DriverBinaryManager.getInstance().getBinary(RESOURCE));
+        assertEquals(modified, Files.getLastModifiedTime(binary).toMillis());
+    }
+
+    /**
+     * Tests if a binary that no longer matches its checksum is extracted again when reused.
+     *
+     * @throws IOException thrown when the binary couldn't be extracted
+     */
+    @Test
+    public void shouldExtractCorruptedBinaryAgain() throws IOException {
+        Path binary = DriverBinaryManager.getInstance().getBinary(RESOURCE);
+        byte[] content = Files.readAllBytes(binary);
+        Files.write(binary, "corrupted".getBytes(StandardCharsets.UTF_8));
+
+        DriverBinaryManager.getInstance().setCacheDirectory(temporaryFolder.getRoot().toPath());
+        assertEquals(binary, DriverBinaryManager.getInstance().getBinary(RESOURCE));
+        assertArrayEquals(content, Files.readAllBytes(binary));
+    }
+
+    /**
+     * Tests if versions of a binary that weren't used for a long time are removed, and other versions kept.
+     *
+     * @throws IOException thrown when the binary couldn't be extracted
+     */
+    @Test
+    public void shouldEvictExpiredVersions() throws IOException {
+        Path expired = temporaryFolder.newFolder("0123456789abcdef").toPath();
+        Files.write(expired.resolve("geckodriver"), "expired".getBytes(StandardCharsets.UTF_8));
+        Files.write(expired.resolve("geckodriver.sha256"), "0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(expired.resolve("geckodriver.sha256"),
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31)));
+        Path recent = temporaryFolder.newFolder("fedcba9876543210").toPath();
+        Files.write(recent.resolve("geckodriver"), "recent".getBytes(StandardCharsets.UTF_8));
+        Files.write(recent.resolve("geckodriver.sha256"), "fedcba9876543210".getBytes(StandardCharsets.UTF_8));
+
+        Path binary = DriverBinaryManager.getInstance().getBinary(RESOURCE);
+        assertTrue(Files.exists(binary));
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(recent.resolve("geckodriver")));
+    }
+
+    /**
+     * Tests if concurrent lookups extract the binary only once.
+     *
+     * @throws Exception thrown when the binary couldn't be extracted
+     */
+    @Test
+    public void shouldExtractOnceConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Path>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) futures.add(executor.submit(() -> DriverBinaryManager.getInstance().getBinary(RESOURCE)));
+        Set<Path> binaries = new HashSet<>();
+        for (Future<Path> future : futures) binaries.add(future.get());
+        executor.shutdown();
+
+        assertEquals(1, binaries.size());
+        try (Stream<Path> files = Files.list(binaries.iterator().next().getParent())) {
+            assertEquals(0, files.filter(file -> file.toString().endsWith(".tmp")).count());
+        }
+    }
+
+    /**
+     * Tests if a missing binary is reported as such.
+     *
+     * @throws IOException thrown when the binary couldn't be extracted
+     */
+    @Test
+    public void shouldNotFindMissingBinary() throws IOException {
+        assertNull(DriverBinaryManager.getInstance().getBinary("linux/unknowndriver"));
+    }
+
+    /**
+     * Restores the original cache directory.
+     */
+    @After
+    public void tearDown() {
+        DriverBinaryManager.getInstance().setCacheDirectory(originalCacheDirectory);
+    }
+}
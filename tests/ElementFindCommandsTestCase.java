@@ -1,9 +1,9 @@
 import commands.Command;
 import commands.InitFrameworkCommand;
 import commands.elements.*;
-import navigation.Browser;
 import navigation.Navigator;
 import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
 import org.apache.log4j.Logger;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -16,6 +16,7 @@ import pages.Pages;
 import ru.yandex.qatools.allure.annotations.Features;
 import sut.Environment;
 
+import java.nio.file.Paths;
 import java.util.List;
 
 import static org.junit.Assert.assertNotNull;
@@ -48,7 +49,9 @@ public class ElementFindCommandsTestCase {
     @BeforeClass
     public static void init() {
         new InitFrameworkCommand().execute();
-        NavigatorFactory.createHighlightingNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"), Browser.CHROME);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        Navigator.getInstance().setHighlightingEnabled(true);
         Page homePage = new Page("/index.html") {
         };
         Pages.registerPage(homePage);
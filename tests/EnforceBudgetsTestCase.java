@@ -0,0 +1,176 @@
+import commands.InitFrameworkCommand;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import rules.Budget;
+import rules.BudgetMode;
+import rules.BudgetScope;
+import rules.EnforceBudgets;
+import ru.yandex.qatools.allure.annotations.Features;
+import stats.StatsTracker;
+import sut.Environment;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the EnforceBudgets rule and budgeted blocks.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Stats")
+public class EnforceBudgetsTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(EnforceBudgetsTestCase.class);
+
+    /**
+     * Tests if a test exceeding the round trips of its annotated budget fails.
+     *
+     * @throws Throwable thrown when the budgeted test fails
+     */
+    @Test
+    public void shouldFailTestExceedingRoundTrips() throws Throwable {
+        Statement statement = budgeted("twoRoundTrips", roundTrips(3));
+        try {
+            statement.evaluate();
+            fail("The budget should have been exceeded.");
+        } catch (AssertionError e) {
+            LOGGER.debug(e.getMessage());
+            assertTrue(e.getMessage().contains("3 round trips (budget 2)"));
+        }
+    }
+
+    /**
+     * Tests if a test within its annotated budget passes.
+     *
+     * @throws Throwable thrown when the budgeted test fails
+     */
+    @Test
+    public void shouldPassTestWithinBudget() throws Throwable {
+        budgeted("twoRoundTrips", roundTrips(2)).evaluate();
+    }
+
+    /**
+     * Tests if a budget in warning mode doesn't fail the test.
+     *
+     * @throws Throwable thrown when the budgeted test fails
+     */
+    @Test
+    public void shouldWarnWhenExceedingWarningBudget() throws Throwable {
+        budgeted("warnAfterOneRoundTrip", roundTrips(3)).evaluate();
+    }
+
+    /**
+     * Tests if a budgeted block exceeding its wall-clock budget fails.
+     *
+     * @throws InterruptedException thrown when the block got interrupted
+     */
+    @Test
+    public void shouldFailBlockExceedingTime() throws InterruptedException {
+        try (BudgetScope scope = BudgetScope.open("Slow block", -1, 10)) {
+            Thread.sleep(30);
+            assertTrue(scope.getElapsedMillis() >= 30);
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().startsWith("Slow block exceeded its budget"));
+            return;
+        }
+        fail("The budget should have been exceeded.");
+    }
+
+    /**
+     * Tests if a budgeted block only accounts for its own round trips.
+     */
+    @Test
+    public void shouldCountBlockRoundTrips() {
+        roundTrips(5);
+        try (BudgetScope scope = BudgetScope.open("Block", 1, -1)) {
+            StatsTracker.getInstance().trackCommand("click", 1000);
+            assertEquals(1, scope.getRoundTrips());
+        }
+    }
+
+    /**
+     * Tests if drivers are instrumented while a test with a round trip budget runs.
+     *
+     * @throws Throwable thrown when the budgeted test fails
+     */
+    @Test
+    public void shouldEnableInstrumentationForRoundTripBudget() throws Throwable {
+        assertFalse(NavigatorFactory.isInstrumentationEnabled());
+        List<Boolean> enabled = new ArrayList<>();
+        budgeted("twoRoundTrips", new Statement() {
+            @Override
+            public void evaluate() {
+                enabled.add(NavigatorFactory.isInstrumentationEnabled());
+            }
+        }).evaluate();
+        assertEquals(Collections.singletonList(true), enabled);
+        assertFalse(NavigatorFactory.isInstrumentationEnabled());
+    }
+
+    /**
+     * Tests if a round trip budget fails on a driver that isn't instrumented, rather than passing unchecked.
+     *
+     * @throws Throwable thrown when the budgeted test fails
+     */
+    @Test
+    public void shouldFailRoundTripBudgetOnUninstrumentedDriver() throws Throwable {
+        new InitFrameworkCommand().execute();
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        try {
+            budgeted("twoRoundTrips", roundTrips(0)).evaluate();
+            fail("The uninstrumented driver should be reported.");
+        } catch (IllegalStateException e) {
+            LOGGER.debug(e.getMessage());
+            assertTrue(e.getMessage().contains("isn't instrumented"));
+        } finally {
+            NavigatorFactory.destroyNavigator();
+        }
+    }
+
+    @Budget(maxRoundTrips = 2)
+    public void twoRoundTrips() {
+        //Budget holder
+    }
+
+    @Budget(maxRoundTrips = 1, mode = BudgetMode.WARN)
+    public void warnAfterOneRoundTrip() {
+        //Budget holder
+    }
+
+    /**
+     * Applies the EnforceBudgets rule to a statement with the budget of a given method.
+     *
+     * @param budgetHolder the name of the method holding the budget
+     * @param statement    the statement to budget
+     * @return the budgeted statement
+     * @throws NoSuchMethodException thrown when the method doesn't exist
+     */
+    private Statement budgeted(String budgetHolder, Statement statement) throws NoSuchMethodException {
+        Budget budget = getClass().getMethod(budgetHolder).getAnnotation(Budget.class);
+        return new EnforceBudgets().apply(statement, Description.createTestDescription(getClass(), budgetHolder, budget));
+    }
+
+    /**
+     * Returns a statement tracking a given amount of WebDriver commands.
+     *
+     * @param amount the amount of commands
+     * @return the statement
+     */
+    private static Statement roundTrips(int amount) {
+        return new Statement() {
+            @Override
+            public void evaluate() {
+                for (int i = 0; i < amount; i++) StatsTracker.getInstance().trackCommand("findElement", 1000);
+            }
+        };
+    }
+}
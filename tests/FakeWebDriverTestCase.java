@@ -0,0 +1,173 @@
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.*;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the FakeWebDriver.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Navigation")
+public class FakeWebDriverTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(FakeWebDriverTestCase.class);
+
+    private static final String FORM_PAGE = "<html><head><title>Form</title></head><body>"
+            + "<form id='form' action='/done.html'>"
+            + "<input id='name' name='name' value='John'>"
+            + "<input type='checkbox' id='agree'>"
+            + "<input type='radio' name='size' id='small' checked><input type='radio' name='size' id='large'>"
+            + "<select id='color'><option>Red<option selected>Green</select>"
+            + "<p class='hint note'>Fill in &amp; <b>submit</b></p><p style='display: none'>Hidden</p>"
+            + "<button type='submit' id='submit'>Send</button>"
+            + "</form>"
+            + "<ul><li>One<li>Two<li>Three</ul>"
+            + "</body></html>";
+
+    private FakeWebDriver driver;
+
+    /**
+     * Serves the test pages.
+     */
+    @Before
+    public void setUp() {
+        driver = new FakeWebDriver()
+                .servePage("/form.html", FORM_PAGE)
+                .servePage("/done.html", "<html><head><title>Done</title></head><body><a href='form.html'>Back</a></body></html>");
+        driver.get("http://localhost/form.html");
+    }
+
+    /**
+     * Quits the driver.
+     */
+    @After
+    public void tearDown() {
+        driver.quit();
+    }
+
+    /**
+     * Tests if elements are found with CSS selectors.
+     */
+    @Test
+    public void shouldFindByCssSelector() {
+        assertEquals("name", driver.findElement(By.cssSelector("form#form > input[name='name']")).getAttribute("id"));
+        assertEquals(3, driver.findElements(By.cssSelector("ul li")).size());
+        assertEquals("Two", driver.findElement(By.cssSelector("li:nth-child(2)")).getText());
+        assertEquals("Three", driver.findElement(By.cssSelector("li + li + li")).getText());
+        assertEquals(1, driver.findElements(By.className("note")).size());
+        assertEquals(2, driver.findElements(By.cssSelector("#small, #large")).size());
+    }
+
+    /**
+     * Tests if elements are found with XPath expressions.
+     */
+    @Test
+    public void shouldFindByXPath() {
+        assertEquals("Three", driver.findElement(By.xpath("//ul/li[last()]")).getText());
+        assertEquals("submit", driver.findElement(By.xpath("//button[normalize-space()='Send']")).getAttribute("id"));
+        assertEquals(2, driver.findElements(By.xpath("//input[@type='radio']")).size());
+        assertEquals("form", driver.findElement(By.xpath("//*[@id='name']/..")).getTagName());
+        assertTrue(driver.findElements(By.xpath("//input[@id='missing']")).isEmpty());
+    }
+
+    /**
+     * Tests if text is rendered the way a browser does: decoded, collapsed and without hidden content.
+     */
+    @Test
+    public void shouldRenderText() {
+        WebElement hint = driver.findElement(By.className("hint"));
+        assertEquals("Fill in & submit", hint.getText());
+        assertFalse(driver.findElement(By.xpath("//p[2]")).isDisplayed());
+        assertEquals("", driver.findElement(By.xpath("//p[2]")).getText());
+        assertEquals("Form", driver.getTitle());
+    }
+
+    /**
+     * Tests if form controls react to typing and clicking.
+     */
+    @Test
+    public void shouldOperateFormControls() {
+        WebElement name = driver.findElement(By.id("name"));
+        name.clear();
+        name.sendKeys("Jane" + Keys.BACK_SPACE + "e");
+        assertEquals("Jane", name.getAttribute("value"));
+
+        WebElement agree = driver.findElement(By.id("agree"));
+        agree.click();
+        assertTrue(agree.isSelected());
+
+        driver.findElement(By.id("large")).click();
+        assertFalse(driver.findElement(By.id("small")).isSelected());
+
+        List<WebElement> options = driver.findElements(By.tagName("option"));
+        assertTrue(options.get(1).isSelected());
+        options.get(0).click();
+        assertTrue(options.get(0).isSelected());
+        assertFalse(options.get(1).isSelected());
+    }
+
+    /**
+     * Tests if submitting navigates away and makes the elements of the previous page stale.
+     */
+    @Test
+    public void shouldSubmitAndGoStale() {
+        WebElement submit = driver.findElement(By.id("submit"));
+        submit.click();
+        LOGGER.debug(driver.getCurrentUrl());
+        assertEquals("http://localhost/done.html", driver.getCurrentUrl());
+
+        try {
+            submit.click();
+            fail("Element of the previous page should be stale.");
+        } catch (StaleElementReferenceException expected) {
+            //Expected
+        }
+
+        driver.findElement(By.linkText("Back")).click();
+        assertEquals("Form", driver.getTitle());
+        driver.navigate().back();
+        assertEquals("Done", driver.getTitle());
+    }
+
+    /**
+     * Tests if unsupported and invalid input is reported like a real driver does.
+     */
+    @Test
+    public void shouldReportUnsupportedInput() {
+        try {
+            driver.findElement(By.id("missing"));
+            fail("Missing element should not be found.");
+        } catch (NoSuchElementException expected) {
+            //Expected
+        }
+        try {
+            driver.findElement(By.cssSelector("li::before"));
+            fail("Unsupported selector should be rejected.");
+        } catch (InvalidSelectorException expected) {
+            //Expected
+        }
+        try {
+            driver.executeScript("return window.unknown();");
+            fail("Unknown script should be rejected.");
+        } catch (WebDriverException expected) {
+            //Expected
+        }
+        try {
+            driver.manage().ime();
+            fail("Input methods should be rejected.");
+        } catch (UnsupportedCommandException expected) {
+            //Expected
+        }
+
+        driver.registerScript("window.answer", (d, args) -> 42);
+        assertEquals(42L, driver.executeScript("return window.answer;"));
+    }
+}
@@ -0,0 +1,253 @@
+import commands.InitFrameworkCommand;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+import org.openqa.selenium.OutputType;
+import reporting.flightrecorder.FlightRecord;
+import reporting.flightrecorder.FlightRecorder;
+import ru.yandex.qatools.allure.annotations.Features;
+import rules.ScreenShotOnFailure;
+import sut.Environment;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the FlightRecorder.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Screenshots")
+public class FlightRecorderTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightRecorderTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Tests if only the last screenshots are kept.
+     *
+     * @throws IOException thrown when the test screenshot couldn't be created
+     */
+    @Test
+    public void shouldKeepLastScreenshots() throws IOException {
+        FlightRecorder recorder = FlightRecorder.getInstance();
+        recorder.setCapacity(3);
+        for (int i = 1; i <= 5; i++) recorder.record("Step " + i, createScreenshot(10, 10));
+
+        List<FlightRecord> records = recorder.drain();
+        LOGGER.debug("Recorded: " + records);
+        assertEquals(3, records.size());
+        assertEquals("Step 3", records.get(0).getStep());
+        assertEquals("Step 5", records.get(2).getStep());
+        assertEquals(0, recorder.size());
+    }
+
+    /**
+     * Tests if the recorder stays within its memory bound.
+     *
+     * @throws IOException thrown when the test screenshot couldn't be created
+     */
+    @Test
+    public void shouldStayWithinMaxBytes() throws IOException {
+        FlightRecorder recorder = FlightRecorder.getInstance();
+        recorder.setCapacity(10);
+        byte[] screenshot = createScreenshot(50, 50);
+        recorder.setMaxBytes(screenshot.length * 2);
+        for (int i = 1; i <= 5; i++) recorder.record("Step " + i, screenshot);
+
+        assertTrue(recorder.getBufferedBytes() <= screenshot.length * 2);
+        assertEquals(2, recorder.size());
+    }
+
+    /**
+     * Tests if screenshots are kept at reduced resolution.
+     *
+     * @throws IOException thrown when the test screenshot couldn't be created
+     */
+    @Test
+    public void shouldScaleDownScreenshots() throws IOException {
+        FlightRecorder recorder = FlightRecorder.getInstance();
+        recorder.setCapacity(1);
+        recorder.setScale(0.5f);
+        recorder.record("Scaled", createScreenshot(100, 40));
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(recorder.drain().get(0).getScreenshot()));
+        assertEquals(50, image.getWidth());
+        assertEquals(20, image.getHeight());
+    }
+
+    /**
+     * Tests if every thread records, clears and disables its own screenshots only.
+     *
+     * @throws Exception thrown when the test screenshot couldn't be created or the other thread failed
+     */
+    @Test
+    public void shouldKeepScreenshotsPerThread() throws Exception {
+        FlightRecorder recorder = FlightRecorder.getInstance();
+        recorder.enable();
+        recorder.record("Main", createScreenshot(10, 10));
+
+        byte[] screenshot = createScreenshot(10, 10);
+        List<Object> seen = new ArrayList<>();
+        Thread other = new Thread(() -> {
+            seen.add(recorder.size());
+            seen.add(recorder.isEnabled());
+            recorder.record("Other", screenshot);
+            seen.add(recorder.size());
+            recorder.disable();
+            recorder.clear();
+        });
+        other.start();
+        other.join();
+
+        assertEquals(Arrays.asList(0, false, 1), seen);
+        assertTrue(recorder.isEnabled());
+        List<FlightRecord> records = recorder.drain();
+        assertEquals(1, records.size());
+        assertEquals("Main", records.get(0).getStep());
+    }
+
+    /**
+     * Tests if steps are captured on the thread performing them, the thread driving the WebDriver.
+     */
+    @Test
+    public void shouldCaptureStepsOnCallingThread() {
+        Set<String> capturingThreads = Collections.synchronizedSet(new HashSet<>());
+        createNavigator(capturingThreads);
+        try {
+            FlightRecorder recorder = FlightRecorder.getInstance();
+            recorder.setCaptureInterval(0);
+            recorder.enable();
+            recorder.onStep("Open page");
+            recorder.awaitCapture(2000);
+
+            assertEquals(Collections.singleton(Thread.currentThread().getName()), capturingThreads);
+            List<FlightRecord> records = recorder.drain();
+            assertEquals(1, records.size());
+            assertEquals("Open page", records.get(0).getStep());
+        } finally {
+            NavigatorFactory.destroyNavigator();
+        }
+    }
+
+    /**
+     * Tests if steps are skipped while the recorder is disabled or the previous capture is too recent.
+     */
+    @Test
+    public void shouldSkipSteps() {
+        Set<String> capturingThreads = Collections.synchronizedSet(new HashSet<>());
+        createNavigator(capturingThreads);
+        try {
+            FlightRecorder recorder = FlightRecorder.getInstance();
+            recorder.onStep("Disabled");
+            recorder.setCaptureInterval(TimeUnit.MINUTES.toMillis(1));
+            recorder.enable();
+            recorder.onStep("First");
+            recorder.awaitCapture(2000);
+            recorder.onStep("Too recent");
+            recorder.awaitCapture(2000);
+
+            List<FlightRecord> records = recorder.drain();
+            assertEquals(1, records.size());
+            assertEquals("First", records.get(0).getStep());
+        } finally {
+            NavigatorFactory.destroyNavigator();
+        }
+    }
+
+    /**
+     * Tests if the rule dumps the screenshots recorded during a failing test, and leaves the recorder disabled.
+     *
+     * @throws Throwable thrown when the rule couldn't be applied
+     */
+    @Test
+    public void shouldDumpOnFailure() throws Throwable {
+        createNavigator(Collections.synchronizedSet(new HashSet<>()));
+        try {
+            FlightRecorder.getInstance().setCaptureInterval(0);
+            String packagePath = temporaryFolder.getRoot().getPath() + File.separator;
+            Statement failing = new Statement() {
+                @Override
+                public void evaluate() {
+                    FlightRecorder.getInstance().onStep("Before failure");
+                    fail("Sample failure");
+                }
+            };
+            FrameworkMethod method = new FrameworkMethod(getClass().getMethod("shouldDumpOnFailure"));
+            try {
+                new ScreenShotOnFailure(packagePath, true).apply(failing, method, this).evaluate();
+                fail("The failure should be rethrown");
+            } catch (AssertionError e) {
+                assertEquals("Sample failure", e.getMessage());
+            }
+
+            String[] files = temporaryFolder.getRoot().list();
+            LOGGER.debug("Dumped: " + Arrays.toString(files));
+            assertEquals(1, Arrays.stream(files).filter(file -> file.matches("shouldDumpOnFailure_.*_1\\.png")).count());
+            assertFalse(FlightRecorder.getInstance().isEnabled());
+            assertEquals(0, FlightRecorder.getInstance().size());
+        } finally {
+            NavigatorFactory.destroyNavigator();
+        }
+    }
+
+    /**
+     * Restores the recorder defaults.
+     */
+    @After
+    public void tearDown() {
+        FlightRecorder.getInstance().setScale(1f);
+        FlightRecorder.getInstance().setMaxBytes(8 * 1024 * 1024);
+        FlightRecorder.getInstance().setCaptureInterval(1000);
+        FlightRecorder.getInstance().disable();
+        FlightRecorder.getInstance().clear();
+    }
+
+    /**
+     * Creates a Navigator to the fake site, of which the driver remembers the threads taking screenshots.
+     *
+     * @param capturingThreads the names of the threads taking screenshots
+     */
+    private void createNavigator(Set<String> capturingThreads) {
+        new InitFrameworkCommand().execute();
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                () -> new FakeWebDriver(Paths.get("tests/fixtures/site")) {
+                    @Override
+                    public <X> X getScreenshotAs(OutputType<X> target) {
+                        capturingThreads.add(Thread.currentThread().getName());
+                        return super.getScreenshotAs(target);
+                    }
+                });
+    }
+
+    /**
+     * Creates a blank PNG screenshot of a given size.
+     *
+     * @param width  the width of the screenshot
+     * @param height the height of the screenshot
+     * @return the PNG bytes of the screenshot
+     * @throws IOException thrown when the screenshot couldn't be written
+     */
+    private byte[] createScreenshot(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
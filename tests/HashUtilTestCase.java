@@ -0,0 +1,45 @@
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import ru.yandex.qatools.allure.annotations.Features;
+import util.HashUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the HashUtil.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Utils")
+public class HashUtilTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(HashUtilTestCase.class);
+
+    private static final String ABC_HASH = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    /**
+     * Tests if Strings, bytes and streams hash to the same SHA-256 hexadecimal String.
+     *
+     * @throws IOException thrown when the stream couldn't be read
+     */
+    @Test
+    public void shouldHashContent() throws IOException {
+        byte[] content = "abc".getBytes(StandardCharsets.UTF_8);
+        LOGGER.debug("Hash: " + HashUtil.sha256("abc"));
+        assertEquals(ABC_HASH, HashUtil.sha256("abc"));
+        assertEquals(ABC_HASH, HashUtil.sha256(content));
+        assertEquals(ABC_HASH, HashUtil.sha256(new ByteArrayInputStream(content)));
+    }
+
+    /**
+     * Tests if bytes are converted to a lower case hexadecimal String.
+     */
+    @Test
+    public void shouldConvertToHex() {
+        assertEquals("00ff0a", HashUtil.toHex(new byte[]{0, (byte) 0xff, 10}));
+    }
+}
@@ -1,7 +1,7 @@
 import commands.InitFrameworkCommand;
-import navigation.Browser;
 import navigation.Navigator;
 import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
 import org.apache.log4j.Logger;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -13,6 +13,8 @@ import session.BrowserHistory;
 import stats.StatsTrackerFactory;
 import sut.Environment;
 
+import java.nio.file.Paths;
+
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -36,7 +38,9 @@ public class HistoryTestCase {
     @BeforeClass
     public static void init() {
         new InitFrameworkCommand().execute();
-        NavigatorFactory.createHighlightingNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"), Browser.CHROME);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        Navigator.getInstance().setHighlightingEnabled(true);
         Pages.registerPage(new Page("/index.html") {
         });
         Pages.registerPage(new Page("/repos.html") {
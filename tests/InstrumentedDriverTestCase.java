@@ -0,0 +1,181 @@
+import commands.InitFrameworkCommand;
+import navigation.InstrumentedDriver;
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.openqa.selenium.internal.WrapsElement;
+import reporting.StepPerformer;
+import reporting.StepScope;
+import reporting.cases.CaseStep;
+import ru.yandex.qatools.allure.annotations.Features;
+import stats.DriverCommandAccounting;
+import stats.StatsTracker;
+import stats.defaultPlugins.DriverCommandStats;
+import sut.Environment;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the InstrumentedDriver.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Stats")
+public class InstrumentedDriverTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(InstrumentedDriverTestCase.class);
+
+    private DriverCommandStats stats;
+    private WebElement stubElement;
+    private List<Object> scriptArguments;
+    private List<CharSequence> sentKeys;
+    private WebDriver driver;
+
+    /**
+     * Registers the command stats and instruments a stub driver.
+     */
+    @Before
+    public void setUp() {
+        stats = new DriverCommandStats();
+        stats.enableTracking();
+        StatsTracker.getInstance().registerPlugin(stats);
+
+        scriptArguments = new ArrayList<>();
+        sentKeys = new ArrayList<>();
+        stubElement = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebElement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("sendKeys")) Collections.addAll(sentKeys, (CharSequence[]) args[0]);
+                    return method.getName().equals("getText") ? "stub" : null;
+                });
+        WebDriver stubDriver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findElement":
+                            return stubElement;
+                        case "executeScript":
+                            for (Object arg : (Object[]) args[1]) scriptArguments.add(arg);
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+        driver = InstrumentedDriver.wrap(stubDriver);
+    }
+
+    /**
+     * Deregisters the command stats.
+     */
+    @After
+    public void tearDown() {
+        StatsTracker.getInstance().deregisterPlugin(stats);
+    }
+
+    /**
+     * Tests if every command of the driver and the elements it finds is counted.
+     */
+    @Test
+    public void shouldCountCommands() {
+        long roundTrips = DriverCommandAccounting.getRoundTrips();
+
+        WebElement element = driver.findElement(By.id("submit"));
+        element.click();
+        assertEquals("stub", element.getText());
+        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
+
+        LOGGER.debug(stats.represent());
+        assertEquals(1, stats.getRoundTrips("findElement"));
+        assertEquals(1, stats.getRoundTrips("click"));
+        assertEquals(1, stats.getRoundTrips("getText"));
+        assertEquals(1, stats.getRoundTrips("executeScript"));
+        assertEquals(4, stats.getRoundTrips());
+        assertEquals(4, DriverCommandAccounting.getRoundTrips() - roundTrips);
+        assertTrue(stats.getPercentile("click", 95) >= 0);
+    }
+
+    /**
+     * Tests if the instrumented objects expose the objects they decorate and aren't passed on to the browser.
+     */
+    @Test
+    public void shouldUnwrapInstrumentedObjects() {
+        WebElement element = driver.findElement(By.id("submit"));
+        assertTrue(InstrumentedDriver.isInstrumented(element));
+        assertSame(stubElement, ((WrapsElement) element).getWrappedElement());
+        assertFalse(InstrumentedDriver.isInstrumented(((WrapsDriver) driver).getWrappedDriver()));
+        assertSame(driver, InstrumentedDriver.wrap(driver));
+
+        ((JavascriptExecutor) driver).executeScript("return arguments[0];", element);
+        assertEquals(1, scriptArguments.size());
+        assertSame(stubElement, scriptArguments.get(0));
+    }
+
+    /**
+     * Tests if varargs arrays keep their type when passed on, e.g. the CharSequence array of sendKeys.
+     */
+    @Test
+    public void shouldPassVarargsArguments() {
+        WebElement element = driver.findElement(By.id("name"));
+        element.sendKeys("Ja", "ne");
+        assertEquals(2, sentKeys.size());
+        assertEquals("Jane", String.join("", sentKeys));
+        assertEquals(1, stats.getRoundTrips("sendKeys"));
+    }
+
+    /**
+     * Tests if commands are attributed to the running step.
+     */
+    @Test
+    public void shouldAttributeCommandsToStep() {
+        CaseStep step;
+        try (StepScope scope = StepPerformer.start("Submit")) {
+            step = scope.getStep();
+            driver.findElement(By.id("submit")).click();
+            scope.success();
+        }
+        assertEquals(2, step.getRoundTrips());
+        assertTrue(step.getCommandNanos() > 0);
+    }
+
+    /**
+     * Tests if the commands of user interactions, issued through the mouse and keyboard of the driver, are counted.
+     */
+    @Test
+    public void shouldCountInteractions() {
+        new InitFrameworkCommand().execute();
+        NavigatorFactory.setInstrumentationEnabled(true);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                () -> new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        try {
+            Navigator navigator = Navigator.getInstance();
+            assertTrue(InstrumentedDriver.isInstrumented(navigator.getDriver()));
+            WebElement name = navigator.getDriver().findElement(By.id("name"));
+            navigator.doubleClick(name);
+            navigator.sendKeys(name, "Jane");
+
+            LOGGER.debug(stats.represent());
+            assertEquals("Jane", name.getAttribute("value"));
+            assertEquals(1, stats.getRoundTrips("doubleClick"));
+            assertEquals(1, stats.getRoundTrips("sendKeys"));
+            assertEquals(0, stats.getRoundTrips("getMouse"));
+            assertEquals(0, stats.getRoundTrips("getKeyboard"));
+            assertEquals(0, stats.getRoundTrips("getCoordinates"));
+        } finally {
+            NavigatorFactory.destroyNavigator();
+            NavigatorFactory.setInstrumentationEnabled(false);
+        }
+    }
+}
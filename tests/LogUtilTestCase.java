@@ -6,6 +6,7 @@ import ru.yandex.qatools.allure.annotations.Features;
 import util.LogUtil;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test class testing the LogUtil.
@@ -15,6 +16,8 @@ import static org.junit.Assert.assertEquals;
 @Features({"Logs", "Utils"})
 public class LogUtilTestCase {
 
+    private static final Logger LOGGER = Logger.getLogger(LogUtilTestCase.class);
+
     /**
      * Tests if the logs can be properly turned of.
      */
@@ -42,6 +45,17 @@ public class LogUtilTestCase {
         assertEquals(Level.ALL, Logger.getRootLogger().getLevel());
     }
 
+    /**
+     * Tests if the log file offset moves along with the log output.
+     */
+    @Test
+    public void shouldMoveLogFileOffset() {
+        LogUtil.debugLog();
+        long offset = LogUtil.getLogFileOffset();
+        LOGGER.debug("Moving the log file offset");
+        assertTrue(LogUtil.getLogFileOffset() > offset);
+    }
+
     /**
      * Destroys the setup. Reverts settings back to debug level.
      */
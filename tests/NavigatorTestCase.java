@@ -1,7 +1,7 @@
 import commands.InitFrameworkCommand;
-import navigation.Browser;
 import navigation.Navigator;
 import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
 import org.apache.log4j.Logger;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -18,6 +18,8 @@ import stats.defaultPlugins.LMBClickStats;
 import stats.defaultPlugins.LMBDoubleClickStats;
 import sut.Environment;
 
+import java.nio.file.Paths;
+
 import static org.junit.Assert.*;
 
 /**
@@ -39,7 +41,9 @@ public class NavigatorTestCase {
     @BeforeClass
     public static void init() {
         new InitFrameworkCommand().execute();
-        NavigatorFactory.createHighlightingNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"), Browser.CHROME);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        Navigator.getInstance().setHighlightingEnabled(true);
         Pages.registerPage(new Page("/index.html") {
         });
         Pages.registerPage(new Page("/repos.html") {
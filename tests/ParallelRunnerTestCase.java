@@ -0,0 +1,179 @@
+import commands.InitFrameworkCommand;
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.openqa.selenium.WebDriver;
+import parallel.ParallelRunner;
+import parallel.SessionComputer;
+import parallel.SessionPool;
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import reporting.cases.Defects;
+import rules.DestroyNavigator;
+import ru.yandex.qatools.allure.annotations.Features;
+import stats.StatsAction;
+import stats.StatsPlugin;
+import stats.StatsTracker;
+import stats.defaultPlugins.LMBClickStats;
+import sut.Environment;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the parallel execution of tests across sessions.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Parallel")
+public class ParallelRunnerTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(ParallelRunnerTestCase.class);
+
+    private static final String SAMPLE_CASE = "Parallel sample";
+
+    //The sessions the sample tests ran on, mapped to the drivers they used
+    private static final Map<String, Set<WebDriver>> sessions = new ConcurrentHashMap<>();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private LMBClickStats clicks;
+
+    /**
+     * Tracks the clicks of the sample tests, recording their history in a temporary file.
+     */
+    @Before
+    public void setUp() {
+        System.setProperty("bromine.history", temporaryFolder.getRoot().toPath().resolve("history.tsv").toString());
+        new InitFrameworkCommand().execute();
+        sessions.clear();
+        clicks = null;
+        for (StatsPlugin plugin : StatsTracker.getPlugins()) {
+            if (plugin.getClass() == LMBClickStats.class) clicks = (LMBClickStats) plugin;
+        }
+        clicks.enableTracking();
+    }
+
+    /**
+     * Forgets the broken cases of the sample tests and restores the default history.
+     */
+    @After
+    public void tearDown() {
+        System.clearProperty("bromine.history");
+        for (Case broken : new ArrayList<>(Defects.getBrokenDefects())) {
+            if (broken.getTitle().equals(SAMPLE_CASE)) broken.setStatus(CaseStatus.PENDING);
+        }
+    }
+
+    /**
+     * Tests if the tests of several classes run across the sessions of the pool, each using its own Navigator,
+     * after which the statistics and defects are merged.
+     */
+    @Test
+    public void shouldRunAcrossSessions() {
+        int clicksBefore = clicks.getClicks();
+        int brokenBefore = Defects.getBrokenDefects().size();
+        Result result = JUnitCore.runClasses(new SessionComputer(3), FirstSampleTests.class, SecondSampleTests.class);
+        LOGGER.debug("Sample tests ran on " + sessions.keySet());
+
+        assertEquals(8, result.getRunCount());
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        assertTrue(sessions.size() > 1);
+        assertTrue(sessions.size() <= 3);
+        //Every test created a driver of its own
+        assertEquals(8, sessions.values().stream().mapToInt(Set::size).sum());
+        assertNull(Navigator.getInstance().getDriver());
+
+        assertEquals(clicksBefore + 8, clicks.getClicks());
+        assertEquals(brokenBefore + 8, Defects.getBrokenDefects().size());
+    }
+
+    /**
+     * Tests if the runner runs the tests of a class in parallel.
+     */
+    @Test
+    public void shouldRunWithRunner() {
+        System.setProperty("bromine.parallel.sessions", "2");
+        try {
+            assertEquals(2, SessionPool.defaultSize());
+            Result result = JUnitCore.runClasses(FirstSampleTests.class);
+            assertEquals(4, result.getRunCount());
+            assertTrue(result.getFailures().toString(), result.wasSuccessful());
+            assertTrue(sessions.size() <= 2);
+        } finally {
+            System.clearProperty("bromine.parallel.sessions");
+        }
+        assertTrue(SessionPool.defaultSize() >= 1);
+    }
+
+    /**
+     * Sample tests, run by the tests above.
+     */
+    @RunWith(ParallelRunner.class)
+    public static class FirstSampleTests {
+
+        @Rule
+        public DestroyNavigator destroyNavigator = new DestroyNavigator();
+
+        @Before
+        public void setUp() {
+            NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                    new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        }
+
+        @Test
+        public void first() throws InterruptedException {
+            sample();
+        }
+
+        @Test
+        public void second() throws InterruptedException {
+            sample();
+        }
+
+        @Test
+        public void third() throws InterruptedException {
+            sample();
+        }
+
+        @Test
+        public void fourth() throws InterruptedException {
+            sample();
+        }
+    }
+
+    /**
+     * More sample tests, run by the tests above.
+     */
+    public static class SecondSampleTests extends FirstSampleTests {
+    }
+
+    /**
+     * Verifies the test operates its own session, clicks and reports a broken case.
+     */
+    private static void sample() throws InterruptedException {
+        WebDriver driver = Navigator.getInstance().getDriver();
+        sessions.computeIfAbsent(Thread.currentThread().getName(), name -> ConcurrentHashMap.newKeySet()).add(driver);
+        Thread.sleep(50);
+        //No other test replaced the driver in the meantime
+        assertSame(driver, Navigator.getInstance().getDriver());
+        assertEquals("http://thibaulthelsmoortel.be/", Navigator.getInstance().getUrl());
+        StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+        new Case(SAMPLE_CASE, null, "Sample case").setStatus(CaseStatus.BROKEN);
+    }
+}
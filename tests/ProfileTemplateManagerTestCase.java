@@ -0,0 +1,176 @@
+import navigation.BrowserProfile;
+import navigation.NavigatorFactory;
+import navigation.ProfileTemplateManager;
+import navigation.SessionStartup;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.yandex.qatools.allure.annotations.Features;
+import sut.Environment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the ProfileTemplateManager.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Navigation")
+public class ProfileTemplateManagerTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(ProfileTemplateManagerTestCase.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Environment environment = new Environment("Website", "http://thibaulthelsmoortel.be");
+    private final Environment otherEnvironment = new Environment("Other", "http://localhost:8080");
+    private final BrowserProfile profile = BrowserProfile.headless().setWarmedTemplate(true);
+    private ProfileTemplateManager manager;
+    private Path originalCache;
+    private AtomicInteger warmUps;
+
+    /**
+     * Points the manager to a temporary cache with a warmer writing a fake cache.
+     */
+    @Before
+    public void setUp() throws IOException {
+        manager = ProfileTemplateManager.getInstance();
+        originalCache = manager.getCacheDirectory();
+        manager.setCacheDirectory(folder.newFolder("profiles").toPath());
+        warmUps = new AtomicInteger();
+        manager.setWarmer((directory, env, browserProfile) -> {
+            warmUps.incrementAndGet();
+            Files.createDirectories(directory.resolve("Default/Cache"));
+            Files.write(directory.resolve("Default/Cache/data_1"), env.getUrl().toString().getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("First Run"), new byte[0]);
+            Files.write(directory.resolve("SingletonLock"), new byte[0]);
+        });
+    }
+
+    /**
+     * Restores the manager.
+     */
+    @After
+    public void tearDown() {
+        manager.setWarmer(null);
+        manager.setMaxAge(24, TimeUnit.HOURS);
+        manager.setCacheDirectory(originalCache);
+    }
+
+    /**
+     * Tests if a template is warmed once and every session gets its own clone, which is deleted afterwards.
+     */
+    @Test
+    public void shouldCloneWarmedTemplate() throws IOException {
+        Path first = manager.createClone(environment, profile);
+        Path second = manager.createClone(environment, profile);
+        assertEquals(1, warmUps.get());
+        assertNotEquals(first, second);
+
+        assertEquals("http://thibaulthelsmoortel.be", new String(Files.readAllBytes(first.resolve("Default/Cache/data_1")), StandardCharsets.UTF_8));
+        assertTrue(Files.exists(second.resolve("First Run")));
+        //Lock files of the warming browser aren't carried over
+        assertFalse(Files.exists(first.resolve("SingletonLock")));
+        assertTrue(manager.getClones().contains(first));
+
+        manager.deleteClone(first);
+        manager.deleteClone(second);
+        assertFalse(Files.exists(first));
+        assertFalse(manager.getClones().contains(second));
+    }
+
+    /**
+     * Tests if clones are copied in parallel while sharing the template lock.
+     *
+     * @throws Exception thrown when a clone couldn't be created
+     */
+    @Test
+    public void shouldCloneInParallel() throws Exception {
+        manager.getTemplate(environment, profile);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) futures.add(executor.submit(() -> manager.createClone(environment, profile)));
+            for (Future<Path> future : futures) {
+                Path clone = future.get();
+                assertTrue(Files.exists(clone.resolve("Default/Cache/data_1")));
+                manager.deleteClone(clone);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, warmUps.get());
+    }
+
+    /**
+     * Tests if the freshness of a template is checked again once it is locked for cloning.
+     */
+    @Test
+    public void shouldRecheckFreshnessBeforeCloning() throws IOException {
+        manager.setMaxAge(0, TimeUnit.MILLISECONDS);
+        Path clone = manager.createClone(environment, profile);
+        //Warmed when it was looked up, and again as it was already too old when locked
+        assertEquals(2, warmUps.get());
+        assertTrue(Files.exists(clone.resolve("First Run")));
+        manager.deleteClone(clone);
+    }
+
+    /**
+     * Tests if templates are warmed again when they are too old or their warm up failed.
+     */
+    @Test
+    public void shouldWarmAgain() throws IOException {
+        manager.setMaxAge(0, TimeUnit.MILLISECONDS);
+        manager.getTemplate(environment, profile);
+        manager.getTemplate(environment, profile);
+        assertEquals(2, warmUps.get());
+
+        manager.setMaxAge(1, TimeUnit.HOURS);
+        manager.setWarmer((directory, env, browserProfile) -> {
+            throw new IllegalStateException("Browser crashed");
+        });
+        try {
+            manager.getTemplate(otherEnvironment, profile);
+            fail("A failed warm up should be reported");
+        } catch (IOException e) {
+            LOGGER.debug(e.getMessage());
+        }
+        try {
+            manager.getTemplate(otherEnvironment, profile);
+            fail("A failed warm up shouldn't leave a template behind");
+        } catch (IOException e) {
+            LOGGER.debug(e.getMessage());
+        }
+    }
+
+    /**
+     * Tests if the startup of a session is reported.
+     */
+    @Test
+    public void shouldReportStartup() {
+        NavigatorFactory.createNavigator(environment, new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        SessionStartup startup = NavigatorFactory.getLastStartup();
+        LOGGER.debug(startup);
+        assertFalse(startup.isWarmed());
+        assertTrue(startup.getFirstLoadNanos() > 0);
+        NavigatorFactory.destroyNavigator();
+    }
+}
@@ -0,0 +1,161 @@
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.SessionHealth;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import reporting.cases.Defects;
+import rules.RecordCases;
+import rules.RecoverDeadSession;
+import ru.yandex.qatools.allure.annotations.Features;
+import sut.Environment;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the detection and recovery of dead driver sessions.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Navigation")
+public class RecoverDeadSessionTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(RecoverDeadSessionTestCase.class);
+
+    private final Environment environment = new Environment("Website", "http://thibaulthelsmoortel.be");
+
+    /**
+     * Creates a recreatable Navigator operating a fake driver.
+     */
+    @Before
+    public void setUp() {
+        NavigatorFactory.createNavigator(environment, () -> new FakeWebDriver(Paths.get("tests/fixtures/site")));
+    }
+
+    /**
+     * Destroys the Navigator and forgets the broken cases.
+     */
+    @After
+    public void tearDown() {
+        NavigatorFactory.destroyNavigator();
+        for (Case broken : new ArrayList<>(Defects.getBrokenDefects())) broken.setStatus(CaseStatus.PENDING);
+    }
+
+    /**
+     * Tests if fatal driver errors are told apart from regular failures.
+     */
+    @Test
+    public void shouldDetectFatalErrors() {
+        assertTrue(SessionHealth.isFatal(new NoSuchSessionException("Session is gone")));
+        assertTrue(SessionHealth.isFatal(new UnreachableBrowserException("Could not start a new session")));
+        assertTrue(SessionHealth.isFatal(new WebDriverException("Session ID is null. Using WebDriver after calling quit()?")));
+        assertTrue(SessionHealth.isFatal(new WebDriverException("unknown error: Chrome not reachable")));
+        assertTrue(SessionHealth.isFatal(new RuntimeException(new WebDriverException("session deleted because of page crash"))));
+        assertFalse(SessionHealth.isFatal(new AssertionError("Expected title")));
+        assertFalse(SessionHealth.isFatal(new WebDriverException("element not visible")));
+    }
+
+    /**
+     * Tests if a dead session is detected and recreated with the same environment.
+     */
+    @Test
+    public void shouldRecreateDeadSession() {
+        WebDriver crashed = Navigator.getInstance().getDriver();
+        assertTrue(Navigator.getInstance().isSessionAlive());
+        assertFalse(NavigatorFactory.ensureAlive());
+
+        crashed.quit();
+        assertFalse(Navigator.getInstance().isSessionAlive());
+        assertTrue(NavigatorFactory.ensureAlive());
+        assertNotSame(crashed, Navigator.getInstance().getDriver());
+        assertTrue(Navigator.getInstance().isSessionAlive());
+        assertEquals(environment, Navigator.getInstance().getEnvironment());
+        assertEquals("http://thibaulthelsmoortel.be/", Navigator.getInstance().getUrl());
+    }
+
+    /**
+     * Tests if a test whose session died is marked as broken and the session is recreated for the next test.
+     */
+    @Test
+    public void shouldMarkBrokenAndRecover() throws Throwable {
+        Description description = Description.createTestDescription(getClass(), "crashingTest");
+        Statement crashing = new RecoverDeadSession().apply(new Statement() {
+            @Override
+            public void evaluate() {
+                Navigator.getInstance().getDriver().quit();
+                Navigator.getInstance().navigateRefresh();
+            }
+        }, description);
+        try {
+            crashing.evaluate();
+            fail("The error of the dead session should be reported");
+        } catch (NoSuchSessionException e) {
+            LOGGER.debug(e.getMessage());
+        }
+
+        assertEquals(1, Defects.getBrokenDefects().size());
+        Case broken = Defects.getBrokenDefects().get(0);
+        assertEquals(description.getDisplayName(), broken.getTitle());
+        assertTrue(broken.getErrorTrace().contains("NoSuchSessionException"));
+        assertTrue(Defects.getFailedDefects().stream().noneMatch(c -> c.getTitle().equals(broken.getTitle())));
+        assertTrue(Navigator.getInstance().isSessionAlive());
+
+        //Regular failures aren't the session's fault
+        Statement failing = new RecoverDeadSession().apply(new Statement() {
+            @Override
+            public void evaluate() {
+                throw new AssertionError("Expected another title");
+            }
+        }, Description.createTestDescription(getClass(), "failingTest"));
+        try {
+            failing.evaluate();
+            fail("The assertion error should be reported");
+        } catch (AssertionError e) {
+            LOGGER.debug(e.getMessage());
+        }
+        assertEquals(1, Defects.getBrokenDefects().size());
+    }
+
+    /**
+     * Tests if the case recorded for the test is marked as broken, rather than a case of its own.
+     *
+     * @throws Throwable thrown when the rules couldn't be applied
+     */
+    @Test
+    public void shouldMarkRecordedCaseBroken() throws Throwable {
+        Description description = Description.createTestDescription(getClass(), "crashingTest");
+        RecordCases recordCases = new RecordCases();
+        Statement crashing = recordCases.apply(new RecoverDeadSession().apply(new Statement() {
+            @Override
+            public void evaluate() {
+                Navigator.getInstance().getDriver().quit();
+                throw new AssertionError("Expected a title", new NoSuchSessionException("Session is gone"));
+            }
+        }, description), description);
+        try {
+            crashing.evaluate();
+            fail("The error of the dead session should be reported");
+        } catch (AssertionError e) {
+            LOGGER.debug(e.getMessage());
+        }
+
+        Case recorded = recordCases.getLastCase();
+        assertEquals(CaseStatus.BROKEN, recorded.getStatus());
+        assertEquals(Collections.singletonList(recorded), Defects.getBrokenDefects());
+        assertFalse(Defects.getFailedDefects().contains(recorded));
+    }
+}
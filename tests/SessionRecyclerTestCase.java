@@ -0,0 +1,126 @@
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.RecyclingPolicy;
+import navigation.SessionRecycler;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openqa.selenium.WebDriver;
+import rules.RecycleSessions;
+import ru.yandex.qatools.allure.annotations.Features;
+import sut.Environment;
+import util.ProcessUtil;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the recycling of browser sessions.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Navigation")
+public class SessionRecyclerTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionRecyclerTestCase.class);
+
+    private final Environment environment = new Environment("Website", "http://thibaulthelsmoortel.be");
+
+    /**
+     * Destroys the Navigator and restores the recycling policy.
+     */
+    @After
+    public void tearDown() {
+        NavigatorFactory.destroyNavigator();
+        SessionRecycler.setPolicy(null);
+    }
+
+    /**
+     * Tests if the policy tells when to recycle a session.
+     */
+    @Test
+    public void shouldCheckPolicy() {
+        RecyclingPolicy policy = new RecyclingPolicy();
+        assertFalse(policy.isEnabled());
+        assertNull(policy.check(1000, TimeUnit.HOURS.toMillis(5), 1L << 40));
+
+        policy.setMaxTests(50).setMaxAge(30, TimeUnit.MINUTES).setMaxRss(512L * 1024 * 1024);
+        assertTrue(policy.isEnabled());
+        assertNull(policy.check(49, TimeUnit.MINUTES.toMillis(29), 100L * 1024 * 1024));
+        assertEquals("ran 50 tests", policy.check(50, 0, 0));
+        assertEquals("ran for 31 minutes", policy.check(1, TimeUnit.MINUTES.toMillis(31), 0));
+        assertEquals("uses 600 MB", policy.check(1, 0, 600L * 1024 * 1024));
+    }
+
+    /**
+     * Tests if a session is replaced in the background and swapped in between tests.
+     */
+    @Test
+    public void shouldRecycleBetweenTests() throws Throwable {
+        NavigatorFactory.createNavigator(environment, () -> new FakeWebDriver(Paths.get("tests/fixtures/site")));
+        RecycleSessions rule = new RecycleSessions(new RecyclingPolicy().setMaxTests(2));
+        WebDriver original = Navigator.getInstance().getDriver();
+        int recycled = SessionRecycler.getInstance().getRecycledCount();
+
+        runTest(rule);
+        runTest(rule);
+        assertSame(original, Navigator.getInstance().getDriver());
+        await(() -> SessionRecycler.getInstance().isReplacementReady());
+
+        runTest(rule);
+        WebDriver replacement = Navigator.getInstance().getDriver();
+        assertNotSame(original, replacement);
+        assertEquals(recycled + 1, SessionRecycler.getInstance().getRecycledCount());
+        assertEquals("http://thibaulthelsmoortel.be/", Navigator.getInstance().getUrl());
+        //The old session is quit in the background
+        await(() -> ((FakeWebDriver) original).isQuit());
+        assertFalse(((FakeWebDriver) replacement).isQuit());
+        assertEquals(1, SessionRecycler.getInstance().getTestCount());
+    }
+
+    /**
+     * Tests if the memory of a process tree is read.
+     */
+    @Test
+    public void shouldReadProcessMemory() throws Exception {
+        Assume.assumeTrue(ProcessUtil.isSupported());
+        long pid = ProcessUtil.getPid();
+        assertTrue(ProcessUtil.getRss(pid) > 0);
+
+        Process child = new ProcessBuilder("sleep", "30").start();
+        try {
+            await(() -> !ProcessUtil.getChildren(pid).isEmpty());
+            long self = ProcessUtil.getTreeRss(Collections.singleton(pid));
+            LOGGER.debug("Resident memory of the test process tree: " + self / 1024 + " kB");
+            assertTrue(self > ProcessUtil.getRss(pid));
+            assertEquals(0, ProcessUtil.getTreeRss(Collections.emptySet()));
+        } finally {
+            child.destroy();
+        }
+    }
+
+    private static void runTest(RecycleSessions rule) throws Throwable {
+        rule.apply(new Statement() {
+            @Override
+            public void evaluate() {
+                Navigator.getInstance().getDriver().getTitle();
+            }
+        }, Description.createTestDescription(SessionRecyclerTestCase.class, "recycledTest")).evaluate();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Condition wasn't met in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import commands.InitFrameworkCommand;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import parallel.ShardLauncher;
+import parallel.ShardReport;
+import parallel.ShardWorker;
+import parallel.TestHistory;
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import reporting.cases.Defects;
+import reporting.features.Feature;
+import ru.yandex.qatools.allure.annotations.Features;
+import stats.StatsAction;
+import stats.StatsPlugin;
+import stats.StatsTracker;
+import stats.defaultPlugins.LMBClickStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the execution of tests across worker JVMs.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Parallel")
+public class ShardLauncherTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(ShardLauncherTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Records the history and the output of the workers in temporary files.
+     */
+    @Before
+    public void setUp() {
+        new InitFrameworkCommand().execute();
+        System.setProperty("bromine.history", temporaryFolder.getRoot().toPath().resolve("history.tsv").toString());
+        System.setProperty("bromine.shard.logs", temporaryFolder.getRoot().getPath());
+    }
+
+    /**
+     * Forgets the defects of the sample tests and restores the default history.
+     */
+    @After
+    public void tearDown() {
+        System.clearProperty("bromine.history");
+        System.clearProperty("bromine.shard.logs");
+        List<Case> defects = new ArrayList<>(Defects.getFailedDefects());
+        defects.addAll(Defects.getBrokenDefects());
+        for (Case defect : defects) {
+            if (defect.getTitle().startsWith(ShardLauncherTestCase.class.getName())) defect.setStatus(CaseStatus.PENDING);
+        }
+    }
+
+    /**
+     * Tests if classes are partitioned longest first over the workers with the least work, and evenly by their
+     * amount of tests when they never ran.
+     */
+    @Test
+    public void shouldPartitionByHistory() {
+        TestHistory history = TestHistory.getInstance();
+        assertEquals(Arrays.asList(1, 1), sizes(ShardLauncher.partition(
+                Arrays.asList(sample("A", 1), sample("B", 1)), 2, history)));
+
+        Description a = sample("A", 3000);
+        Description b = sample("B", 2000);
+        Description c = sample("C", 1500);
+        Description d = sample("D", 500);
+        List<List<Description>> partitions = ShardLauncher.partition(Arrays.asList(d, c, b, a), 2, history);
+        assertEquals(Arrays.asList(a, d), partitions.get(0));
+        assertEquals(Arrays.asList(b, c), partitions.get(1));
+    }
+
+    /**
+     * Tests if the cases, defects and statistics of the tests ran by the workers are merged.
+     */
+    @Test
+    public void shouldRunAcrossJvms() {
+        LMBClickStats clicks = null;
+        for (StatsPlugin plugin : StatsTracker.getPlugins()) {
+            if (plugin.getClass() == LMBClickStats.class) clicks = (LMBClickStats) plugin;
+        }
+        clicks.enableTracking();
+        int clicksBefore = clicks.getClicks();
+
+        ShardReport report = new ShardLauncher(2).run(PassingTests.class, FailingTests.class);
+        LOGGER.debug(report);
+
+        assertEquals(4, report.getRunCount());
+        assertEquals(1, report.getFailureCount());
+        assertEquals(0, report.getCrashCount());
+        assertEquals(Arrays.asList("Sharding"), report.getFeatures().stream().map(Feature::toString).collect(Collectors.toList()));
+        assertEquals(4, report.getFeatures().get(0).getCases().size());
+
+        Case failed = report.getCase(FailingTests.class.getName() + "#failing");
+        assertEquals(CaseStatus.FAILED, failed.getStatus());
+        assertTrue(failed.getErrorTrace().contains("Sample failure"));
+        assertTrue(Defects.getFailedDefects().contains(failed));
+        assertEquals(CaseStatus.PASSED, report.getCase(PassingTests.class.getName() + "#first").getStatus());
+
+        assertEquals(clicksBefore + 2, clicks.getClicks());
+        assertEquals(1, TestHistory.getInstance().getRecord(
+                Description.createTestDescription(PassingTests.class, "second")).getRuns());
+    }
+
+    /**
+     * Tests if the tests a crashed worker didn't run are re-queued, and the test it crashed on is reported broken.
+     */
+    @Test
+    public void shouldRequeueAfterCrash() {
+        ShardLauncher launcher = new ShardLauncher(1);
+        launcher.setRestarts(1);
+        ShardReport report = launcher.run(CrashingTests.class);
+        LOGGER.debug(report);
+
+        assertEquals(1, report.getCrashCount());
+        assertEquals(4, report.getCases().size());
+        Case crashed = report.getCase(CrashingTests.class.getName() + "#crash");
+        assertEquals(CaseStatus.BROKEN, crashed.getStatus());
+        assertTrue(Defects.getBrokenDefects().contains(crashed));
+        for (String test : Arrays.asList("first", "second", "third")) {
+            assertEquals(CaseStatus.PASSED, report.getCase(CrashingTests.class.getName() + "#" + test).getStatus());
+        }
+    }
+
+    /**
+     * Tests if a worker that stays silent for too long is treated as crashed.
+     */
+    @Test
+    public void shouldTreatSilentWorkerAsCrashed() {
+        System.setProperty("bromine.shard.timeout", "1");
+        try {
+            ShardLauncher launcher = new ShardLauncher(1);
+            launcher.setRestarts(1);
+            ShardReport report = launcher.run(HangingTests.class);
+            LOGGER.debug(report);
+
+            assertEquals(1, report.getCrashCount());
+            Case hanging = report.getCase(HangingTests.class.getName() + "#hang");
+            assertEquals(CaseStatus.BROKEN, hanging.getStatus());
+            assertTrue(hanging.getErrorTrace().contains("didn't respond in time"));
+            assertTrue(Defects.getBrokenDefects().contains(hanging));
+            assertEquals(CaseStatus.PASSED, report.getCase(HangingTests.class.getName() + "#pass").getStatus());
+        } finally {
+            System.clearProperty("bromine.shard.timeout");
+        }
+    }
+
+    private Description sample(String name, long duration) {
+        Description suite = Description.createSuiteDescription(name);
+        Description test = Description.createTestDescription(name, "test");
+        suite.addChild(test);
+        if (duration > 1) TestHistory.getInstance().record(test, duration, false);
+        return suite;
+    }
+
+    private static List<Integer> sizes(List<List<Description>> partitions) {
+        return partitions.stream().map(List::size).collect(Collectors.toList());
+    }
+
+    /**
+     * Sample tests, run by the tests above.
+     */
+    @Features("Sharding")
+    public static class PassingTests {
+
+        @Test
+        public void first() {
+            assertNotNull(System.getProperty(ShardWorker.WORKER_PROPERTY));
+            StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+        }
+
+        @Test
+        public void second() {
+            assertNotNull(System.getProperty(ShardWorker.WORKER_PROPERTY));
+            StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+        }
+    }
+
+    /**
+     * Sample tests, run by the tests above.
+     */
+    @Features("Sharding")
+    public static class FailingTests {
+
+        @Test
+        public void pass() {
+            assertNotNull(System.getProperty(ShardWorker.WORKER_PROPERTY));
+        }
+
+        @Test
+        public void failing() {
+            fail("Sample failure");
+        }
+    }
+
+    /**
+     * Sample tests, run by the tests above.
+     */
+    public static class CrashingTests {
+
+        @Test
+        public void first() {
+        }
+
+        @Test
+        public void second() {
+        }
+
+        @Test
+        public void crash() {
+            //Never takes down the JVM running the test cases
+            if (System.getProperty(ShardWorker.WORKER_PROPERTY) != null) Runtime.getRuntime().halt(1);
+        }
+
+        @Test
+        public void third() {
+        }
+    }
+
+    /**
+     * Sample tests, run by the tests above.
+     */
+    public static class HangingTests {
+
+        @Test
+        public void hang() throws InterruptedException {
+            //Never holds up the JVM running the test cases
+            if (System.getProperty(ShardWorker.WORKER_PROPERTY) != null) Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        }
+
+        @Test
+        public void pass() {
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import commands.InitFrameworkCommand;
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.bots.ActionBot;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openqa.selenium.WebElement;
+import reporting.StepPerformer;
+import reporting.StepScope;
+import reporting.cases.Case;
+import reporting.cases.CaseStatus;
+import reporting.cases.CaseStep;
+import ru.yandex.qatools.allure.annotations.Features;
+import rules.RecordCases;
+import stats.StatsAction;
+import stats.StatsTracker;
+import sut.Environment;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the StepPerformer.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Reporting")
+public class StepPerformerTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(StepPerformerTestCase.class);
+
+    /**
+     * Tests if steps started within a running step are nested and top level steps are added to the case.
+     *
+     * @throws InterruptedException thrown when the step got interrupted
+     */
+    @Test
+    public void shouldNestTimedSteps() throws InterruptedException {
+        Case testCase = new Case("Nested steps", null, "Case with nested steps");
+        StepPerformer.setCurrentCase(testCase);
+
+        try (StepScope outer = StepPerformer.start("Click and wait", "Submit")) {
+            try (StepScope inner = StepPerformer.start("Click", "Submit")) {
+                Thread.sleep(20);
+                inner.success();
+            }
+            outer.success();
+        }
+
+        assertEquals(1, testCase.getCaseSteps().size());
+        CaseStep outer = testCase.getCaseSteps().get(0);
+        LOGGER.debug("Step: " + outer);
+        assertEquals("Click and wait: Submit", outer.getTitle());
+        assertEquals(CaseStatus.PASSED, outer.getStatus());
+        assertEquals(1, outer.getChildren().size());
+
+        CaseStep inner = outer.getChildren().get(0);
+        assertTrue(inner.isEnded());
+        assertTrue(inner.getDuration() >= 20);
+        assertTrue(outer.getDurationNanos() >= inner.getDurationNanos());
+        assertNull(StepPerformer.getCurrentStep());
+    }
+
+    /**
+     * Tests if a step that wasn't marked successful ends as broken.
+     */
+    @Test
+    public void shouldBreakUnsuccessfulStep() {
+        CaseStep step;
+        try (StepScope scope = StepPerformer.start("Click")) {
+            step = scope.getStep();
+        }
+        assertEquals(CaseStatus.BROKEN, step.getStatus());
+    }
+
+    /**
+     * Tests if a failed step ends with the status of its failure.
+     */
+    @Test
+    public void shouldFailStep() {
+        CaseStep step;
+        try (StepScope scope = StepPerformer.start("Assert")) {
+            step = scope.getStep();
+            scope.fail(new AssertionError("Expected"));
+        }
+        assertEquals(CaseStatus.FAILED, step.getStatus());
+    }
+
+    /**
+     * Tests if the bots describe an element once and fail their step when the action fails.
+     */
+    @Test
+    public void shouldFailBotStep() {
+        Case testCase = new Case("Failing click", null, "Case with a failing click");
+        StepPerformer.setCurrentCase(testCase);
+        AtomicInteger getTextCalls = new AtomicInteger();
+        WebElement element = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebElement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getText":
+                            getTextCalls.incrementAndGet();
+                            return "Submit";
+                        case "click":
+                            throw new AssertionError("Not clickable");
+                        default:
+                            return "element";
+                    }
+                });
+
+        try {
+            new ActionBot().clickAndWait(element);
+            fail("The click should have failed");
+        } catch (AssertionError e) {
+            assertEquals("Not clickable", e.getMessage());
+        } finally {
+            StepPerformer.setCurrentCase(null);
+        }
+
+        assertEquals(2, getTextCalls.get());
+        CaseStep clickAndWait = testCase.getCaseSteps().get(0);
+        assertEquals("Click and wait: Submit", clickAndWait.getTitle());
+        assertEquals(CaseStatus.FAILED, clickAndWait.getStatus());
+        assertEquals("Click: Submit", clickAndWait.getChildren().get(0).getTitle());
+        assertEquals(CaseStatus.FAILED, clickAndWait.getChildren().get(0).getStatus());
+    }
+
+    /**
+     * Tests if actions run in a step mark the step successful or failed according to their outcome.
+     */
+    @Test
+    public void shouldRunSteps() {
+        Case testCase = new Case("Run steps", null, "Case with steps run by the performer");
+        StepPerformer.setCurrentCase(testCase);
+
+        assertEquals("Submit", StepPerformer.call(StepPerformer.start("Read"), () -> "Submit"));
+        StepPerformer.run(StepPerformer.start("Click"), () -> {
+        });
+        try {
+            StepPerformer.run(StepPerformer.start("Assert"), () -> {
+                throw new AssertionError("Expected");
+            });
+            fail("The step should have failed");
+        } catch (AssertionError e) {
+            assertEquals("Expected", e.getMessage());
+        }
+
+        assertEquals(CaseStatus.PASSED, testCase.getCaseSteps().get(0).getStatus());
+        assertEquals(CaseStatus.PASSED, testCase.getCaseSteps().get(1).getStatus());
+        assertEquals(CaseStatus.FAILED, testCase.getCaseSteps().get(2).getStatus());
+        assertNull(StepPerformer.getCurrentStep());
+    }
+
+    /**
+     * Tests if a failing navigation fails its step.
+     */
+    @Test
+    public void shouldFailNavigationStep() {
+        new InitFrameworkCommand().execute();
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                () -> new FakeWebDriver(Paths.get("tests/fixtures/site")) {
+                    @Override
+                    public void get(String url) {
+                        if (url.endsWith("/missing")) throw new AssertionError("Page not found");
+                        super.get(url);
+                    }
+                });
+        Case testCase = new Case("Failing navigation", null, "Case with a failing navigation");
+        StepPerformer.setCurrentCase(testCase);
+        try {
+            Navigator.getInstance().navigateTo("http://thibaulthelsmoortel.be/missing");
+            fail("The navigation should have failed");
+        } catch (AssertionError e) {
+            assertEquals("Page not found", e.getMessage());
+        } finally {
+            NavigatorFactory.destroyNavigator();
+        }
+
+        CaseStep step = testCase.getCaseSteps().get(0);
+        LOGGER.debug("Step: " + step);
+        assertEquals("Navigate to: http://thibaulthelsmoortel.be/missing", step.getTitle());
+        assertEquals(CaseStatus.FAILED, step.getStatus());
+    }
+
+    /**
+     * Tests if the RecordCases rule records a test as the current case, holding its steps and status.
+     *
+     * @throws Throwable thrown when the sample test didn't fail as expected
+     */
+    @Test
+    public void shouldRecordCases() throws Throwable {
+        RecordCases rule = new RecordCases();
+        Statement test = new Statement() {
+            @Override
+            public void evaluate() {
+                assertNotNull(StepPerformer.getCurrentCase());
+                try (StepScope scope = StepPerformer.start("Assert")) {
+                    scope.fail(new AssertionError("Expected"));
+                }
+                throw new AssertionError("Expected");
+            }
+        };
+        try {
+            rule.apply(test, Description.createTestDescription(StepPerformerTestCase.class, "sample")).evaluate();
+            fail("The sample test should have failed");
+        } catch (AssertionError e) {
+            assertEquals("Expected", e.getMessage());
+        }
+
+        Case recorded = rule.getLastCase();
+        assertNull(StepPerformer.getCurrentCase());
+        assertEquals(CaseStatus.FAILED, recorded.getStatus());
+        assertEquals(1, recorded.getCaseSteps().size());
+        assertTrue(recorded.getErrorTrace().contains("Expected"));
+        recorded.setStatus(CaseStatus.PENDING);
+    }
+
+    /**
+     * Tests if tracked actions are attributed to all running steps.
+     */
+    @Test
+    public void shouldAttributeStats() {
+        CaseStep outer;
+        CaseStep inner;
+        try (StepScope outerScope = StepPerformer.start("Fill form")) {
+            outer = outerScope.getStep();
+            try (StepScope innerScope = StepPerformer.start("Send keys")) {
+                inner = innerScope.getStep();
+                StatsTracker.getInstance().track(StatsAction.KEYBOARD_TYPE);
+                innerScope.success();
+            }
+            StatsTracker.getInstance().track(StatsAction.MOUSE_LMB_CLICK);
+            outerScope.success();
+        }
+
+        assertEquals(Integer.valueOf(1), inner.getStats().get(StatsAction.KEYBOARD_TYPE));
+        assertNull(inner.getStats().get(StatsAction.MOUSE_LMB_CLICK));
+        assertEquals(Integer.valueOf(1), outer.getStats().get(StatsAction.KEYBOARD_TYPE));
+        assertEquals(Integer.valueOf(1), outer.getStats().get(StatsAction.MOUSE_LMB_CLICK));
+    }
+
+    /**
+     * Stops adding steps to a case.
+     */
+    @After
+    public void tearDown() {
+        StepPerformer.setCurrentCase(null);
+    }
+}
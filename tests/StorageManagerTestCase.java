@@ -0,0 +1,124 @@
+import navigation.Navigator;
+import navigation.NavigatorFactory;
+import navigation.fake.FakeWebDriver;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import ru.yandex.qatools.allure.annotations.Features;
+import session.BrowserState;
+import session.StorageManager;
+import session.StorageType;
+import stats.DriverCommandAccounting;
+import sut.Environment;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the StorageManager.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Session")
+public class StorageManagerTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(StorageManagerTestCase.class);
+
+    /**
+     * Creates an instrumented navigator on the fake driver.
+     */
+    @Before
+    public void setUp() {
+        NavigatorFactory.setInstrumentationEnabled(true);
+        NavigatorFactory.createNavigator(new Environment("Website", "http://thibaulthelsmoortel.be"),
+                new FakeWebDriver(Paths.get("tests/fixtures/site")));
+    }
+
+    /**
+     * Destroys the navigator.
+     */
+    @After
+    public void tearDown() {
+        NavigatorFactory.destroyNavigator();
+        NavigatorFactory.setInstrumentationEnabled(false);
+    }
+
+    private static Map<String, String> items(String... keysAndValues) {
+        Map<String, String> items = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) items.put(keysAndValues[i], keysAndValues[i + 1]);
+        return items;
+    }
+
+    /**
+     * Restores the web storage in a single round trip and verifies the amount of changed items.
+     *
+     * @param state           the items to restore per storage
+     * @param expectedChanges the expected amount of changed items
+     */
+    private static void assertRestored(Map<StorageType, Map<String, String>> state, int expectedChanges) {
+        long roundTrips = DriverCommandAccounting.getRoundTrips();
+        assertEquals(expectedChanges, StorageManager.restoreItems(Navigator.getInstance().getDriver(), state));
+        assertEquals(1, DriverCommandAccounting.getRoundTrips() - roundTrips);
+    }
+
+    /**
+     * Tests if all items are written and read in a single round trip.
+     */
+    @Test
+    public void shouldSetAndGetItemsInBulk() {
+        long roundTrips = DriverCommandAccounting.getRoundTrips();
+        StorageManager.setItems(StorageType.LOCAL, items("theme", "dark", "lang", "en", "user", "john"));
+        assertEquals(items("theme", "dark", "lang", "en", "user", "john"), StorageManager.getItems(StorageType.LOCAL));
+        assertEquals(2, DriverCommandAccounting.getRoundTrips() - roundTrips);
+
+        assertEquals("en", StorageManager.getItem(StorageType.LOCAL, "lang"));
+        assertTrue(StorageManager.getItems(StorageType.SESSION).isEmpty());
+        StorageManager.clear(StorageType.LOCAL);
+        assertTrue(StorageManager.getItems(StorageType.LOCAL).isEmpty());
+    }
+
+    /**
+     * Tests if restoring only changes the items that differ.
+     */
+    @Test
+    public void shouldOnlyRestoreDifferingItems() {
+        StorageManager.setItems(StorageType.LOCAL, items("theme", "dark", "lang", "en"));
+        StorageManager.setItems(StorageType.SESSION, items("cart", "3"));
+
+        Map<StorageType, Map<String, String>> state = new EnumMap<>(StorageType.class);
+        state.put(StorageType.LOCAL, items("theme", "dark", "lang", "en"));
+        state.put(StorageType.SESSION, items("cart", "3"));
+        assertRestored(state, 0);
+
+        state.put(StorageType.LOCAL, items("theme", "light", "font", "large"));
+        state.put(StorageType.SESSION, Collections.emptyMap());
+        //theme changed, font added, lang and cart removed
+        assertRestored(state, 4);
+        assertEquals(items("theme", "light", "font", "large"), StorageManager.getItems(StorageType.LOCAL));
+        assertTrue(StorageManager.getItems(StorageType.SESSION).isEmpty());
+    }
+
+    /**
+     * Tests if the state of the page is read in a single round trip.
+     */
+    @Test
+    public void shouldGetState() {
+        StorageManager.setItems(StorageType.SESSION, items("cart", "3"));
+        ((JavascriptExecutor) Navigator.getInstance().getDriver()).executeScript("window.scrollTo(arguments[0], arguments[1]);", 0, 250);
+
+        long roundTrips = DriverCommandAccounting.getRoundTrips();
+        BrowserState state = StorageManager.getState();
+        assertEquals(1, DriverCommandAccounting.getRoundTrips() - roundTrips);
+        assertEquals(items("cart", "3"), state.getSessionStorage());
+        assertTrue(state.getLocalStorage().isEmpty());
+        assertEquals(250, state.getScrollY());
+        assertEquals(1, state.getHistoryLength());
+    }
+}
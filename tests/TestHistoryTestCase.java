@@ -0,0 +1,185 @@
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import parallel.ParallelRunner;
+import parallel.TestHistory;
+import parallel.TestRecord;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the history of tests and the order it schedules tests in.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Parallel")
+public class TestHistoryTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(TestHistoryTestCase.class);
+
+    //The order the sample tests ran in
+    private static final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Restores the default history and amount of sessions.
+     */
+    @After
+    public void tearDown() {
+        System.clearProperty("bromine.history");
+        System.clearProperty("bromine.parallel.sessions");
+    }
+
+    /**
+     * Tests if the runs of a test are folded into a single record, which is loaded again from the file.
+     *
+     * @throws IOException thrown when the history couldn't be copied
+     */
+    @Test
+    public void shouldRecordRuns() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("history.tsv");
+        TestHistory history = TestHistory.getInstance(file);
+        Description test = Description.createTestDescription(TestHistoryTestCase.class, "sample");
+        assertNull(history.getRecord(test));
+
+        history.record(test, 1000, false);
+        history.record(test, 2000, true);
+        TestRecord record = history.getRecord(test);
+        assertEquals("Parallel", record.getFeature());
+        assertEquals("TestHistoryTestCase#sample", record.getTestId());
+        assertEquals(2, record.getRuns());
+        assertEquals(1300, record.getDuration());
+        assertTrue(record.isRecentlyFailed());
+
+        for (int i = 0; i < 3; i++) history.record(test, 1300, false);
+        assertFalse(history.getRecord(test).isRecentlyFailed());
+        assertEquals(3, history.getRecord(test).getRunsSinceFailure());
+
+        //Histories are cached per file, a copy gets loaded from scratch
+        Path copy = temporaryFolder.getRoot().toPath().resolve("copy.tsv");
+        Files.copy(file, copy);
+        TestRecord loaded = TestHistory.getInstance(copy).getRecord(test);
+        assertEquals(5, loaded.getRuns());
+        assertEquals(1300, loaded.getDuration());
+        assertEquals(3, loaded.getRunsSinceFailure());
+    }
+
+    /**
+     * Tests if the history file is compacted into a line per test once it grows.
+     *
+     * @throws IOException thrown when the history file couldn't be read
+     */
+    @Test
+    public void shouldCompact() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("history.tsv");
+        TestHistory history = TestHistory.getInstance(file);
+        Description first = Description.createTestDescription(TestHistoryTestCase.class, "first");
+        Description second = Description.createTestDescription(TestHistoryTestCase.class, "second");
+        for (int i = 0; i < 1000; i++) {
+            history.record(first, 100, false);
+            history.record(second, 200, i == 999);
+        }
+        int lines = Files.readAllLines(file).size();
+        LOGGER.debug("History holds " + lines + " lines after 2000 runs");
+        assertTrue(lines <= 2 * 2 + 100);
+
+        history.compact();
+        assertEquals(2, Files.readAllLines(file).size());
+        assertEquals(1000, history.getRecord(first).getRuns());
+        assertEquals(100, history.getRecord(first).getDuration());
+        assertTrue(history.getRecord(second).isRecentlyFailed());
+    }
+
+    /**
+     * Tests if tests are ordered recently failed first, then longest first, and if tests that never ran are
+     * estimated to take the average duration.
+     */
+    @Test
+    public void shouldOrderLongestFirst() {
+        TestHistory history = TestHistory.getInstance(temporaryFolder.getRoot().toPath().resolve("history.tsv"));
+        Description shortTest = Description.createTestDescription(TestHistoryTestCase.class, "short");
+        Description longTest = Description.createTestDescription(TestHistoryTestCase.class, "long");
+        Description failedTest = Description.createTestDescription(TestHistoryTestCase.class, "failed");
+        Description newTest = Description.createTestDescription(TestHistoryTestCase.class, "new");
+        history.record(shortTest, 100, false);
+        history.record(longTest, 5000, false);
+        history.record(failedTest, 10, true);
+
+        List<Description> tests = new ArrayList<>(Arrays.asList(shortTest, newTest, failedTest, longTest));
+        tests.sort(history.getComparator());
+        assertEquals(Arrays.asList(failedTest, longTest, newTest, shortTest), tests);
+
+        //Classes are ordered by the total duration of their tests
+        Description small = Description.createSuiteDescription("small");
+        small.addChild(longTest);
+        Description large = Description.createSuiteDescription("large");
+        large.addChild(longTest.childlessCopy());
+        large.addChild(shortTest);
+        List<Description> classes = new ArrayList<>(Arrays.asList(small, large));
+        classes.sort(history.getComparator());
+        assertEquals(Arrays.asList(large, small), classes);
+    }
+
+    /**
+     * Tests if the runner schedules the tests in the order of the history, and records them.
+     */
+    @Test
+    public void shouldScheduleByHistory() {
+        Path file = temporaryFolder.getRoot().toPath().resolve("scheduled.tsv");
+        System.setProperty("bromine.history", file.toString());
+        System.setProperty("bromine.parallel.sessions", "1");
+        TestHistory history = TestHistory.getInstance();
+        history.record(Description.createTestDescription(SampleTests.class, "first"), 10, false);
+        history.record(Description.createTestDescription(SampleTests.class, "second"), 20, true);
+        history.record(Description.createTestDescription(SampleTests.class, "third"), 3000, false);
+
+        order.clear();
+        Result result = JUnitCore.runClasses(SampleTests.class);
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        //A single session runs the tests in the scheduled order, the new test is estimated at the average
+        assertEquals(Arrays.asList("second", "third", "fourth", "first"), order);
+        assertEquals(1, history.getRecord(Description.createTestDescription(SampleTests.class, "fourth")).getRuns());
+        assertEquals(1, history.getRecord(Description.createTestDescription(SampleTests.class, "second")).getRunsSinceFailure());
+    }
+
+    /**
+     * Sample tests, run by the tests above.
+     */
+    @RunWith(ParallelRunner.class)
+    public static class SampleTests {
+
+        @Test
+        public void first() {
+            order.add("first");
+        }
+
+        @Test
+        public void second() {
+            order.add("second");
+        }
+
+        @Test
+        public void third() {
+            order.add("third");
+        }
+
+        @Test
+        public void fourth() {
+            order.add("fourth");
+        }
+    }
+}
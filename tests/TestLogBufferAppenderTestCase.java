@@ -0,0 +1,114 @@
+import commands.CaptureLogsCommand;
+import logging.TestLogBufferAppender;
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.yandex.qatools.allure.annotations.Features;
+import util.LogUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the TestLogBufferAppender.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Logs")
+public class TestLogBufferAppenderTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(TestLogBufferAppenderTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Tests if the appender is picked up from the configuration.
+     */
+    @Test
+    public void shouldBeActive() {
+        assertTrue(TestLogBufferAppender.isActive());
+    }
+
+    /**
+     * Tests if only the log output of the current thread is captured.
+     *
+     * @throws InterruptedException thrown when the logging thread got interrupted
+     */
+    @Test
+    public void shouldCaptureCurrentThreadOnly() throws InterruptedException {
+        LogUtil.debugLog();
+        LOGGER.debug("Before capturing");
+        TestLogBufferAppender.startCapture();
+        LOGGER.debug("Captured line");
+
+        Thread other = new Thread(() -> {
+            TestLogBufferAppender.startCapture();
+            LOGGER.debug("Line of another test");
+            TestLogBufferAppender.stopCapture();
+        });
+        other.start();
+        other.join();
+
+        String captured = new String(TestLogBufferAppender.getCapturedLogs(), StandardCharsets.UTF_8);
+        assertTrue(captured.contains("Captured line"));
+        assertFalse(captured.contains("Before capturing"));
+        assertFalse(captured.contains("Line of another test"));
+    }
+
+    /**
+     * Tests if threads with the same name are captured apart and their buffers are cleared when they stop.
+     *
+     * @throws InterruptedException thrown when the logging thread got interrupted
+     */
+    @Test
+    public void shouldCaptureThreadsOfTheSameNameApart() throws InterruptedException {
+        LogUtil.debugLog();
+        TestLogBufferAppender.startCapture();
+        LOGGER.debug("Captured line");
+
+        Thread other = new Thread(() -> {
+            TestLogBufferAppender.startCapture();
+            LOGGER.debug("Line of another test");
+            TestLogBufferAppender.stopCapture();
+            assertFalse(TestLogBufferAppender.isCapturing());
+        }, Thread.currentThread().getName());
+        other.start();
+        other.join();
+
+        assertTrue(TestLogBufferAppender.isCapturing());
+        String captured = new String(TestLogBufferAppender.getCapturedLogs(), StandardCharsets.UTF_8);
+        assertTrue(captured.contains("Captured line"));
+        assertFalse(captured.contains("Line of another test"));
+    }
+
+    /**
+     * Tests if the captured logs are written when capturing logs.
+     *
+     * @throws IOException thrown when the captured logs couldn't be read
+     */
+    @Test
+    public void shouldCaptureBufferedLogs() throws IOException {
+        LogUtil.debugLog();
+        TestLogBufferAppender.startCapture();
+        LOGGER.debug("Buffered line");
+
+        File logs = (File) new CaptureLogsCommand(temporaryFolder.getRoot().getPath() + File.separator, "testBuffer").execute();
+        String captured = FileUtils.readFileToString(logs, StandardCharsets.UTF_8);
+        assertTrue(captured.contains("Buffered line"));
+    }
+
+    /**
+     * Stops capturing.
+     */
+    @After
+    public void tearDown() {
+        TestLogBufferAppender.stopCapture();
+    }
+}
@@ -0,0 +1,114 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reporting.StepPerformer;
+import reporting.StepScope;
+import reporting.trace.TraceRecorder;
+import reporting.trace.TraceSpan;
+import ru.yandex.qatools.allure.annotations.Features;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class testing the TraceRecorder.
+ *
+ * @author Thibault Helsmoortel
+ */
+@Features("Reporting")
+public class TraceRecorderTestCase {
+
+    private static final Logger LOGGER = Logger.getLogger(TraceRecorderTestCase.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Tests if spans and steps are written as complete events on the track of their thread.
+     *
+     * @throws Exception thrown when the trace couldn't be written or read
+     */
+    @Test
+    public void shouldWriteTraceEvents() throws Exception {
+        File traceFile = temporaryFolder.newFile("trace.json");
+        TraceRecorder.getInstance().start(traceFile);
+
+        try (TraceSpan ignored = TraceRecorder.getInstance().begin("Test \"quoted\"", "test")) {
+            try (StepScope step = StepPerformer.startAction("Click", "Submit")) {
+                step.success();
+            }
+        }
+        Thread other = new Thread(() -> {
+            try (TraceSpan ignored = TraceRecorder.getInstance().begin("Other test", "test")) {
+                LOGGER.debug("Running other test");
+            }
+        }, "other-session");
+        other.start();
+        other.join();
+        TraceRecorder.getInstance().stop();
+
+        JsonArray events = new JsonParser().parse(new String(Files.readAllBytes(traceFile.toPath()), StandardCharsets.UTF_8)).getAsJsonArray();
+        Map<String, JsonObject> durations = new HashMap<>();
+        Set<String> tracks = new HashSet<>();
+        for (JsonElement element : events) {
+            JsonObject event = element.getAsJsonObject();
+            if (event.get("ph").getAsString().equals("M")) tracks.add(event.getAsJsonObject("args").get("name").getAsString());
+            else durations.put(event.get("name").getAsString(), event);
+        }
+
+        assertTrue(tracks.contains("other-session"));
+        assertTrue(tracks.contains(Thread.currentThread().getName()));
+        JsonObject test = durations.get("Test \"quoted\"");
+        JsonObject click = durations.get("Click: Submit");
+        assertNotNull(test);
+        assertNotNull(click);
+        assertEquals("action", click.get("cat").getAsString());
+        assertEquals(test.get("tid").getAsInt(), click.get("tid").getAsInt());
+        assertNotEquals(test.get("tid").getAsInt(), durations.get("Other test").get("tid").getAsInt());
+        //The step is nested in the test
+        assertTrue(click.get("ts").getAsLong() >= test.get("ts").getAsLong());
+        assertTrue(click.get("ts").getAsLong() + click.get("dur").getAsLong()
+                <= test.get("ts").getAsLong() + test.get("dur").getAsLong());
+    }
+
+    /**
+     * Tests if nothing is recorded when not recording.
+     *
+     * @throws IOException thrown when the trace couldn't be read
+     */
+    @Test
+    public void shouldNotRecordWhenStopped() throws IOException {
+        File traceFile = temporaryFolder.newFile("trace.json");
+        TraceRecorder.getInstance().start(traceFile);
+        TraceRecorder.getInstance().stop();
+        assertFalse(TraceRecorder.getInstance().isRecording());
+
+        try (TraceSpan ignored = TraceRecorder.getInstance().begin("Untraced", "test")) {
+            LOGGER.debug("Running untraced test");
+        }
+        String trace = new String(Files.readAllBytes(traceFile.toPath()), StandardCharsets.UTF_8);
+        assertFalse(trace.contains("Untraced"));
+    }
+
+    /**
+     * Stops recording.
+     */
+    @After
+    public void tearDown() {
+        TraceRecorder.getInstance().stop();
+    }
+}